@@ -0,0 +1,136 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner.benchmark.jmh;
+
+import com.google.api.core.ApiFuture;
+import com.google.cloud.spanner.AsyncResultSet;
+import com.google.cloud.spanner.AsyncResultSet.CallbackResponse;
+import com.google.cloud.spanner.DatabaseClient;
+import com.google.cloud.spanner.Options;
+import com.google.cloud.spanner.Spanner;
+import com.google.cloud.spanner.Statement;
+import com.google.spanner.v1.TypeCode;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the consumption of query results through an {@link AsyncResultSet}, both with a
+ * callback that calls {@link AsyncResultSet#tryNext()} and with {@link
+ * AsyncResultSet#toListAsync}. The query returns {@value #NUM_ROWS} rows, and the result is
+ * reported as the average time per row.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(value = 1, warmups = 0)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AsyncResultSetBenchmark {
+  private static final int NUM_ROWS = 10_000;
+  private static final int NUM_COLUMNS = 5;
+  private static final Statement QUERY = Statement.of("SELECT * FROM ASYNC_TABLE");
+
+  @State(Scope.Benchmark)
+  public static class BenchmarkState {
+    @Param({"10", "1000"})
+    int bufferRows;
+
+    private MockSpannerServer server;
+    private Spanner spanner;
+    private DatabaseClient client;
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+      server = new MockSpannerServer();
+      server.start();
+      server.putQueryResult(
+          QUERY.getSql(), MockSpannerServer.createResultSet(TypeCode.INT64, NUM_ROWS, NUM_COLUMNS));
+      spanner = server.createSpannerOptionsBuilder().build().getService();
+      client = spanner.getDatabaseClient(server.getDatabaseId());
+      executor = Executors.newSingleThreadExecutor();
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() throws Exception {
+      executor.shutdown();
+      spanner.close();
+      server.stop();
+    }
+  }
+
+  /** Measures the average time per row when the rows are consumed with a callback. */
+  @Benchmark
+  @OperationsPerInvocation(NUM_ROWS)
+  public long callback(final BenchmarkState state) throws Exception {
+    AtomicLong sum = new AtomicLong();
+    try (AsyncResultSet resultSet =
+        state
+            .client
+            .singleUse()
+            .executeQueryAsync(QUERY, Options.bufferRows(state.bufferRows))) {
+      ApiFuture<Void> finished =
+          resultSet.setCallback(
+              state.executor,
+              cursor -> {
+                while (true) {
+                  switch (cursor.tryNext()) {
+                    case OK:
+                      sum.addAndGet(cursor.getLong(0));
+                      break;
+                    case NOT_READY:
+                      return CallbackResponse.CONTINUE;
+                    case DONE:
+                    default:
+                      return CallbackResponse.DONE;
+                  }
+                }
+              });
+      finished.get();
+    }
+    return sum.get();
+  }
+
+  /** Measures the average time per row when the rows are transformed to a list. */
+  @Benchmark
+  @OperationsPerInvocation(NUM_ROWS)
+  public List<Long> toListAsync(final BenchmarkState state) throws Exception {
+    try (AsyncResultSet resultSet =
+        state
+            .client
+            .singleUse()
+            .executeQueryAsync(QUERY, Options.bufferRows(state.bufferRows))) {
+      return resultSet.toListAsync(row -> row.getLong(0), state.executor).get();
+    }
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner.benchmark.jmh;
+
+import com.google.cloud.NoCredentials;
+import com.google.cloud.spanner.ResultSet;
+import com.google.cloud.spanner.Statement;
+import com.google.cloud.spanner.connection.Connection;
+import com.google.cloud.spanner.connection.ConnectionOptions;
+import com.google.spanner.v1.TypeCode;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the overhead of executing statements through the Connection API, which is also used
+ * by the JDBC driver. {@link #showVariable(BenchmarkState)} executes a client-side statement that
+ * does not need a round-trip to Spanner and therefore only measures the overhead of the Connection
+ * API itself. The other benchmarks execute statements on the mock server.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(value = 1, warmups = 0)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConnectionApiBenchmark {
+  private static final Statement SELECT1 = Statement.of("SELECT 1");
+  private static final Statement UPDATE = Statement.of("UPDATE FOO SET BAR=1 WHERE ID=1");
+  private static final Statement SHOW_AUTOCOMMIT = Statement.of("SHOW VARIABLE AUTOCOMMIT");
+
+  @State(Scope.Benchmark)
+  public static class BenchmarkState {
+    private MockSpannerServer server;
+    private Connection connection;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+      server = new MockSpannerServer();
+      server.start();
+      server.putQueryResult(
+          SELECT1.getSql(), MockSpannerServer.createResultSet(TypeCode.INT64, 1, 1));
+      server.putUpdateCount(UPDATE.getSql(), 1L);
+      connection =
+          ConnectionOptions.newBuilder()
+              .setUri(server.getConnectionUri())
+              .setCredentials(NoCredentials.getInstance())
+              .build()
+              .getConnection();
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() throws Exception {
+      connection.close();
+      ConnectionOptions.closeSpanner();
+      server.stop();
+    }
+  }
+
+  private static long consume(ResultSet resultSet) {
+    long sum = 0L;
+    try (ResultSet closeable = resultSet) {
+      while (closeable.next()) {
+        sum += closeable.getColumnCount();
+      }
+    }
+    return sum;
+  }
+
+  /** Measures a client-side statement that is handled entirely by the Connection API. */
+  @Benchmark
+  public long showVariable(final BenchmarkState state) {
+    return consume(state.connection.executeQuery(SHOW_AUTOCOMMIT));
+  }
+
+  /** Measures a query in autocommit mode. */
+  @Benchmark
+  public long autocommitQuery(final BenchmarkState state) {
+    state.connection.setAutocommit(true);
+    return consume(state.connection.executeQuery(SELECT1));
+  }
+
+  /** Measures a DML statement in autocommit mode. */
+  @Benchmark
+  public long autocommitUpdate(final BenchmarkState state) {
+    state.connection.setAutocommit(true);
+    return state.connection.executeUpdate(UPDATE);
+  }
+
+  /** Measures a read/write transaction with one query and one DML statement. */
+  @Benchmark
+  public long readWriteTransaction(final BenchmarkState state) {
+    state.connection.setAutocommit(false);
+    long result = consume(state.connection.executeQuery(SELECT1));
+    result += state.connection.executeUpdate(UPDATE);
+    state.connection.commit();
+    return result;
+  }
+}
@@ -0,0 +1,346 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner.benchmark.jmh;
+
+import com.google.cloud.NoCredentials;
+import com.google.cloud.spanner.DatabaseId;
+import com.google.cloud.spanner.SpannerOptions;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.Empty;
+import com.google.protobuf.ListValue;
+import com.google.protobuf.Timestamp;
+import com.google.protobuf.Value;
+import com.google.spanner.v1.BatchCreateSessionsRequest;
+import com.google.spanner.v1.BatchCreateSessionsResponse;
+import com.google.spanner.v1.BeginTransactionRequest;
+import com.google.spanner.v1.CommitRequest;
+import com.google.spanner.v1.CommitResponse;
+import com.google.spanner.v1.CreateSessionRequest;
+import com.google.spanner.v1.DeleteSessionRequest;
+import com.google.spanner.v1.ExecuteBatchDmlRequest;
+import com.google.spanner.v1.ExecuteBatchDmlResponse;
+import com.google.spanner.v1.ExecuteSqlRequest;
+import com.google.spanner.v1.GetSessionRequest;
+import com.google.spanner.v1.PartialResultSet;
+import com.google.spanner.v1.ResultSet;
+import com.google.spanner.v1.ResultSetMetadata;
+import com.google.spanner.v1.ResultSetStats;
+import com.google.spanner.v1.RollbackRequest;
+import com.google.spanner.v1.Session;
+import com.google.spanner.v1.SpannerGrpc.SpannerImplBase;
+import com.google.spanner.v1.StructType;
+import com.google.spanner.v1.StructType.Field;
+import com.google.spanner.v1.Transaction;
+import com.google.spanner.v1.TransactionSelector;
+import com.google.spanner.v1.Type;
+import com.google.spanner.v1.TypeCode;
+import io.grpc.ManagedChannelBuilder;
+import io.grpc.Server;
+import io.grpc.ServerBuilder;
+import io.grpc.Status;
+import io.grpc.stub.StreamObserver;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Minimal Spanner gRPC service that runs in the same JVM as the benchmarks. The server returns
+ * pre-built results for registered statements without any simulated latency, so the benchmarks
+ * that use it measure the CPU time that is spent in the client and in gRPC, and not in Spanner.
+ * The server does not validate sessions or transactions.
+ */
+class MockSpannerServer extends SpannerImplBase {
+  static final String PROJECT = "my-project";
+  static final String INSTANCE = "my-instance";
+  static final String DATABASE = "my-database";
+
+  /** The maximum number of values in one {@link PartialResultSet}. */
+  private static final int MAX_VALUES_PER_PARTIAL_RESULT_SET = 1000;
+
+  private final Map<String, ResultSet> results = new ConcurrentHashMap<>();
+  private final AtomicLong sessionCounter = new AtomicLong();
+  private final AtomicLong transactionCounter = new AtomicLong();
+  private Server server;
+
+  /** Starts the server on a random port on the loopback address and returns the port. */
+  int start() throws IOException {
+    server = ServerBuilder.forPort(0).addService(this).build().start();
+    return server.getPort();
+  }
+
+  void stop() throws InterruptedException {
+    server.shutdown();
+    server.awaitTermination(10L, TimeUnit.SECONDS);
+  }
+
+  DatabaseId getDatabaseId() {
+    return DatabaseId.of(PROJECT, INSTANCE, DATABASE);
+  }
+
+  /** Returns a builder for {@link SpannerOptions} that connect to this server. */
+  SpannerOptions.Builder createSpannerOptionsBuilder() {
+    return SpannerOptions.newBuilder()
+        .setProjectId(PROJECT)
+        .setHost("http://localhost:" + server.getPort())
+        .setChannelConfigurator(ManagedChannelBuilder::usePlaintext)
+        .setCredentials(NoCredentials.getInstance());
+  }
+
+  /** Returns a connection URI for the Connection API that connects to this server. */
+  String getConnectionUri() {
+    return String.format(
+        "cloudspanner://localhost:%d/projects/%s/instances/%s/databases/%s?usePlainText=true",
+        server.getPort(), PROJECT, INSTANCE, DATABASE);
+  }
+
+  void putQueryResult(String sql, ResultSet resultSet) {
+    results.put(sql, resultSet);
+  }
+
+  void putUpdateCount(String sql, long updateCount) {
+    results.put(
+        sql,
+        ResultSet.newBuilder()
+            .setMetadata(ResultSetMetadata.newBuilder().setRowType(StructType.getDefaultInstance()))
+            .setStats(ResultSetStats.newBuilder().setRowCountExact(updateCount))
+            .build());
+  }
+
+  /**
+   * Creates a result set with the given number of rows and columns, where all columns have the
+   * given type. The values are generated deterministically, so all runs use the same data.
+   */
+  static ResultSet createResultSet(TypeCode typeCode, int numRows, int numColumns) {
+    StructType.Builder rowType = StructType.newBuilder();
+    for (int col = 0; col < numColumns; col++) {
+      rowType.addFields(
+          Field.newBuilder().setName("COL" + col).setType(Type.newBuilder().setCode(typeCode)));
+    }
+    ResultSet.Builder builder =
+        ResultSet.newBuilder().setMetadata(ResultSetMetadata.newBuilder().setRowType(rowType));
+    for (int row = 0; row < numRows; row++) {
+      ListValue.Builder values = ListValue.newBuilder();
+      for (int col = 0; col < numColumns; col++) {
+        values.addValues(createValue(typeCode, row * numColumns + col));
+      }
+      builder.addRows(values);
+    }
+    return builder.build();
+  }
+
+  private static Value createValue(TypeCode typeCode, int seed) {
+    switch (typeCode) {
+      case BOOL:
+        return Value.newBuilder().setBoolValue(seed % 2 == 0).build();
+      case INT64:
+        return Value.newBuilder().setStringValue(String.valueOf(seed * 7919L)).build();
+      case FLOAT64:
+        return Value.newBuilder().setNumberValue(seed * 1.25d).build();
+      case STRING:
+        return Value.newBuilder().setStringValue("value-" + seed + "-abcdefghijklmnopqrst").build();
+      case BYTES:
+        byte[] bytes = ("bytes-" + seed + "-abcdefghij").getBytes(StandardCharsets.UTF_8);
+        return Value.newBuilder().setStringValue(Base64.getEncoder().encodeToString(bytes)).build();
+      case TIMESTAMP:
+        return Value.newBuilder()
+            .setStringValue(
+                com.google.cloud.Timestamp.ofTimeSecondsAndNanos(
+                        1_700_000_000L + seed, (seed % 1000) * 1000)
+                    .toString())
+            .build();
+      case DATE:
+        return Value.newBuilder()
+            .setStringValue(
+                String.format("20%02d-%02d-%02d", seed % 100, seed % 12 + 1, seed % 28 + 1))
+            .build();
+      case NUMERIC:
+        return Value.newBuilder().setStringValue(seed + ".123456789").build();
+      case JSON:
+        return Value.newBuilder()
+            .setStringValue("{\"id\":" + seed + ",\"name\":\"value-" + seed + "\"}")
+            .build();
+      default:
+        throw new IllegalArgumentException("Unsupported type: " + typeCode);
+    }
+  }
+
+  private ResultSet getResult(String sql) {
+    ResultSet result = results.get(sql);
+    if (result == null) {
+      throw Status.INVALID_ARGUMENT
+          .withDescription("There is no result registered for the statement: " + sql)
+          .asRuntimeException();
+    }
+    return result;
+  }
+
+  private Session createSession(String database, boolean multiplexed) {
+    return Session.newBuilder()
+        .setName(database + "/sessions/" + sessionCounter.incrementAndGet())
+        .setMultiplexed(multiplexed)
+        .setCreateTime(now())
+        .build();
+  }
+
+  private Transaction createTransaction() {
+    return Transaction.newBuilder()
+        .setId(ByteString.copyFromUtf8("tx-" + transactionCounter.incrementAndGet()))
+        .setReadTimestamp(now())
+        .build();
+  }
+
+  private static Timestamp now() {
+    long millis = System.currentTimeMillis();
+    return Timestamp.newBuilder()
+        .setSeconds(millis / 1000L)
+        .setNanos((int) (millis % 1000L) * 1_000_000)
+        .build();
+  }
+
+  /** Adds a new transaction to the metadata if the request contains an inlined BeginTransaction. */
+  private ResultSetMetadata createMetadata(ResultSet result, TransactionSelector selector) {
+    if (selector.hasBegin()) {
+      return result.getMetadata().toBuilder().setTransaction(createTransaction()).build();
+    }
+    return result.getMetadata();
+  }
+
+  @Override
+  public void batchCreateSessions(
+      BatchCreateSessionsRequest request,
+      StreamObserver<BatchCreateSessionsResponse> responseObserver) {
+    BatchCreateSessionsResponse.Builder response = BatchCreateSessionsResponse.newBuilder();
+    for (int i = 0; i < request.getSessionCount(); i++) {
+      response.addSession(createSession(request.getDatabase(), false));
+    }
+    responseObserver.onNext(response.build());
+    responseObserver.onCompleted();
+  }
+
+  @Override
+  public void createSession(
+      CreateSessionRequest request, StreamObserver<Session> responseObserver) {
+    responseObserver.onNext(
+        createSession(request.getDatabase(), request.getSession().getMultiplexed()));
+    responseObserver.onCompleted();
+  }
+
+  @Override
+  public void getSession(GetSessionRequest request, StreamObserver<Session> responseObserver) {
+    responseObserver.onNext(Session.newBuilder().setName(request.getName()).build());
+    responseObserver.onCompleted();
+  }
+
+  @Override
+  public void deleteSession(DeleteSessionRequest request, StreamObserver<Empty> responseObserver) {
+    responseObserver.onNext(Empty.getDefaultInstance());
+    responseObserver.onCompleted();
+  }
+
+  @Override
+  public void executeSql(ExecuteSqlRequest request, StreamObserver<ResultSet> responseObserver) {
+    try {
+      ResultSet result = getResult(request.getSql());
+      responseObserver.onNext(
+          result.toBuilder()
+              .setMetadata(createMetadata(result, request.getTransaction()))
+              .build());
+      responseObserver.onCompleted();
+    } catch (Throwable t) {
+      responseObserver.onError(t);
+    }
+  }
+
+  @Override
+  public void executeStreamingSql(
+      ExecuteSqlRequest request, StreamObserver<PartialResultSet> responseObserver) {
+    try {
+      ResultSet result = getResult(request.getSql());
+      ResultSetMetadata metadata = createMetadata(result, request.getTransaction());
+      int numColumns = metadata.getRowType().getFieldsCount();
+      int rowsPerPartialResultSet =
+          Math.max(1, MAX_VALUES_PER_PARTIAL_RESULT_SET / Math.max(1, numColumns));
+      int row = 0;
+      boolean first = true;
+      do {
+        PartialResultSet.Builder partial = PartialResultSet.newBuilder();
+        if (first) {
+          partial.setMetadata(metadata);
+          first = false;
+        }
+        int end = Math.min(result.getRowsCount(), row + rowsPerPartialResultSet);
+        for (; row < end; row++) {
+          partial.addAllValues(result.getRows(row).getValuesList());
+        }
+        if (row == result.getRowsCount() && result.hasStats()) {
+          partial.setStats(result.getStats());
+        }
+        partial.setResumeToken(ByteString.copyFromUtf8(String.valueOf(row)));
+        responseObserver.onNext(partial.build());
+      } while (row < result.getRowsCount());
+      responseObserver.onCompleted();
+    } catch (Throwable t) {
+      responseObserver.onError(t);
+    }
+  }
+
+  @Override
+  public void executeBatchDml(
+      ExecuteBatchDmlRequest request, StreamObserver<ExecuteBatchDmlResponse> responseObserver) {
+    try {
+      ExecuteBatchDmlResponse.Builder response = ExecuteBatchDmlResponse.newBuilder();
+      boolean first = true;
+      for (ExecuteBatchDmlRequest.Statement statement : request.getStatementsList()) {
+        ResultSet result = getResult(statement.getSql());
+        ResultSet.Builder resultSet = ResultSet.newBuilder().setStats(result.getStats());
+        if (first) {
+          resultSet.setMetadata(createMetadata(result, request.getTransaction()));
+          first = false;
+        }
+        response.addResultSets(resultSet);
+      }
+      response.setStatus(com.google.rpc.Status.newBuilder().setCode(Status.Code.OK.value()));
+      responseObserver.onNext(response.build());
+      responseObserver.onCompleted();
+    } catch (Throwable t) {
+      responseObserver.onError(t);
+    }
+  }
+
+  @Override
+  public void beginTransaction(
+      BeginTransactionRequest request, StreamObserver<Transaction> responseObserver) {
+    responseObserver.onNext(createTransaction());
+    responseObserver.onCompleted();
+  }
+
+  @Override
+  public void commit(CommitRequest request, StreamObserver<CommitResponse> responseObserver) {
+    responseObserver.onNext(CommitResponse.newBuilder().setCommitTimestamp(now()).build());
+    responseObserver.onCompleted();
+  }
+
+  @Override
+  public void rollback(RollbackRequest request, StreamObserver<Empty> responseObserver) {
+    responseObserver.onNext(Empty.getDefaultInstance());
+    responseObserver.onCompleted();
+  }
+}
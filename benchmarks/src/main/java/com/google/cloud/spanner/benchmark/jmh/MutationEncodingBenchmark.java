@@ -0,0 +1,127 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner.benchmark.jmh;
+
+import com.google.cloud.ByteArray;
+import com.google.cloud.Date;
+import com.google.cloud.Timestamp;
+import com.google.cloud.spanner.DatabaseClient;
+import com.google.cloud.spanner.Mutation;
+import com.google.cloud.spanner.Spanner;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks building and encoding mutations. Each invocation builds {@value #NUM_MUTATIONS}
+ * insert-or-update mutations with columns of all common data types and writes them in one commit
+ * to the mock server. The result is reported as the average time per mutation, which includes the
+ * share of the commit RPC for the mutation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(value = 1, warmups = 0)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MutationEncodingBenchmark {
+  private static final int NUM_MUTATIONS = 1000;
+  private static final ByteArray BYTES = ByteArray.copyFrom("some-bytes-0123456789");
+  private static final Timestamp TIMESTAMP = Timestamp.ofTimeSecondsAndNanos(1_700_000_000L, 100);
+  private static final Date DATE = Date.fromYearMonthDay(2024, 1, 1);
+  private static final String[] COLUMN_TYPES = {
+    "BOOL", "INT64", "FLOAT64", "STRING", "BYTES", "TIMESTAMP", "DATE", "NUMERIC"
+  };
+
+  @State(Scope.Benchmark)
+  public static class BenchmarkState {
+    @Param({"1", "10"})
+    int numRepeatedColumns;
+
+    private MockSpannerServer server;
+    private Spanner spanner;
+    private DatabaseClient client;
+    private String[][] columnNames;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+      columnNames = new String[numRepeatedColumns][];
+      for (int col = 0; col < numRepeatedColumns; col++) {
+        columnNames[col] = new String[COLUMN_TYPES.length];
+        for (int type = 0; type < COLUMN_TYPES.length; type++) {
+          columnNames[col][type] = COLUMN_TYPES[type] + col;
+        }
+      }
+      server = new MockSpannerServer();
+      server.start();
+      spanner = server.createSpannerOptionsBuilder().build().getService();
+      client = spanner.getDatabaseClient(server.getDatabaseId());
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() throws Exception {
+      spanner.close();
+      server.stop();
+    }
+  }
+
+  /** Measures the average time that is needed to build, encode and write one mutation. */
+  @Benchmark
+  @OperationsPerInvocation(NUM_MUTATIONS)
+  public Timestamp writeMutations(final BenchmarkState state) {
+    List<Mutation> mutations = new ArrayList<>(NUM_MUTATIONS);
+    for (int i = 0; i < NUM_MUTATIONS; i++) {
+      Mutation.WriteBuilder builder = Mutation.newInsertOrUpdateBuilder("FOO");
+      builder.set("ID").to(i);
+      for (String[] names : state.columnNames) {
+        builder
+            .set(names[0])
+            .to(i % 2 == 0)
+            .set(names[1])
+            .to((long) i)
+            .set(names[2])
+            .to(i * 1.5d)
+            .set(names[3])
+            .to("value-" + i)
+            .set(names[4])
+            .to(BYTES)
+            .set(names[5])
+            .to(TIMESTAMP)
+            .set(names[6])
+            .to(DATE)
+            .set(names[7])
+            .to(BigDecimal.valueOf(i, 2));
+      }
+      mutations.add(builder.build());
+    }
+    return state.client.writeAtLeastOnce(mutations);
+  }
+}
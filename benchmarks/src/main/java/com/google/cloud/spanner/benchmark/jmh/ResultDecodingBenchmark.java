@@ -0,0 +1,130 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner.benchmark.jmh;
+
+import com.google.cloud.spanner.DatabaseClient;
+import com.google.cloud.spanner.DecodeMode;
+import com.google.cloud.spanner.Options;
+import com.google.cloud.spanner.ResultSet;
+import com.google.cloud.spanner.Spanner;
+import com.google.cloud.spanner.Statement;
+import com.google.spanner.v1.TypeCode;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the decoding of query results for each {@link DecodeMode} and for each data type. The
+ * query returns {@value #NUM_ROWS} rows with {@value #NUM_COLUMNS} columns of the same type, and
+ * the benchmark reads every value with the getter for that type. The result is reported as the
+ * average time per row.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(value = 1, warmups = 0)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ResultDecodingBenchmark {
+  private static final int NUM_ROWS = 1000;
+  private static final int NUM_COLUMNS = 10;
+
+  @State(Scope.Benchmark)
+  public static class BenchmarkState {
+    @Param({"DIRECT", "LAZY_PER_ROW", "LAZY_PER_COL"})
+    DecodeMode decodeMode;
+
+    @Param({"BOOL", "INT64", "FLOAT64", "STRING", "BYTES", "TIMESTAMP", "DATE", "NUMERIC", "JSON"})
+    TypeCode type;
+
+    private MockSpannerServer server;
+    private Spanner spanner;
+    private DatabaseClient client;
+    private Statement statement;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+      server = new MockSpannerServer();
+      server.start();
+      statement = Statement.of("SELECT * FROM " + type.name() + "_TABLE");
+      server.putQueryResult(
+          statement.getSql(), MockSpannerServer.createResultSet(type, NUM_ROWS, NUM_COLUMNS));
+      spanner = server.createSpannerOptionsBuilder().build().getService();
+      client = spanner.getDatabaseClient(server.getDatabaseId());
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() throws Exception {
+      spanner.close();
+      server.stop();
+    }
+  }
+
+  /** Measures the average time that is needed to decode all values in one row. */
+  @Benchmark
+  @OperationsPerInvocation(NUM_ROWS)
+  public void decodeRows(final BenchmarkState state, final Blackhole blackhole) {
+    try (ResultSet resultSet =
+        state
+            .client
+            .singleUse()
+            .executeQuery(state.statement, Options.decodeMode(state.decodeMode))) {
+      while (resultSet.next()) {
+        for (int col = 0; col < NUM_COLUMNS; col++) {
+          blackhole.consume(getValue(resultSet, state.type, col));
+        }
+      }
+    }
+  }
+
+  private static Object getValue(ResultSet resultSet, TypeCode type, int col) {
+    switch (type) {
+      case BOOL:
+        return resultSet.getBoolean(col);
+      case INT64:
+        return resultSet.getLong(col);
+      case FLOAT64:
+        return resultSet.getDouble(col);
+      case STRING:
+        return resultSet.getString(col);
+      case BYTES:
+        return resultSet.getBytes(col);
+      case TIMESTAMP:
+        return resultSet.getTimestamp(col);
+      case DATE:
+        return resultSet.getDate(col);
+      case NUMERIC:
+        return resultSet.getBigDecimal(col);
+      case JSON:
+        return resultSet.getJson(col);
+      default:
+        throw new IllegalArgumentException("Unsupported type: " + type);
+    }
+  }
+}
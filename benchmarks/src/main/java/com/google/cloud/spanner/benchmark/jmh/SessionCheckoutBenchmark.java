@@ -0,0 +1,137 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner.benchmark.jmh;
+
+import com.google.cloud.spanner.DatabaseClient;
+import com.google.cloud.spanner.ResultSet;
+import com.google.cloud.spanner.SessionPoolOptions;
+import com.google.cloud.spanner.SessionPoolOptionsHelper;
+import com.google.cloud.spanner.Spanner;
+import com.google.cloud.spanner.Statement;
+import com.google.spanner.v1.TypeCode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the throughput of single-use queries that return one row, using an increasing number
+ * of threads. Each query checks out a session, executes one streaming RPC on the mock server and
+ * releases the session again, which means that the results mostly show the overhead of session
+ * checkout and of setting up a query in the client.
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(value = 1, warmups = 0)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SessionCheckoutBenchmark {
+  private static final int QUERIES_PER_INVOCATION = 1024;
+  private static final Statement SELECT1 = Statement.of("SELECT 1");
+
+  @State(Scope.Benchmark)
+  public static class BenchmarkState {
+    @Param({"false", "true"})
+    boolean multiplexed;
+
+    @Param({"1", "8", "32"})
+    int numThreads;
+
+    private MockSpannerServer server;
+    private Spanner spanner;
+    private DatabaseClient client;
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+      server = new MockSpannerServer();
+      server.start();
+      server.putQueryResult(
+          SELECT1.getSql(), MockSpannerServer.createResultSet(TypeCode.INT64, 1, 1));
+      spanner =
+          server
+              .createSpannerOptionsBuilder()
+              .setSessionPoolOption(
+                  SessionPoolOptionsHelper.setUseMultiplexedSession(
+                          SessionPoolOptions.newBuilder(), multiplexed)
+                      .build())
+              .build()
+              .getService();
+      client = spanner.getDatabaseClient(server.getDatabaseId());
+      // Execute one query to make sure that the session pool has been initialized.
+      executeQuery(client);
+      executor = Executors.newFixedThreadPool(numThreads);
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() throws Exception {
+      executor.shutdown();
+      spanner.close();
+      server.stop();
+    }
+  }
+
+  private static long executeQuery(DatabaseClient client) {
+    long sum = 0L;
+    try (ResultSet resultSet = client.singleUse().executeQuery(SELECT1)) {
+      while (resultSet.next()) {
+        sum += resultSet.getLong(0);
+      }
+    }
+    return sum;
+  }
+
+  /** Measures the number of single-use queries per millisecond. */
+  @Benchmark
+  @OperationsPerInvocation(QUERIES_PER_INVOCATION)
+  public long singleUseQuery(final BenchmarkState state) throws Exception {
+    int queriesPerThread = QUERIES_PER_INVOCATION / state.numThreads;
+    List<Future<Long>> futures = new ArrayList<>(state.numThreads);
+    for (int thread = 0; thread < state.numThreads; thread++) {
+      futures.add(
+          state.executor.submit(
+              () -> {
+                long sum = 0L;
+                for (int i = 0; i < queriesPerThread; i++) {
+                  sum += executeQuery(state.client);
+                }
+                return sum;
+              }));
+    }
+    long sum = 0L;
+    for (Future<Long> future : futures) {
+      sum += future.get();
+    }
+    return sum;
+  }
+}
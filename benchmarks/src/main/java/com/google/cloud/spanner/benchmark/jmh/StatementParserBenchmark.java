@@ -0,0 +1,97 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner.benchmark.jmh;
+
+import com.google.cloud.spanner.Dialect;
+import com.google.cloud.spanner.Statement;
+import com.google.cloud.spanner.connection.AbstractStatementParser;
+import com.google.cloud.spanner.connection.AbstractStatementParser.ParsedStatement;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the statement parser of the Connection API for each dialect. Every statement is
+ * parsed by each connection before it is executed, so the parser is on the hot path of every
+ * statement that is executed through the Connection API or JDBC.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(value = 1, warmups = 0)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class StatementParserBenchmark {
+  private static final String LONG_QUERY =
+      "/* Find all singers with a matching album */\n"
+          + "SELECT s.SingerId, s.FirstName, s.LastName, a.AlbumTitle\n"
+          + "FROM Singers s -- the singers table\n"
+          + "INNER JOIN Albums a ON s.SingerId = a.SingerId\n"
+          + "WHERE s.LastName LIKE 'Rich%' AND a.MarketingBudget > 100000\n"
+          + "ORDER BY s.LastName, s.FirstName\n"
+          + "LIMIT 100";
+
+  @State(Scope.Benchmark)
+  public static class BenchmarkState {
+    @Param({"GOOGLE_STANDARD_SQL", "POSTGRESQL"})
+    Dialect dialect;
+
+    @Param({"SELECT", "LONG_SELECT", "DML", "DDL", "CLIENT_SIDE"})
+    String statementType;
+
+    private AbstractStatementParser parser;
+    private Statement statement;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      parser = AbstractStatementParser.getInstance(dialect);
+      statement = Statement.of(createSql(statementType));
+    }
+  }
+
+  private static String createSql(String statementType) {
+    switch (statementType) {
+      case "SELECT":
+        return "SELECT 1";
+      case "LONG_SELECT":
+        return LONG_QUERY;
+      case "DML":
+        return "UPDATE Singers SET LastName='Richards' WHERE SingerId=1";
+      case "DDL":
+        return "CREATE TABLE Singers (SingerId INT64 NOT NULL, Name STRING(MAX))";
+      case "CLIENT_SIDE":
+        return "SET AUTOCOMMIT = TRUE";
+      default:
+        throw new IllegalArgumentException("Unknown statement type: " + statementType);
+    }
+  }
+
+  /** Measures the average time that is needed to parse one statement. */
+  @Benchmark
+  public ParsedStatement parse(final BenchmarkState state) {
+    return state.parser.parse(state.statement);
+  }
+}
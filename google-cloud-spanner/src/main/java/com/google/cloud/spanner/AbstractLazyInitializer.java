@@ -49,6 +49,11 @@ public abstract class AbstractLazyInitializer<T> {
     return object;
   }
 
+  /** Returns true if the object has been initialized, or if the initialization has failed. */
+  boolean isInitialized() {
+    return initialized;
+  }
+
   /**
    * Initializes the actual object that should be returned. Is called once the first time an
    * instance of T is required.
@@ -16,11 +16,7 @@
 
 package com.google.cloud.spanner;
 
-import com.google.api.gax.rpc.ServerStream;
 import com.google.cloud.Timestamp;
-import com.google.cloud.spanner.Options.TransactionOption;
-import com.google.cloud.spanner.Options.UpdateOption;
-import com.google.spanner.v1.BatchWriteResponse;
 
 /**
  * Base class for the Multiplexed Session {@link DatabaseClient} implementation. Throws {@link
@@ -44,16 +40,4 @@ abstract class AbstractMultiplexedSessionDatabaseClient implements DatabaseClien
   public Timestamp writeAtLeastOnce(Iterable<Mutation> mutations) throws SpannerException {
     return writeAtLeastOnceWithOptions(mutations).getCommitTimestamp();
   }
-
-  @Override
-  public ServerStream<BatchWriteResponse> batchWriteAtLeastOnce(
-      Iterable<MutationGroup> mutationGroups, TransactionOption... options)
-      throws SpannerException {
-    throw new UnsupportedOperationException();
-  }
-
-  @Override
-  public long executePartitionedUpdate(Statement stmt, UpdateOption... options) {
-    throw new UnsupportedOperationException();
-  }
 }
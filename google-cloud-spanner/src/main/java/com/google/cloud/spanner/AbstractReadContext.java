@@ -55,8 +55,12 @@ import com.google.spanner.v1.RequestOptions;
 import com.google.spanner.v1.Transaction;
 import com.google.spanner.v1.TransactionOptions;
 import com.google.spanner.v1.TransactionSelector;
+import io.opentelemetry.api.common.Attributes;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
 import javax.annotation.Nullable;
 import javax.annotation.concurrent.GuardedBy;
@@ -75,6 +79,7 @@ abstract class AbstractReadContext
     private ISpan span;
     private TraceWrapper tracer;
     private int defaultPrefetchChunks = SpannerOptions.Builder.DEFAULT_PREFETCH_CHUNKS;
+    private AdaptivePrefetchController prefetchController;
     private QueryOptions defaultQueryOptions = SpannerOptions.Builder.DEFAULT_QUERY_OPTIONS;
     private DecodeMode defaultDecodeMode = SpannerOptions.Builder.DEFAULT_DECODE_MODE;
     private DirectedReadOptions defaultDirectedReadOption;
@@ -118,6 +123,11 @@ abstract class AbstractReadContext
       return self();
     }
 
+    B setPrefetchController(@Nullable AdaptivePrefetchController prefetchController) {
+      this.prefetchController = prefetchController;
+      return self();
+    }
+
     B setDefaultQueryOptions(QueryOptions defaultQueryOptions) {
       this.defaultQueryOptions = defaultQueryOptions;
       return self();
@@ -235,6 +245,47 @@ abstract class AbstractReadContext
       return channelHint;
     }
 
+    /**
+     * Resolves the timestamp bound of this single-use context once by beginning a read-only
+     * transaction, so all batches of the multi-get read at the same timestamp. Bounded staleness
+     * modes cannot be used for a read-only transaction, and are replaced by a mode that always
+     * satisfies the bound.
+     */
+    @Override
+    TransactionSelector beginMultiGet() {
+      beforeReadOrQuery();
+      TimestampBound multiGetBound;
+      switch (bound.getMode()) {
+        case MAX_STALENESS:
+          multiGetBound =
+              TimestampBound.ofExactStaleness(
+                  bound.getMaxStaleness(TimeUnit.MICROSECONDS), TimeUnit.MICROSECONDS);
+          break;
+        case MIN_READ_TIMESTAMP:
+          multiGetBound = TimestampBound.strong();
+          break;
+        default:
+          multiGetBound = bound;
+          break;
+      }
+      TransactionOptions.Builder options = TransactionOptions.newBuilder();
+      multiGetBound.applyToBuilder(options.getReadOnlyBuilder()).setReturnReadTimestamp(true);
+      Transaction transaction =
+          rpc.beginTransaction(
+              BeginTransactionRequest.newBuilder()
+                  .setSession(session.getName())
+                  .setOptions(options)
+                  .build(),
+              getTransactionChannelHint(),
+              isRouteToLeader());
+      if (transaction.getId().isEmpty()) {
+        throw SpannerExceptionFactory.newSpannerException(
+            ErrorCode.INTERNAL, "Missing expected transaction.id metadata field");
+      }
+      onTransactionMetadata(transaction, false);
+      return TransactionSelector.newBuilder().setId(transaction.getId()).build();
+    }
+
     @Override
     boolean prepareRetryOnDifferentGrpcChannel() {
       if (session.getIsMultiplexed() && channelHint.get(Option.CHANNEL_HINT) != null) {
@@ -463,6 +514,7 @@ abstract class AbstractReadContext
   ISpan span;
   TraceWrapper tracer;
   private final int defaultPrefetchChunks;
+  @Nullable private final AdaptivePrefetchController prefetchController;
   private final QueryOptions defaultQueryOptions;
   private final DirectedReadOptions defaultDirectedReadOptions;
   private final DecodeMode defaultDecodeMode;
@@ -490,6 +542,7 @@ abstract class AbstractReadContext
     this.cancelQueryWhenClientIsClosed = builder.cancelQueryWhenClientIsClosed;
     this.rpc = builder.rpc;
     this.defaultPrefetchChunks = builder.defaultPrefetchChunks;
+    this.prefetchController = builder.prefetchController;
     this.defaultQueryOptions = builder.defaultQueryOptions;
     this.defaultDirectedReadOptions = builder.defaultDirectedReadOption;
     this.defaultDecodeMode = builder.defaultDecodeMode;
@@ -531,7 +584,10 @@ abstract class AbstractReadContext
             ? readOptions.bufferRows()
             : AsyncResultSetImpl.DEFAULT_BUFFER_SIZE;
     return new AsyncResultSetImpl(
-        executorProvider, readInternal(table, null, keys, columns, options), bufferRows);
+        executorProvider,
+        readInternal(table, null, keys, columns, options),
+        bufferRows,
+        prefetchController);
   }
 
   @Override
@@ -551,7 +607,8 @@ abstract class AbstractReadContext
     return new AsyncResultSetImpl(
         executorProvider,
         readInternal(table, checkNotNull(index), keys, columns, options),
-        bufferRows);
+        bufferRows,
+        prefetchController);
   }
 
   @Nullable
@@ -604,7 +661,8 @@ abstract class AbstractReadContext
         executorProvider,
         executeQueryInternal(
             statement, com.google.spanner.v1.ExecuteSqlRequest.QueryMode.NORMAL, options),
-        bufferRows);
+        bufferRows,
+        prefetchController);
   }
 
   @Override
@@ -754,6 +812,8 @@ abstract class AbstractReadContext
     beforeReadOrQuery();
     final int prefetchChunks =
         options.hasPrefetchChunks() ? options.prefetchChunks() : defaultPrefetchChunks;
+    // An explicit prefetchChunks option for a query disables adaptive prefetching for the query.
+    final boolean adaptivePrefetch = !options.hasPrefetchChunks();
     final ExecuteSqlRequest.Builder request =
         getExecuteSqlRequestBuilder(
             statement, queryMode, options, /* withTransactionSelector = */ false);
@@ -766,16 +826,22 @@ abstract class AbstractReadContext
             tracer.createStatementAttributes(statement, options),
             session.getErrorHandler(),
             rpc.getExecuteQueryRetrySettings(),
-            rpc.getExecuteQueryRetryableCodes()) {
+            rpc.getExecuteQueryRetryableCodes(),
+            newResultBufferAccount()) {
           @Override
           CloseableIterator<PartialResultSet> startStream(
               @Nullable ByteString resumeToken,
               AsyncResultSet.StreamMessageListener streamListener) {
             GrpcStreamIterator stream =
-                new GrpcStreamIterator(statement, prefetchChunks, cancelQueryWhenClientIsClosed);
+                new GrpcStreamIterator(
+                    statement,
+                    prefetchChunks,
+                    cancelQueryWhenClientIsClosed,
+                    newStreamWindow(prefetchChunks, adaptivePrefetch));
             if (streamListener != null) {
               stream.registerListener(streamListener);
             }
+            stream.setTransactionListener(AbstractReadContext.this);
             if (partitionToken != null) {
               request.setPartitionToken(partitionToken);
             }
@@ -797,7 +863,7 @@ abstract class AbstractReadContext
                     isRouteToLeader());
             session.markUsed(clock.instant());
             stream.setCall(call, request.getTransaction().hasBegin());
-            call.request(prefetchChunks);
+            stream.requestInitialMessages();
             return stream;
           }
 
@@ -875,6 +941,35 @@ abstract class AbstractReadContext
     return false;
   }
 
+  /**
+   * Returns a new account in the byte budget of the client for the resume buffer of a query or
+   * read, or null if the client neither uses adaptive prefetching nor limits the number of buffered
+   * result bytes.
+   */
+  @Nullable
+  private AdaptivePrefetchController.Account newResultBufferAccount() {
+    return prefetchController == null
+        ? null
+        : prefetchController.newAccount(session.getDatabaseId());
+  }
+
+  /**
+   * Returns a new window for a stream of a query or read that starts with the given number of
+   * messages, or null if the client neither uses adaptive prefetching nor limits the number of
+   * buffered result bytes. The window is only adjusted to the speed of the consumer if the client
+   * uses adaptive prefetching and adaptivePrefetch is true.
+   */
+  @Nullable
+  private AdaptivePrefetchController.StreamWindow newStreamWindow(
+      int prefetchChunks, boolean adaptivePrefetch) {
+    return prefetchController == null
+        ? null
+        : prefetchController.newStreamWindow(
+            session.getDatabaseId(),
+            prefetchChunks,
+            adaptivePrefetch && prefetchController.isAdaptive());
+  }
+
   /**
    * Returns the transaction tag for this {@link AbstractReadContext} or <code>null</code> if this
    * {@link AbstractReadContext} does not have a transaction tag.
@@ -913,10 +1008,68 @@ abstract class AbstractReadContext
       Iterable<String> columns,
       ReadOption... options) {
     Options readOptions = Options.fromReadOptions(options);
+    if (readOptions.hasMultiGetBatchSize()
+        && !readOptions.hasLimit()
+        && !keys.isAll()
+        && !keys.getRanges().iterator().hasNext()) {
+      List<KeySet> batches = MultiGetResultSet.splitKeys(keys, readOptions.multiGetBatchSize());
+      if (batches.size() > 1) {
+        return multiGetInternal(table, index, batches, columns, readOptions);
+      }
+    }
     return readInternalWithOptions(
         table, index, keys, columns, readOptions, null /*partitionToken*/);
   }
 
+  /**
+   * Returns the {@link TransactionSelector} that all batches of a multi-get read should use, or
+   * null if the batches can be executed as normal reads in the transaction of this context. Only
+   * single-use contexts need a separate transaction for a multi-get, as all other contexts already
+   * read at one timestamp for all reads.
+   */
+  @Nullable
+  TransactionSelector beginMultiGet() {
+    return null;
+  }
+
+  /**
+   * Returns true if the next read in this context will include a BeginTransaction option, and other
+   * reads must wait for the transaction id that is returned by that read. A multi-get read in such
+   * a context only starts its other batches when the first batch has returned the transaction id.
+   */
+  boolean isInlineBeginPending() {
+    return false;
+  }
+
+  private ResultSet multiGetInternal(
+      String table,
+      @Nullable String index,
+      List<KeySet> batches,
+      Iterable<String> columns,
+      Options readOptions) {
+    TransactionSelector selector = beginMultiGet();
+    boolean startFirstBatchAlone = selector == null && isInlineBeginPending();
+    List<ResultSet> results = new ArrayList<>(batches.size());
+    try {
+      for (KeySet batch : batches) {
+        if (selector == null) {
+          results.add(
+              readInternalWithOptions(
+                  table, index, batch, columns, readOptions, null /*partitionToken*/));
+        } else {
+          results.add(
+              startRead(
+                  table, index, batch, columns, readOptions, null /*partitionToken*/, selector));
+        }
+      }
+    } catch (RuntimeException exception) {
+      results.forEach(ResultSet::close);
+      throw exception;
+    }
+    return new MultiGetResultSet(
+        results, readOptions.multiGetPreserveKeyOrder(), startFirstBatchAlone);
+  }
+
   ResultSet readInternalWithOptions(
       String table,
       @Nullable String index,
@@ -925,6 +1078,21 @@ abstract class AbstractReadContext
       final Options readOptions,
       ByteString partitionToken) {
     beforeReadOrQuery();
+    return startRead(table, index, keys, columns, readOptions, partitionToken, null);
+  }
+
+  /**
+   * Creates a result set for a read. The read uses the given transaction selector if it is not
+   * null, and otherwise the transaction selector of this context.
+   */
+  private ResultSet startRead(
+      String table,
+      @Nullable String index,
+      KeySet keys,
+      Iterable<String> columns,
+      final Options readOptions,
+      ByteString partitionToken,
+      @Nullable TransactionSelector fixedSelector) {
     final ReadRequest.Builder builder =
         ReadRequest.newBuilder()
             .setSession(session.getName())
@@ -954,30 +1122,39 @@ abstract class AbstractReadContext
     }
     final int prefetchChunks =
         readOptions.hasPrefetchChunks() ? readOptions.prefetchChunks() : defaultPrefetchChunks;
+    // An explicit prefetchChunks option for a read disables adaptive prefetching for the read.
+    final boolean adaptivePrefetch = !readOptions.hasPrefetchChunks();
     ResumableStreamIterator stream =
         new ResumableStreamIterator(
             MAX_BUFFERED_CHUNKS,
             SpannerImpl.READ,
             span,
             tracer,
+            Attributes.empty(),
             session.getErrorHandler(),
             rpc.getReadRetrySettings(),
-            rpc.getReadRetryableCodes()) {
+            rpc.getReadRetryableCodes(),
+            newResultBufferAccount()) {
           @Override
           CloseableIterator<PartialResultSet> startStream(
               @Nullable ByteString resumeToken,
               AsyncResultSet.StreamMessageListener streamListener) {
             GrpcStreamIterator stream =
-                new GrpcStreamIterator(prefetchChunks, cancelQueryWhenClientIsClosed);
+                new GrpcStreamIterator(
+                    null,
+                    prefetchChunks,
+                    cancelQueryWhenClientIsClosed,
+                    newStreamWindow(prefetchChunks, adaptivePrefetch));
             if (streamListener != null) {
               stream.registerListener(streamListener);
             }
+            stream.setTransactionListener(AbstractReadContext.this);
             TransactionSelector selector = null;
             if (resumeToken != null) {
               builder.setResumeToken(resumeToken);
-              selector = getTransactionSelector();
+              selector = fixedSelector != null ? fixedSelector : getTransactionSelector();
             } else if (!builder.hasTransaction()) {
-              selector = getTransactionSelector();
+              selector = fixedSelector != null ? fixedSelector : getTransactionSelector();
             }
             if (selector != null) {
               builder.setTransaction(selector);
@@ -991,7 +1168,7 @@ abstract class AbstractReadContext
                     isRouteToLeader());
             session.markUsed(clock.instant());
             stream.setCall(call, /* withBeginTransaction = */ builder.getTransaction().hasBegin());
-            call.request(prefetchChunks);
+            stream.requestInitialMessages();
             return stream;
           }
 
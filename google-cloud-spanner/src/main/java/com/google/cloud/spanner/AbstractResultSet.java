@@ -23,6 +23,7 @@ import com.google.cloud.Date;
 import com.google.cloud.Timestamp;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
+import com.google.common.io.CharSource;
 import com.google.protobuf.AbstractMessage;
 import com.google.protobuf.ListValue;
 import com.google.protobuf.ProtocolMessageEnum;
@@ -30,8 +31,11 @@ import com.google.protobuf.Value.KindCase;
 import com.google.spanner.v1.MultiplexedSessionPrecommitToken;
 import com.google.spanner.v1.Transaction;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Serializable;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.AbstractList;
 import java.util.Base64;
 import java.util.BitSet;
@@ -44,11 +48,15 @@ import javax.annotation.Nullable;
 
 /** Implementation of {@link ResultSet}. */
 abstract class AbstractResultSet<R> extends AbstractStructReader implements ResultSet {
+  /** The estimated overhead of a single row, in addition to the size of its values. */
+  private static final long ROW_OVERHEAD_BYTES = 16L;
 
   interface Listener {
     /**
-     * Called when transaction metadata is seen. This method may be invoked at most once. If the
-     * method is invoked, it will precede {@link #onError(SpannerException)} or {@link #onDone()}.
+     * Called when transaction metadata is seen. This method may be invoked at most once for each
+     * result set, and once more with the same transaction on a gRPC thread when the first message
+     * of a stream that includes a BeginTransaction option is received. If the method is invoked,
+     * it will precede {@link #onError(SpannerException)} or {@link #onDone()}.
      */
     void onTransactionMetadata(Transaction transaction, boolean shouldIncludeId)
         throws SpannerException;
@@ -112,6 +120,39 @@ abstract class AbstractResultSet<R> extends AbstractStructReader implements Resu
       }
     }
 
+    /**
+     * Returns the decoded value as a read-only {@link ByteBuffer}. The buffer is a view of the
+     * cached value if the value has already been decoded. Otherwise, the value is decoded into a
+     * new buffer without caching it.
+     */
+    ByteBuffer asReadOnlyByteBuffer() {
+      if (byteArray.isInitialized()) {
+        return getByteArray().asReadOnlyByteBuffer();
+      }
+      try {
+        return ByteBuffer.wrap(DECODER.decode(base64String)).asReadOnlyBuffer();
+      } catch (Throwable t) {
+        throw SpannerExceptionFactory.asSpannerException(t);
+      }
+    }
+
+    /**
+     * Returns an {@link InputStream} over the decoded value. The stream reads from the cached value
+     * if the value has already been decoded. Otherwise, the stream decodes the base64 string while
+     * it is being read, and the decoded value is not cached.
+     */
+    InputStream asInputStream() {
+      if (byteArray.isInitialized()) {
+        return getByteArray().asInputStream();
+      }
+      try {
+        return DECODER.wrap(
+            CharSource.wrap(base64String).asByteSource(StandardCharsets.UTF_8).openStream());
+      } catch (IOException ioException) {
+        throw SpannerExceptionFactory.asSpannerException(ioException);
+      }
+    }
+
     String getBase64String() {
       return base64String;
     }
@@ -221,6 +262,18 @@ abstract class AbstractResultSet<R> extends AbstractStructReader implements Resu
         "Cannot call array getter for column " + columnIndex + " with null elements");
   }
 
+  /**
+   * Returns the estimated number of bytes that the given row uses in memory. The estimate is based
+   * on the serialized size of the protobuf values of the row.
+   */
+  static long estimateRowSize(Struct row) {
+    long size = ROW_OVERHEAD_BYTES;
+    for (int column = 0; column < row.getColumnCount(); column++) {
+      size += row.getValue(column).toProto().getSerializedSize();
+    }
+    return size;
+  }
+
   /**
    * Memory-optimized base class for {@code ARRAY<INT64>}, {@code ARRAY<FLOAT32>} and {@code
    * ARRAY<FLOAT64>} types. All of these involve conversions from the type yielded by JSON parsing,
@@ -420,6 +473,16 @@ abstract class AbstractResultSet<R> extends AbstractStructReader implements Resu
     return currRow().getBytesInternal(columnIndex);
   }
 
+  @Override
+  protected ByteBuffer getBytesAsByteBufferInternal(int columnIndex) {
+    return currRow().getBytesAsByteBufferInternal(columnIndex);
+  }
+
+  @Override
+  protected InputStream getBytesAsInputStreamInternal(int columnIndex) {
+    return currRow().getBytesAsInputStreamInternal(columnIndex);
+  }
+
   @Override
   protected Timestamp getTimestampInternal(int columnIndex) {
     return currRow().getTimestampInternal(columnIndex);
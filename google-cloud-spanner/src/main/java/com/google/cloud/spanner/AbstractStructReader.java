@@ -24,7 +24,9 @@ import com.google.cloud.Timestamp;
 import com.google.cloud.spanner.Type.Code;
 import com.google.protobuf.AbstractMessage;
 import com.google.protobuf.ProtocolMessageEnum;
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -63,6 +65,14 @@ public abstract class AbstractStructReader implements StructReader {
 
   protected abstract ByteArray getBytesInternal(int columnIndex);
 
+  protected ByteBuffer getBytesAsByteBufferInternal(int columnIndex) {
+    return getBytesInternal(columnIndex).asReadOnlyByteBuffer();
+  }
+
+  protected InputStream getBytesAsInputStreamInternal(int columnIndex) {
+    return getBytesInternal(columnIndex).asInputStream();
+  }
+
   protected abstract Timestamp getTimestampInternal(int columnIndex);
 
   protected abstract Date getDateInternal(int columnIndex);
@@ -273,6 +283,32 @@ public abstract class AbstractStructReader implements StructReader {
     return getBytesInternal(columnIndex);
   }
 
+  @Override
+  public ByteBuffer getBytesAsByteBuffer(int columnIndex) {
+    checkNonNullOfCodes(columnIndex, Arrays.asList(Code.PROTO, Code.BYTES), columnIndex);
+    return getBytesAsByteBufferInternal(columnIndex);
+  }
+
+  @Override
+  public ByteBuffer getBytesAsByteBuffer(String columnName) {
+    int columnIndex = getColumnIndex(columnName);
+    checkNonNullOfCodes(columnIndex, Arrays.asList(Code.PROTO, Code.BYTES), columnName);
+    return getBytesAsByteBufferInternal(columnIndex);
+  }
+
+  @Override
+  public InputStream getBytesAsInputStream(int columnIndex) {
+    checkNonNullOfCodes(columnIndex, Arrays.asList(Code.PROTO, Code.BYTES), columnIndex);
+    return getBytesAsInputStreamInternal(columnIndex);
+  }
+
+  @Override
+  public InputStream getBytesAsInputStream(String columnName) {
+    int columnIndex = getColumnIndex(columnName);
+    checkNonNullOfCodes(columnIndex, Arrays.asList(Code.PROTO, Code.BYTES), columnName);
+    return getBytesAsInputStreamInternal(columnIndex);
+  }
+
   @Override
   public Timestamp getTimestamp(int columnIndex) {
     checkNonNullOfType(columnIndex, Type.timestamp(), columnIndex);
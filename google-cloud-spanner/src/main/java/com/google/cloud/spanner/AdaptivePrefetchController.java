@@ -0,0 +1,399 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner;
+
+import static com.google.cloud.spanner.MetricRegistryConstants.COUNT;
+import static com.google.cloud.spanner.MetricRegistryConstants.PREFETCH_BUFFERED_BYTES;
+import static com.google.cloud.spanner.MetricRegistryConstants.PREFETCH_BUFFERED_BYTES_DESCRIPTION;
+import static com.google.cloud.spanner.MetricRegistryConstants.PREFETCH_WINDOW;
+import static com.google.cloud.spanner.MetricRegistryConstants.PREFETCH_WINDOW_DESCRIPTION;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.Meter;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+
+/**
+ * Controls the number of messages that streaming queries and reads request from Spanner, and keeps
+ * track of the number of bytes of results that are buffered in the client. One instance is shared
+ * by all streams of a {@link Spanner} instance, and is the single byte budget for all buffered
+ * results of that instance. The budget is not a hard limit: Results that have already been
+ * requested are always accepted.
+ *
+ * <p>Each stream has a {@link StreamWindow} that determines the number of messages that the stream
+ * may have outstanding, either requested from Spanner or buffered in the client. When adaptive
+ * prefetching is enabled, the window is doubled each time the consumer has to wait for a new
+ * message, and decreased by one each time the consumer takes a message while more than half of the
+ * window is buffered. Otherwise, the window is fixed. A stream does not request more messages than
+ * the remaining byte budget allows, except when the stream has nothing outstanding at all, so that
+ * every stream can always make progress.
+ *
+ * <p>Results that are kept by a stream to be able to resume it are registered with an {@link
+ * Account}, and count towards the same budget.
+ */
+class AdaptivePrefetchController {
+  static final int MIN_WINDOW = 1;
+  static final int MAX_WINDOW = 512;
+
+  private final long maxBufferedBytes;
+  private final boolean adaptive;
+  private final AtomicLong bufferedBytes = new AtomicLong();
+  private final AtomicLong totalWindow = new AtomicLong();
+
+  /**
+   * Exponential moving average of the size of the messages of all streams. This is used to limit
+   * the initial request of a stream that has not yet received any messages itself.
+   */
+  private final AtomicLong sharedAverageMessageSize = new AtomicLong();
+  private final ConcurrentHashMap<DatabaseId, DatabaseStats> statsPerDatabase =
+      new ConcurrentHashMap<>();
+
+  /** The number of buffered bytes and the total prefetch window of the streams of one database. */
+  private static final class DatabaseStats {
+    private final AtomicLong bufferedBytes = new AtomicLong();
+    private final AtomicLong window = new AtomicLong();
+  }
+
+  AdaptivePrefetchController(long maxBufferedBytes) {
+    this(maxBufferedBytes, true);
+  }
+
+  /**
+   * Creates a controller with the given byte budget. The windows of the streams are adjusted to
+   * the speed of the consumer if adaptive is true, and are fixed otherwise.
+   */
+  AdaptivePrefetchController(long maxBufferedBytes, boolean adaptive) {
+    Preconditions.checkArgument(maxBufferedBytes > 0L, "maxBufferedBytes must be > 0");
+    this.maxBufferedBytes = maxBufferedBytes;
+    this.adaptive = adaptive;
+  }
+
+  /**
+   * Registers gauges for the total prefetch window and the number of buffered bytes of the streams
+   * of the given database. Returns the registered gauges, which must be closed when the client of
+   * the database is closed.
+   */
+  List<AutoCloseable> registerMetrics(
+      OpenTelemetry openTelemetry, DatabaseId databaseId, Attributes attributes) {
+    if (openTelemetry == null || !SpannerOptions.isEnabledOpenTelemetryMetrics()) {
+      return ImmutableList.of();
+    }
+    DatabaseStats stats = getDatabaseStats(databaseId);
+    Meter meter = openTelemetry.getMeter(MetricRegistryConstants.INSTRUMENTATION_SCOPE);
+    return ImmutableList.of(
+        meter
+            .gaugeBuilder(PREFETCH_WINDOW)
+            .ofLongs()
+            .setDescription(PREFETCH_WINDOW_DESCRIPTION)
+            .setUnit(COUNT)
+            .buildWithCallback(measurement -> measurement.record(stats.window.get(), attributes)),
+        meter
+            .gaugeBuilder(PREFETCH_BUFFERED_BYTES)
+            .ofLongs()
+            .setDescription(PREFETCH_BUFFERED_BYTES_DESCRIPTION)
+            .setUnit("By")
+            .buildWithCallback(
+                measurement -> measurement.record(stats.bufferedBytes.get(), attributes)));
+  }
+
+  /**
+   * Registers a gauge for the number of buffered bytes per database with the given built-in metrics
+   * {@link OpenTelemetry} instance. The gauge reports the same bytes as the buffered bytes gauges of
+   * {@link #registerMetrics(OpenTelemetry, DatabaseId, Attributes)}. Returns the registered gauge,
+   * which must be closed when the {@link Spanner} instance is closed.
+   */
+  AutoCloseable registerBuiltInMetrics(OpenTelemetry openTelemetry, Attributes clientAttributes) {
+    return openTelemetry
+        .getMeter(BuiltInMetricsConstant.GAX_METER_NAME)
+        .gaugeBuilder(
+            BuiltInMetricsConstant.METER_NAME
+                + '/'
+                + BuiltInMetricsConstant.BUFFERED_RESULT_BYTES_NAME)
+        .ofLongs()
+        .setDescription("The number of bytes of query results that are buffered in the client.")
+        .setUnit("By")
+        .buildWithCallback(
+            measurement ->
+                statsPerDatabase.forEach(
+                    (databaseId, stats) ->
+                        measurement.record(
+                            stats.bufferedBytes.get(),
+                            clientAttributes.toBuilder()
+                                .put(
+                                    BuiltInMetricsConstant.INSTANCE_ID_KEY,
+                                    databaseId.getInstanceId().getInstance())
+                                .put(BuiltInMetricsConstant.DATABASE_KEY, databaseId.getDatabase())
+                                .build())));
+  }
+
+  long getMaxBufferedBytes() {
+    return maxBufferedBytes;
+  }
+
+  /** Returns true if the windows of the streams are adjusted to the speed of the consumer. */
+  boolean isAdaptive() {
+    return adaptive;
+  }
+
+  /** Returns the total number of bytes that is currently buffered by all streams. */
+  long getBufferedBytes() {
+    return bufferedBytes.get();
+  }
+
+  /** Returns the sum of the prefetch windows of all active streams. */
+  long getTotalWindow() {
+    return totalWindow.get();
+  }
+
+  /** Returns true if the byte budget has been used up. */
+  boolean isExhausted() {
+    return bufferedBytes.get() >= maxBufferedBytes;
+  }
+
+  private long getSharedAverageMessageSize() {
+    return sharedAverageMessageSize.get();
+  }
+
+  private static long movingAverage(long average, long size) {
+    return average == 0L ? size : (average * 7L + size) / 8L;
+  }
+
+  private long remainingBytes() {
+    return Math.max(0L, maxBufferedBytes - bufferedBytes.get());
+  }
+
+  /** Creates a new window for a stream that starts with the given number of messages. */
+  @VisibleForTesting
+  StreamWindow newStreamWindow(int initialWindow) {
+    return newStreamWindow(null, initialWindow, adaptive);
+  }
+
+  /**
+   * Creates a new window for a stream of a query or read on the given database. The window starts
+   * with the given number of messages, and is only adjusted to the speed of the consumer if
+   * adaptive is true.
+   */
+  StreamWindow newStreamWindow(
+      @Nullable DatabaseId databaseId, int initialWindow, boolean adaptive) {
+    return new StreamWindow(newAccount(databaseId), initialWindow, adaptive);
+  }
+
+  /** Creates a new account for a buffer of a query or read on the given database. */
+  Account newAccount(@Nullable DatabaseId databaseId) {
+    return new Account(databaseId == null ? null : getDatabaseStats(databaseId));
+  }
+
+  private DatabaseStats getDatabaseStats(DatabaseId databaseId) {
+    return statsPerDatabase.computeIfAbsent(databaseId, ignore -> new DatabaseStats());
+  }
+
+  /**
+   * Keeps track of the number of bytes that one buffer has taken from the budget, so these can be
+   * returned when the buffer is closed.
+   */
+  final class Account {
+    @Nullable private final DatabaseStats databaseStats;
+
+    @GuardedBy("this")
+    private long bytes;
+
+    @GuardedBy("this")
+    private boolean closed;
+
+    private Account(@Nullable DatabaseStats databaseStats) {
+      this.databaseStats = databaseStats;
+    }
+
+    synchronized void add(long size) {
+      if (!closed) {
+        bytes += size;
+        addBufferedBytes(size);
+      }
+    }
+
+    synchronized void release(long size) {
+      if (!closed) {
+        long released = Math.min(size, bytes);
+        bytes -= released;
+        addBufferedBytes(-released);
+      }
+    }
+
+    /** Returns all bytes of this account to the budget. Any later changes are ignored. */
+    synchronized void close() {
+      if (!closed) {
+        closed = true;
+        addBufferedBytes(-bytes);
+        bytes = 0L;
+      }
+    }
+
+    private void addBufferedBytes(long size) {
+      bufferedBytes.addAndGet(size);
+      if (databaseStats != null) {
+        databaseStats.bufferedBytes.addAndGet(size);
+      }
+    }
+
+    private void addWindow(long size) {
+      totalWindow.addAndGet(size);
+      if (databaseStats != null) {
+        databaseStats.window.addAndGet(size);
+      }
+    }
+  }
+
+  /**
+   * Keeps track of the prefetch window of one stream. The window is only added to the total window
+   * of the controller once the stream has been started.
+   */
+  final class StreamWindow {
+    private final Account account;
+    private final boolean adaptive;
+
+    @GuardedBy("this")
+    private int window;
+
+    /** The number of messages that have been requested, but not yet received. */
+    @GuardedBy("this")
+    private int outstanding;
+
+    /** The number of messages that have been received, but not yet consumed. */
+    @GuardedBy("this")
+    private int buffered;
+
+    /** Exponential moving average of the size of the messages of this stream. */
+    @GuardedBy("this")
+    private long averageMessageSize;
+
+    @GuardedBy("this")
+    private boolean started;
+
+    @GuardedBy("this")
+    private boolean closed;
+
+    private StreamWindow(Account account, int initialWindow, boolean adaptive) {
+      this.account = account;
+      this.adaptive = adaptive;
+      this.window = Math.max(MIN_WINDOW, Math.min(MAX_WINDOW, initialWindow));
+    }
+
+    @VisibleForTesting
+    synchronized int getWindow() {
+      return window;
+    }
+
+    /** Returns the largest number of messages that this stream can have outstanding at any time. */
+    synchronized int getMaxWindow() {
+      return adaptive ? MAX_WINDOW : window;
+    }
+
+    /**
+     * Returns the number of messages that should be requested when the stream is started. This is
+     * the window of the stream, limited to the number of messages that the remaining byte budget
+     * allows, and always at least one.
+     */
+    synchronized int initialRequest() {
+      if (!started && !closed) {
+        started = true;
+        account.addWindow(window);
+      }
+      int toRequest = window;
+      long messageSize =
+          averageMessageSize > 0L ? averageMessageSize : getSharedAverageMessageSize();
+      if (messageSize > 0L) {
+        toRequest = (int) Math.min(toRequest, remainingBytes() / messageSize);
+      } else if (isExhausted()) {
+        toRequest = 0;
+      }
+      toRequest = Math.max(MIN_WINDOW, toRequest);
+      outstanding = toRequest;
+      return toRequest;
+    }
+
+    /** Called by the gRPC thread when a message has been received. */
+    synchronized void onMessageReceived(int size) {
+      if (closed) {
+        return;
+      }
+      outstanding = Math.max(0, outstanding - 1);
+      buffered++;
+      account.add(size);
+      averageMessageSize = movingAverage(averageMessageSize, size);
+      sharedAverageMessageSize.accumulateAndGet(size, AdaptivePrefetchController::movingAverage);
+    }
+
+    /**
+     * Called by the consumer when it takes a message from the buffer. Returns the number of
+     * messages that should be requested from Spanner.
+     *
+     * @param size the serialized size of the message that was consumed
+     * @param consumerWaited true if the consumer had to wait for the message to arrive
+     */
+    synchronized int onMessageConsumed(int size, boolean consumerWaited) {
+      if (closed) {
+        return 0;
+      }
+      buffered = Math.max(0, buffered - 1);
+      account.release(size);
+
+      if (adaptive) {
+        int newWindow = window;
+        if (consumerWaited) {
+          newWindow = Math.min(MAX_WINDOW, window * 2);
+        } else if (buffered > window / 2) {
+          newWindow = Math.max(MIN_WINDOW, window - 1);
+        }
+        if (newWindow != window) {
+          account.addWindow(newWindow - window);
+          window = newWindow;
+        }
+      }
+
+      int inFlight = outstanding + buffered;
+      int toRequest = window - inFlight;
+      if (toRequest > 0 && averageMessageSize > 0L) {
+        toRequest = (int) Math.min(toRequest, remainingBytes() / averageMessageSize);
+      }
+      if (toRequest <= 0) {
+        // Always allow a stream that has nothing outstanding to make progress.
+        toRequest = inFlight == 0 ? 1 : 0;
+      }
+      outstanding += toRequest;
+      return toRequest;
+    }
+
+    /** Releases all bytes that are buffered by this stream and removes its window. */
+    synchronized void close() {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      account.close();
+      if (started) {
+        account.addWindow(-window);
+      }
+    }
+  }
+}
@@ -168,6 +168,56 @@ public interface AsyncResultSet extends ResultSet {
    */
   ApiFuture<Void> setCallback(Executor exec, ReadyCallback cb);
 
+  /**
+   * Interface for receiving the rows of an {@link AsyncResultSet} in batches. See {@link
+   * AsyncResultSet#setBatchCallback(Executor, int, long, BatchReadyCallback)}.
+   */
+  interface BatchReadyCallback {
+    /**
+     * Called with the next batch of rows. The batch is never empty, and the rows in the batch are
+     * immutable and may be kept after this method returns. The response of the callback has the
+     * same meaning as for {@link ReadyCallback#cursorReady(AsyncResultSet)}.
+     */
+    CallbackResponse batchReady(AsyncResultSet resultSet, List<Struct> batch);
+  }
+
+  /**
+   * Register a callback that receives the rows of this result set in batches instead of one row at
+   * a time. The rows are handed from the thread that reads them from Spanner to the callback one
+   * batch at a time, which removes the per-row synchronization of {@link #setCallback(Executor,
+   * ReadyCallback)} and is more efficient for result sets with many rows. Details:
+   *
+   * <ul>
+   *   <li>A batch is handed to the callback when it contains {@code maxBatchRows} rows, when the
+   *       estimated size of the rows in the batch reaches {@code maxBatchBytes}, or when all rows
+   *       have been read. The last batch can therefore be smaller than the requested size.
+   *   <li>At most one callback is outstanding at a time, and callbacks guarantee the "happens
+   *       before" property with previous callbacks.
+   *   <li>Once a callback has returned {@link CallbackResponse#PAUSE} no more callbacks will be run
+   *       until a corresponding {@link #resume()}. Rows are still read from Spanner until the
+   *       buffer of batches is full.
+   *   <li>Once a callback has returned {@link CallbackResponse#DONE} no more callbacks will be run.
+   *   <li>The callback is not called for a result set without any rows. The end of the result set
+   *       and any errors are reported through the returned {@link ApiFuture}.
+   * </ul>
+   *
+   * @param exec executor on which to run all callbacks.
+   * @param maxBatchRows the maximum number of rows in a batch. Must be > 0.
+   * @param maxBatchBytes the estimated number of bytes after which a batch is handed to the
+   *     callback, even if it contains fewer than {@code maxBatchRows} rows. Use 0 to only limit the
+   *     number of rows in a batch.
+   * @param cb batch callback
+   * @return An {@link ApiFuture} that returns <code>null</code> when the consumption of the {@link
+   *     AsyncResultSet} has finished successfully. No more calls to the {@link BatchReadyCallback}
+   *     will follow and all resources used by the {@link AsyncResultSet} have been cleaned up. The
+   *     {@link ApiFuture} throws an {@link ExecutionException} if the consumption of the {@link
+   *     AsyncResultSet} finished with an error or was cancelled.
+   */
+  default ApiFuture<Void> setBatchCallback(
+      Executor exec, int maxBatchRows, long maxBatchBytes, BatchReadyCallback cb) {
+    throw new UnsupportedOperationException("Unimplemented");
+  }
+
   /**
    * Attempt to cancel this operation and free all resources. Non-blocking. This is a no-op for
    * child row cursors and does not cancel the parent cursor.
@@ -31,6 +31,7 @@ import com.google.common.util.concurrent.MoreExecutors;
 import com.google.spanner.v1.PartialResultSet;
 import com.google.spanner.v1.ResultSetMetadata;
 import com.google.spanner.v1.ResultSetStats;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedList;
 import java.util.List;
@@ -40,8 +41,12 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
 import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import javax.annotation.Nullable;
 
 /** Default implementation for {@link AsyncResultSet}. */
 class AsyncResultSetImpl extends ForwardingStructReader
@@ -74,6 +79,7 @@ class AsyncResultSetImpl extends ForwardingStructReader
 
   static final int DEFAULT_BUFFER_SIZE = 10;
   private static final int MAX_WAIT_FOR_BUFFER_CONSUMPTION = 10;
+  private static final int MAX_INITIAL_BATCH_CAPACITY = 1024;
   private static final SpannerException CANCELLED_EXCEPTION =
       SpannerExceptionFactory.newSpannerException(
           ErrorCode.CANCELLED, "This AsyncResultSet has been cancelled");
@@ -90,6 +96,16 @@ class AsyncResultSetImpl extends ForwardingStructReader
   private final ListeningScheduledExecutorService service;
 
   private final BlockingDeque<Struct> buffer;
+
+  private final int bufferSize;
+
+  /**
+   * The controller that keeps track of the byte budget for buffered results of the client. The
+   * production of rows is paused when this budget has been used up and there are rows in the
+   * buffer, even if the buffer is not full.
+   */
+  @Nullable private final AdaptivePrefetchController prefetchController;
+
   private Struct currentRow;
   /** Supplies the underlying synchronous {@link ResultSet} that will be producing the rows. */
   private final Supplier<ResultSet> delegateResultSet;
@@ -148,17 +164,66 @@ class AsyncResultSetImpl extends ForwardingStructReader
    */
   private volatile CountDownLatch consumingLatch = new CountDownLatch(0);
 
+  /**
+   * The callback that receives the rows in batches, or null if the rows are consumed one at a time
+   * through a {@link ReadyCallback}. The fields below are only used for a {@link
+   * BatchReadyCallback}. Batches are handed from the producer to the callback through a lock-free
+   * queue. The monitor is only used for state changes, and never per row.
+   */
+  private BatchReadyCallback batchCallback;
+
+  private int maxBatchRows;
+  private long maxBatchBytes;
+  private SingleProducerSingleConsumerQueue<List<Struct>> batches;
+
+  /** Set when the producer should stop reading rows, e.g. because the result set was cancelled. */
+  private volatile boolean stopProducingBatches;
+
+  /** The thread that is producing batches. Used to wake up the producer when it is waiting. */
+  private volatile Thread batchProducerThread;
+
+  /** Indicates whether the {@link BatchCallbackRunnable} has been scheduled or is running. */
+  private final AtomicBoolean batchCallbackScheduled = new AtomicBoolean();
+
+  /**
+   * The number of parties (the producer and the callback runner) that still have to finish before
+   * the listeners are called and the result is set.
+   */
+  private final AtomicInteger unfinishedBatchParties = new AtomicInteger(2);
+
   AsyncResultSetImpl(ExecutorProvider executorProvider, ResultSet delegate, int bufferSize) {
     this(executorProvider, Suppliers.ofInstance(Preconditions.checkNotNull(delegate)), bufferSize);
   }
 
+  AsyncResultSetImpl(
+      ExecutorProvider executorProvider,
+      ResultSet delegate,
+      int bufferSize,
+      @Nullable AdaptivePrefetchController prefetchController) {
+    this(
+        executorProvider,
+        Suppliers.ofInstance(Preconditions.checkNotNull(delegate)),
+        bufferSize,
+        prefetchController);
+  }
+
   AsyncResultSetImpl(
       ExecutorProvider executorProvider, Supplier<ResultSet> delegate, int bufferSize) {
+    this(executorProvider, delegate, bufferSize, null);
+  }
+
+  AsyncResultSetImpl(
+      ExecutorProvider executorProvider,
+      Supplier<ResultSet> delegate,
+      int bufferSize,
+      @Nullable AdaptivePrefetchController prefetchController) {
     super(delegate);
     this.executorProvider = Preconditions.checkNotNull(executorProvider);
     this.delegateResultSet = Preconditions.checkNotNull(delegate);
     this.service = MoreExecutors.listeningDecorator(executorProvider.getExecutor());
     this.buffer = new LinkedBlockingDeque<>(bufferSize);
+    this.bufferSize = bufferSize;
+    this.prefetchController = prefetchController;
   }
 
   /**
@@ -355,7 +420,7 @@ class AsyncResultSetImpl extends ForwardingStructReader
               stop = state.shouldStop;
             }
             if (!stop) {
-              while (buffer.remainingCapacity() == 0 && !stop) {
+              while ((buffer.remainingCapacity() == 0 || isOverBudget()) && !stop) {
                 waitIfPaused();
                 // The buffer is full and we should let the callback consume a number of rows before
                 // we proceed with producing any more rows to prevent us from potentially waiting on
@@ -429,6 +494,15 @@ class AsyncResultSetImpl extends ForwardingStructReader
       }
     }
 
+    /**
+     * Returns true if the result buffer budget of the client has been used up and this result set
+     * already has rows buffered. The producer then waits for the callback to consume some rows
+     * instead of buffering more.
+     */
+    private boolean isOverBudget() {
+      return prefetchController != null && prefetchController.isExhausted() && !buffer.isEmpty();
+    }
+
     private void waitIfPaused() throws InterruptedException {
       CountDownLatch pause;
       synchronized (monitor) {
@@ -458,6 +532,213 @@ class AsyncResultSetImpl extends ForwardingStructReader
     }
   }
 
+  /**
+   * {@link ProduceBatchesRunnable} reads data from the underlying {@link ResultSet}, collects the
+   * rows in batches, and hands each batch to the {@link BatchCallbackRunnable}. The producer waits
+   * when the queue of batches is full, which is the case when the callback is slower than the
+   * producer or when the callback has paused the result set.
+   */
+  private class ProduceBatchesRunnable implements Runnable {
+    @Override
+    public void run() {
+      batchProducerThread = Thread.currentThread();
+      try {
+        if (executionException == null) {
+          produceBatches();
+        }
+      } catch (Throwable e) {
+        executionException = SpannerExceptionFactory.asSpannerException(e);
+      } finally {
+        // We don't need any more data from the underlying result set, so we close it as soon as
+        // possible. Any error that might occur during this will be ignored.
+        closeDelegateResultSet();
+        batchProducerThread = null;
+        finished = true;
+        scheduleBatchCallback();
+        batchPartyFinished();
+      }
+    }
+
+    private void produceBatches() {
+      ResultSet delegate = delegateResultSet.get();
+      List<Struct> batch = new ArrayList<>(Math.min(maxBatchRows, MAX_INITIAL_BATCH_CAPACITY));
+      long batchBytes = 0L;
+      try {
+        while (!stopProducingBatches && delegate.next()) {
+          Struct row = delegate.getCurrentRowAsStruct();
+          batch.add(row);
+          if (maxBatchBytes > 0L) {
+            batchBytes += AbstractResultSet.estimateRowSize(row);
+          }
+          if (batch.size() >= maxBatchRows
+              || (maxBatchBytes > 0L && batchBytes >= maxBatchBytes)) {
+            publishBatch(batch);
+            batch = new ArrayList<>(Math.min(maxBatchRows, MAX_INITIAL_BATCH_CAPACITY));
+            batchBytes = 0L;
+          }
+        }
+      } catch (Throwable e) {
+        executionException = SpannerExceptionFactory.asSpannerException(e);
+      }
+      // Also deliver the rows that were read before an error occurred, in the same way as for a
+      // ReadyCallback.
+      if (!batch.isEmpty()) {
+        publishBatch(batch);
+      }
+    }
+
+    private void publishBatch(List<Struct> batch) {
+      while (!batches.offer(batch)) {
+        if (stopProducingBatches) {
+          return;
+        }
+        // The queue is full. The callback runner wakes up this thread after taking a batch.
+        scheduleBatchCallback();
+        LockSupport.park(AsyncResultSetImpl.this);
+        if (Thread.interrupted()) {
+          stopProducingBatches = true;
+          throw SpannerExceptionFactory.propagateInterrupt(new InterruptedException());
+        }
+      }
+      scheduleBatchCallback();
+    }
+  }
+
+  /**
+   * {@link BatchCallbackRunnable} calls the {@link BatchReadyCallback} for each batch in the queue.
+   * The runnable is scheduled by the producer when it adds a batch to the queue, and by {@link
+   * #resume()}. At most one instance is scheduled or running at any time.
+   */
+  private class BatchCallbackRunnable implements Runnable {
+    @Override
+    public void run() {
+      while (true) {
+        if (cursorReturnedDoneOrException) {
+          return;
+        }
+        if (!deliverBatches()) {
+          return;
+        }
+        batchCallbackScheduled.set(false);
+        // Check whether there is more work that was added after the last check, as the producer
+        // and resume() do not schedule the runnable while it is still marked as scheduled.
+        if (!hasBatchWork() || !batchCallbackScheduled.compareAndSet(false, true)) {
+          return;
+        }
+      }
+    }
+
+    /**
+     * Calls the callback for all batches in the queue. Returns false if the callback runner has
+     * finished.
+     */
+    private boolean deliverBatches() {
+      while (true) {
+        synchronized (monitor) {
+          if (state == State.CANCELLED) {
+            finishBatchCallback();
+            return false;
+          }
+          if (state == State.PAUSED) {
+            return true;
+          }
+        }
+        // Read the finished flag before polling, so an empty queue after a finished producer
+        // means that all batches have been delivered.
+        boolean producerFinished = finished;
+        List<Struct> batch = batches.poll();
+        if (batch == null) {
+          if (producerFinished) {
+            finishBatchCallback();
+            return false;
+          }
+          return true;
+        }
+        LockSupport.unpark(batchProducerThread);
+        CallbackResponse response;
+        try {
+          response = batchCallback.batchReady(AsyncResultSetImpl.this, batch);
+        } catch (Throwable e) {
+          synchronized (monitor) {
+            if (state != State.CANCELLED) {
+              executionException = SpannerExceptionFactory.asSpannerException(e);
+            }
+          }
+          finishBatchCallback();
+          return false;
+        }
+        synchronized (monitor) {
+          if (state == State.CANCELLED) {
+            continue;
+          }
+          switch (response) {
+            case DONE:
+              state = State.DONE;
+              finishBatchCallback();
+              return false;
+            case PAUSE:
+              state = State.PAUSED;
+              return true;
+            case CONTINUE:
+              break;
+            default:
+              throw new IllegalStateException("Unknown response: " + response);
+          }
+        }
+      }
+    }
+
+    private boolean hasBatchWork() {
+      synchronized (monitor) {
+        if (state == State.PAUSED) {
+          return false;
+        }
+        return state == State.CANCELLED || finished || !batches.isEmpty();
+      }
+    }
+  }
+
+  private final BatchCallbackRunnable batchCallbackRunnable = new BatchCallbackRunnable();
+
+  private void scheduleBatchCallback() {
+    if (batchCallbackScheduled.compareAndSet(false, true)) {
+      executor.execute(batchCallbackRunnable);
+    }
+  }
+
+  /** Stops the callbacks, stops the producer and wakes it up if it is waiting. */
+  private void finishBatchCallback() {
+    cursorReturnedDoneOrException = true;
+    stopProducingBatches = true;
+    LockSupport.unpark(batchProducerThread);
+    batchPartyFinished();
+  }
+
+  /**
+   * Called by the producer and the callback runner when they have finished. The last one to finish
+   * calls the listeners and sets the result.
+   */
+  private void batchPartyFinished() {
+    if (unfinishedBatchParties.decrementAndGet() > 0) {
+      return;
+    }
+    if (executorProvider.shouldAutoClose()) {
+      service.shutdown();
+    }
+    for (Runnable listener : listeners) {
+      listener.run();
+    }
+    synchronized (monitor) {
+      if (executionException != null) {
+        result.setException(executionException);
+      } else if (state == State.CANCELLED) {
+        result.setException(CANCELLED_EXCEPTION);
+      } else {
+        result.set(null);
+      }
+    }
+  }
+
   private class InitiateStreamingRunnable implements Runnable {
 
     @Override
@@ -497,12 +778,41 @@ class AsyncResultSetImpl extends ForwardingStructReader
     }
   }
 
+  /** Sets a callback that receives the rows of this {@link AsyncResultSet} in batches. */
+  @Override
+  public ApiFuture<Void> setBatchCallback(
+      Executor exec, int maxBatchRows, long maxBatchBytes, BatchReadyCallback cb) {
+    Preconditions.checkArgument(maxBatchRows > 0, "maxBatchRows must be > 0");
+    Preconditions.checkArgument(maxBatchBytes >= 0L, "maxBatchBytes must be >= 0");
+    synchronized (monitor) {
+      Preconditions.checkState(!closed, "This AsyncResultSet has been closed");
+      Preconditions.checkState(
+          this.state == State.INITIALIZED, "callback may not be set multiple times");
+
+      this.batchCallback = Preconditions.checkNotNull(cb);
+      this.maxBatchRows = maxBatchRows;
+      this.maxBatchBytes = maxBatchBytes;
+      // Buffer about the same number of rows as for a ReadyCallback, but at least two batches, so
+      // the producer can fill the next batch while the callback processes the current one.
+      this.batches =
+          new SingleProducerSingleConsumerQueue<>(
+              Math.max(2, (bufferSize + maxBatchRows - 1) / maxBatchRows));
+      this.result = SettableApiFuture.create();
+      this.state = State.STREAMING_INITIALIZED;
+      this.executor = MoreExecutors.newSequentialExecutor(Preconditions.checkNotNull(exec));
+      this.service.execute(new InitiateStreamingRunnable());
+      pausedLatch.countDown();
+      return result;
+    }
+  }
+
   private void initiateProduceRows() {
     if (this.state == State.STREAMING_INITIALIZED) {
       this.state = State.RUNNING;
     }
     produceRowsInitiated = true;
-    this.service.execute(new ProduceRowsRunnable());
+    this.service.execute(
+        batchCallback == null ? new ProduceRowsRunnable() : new ProduceBatchesRunnable());
   }
 
   Future<Void> getResult() {
@@ -517,6 +827,11 @@ class AsyncResultSetImpl extends ForwardingStructReader
           "cannot cancel a result set without a callback");
       state = State.CANCELLED;
       pausedLatch.countDown();
+      if (batchCallback != null) {
+        stopProducingBatches = true;
+        LockSupport.unpark(batchProducerThread);
+        scheduleBatchCallback();
+      }
     }
   }
 
@@ -529,6 +844,9 @@ class AsyncResultSetImpl extends ForwardingStructReader
       if (state == State.PAUSED) {
         state = State.RUNNING;
         pausedLatch.countDown();
+        if (batchCallback != null) {
+          scheduleBatchCallback();
+        }
       }
     }
   }
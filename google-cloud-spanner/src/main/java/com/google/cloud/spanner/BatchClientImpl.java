@@ -23,6 +23,7 @@ import com.google.cloud.spanner.Options.QueryOption;
 import com.google.cloud.spanner.Options.ReadOption;
 import com.google.cloud.spanner.spi.v1.SpannerRpc;
 import com.google.common.base.Preconditions;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
 import com.google.protobuf.Struct;
 import com.google.spanner.v1.ExecuteSqlRequest.QueryMode;
@@ -61,6 +62,7 @@ public class BatchClientImpl implements BatchClient {
                 sessionClient.getSpanner().getDefaultQueryOptions(sessionClient.getDatabaseId()))
             .setExecutorProvider(sessionClient.getSpanner().getAsyncExecutorProvider())
             .setDefaultPrefetchChunks(sessionClient.getSpanner().getDefaultPrefetchChunks())
+            .setPrefetchController(sessionClient.getSpanner().getPrefetchController())
             .setDefaultDecodeMode(sessionClient.getSpanner().getDefaultDecodeMode())
             .setDefaultDirectedReadOptions(
                 sessionClient.getSpanner().getOptions().getDirectedReadOptions())
@@ -84,6 +86,7 @@ public class BatchClientImpl implements BatchClient {
                 sessionClient.getSpanner().getDefaultQueryOptions(sessionClient.getDatabaseId()))
             .setExecutorProvider(sessionClient.getSpanner().getAsyncExecutorProvider())
             .setDefaultPrefetchChunks(sessionClient.getSpanner().getDefaultPrefetchChunks())
+            .setPrefetchController(sessionClient.getSpanner().getPrefetchController())
             .setDefaultDecodeMode(sessionClient.getSpanner().getDefaultDecodeMode())
             .setDefaultDirectedReadOptions(
                 sessionClient.getSpanner().getOptions().getDirectedReadOptions())
@@ -232,6 +235,51 @@ public class BatchClientImpl implements BatchClient {
           partition.getPartitionToken());
     }
 
+    @Override
+    public ResultSet executePartitions(List<Partition> partitions, int maxParallelism)
+        throws SpannerException {
+      return new PartitionedResultSet(
+          this::execute,
+          partitions,
+          maxParallelism,
+          PartitionedResultSet.DEFAULT_BUFFER_ROWS_PER_PARTITION);
+    }
+
+    @Override
+    public ResultSet executePartitionedQuery(
+        PartitionOptions partitionOptions,
+        Statement statement,
+        int maxParallelism,
+        QueryOption... options)
+        throws SpannerException {
+      Options queryOptions = Options.fromQueryOptions(options);
+      return new PartitionedResultSet(
+          this::execute,
+          partitionQuery(partitionOptions, statement, options),
+          maxParallelism,
+          queryOptions.hasBufferRows()
+              ? queryOptions.bufferRows()
+              : PartitionedResultSet.DEFAULT_BUFFER_ROWS_PER_PARTITION);
+    }
+
+    @Override
+    public AsyncResultSet executePartitionedQueryAsync(
+        PartitionOptions partitionOptions,
+        Statement statement,
+        int maxParallelism,
+        QueryOption... options) {
+      Options queryOptions = Options.fromQueryOptions(options);
+      int bufferRows =
+          queryOptions.hasBufferRows()
+              ? queryOptions.bufferRows()
+              : AsyncResultSetImpl.DEFAULT_BUFFER_SIZE;
+      return new AsyncResultSetImpl(
+          executorProvider,
+          Suppliers.memoize(
+              () -> executePartitionedQuery(partitionOptions, statement, maxParallelism, options)),
+          bufferRows);
+    }
+
     /**
      * Closes the session as part of the cleanup. It is the responsibility of the caller to make a
      * call to this method once the transaction completes execution across all the channels (which
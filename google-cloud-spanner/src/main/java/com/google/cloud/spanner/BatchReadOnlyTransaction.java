@@ -192,6 +192,72 @@ public interface BatchReadOnlyTransaction extends ReadOnlyTransaction {
    */
   ResultSet execute(Partition partition) throws SpannerException;
 
+  /**
+   * Executes the given partitions in parallel and returns the merged results as one {@link
+   * ResultSet}. The order of the rows in the result set is not guaranteed. The number of rows that
+   * is buffered in the client is limited to a fixed number of rows per partition that is executed
+   * in parallel. A partition that fails with a retryable error before it has returned any rows is
+   * automatically executed again. Closing the result set cancels all partitions that are still
+   * being executed.
+   *
+   * <pre>{@code
+   * final BatchReadOnlyTransaction txn =
+   *     batchClient.batchReadOnlyTransaction(TimestampBound.strong());
+   * List<Partition> partitions = txn.partitionQuery(PartitionOptions.getDefaultInstance(),
+   *     Statement.of("SELECT SingerId, FirstName, LastName FROM Singers"));
+   * try (ResultSet results = txn.executePartitions(partitions, 8)) {
+   *   while (results.next()) {
+   *     long singerId = results.getLong(0);
+   *     String firstName = results.getString(1);
+   *     String lastName = results.getString(2);
+   *     System.out.println("[" + singerId + "] " + firstName + " " + lastName);
+   *   }
+   * }
+   * }</pre>
+   *
+   * @param partitions the partitions to execute
+   * @param maxParallelism the maximum number of partitions to execute in parallel. If 0, the number
+   *     of available processors is used.
+   */
+  default ResultSet executePartitions(List<Partition> partitions, int maxParallelism)
+      throws SpannerException {
+    throw new UnsupportedOperationException("Method should be overridden");
+  }
+
+  /**
+   * Partitions the given query, executes the partitions in parallel, and returns the merged results
+   * as one {@link ResultSet}. The order of the rows in the result set is not guaranteed. {@link
+   * Options#bufferRows(int)} can be used to set the number of rows that is buffered per partition
+   * that is executed in parallel. See also {@link #executePartitions(List, int)}.
+   *
+   * @param partitionOptions the options to use for partitioning the query
+   * @param statement the query to execute
+   * @param maxParallelism the maximum number of partitions to execute in parallel. If 0, the number
+   *     of available processors is used.
+   * @param options the options to use for the query
+   */
+  default ResultSet executePartitionedQuery(
+      PartitionOptions partitionOptions,
+      Statement statement,
+      int maxParallelism,
+      QueryOption... options)
+      throws SpannerException {
+    throw new UnsupportedOperationException("Method should be overridden");
+  }
+
+  /**
+   * Same as {@link #executePartitionedQuery(PartitionOptions, Statement, int, QueryOption...)},
+   * but returns the merged results as an {@link AsyncResultSet}. Cancelling the {@link
+   * AsyncResultSet} cancels all partitions that are still being executed.
+   */
+  default AsyncResultSet executePartitionedQueryAsync(
+      PartitionOptions partitionOptions,
+      Statement statement,
+      int maxParallelism,
+      QueryOption... options) {
+    throw new UnsupportedOperationException("Method should be overridden");
+  }
+
   /**
    * Returns a {@link BatchTransactionId} to be re-used across several machines/processes. This
    * BatchTransactionId guarantees the subsequent read/query to be executed at the same timestamp.
@@ -43,13 +43,15 @@ public class BuiltInMetricsConstant {
   static final String ATTEMPT_LATENCY_NAME = "attempt_latency";
   static final String OPERATION_COUNT_NAME = "operation_count";
   static final String ATTEMPT_COUNT_NAME = "attempt_count";
+  static final String BUFFERED_RESULT_BYTES_NAME = "buffered_result_bytes";
 
   public static final Set<String> SPANNER_METRICS =
       ImmutableSet.of(
               OPERATION_LATENCIES_NAME,
               ATTEMPT_LATENCIES_NAME,
               OPERATION_COUNT_NAME,
-              ATTEMPT_COUNT_NAME)
+              ATTEMPT_COUNT_NAME,
+              BUFFERED_RESULT_BYTES_NAME)
           .stream()
           .map(m -> METER_NAME + '/' + m)
           .collect(Collectors.toSet());
@@ -140,6 +142,13 @@ public class BuiltInMetricsConstant {
         Aggregation.sum(),
         InstrumentType.COUNTER,
         "1");
+    defineView(
+        views,
+        BuiltInMetricsConstant.BUFFERED_RESULT_BYTES_NAME,
+        BuiltInMetricsConstant.BUFFERED_RESULT_BYTES_NAME,
+        Aggregation.lastValue(),
+        InstrumentType.OBSERVABLE_GAUGE,
+        "By");
     return views.build();
   }
 
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Least-outstanding-requests load balancer for the gRPC channels of a {@link Spanner} instance.
+ * Keeps track of the number of transactions that are in flight on each channel. {@link #acquire()}
+ * returns the channel with the fewest transactions in flight. If multiple channels have the same
+ * number of transactions in flight, the channels are used in round-robin order. This prevents new
+ * transactions from being assigned to a channel that is busy with for example a number of large
+ * streaming queries.
+ *
+ * <p>All state is kept in atomic variables, so acquiring and releasing a channel never requires a
+ * lock.
+ */
+class ChannelLoadBalancer {
+  private final int numChannels;
+  private final AtomicIntegerArray outstanding;
+
+  /** Rotates the channel that is checked first, so ties are spread over all channels. */
+  private final AtomicInteger nextStartChannel = new AtomicInteger();
+
+  ChannelLoadBalancer(int numChannels) {
+    Preconditions.checkArgument(numChannels > 0, "numChannels must be > 0");
+    this.numChannels = numChannels;
+    this.outstanding = new AtomicIntegerArray(numChannels);
+  }
+
+  /**
+   * Returns the channel that should be used for a new transaction and registers the transaction as
+   * in flight on that channel. Every call to this method must be followed by exactly one call to
+   * {@link #release(int)} for the returned channel.
+   */
+  int acquire() {
+    int start = Math.floorMod(nextStartChannel.getAndIncrement(), numChannels);
+    int bestChannel = start;
+    int bestOutstanding = outstanding.get(start);
+    for (int i = 1; i < numChannels && bestOutstanding > 0; i++) {
+      int channel = (start + i) % numChannels;
+      int channelOutstanding = outstanding.get(channel);
+      // Only a strictly lower number of transactions replaces the current best channel, so ties
+      // are broken by the rotating start channel.
+      if (channelOutstanding < bestOutstanding) {
+        bestChannel = channel;
+        bestOutstanding = channelOutstanding;
+      }
+    }
+    outstanding.incrementAndGet(bestChannel);
+    return bestChannel;
+  }
+
+  /** Registers that a transaction on the given channel has finished. */
+  void release(int channel) {
+    outstanding.decrementAndGet(channel);
+  }
+
+  @VisibleForTesting
+  int getOutstanding(int channel) {
+    return outstanding.get(channel);
+  }
+}
@@ -0,0 +1,330 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner;
+
+import static com.google.cloud.spanner.AbstractResultSet.valueProtoToFloat64;
+import static com.google.cloud.spanner.SpannerExceptionFactory.newSpannerException;
+
+import com.google.common.base.Preconditions;
+import com.google.protobuf.Value.KindCase;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * A batch of rows from a {@link ResultSet} that has been decoded into column vectors. Columns of
+ * type {@code BOOL}, {@code INT64}, {@code ENUM}, {@code PG_OID} and {@code FLOAT64} are stored as
+ * primitive arrays with a separate null bitmap, which means that reading these values does not
+ * create any boxed objects. Columns of all other types are stored as decoded Java objects.
+ *
+ * <p>Batches are returned by {@link ResultSet#nextBatch()} for queries and reads that use {@link
+ * DecodeMode#COLUMNAR_BATCH}.
+ */
+public final class ColumnarBatch {
+  private final Type type;
+  private final int rowCount;
+  private final Object[] columns;
+  private final BitSet[] nulls;
+
+  private ColumnarBatch(Type type, int rowCount, Object[] columns, BitSet[] nulls) {
+    this.type = type;
+    this.rowCount = rowCount;
+    this.columns = columns;
+    this.nulls = nulls;
+  }
+
+  /** Returns the row type of this batch. */
+  public Type getType() {
+    return type;
+  }
+
+  /** Returns the number of rows in this batch. */
+  public int getRowCount() {
+    return rowCount;
+  }
+
+  /** Returns the number of columns in this batch. */
+  public int getColumnCount() {
+    return columns.length;
+  }
+
+  /** Returns true if the value in the given column and row is {@code NULL}. */
+  public boolean isNull(int columnIndex, int rowIndex) {
+    checkRowIndex(rowIndex);
+    return nulls[columnIndex].get(rowIndex);
+  }
+
+  /**
+   * Returns a copy of the null bitmap of the given column. Bit {@code i} is set if the value of the
+   * column is {@code NULL} in row {@code i}.
+   */
+  public BitSet getNulls(int columnIndex) {
+    return (BitSet) nulls[columnIndex].clone();
+  }
+
+  /**
+   * Returns the value of a non-{@code NULL} {@code INT64}, {@code ENUM} or {@code PG_OID} column in
+   * the given row.
+   */
+  public long getLong(int columnIndex, int rowIndex) {
+    checkNonNull(columnIndex, rowIndex);
+    return getLongColumn(columnIndex)[rowIndex];
+  }
+
+  /** Returns the value of a non-{@code NULL} {@code FLOAT64} column in the given row. */
+  public double getDouble(int columnIndex, int rowIndex) {
+    checkNonNull(columnIndex, rowIndex);
+    return getDoubleColumn(columnIndex)[rowIndex];
+  }
+
+  /** Returns the value of a non-{@code NULL} {@code BOOL} column in the given row. */
+  public boolean getBoolean(int columnIndex, int rowIndex) {
+    checkNonNull(columnIndex, rowIndex);
+    return getBooleanColumn(columnIndex)[rowIndex];
+  }
+
+  /**
+   * Returns the values of an {@code INT64}, {@code ENUM} or {@code PG_OID} column. The array has
+   * exactly {@link #getRowCount()} elements. The value for a row that is {@code NULL} is 0. The
+   * returned array is not a copy and must not be modified.
+   */
+  public long[] getLongColumn(int columnIndex) {
+    return (long[]) getColumn(columnIndex, long[].class);
+  }
+
+  /**
+   * Returns the values of a {@code FLOAT64} column. The array has exactly {@link #getRowCount()}
+   * elements. The value for a row that is {@code NULL} is 0. The returned array is not a copy and
+   * must not be modified.
+   */
+  public double[] getDoubleColumn(int columnIndex) {
+    return (double[]) getColumn(columnIndex, double[].class);
+  }
+
+  /**
+   * Returns the values of a {@code BOOL} column. The array has exactly {@link #getRowCount()}
+   * elements. The value for a row that is {@code NULL} is false. The returned array is not a copy
+   * and must not be modified.
+   */
+  public boolean[] getBooleanColumn(int columnIndex) {
+    return (boolean[]) getColumn(columnIndex, boolean[].class);
+  }
+
+  /**
+   * Returns a {@link Struct} view of the given row. The getters of the returned {@link Struct} read
+   * directly from the column vectors of this batch.
+   */
+  public Struct getRow(int rowIndex) {
+    return new GrpcStruct(type, getRowData(rowIndex), DecodeMode.DIRECT);
+  }
+
+  /**
+   * Returns a view of the given row that contains the values as plain Java objects, in the same
+   * format as a row that is decoded with {@link DecodeMode#DIRECT}.
+   */
+  List<Object> getRowData(int rowIndex) {
+    checkRowIndex(rowIndex);
+    return new AbstractList<Object>() {
+      @Override
+      public Object get(int columnIndex) {
+        return getObject(columnIndex, rowIndex);
+      }
+
+      @Override
+      public int size() {
+        return columns.length;
+      }
+    };
+  }
+
+  /** Returns a new batch that contains the rows in the range [fromRow, toRow) of this batch. */
+  ColumnarBatch slice(int fromRow, int toRow) {
+    Preconditions.checkPositionIndexes(fromRow, toRow, rowCount);
+    Object[] slicedColumns = new Object[columns.length];
+    BitSet[] slicedNulls = new BitSet[columns.length];
+    for (int col = 0; col < columns.length; col++) {
+      Object column = columns[col];
+      if (column instanceof long[]) {
+        slicedColumns[col] = Arrays.copyOfRange((long[]) column, fromRow, toRow);
+      } else if (column instanceof double[]) {
+        slicedColumns[col] = Arrays.copyOfRange((double[]) column, fromRow, toRow);
+      } else if (column instanceof boolean[]) {
+        slicedColumns[col] = Arrays.copyOfRange((boolean[]) column, fromRow, toRow);
+      } else {
+        slicedColumns[col] = Arrays.copyOfRange((Object[]) column, fromRow, toRow);
+      }
+      slicedNulls[col] = nulls[col].get(fromRow, toRow);
+    }
+    return new ColumnarBatch(type, toRow - fromRow, slicedColumns, slicedNulls);
+  }
+
+  private Object getObject(int columnIndex, int rowIndex) {
+    if (nulls[columnIndex].get(rowIndex)) {
+      return null;
+    }
+    Object column = columns[columnIndex];
+    if (column instanceof long[]) {
+      return ((long[]) column)[rowIndex];
+    } else if (column instanceof double[]) {
+      return ((double[]) column)[rowIndex];
+    } else if (column instanceof boolean[]) {
+      return ((boolean[]) column)[rowIndex];
+    }
+    return ((Object[]) column)[rowIndex];
+  }
+
+  private Object getColumn(int columnIndex, Class<?> expectedClass) {
+    Object column = columns[columnIndex];
+    Preconditions.checkState(
+        expectedClass.isInstance(column),
+        "Column %s of type %s is not stored as %s",
+        columnIndex,
+        type.getStructFields().get(columnIndex).getType(),
+        expectedClass.getSimpleName());
+    return column;
+  }
+
+  private void checkRowIndex(int rowIndex) {
+    Preconditions.checkElementIndex(rowIndex, rowCount, "rowIndex");
+  }
+
+  private void checkNonNull(int columnIndex, int rowIndex) {
+    if (isNull(columnIndex, rowIndex)) {
+      throw AbstractResultSet.throwNotNull(columnIndex);
+    }
+  }
+
+  /** Decodes rows from a stream of protobuf values into column vectors. */
+  static final class Builder {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Type type;
+    private final Type[] columnTypes;
+    private final Object[] columns;
+    private final BitSet[] nulls;
+    private int capacity = INITIAL_CAPACITY;
+    private int rowCount;
+
+    Builder(Type type) {
+      this.type = type;
+      List<Type.StructField> fields = type.getStructFields();
+      this.columnTypes = new Type[fields.size()];
+      this.columns = new Object[fields.size()];
+      this.nulls = new BitSet[fields.size()];
+      for (int col = 0; col < fields.size(); col++) {
+        columnTypes[col] = fields.get(col).getType();
+        columns[col] = newColumn(columnTypes[col], capacity);
+        nulls[col] = new BitSet();
+      }
+    }
+
+    private static Object newColumn(Type columnType, int capacity) {
+      switch (columnType.getCode()) {
+        case BOOL:
+          return new boolean[capacity];
+        case INT64:
+        case ENUM:
+        case PG_OID:
+          return new long[capacity];
+        case FLOAT64:
+          return new double[capacity];
+        default:
+          return new Object[capacity];
+      }
+    }
+
+    int getRowCount() {
+      return rowCount;
+    }
+
+    /**
+     * Decodes the next row from the given iterator and adds it to the batch. Returns false if the
+     * iterator did not contain any more rows.
+     */
+    boolean addRow(Iterator<com.google.protobuf.Value> iterator) {
+      if (!iterator.hasNext()) {
+        return false;
+      }
+      if (rowCount == capacity) {
+        grow();
+      }
+      for (int col = 0; col < columns.length; col++) {
+        if (!iterator.hasNext()) {
+          throw newSpannerException(
+              ErrorCode.INTERNAL,
+              "Invalid value stream: end of stream reached before row is complete");
+        }
+        setValue(col, iterator.next());
+      }
+      rowCount++;
+      return true;
+    }
+
+    private void setValue(int col, com.google.protobuf.Value proto) {
+      if (proto.getKindCase() == KindCase.NULL_VALUE) {
+        nulls[col].set(rowCount);
+        return;
+      }
+      Type columnType = columnTypes[col];
+      switch (columnType.getCode()) {
+        case BOOL:
+          GrpcStruct.checkType(columnType, proto, KindCase.BOOL_VALUE);
+          ((boolean[]) columns[col])[rowCount] = proto.getBoolValue();
+          break;
+        case INT64:
+        case ENUM:
+        case PG_OID:
+          GrpcStruct.checkType(columnType, proto, KindCase.STRING_VALUE);
+          ((long[]) columns[col])[rowCount] = Long.parseLong(proto.getStringValue());
+          break;
+        case FLOAT64:
+          ((double[]) columns[col])[rowCount] = valueProtoToFloat64(proto);
+          break;
+        default:
+          ((Object[]) columns[col])[rowCount] = GrpcStruct.decodeValue(columnType, proto);
+      }
+    }
+
+    private void grow() {
+      capacity = capacity * 2;
+      for (int col = 0; col < columns.length; col++) {
+        columns[col] = resize(columns[col], capacity);
+      }
+    }
+
+    private static Object resize(Object column, int newLength) {
+      if (column instanceof long[]) {
+        return Arrays.copyOf((long[]) column, newLength);
+      } else if (column instanceof double[]) {
+        return Arrays.copyOf((double[]) column, newLength);
+      } else if (column instanceof boolean[]) {
+        return Arrays.copyOf((boolean[]) column, newLength);
+      }
+      return Arrays.copyOf((Object[]) column, newLength);
+    }
+
+    ColumnarBatch build() {
+      Object[] result = new Object[columns.length];
+      for (int col = 0; col < columns.length; col++) {
+        result[col] = rowCount == capacity ? columns[col] : resize(columns[col], rowCount);
+      }
+      return new ColumnarBatch(type, rowCount, result, nulls);
+    }
+  }
+}
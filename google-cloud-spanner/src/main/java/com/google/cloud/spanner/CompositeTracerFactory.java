@@ -19,6 +19,7 @@ package com.google.cloud.spanner;
 import com.google.api.core.InternalApi;
 import com.google.api.gax.tracing.ApiTracer;
 import com.google.api.gax.tracing.ApiTracerFactory;
+import com.google.api.gax.tracing.BaseApiTracer;
 import com.google.api.gax.tracing.BaseApiTracerFactory;
 import com.google.api.gax.tracing.SpanName;
 import com.google.common.collect.ImmutableList;
@@ -39,7 +40,14 @@ public class CompositeTracerFactory extends BaseApiTracerFactory {
     List<ApiTracer> children = new ArrayList<>(apiTracerFactories.size());
 
     for (ApiTracerFactory factory : apiTracerFactories) {
-      children.add(factory.newTracer(parent, spanName, operationType));
+      ApiTracer child = factory.newTracer(parent, spanName, operationType);
+      // Skip no-op tracers, so these are not called for each attempt and message of the RPC.
+      if (child != BaseApiTracer.getInstance()) {
+        children.add(child);
+      }
+    }
+    if (children.isEmpty()) {
+      return BaseApiTracer.getInstance();
     }
     return new CompositeTracer(children);
   }
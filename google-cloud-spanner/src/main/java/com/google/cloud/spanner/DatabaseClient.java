@@ -16,6 +16,7 @@
 
 package com.google.cloud.spanner;
 
+import com.google.api.core.ApiFuture;
 import com.google.api.gax.rpc.ServerStream;
 import com.google.cloud.Timestamp;
 import com.google.cloud.spanner.Options.RpcPriority;
@@ -601,4 +602,27 @@ public interface DatabaseClient {
    * idempotent, such as deleting old rows from a very large table.
    */
   long executePartitionedUpdate(Statement stmt, UpdateOption... options);
+
+  /**
+   * Same as {@link #executePartitionedUpdate(Statement, UpdateOption...)}, but executes the
+   * statement without blocking the calling thread. The statement is executed with a streaming RPC
+   * that delivers its results to the client without occupying a thread, and the returned {@link
+   * ApiFuture} returns the lower bound of the number of rows that were modified when the statement
+   * has finished. The statement is retried in the same way as by {@link
+   * #executePartitionedUpdate(Statement, UpdateOption...)}. The calling thread can be blocked while
+   * it waits for a session to become available before the statement is started.
+   *
+   * <p>Use {@link PartitionedUpdateRunner} to execute multiple Partitioned DML statements with a
+   * bounded number of concurrent statements.
+   *
+   * <p>Example of an asynchronous Partitioned DML statement.
+   *
+   * <pre>{@code
+   * String sql = "DELETE FROM Singers WHERE LastUpdated < TIMESTAMP '2024-01-01T00:00:00Z'";
+   * ApiFuture<Long> rowCount = dbClient.executePartitionedUpdateAsync(Statement.of(sql));
+   * }</pre>
+   */
+  default ApiFuture<Long> executePartitionedUpdateAsync(Statement stmt, UpdateOption... options) {
+    throw new UnsupportedOperationException("method should be overwritten");
+  }
 }
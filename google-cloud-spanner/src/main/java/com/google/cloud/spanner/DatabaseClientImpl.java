@@ -16,6 +16,9 @@
 
 package com.google.cloud.spanner;
 
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
 import com.google.api.gax.rpc.ServerStream;
 import com.google.cloud.Timestamp;
 import com.google.cloud.spanner.Options.TransactionOption;
@@ -24,8 +27,14 @@ import com.google.cloud.spanner.SessionPool.PooledSessionFuture;
 import com.google.cloud.spanner.SpannerImpl.ClosedException;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Function;
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.spanner.v1.BatchWriteResponse;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.Attributes;
+import java.time.Duration;
+import java.util.concurrent.Executor;
 import javax.annotation.Nullable;
 
 class DatabaseClientImpl implements DatabaseClient {
@@ -39,6 +48,8 @@ class DatabaseClientImpl implements DatabaseClient {
   @VisibleForTesting final boolean useMultiplexedSessionForRW;
 
   final boolean useMultiplexedSessionBlindWrite;
+  @Nullable private volatile WriteCoalescer writeCoalescer;
+  @Nullable private volatile StaleReadCache staleReadCache;
 
   @VisibleForTesting
   DatabaseClientImpl(SessionPool pool, TraceWrapper tracer) {
@@ -77,6 +88,43 @@ class DatabaseClientImpl implements DatabaseClient {
     this.useMultiplexedSessionForRW = useMultiplexedSessionForRW;
   }
 
+  /**
+   * Enables combining concurrent {@link #writeAtLeastOnce(Iterable)} calls into BatchWrite RPCs.
+   * Must be called before the client is returned to the user.
+   */
+  void enableWriteCoalescing(Duration lingerTime, int maxBatchSize) {
+    this.writeCoalescer =
+        new WriteCoalescer(
+            mutationGroups -> batchWriteAtLeastOnce(mutationGroups), lingerTime, maxBatchSize);
+  }
+
+  @VisibleForTesting
+  @Nullable
+  WriteCoalescer getWriteCoalescer() {
+    return writeCoalescer;
+  }
+
+  /**
+   * Enables the client-side result cache for single-use stale reads and queries. Must be called
+   * before the client is returned to the user.
+   */
+  void enableStaleReadCache(long maxBytes, OpenTelemetry openTelemetry, Attributes attributes) {
+    StaleReadCache cache = new StaleReadCache(maxBytes);
+    cache.registerMetrics(openTelemetry, attributes);
+    this.staleReadCache = cache;
+  }
+
+  @VisibleForTesting
+  @Nullable
+  StaleReadCache getStaleReadCache() {
+    return staleReadCache;
+  }
+
+  /** Returns the executor that is used for asynchronous operations of this client. */
+  Executor getAsyncExecutor() {
+    return pool.getAsyncExecutorProvider().getExecutor();
+  }
+
   @VisibleForTesting
   PooledSessionFuture getSession() {
     return pool.getSession();
@@ -107,6 +155,13 @@ class DatabaseClientImpl implements DatabaseClient {
         && this.multiplexedSessionDatabaseClient.isMultiplexedSessionsSupported();
   }
 
+  private boolean canUseMultiplexedSessionsForPartitionedOps() {
+    return this.multiplexedSessionDatabaseClient != null
+        && this.multiplexedSessionDatabaseClient.isMultiplexedSessionsSupported()
+        && this.multiplexedSessionDatabaseClient.isMultiplexedSessionsForPartitionedOpsEnabled()
+        && this.multiplexedSessionDatabaseClient.isMultiplexedSessionsForPartitionedOpsSupported();
+  }
+
   private boolean canUseMultiplexedSessionsForRW() {
     return this.useMultiplexedSessionForRW
         && this.multiplexedSessionDatabaseClient != null
@@ -158,6 +213,11 @@ class DatabaseClientImpl implements DatabaseClient {
       throws SpannerException {
     ISpan span = tracer.spanBuilder(READ_WRITE_TRANSACTION, options);
     try (IScope s = tracer.withSpan(span)) {
+      if (writeCoalescer != null && options.length == 0) {
+        // Options such as request tags and commit stats apply to a single commit, which means that
+        // only writes without options can be combined with other writes.
+        return SpannerApiFutures.get(writeCoalescer.write(mutations));
+      }
       if (useMultiplexedSessionBlindWrite && getMultiplexedSessionDatabaseClient() != null) {
         return getMultiplexedSessionDatabaseClient()
             .writeAtLeastOnceWithOptions(mutations, options);
@@ -178,6 +238,9 @@ class DatabaseClientImpl implements DatabaseClient {
       throws SpannerException {
     ISpan span = tracer.spanBuilder(READ_WRITE_TRANSACTION, options);
     try (IScope s = tracer.withSpan(span)) {
+      if (useMultiplexedSessionBlindWrite && getMultiplexedSessionDatabaseClient() != null) {
+        return getMultiplexedSessionDatabaseClient().batchWriteAtLeastOnce(mutationGroups, options);
+      }
       return runWithSessionRetry(session -> session.batchWriteAtLeastOnce(mutationGroups, options));
     } catch (RuntimeException e) {
       span.setStatus(e);
@@ -201,6 +264,11 @@ class DatabaseClientImpl implements DatabaseClient {
 
   @Override
   public ReadContext singleUse(TimestampBound bound) {
+    StaleReadCache cache = this.staleReadCache;
+    if (cache != null && StaleReadCache.isCacheable(bound)) {
+      // The read timestamp of a single-use read-only transaction is needed to cache the result.
+      return cache.createReadContext(bound, () -> singleUseReadOnlyTransaction(bound));
+    }
     ISpan span = tracer.spanBuilder(READ_ONLY_TRANSACTION);
     try (IScope s = tracer.withSpan(span)) {
       return getMultiplexedSession().singleUse(bound);
@@ -311,6 +379,19 @@ class DatabaseClientImpl implements DatabaseClient {
   public long executePartitionedUpdate(final Statement stmt, final UpdateOption... options) {
     ISpan span = tracer.spanBuilder(PARTITION_DML_TRANSACTION);
     try (IScope s = tracer.withSpan(span)) {
+      if (canUseMultiplexedSessionsForPartitionedOps()) {
+        try {
+          return this.multiplexedSessionDatabaseClient.executePartitionedUpdate(stmt, options);
+        } catch (SpannerException spannerException) {
+          // Fall back to a regular session if Partitioned DML is not supported on multiplexed
+          // sessions. The flag is set by the multiplexed session client when it receives an
+          // UNIMPLEMENTED error for this specific reason.
+          if (this.multiplexedSessionDatabaseClient
+              .isMultiplexedSessionsForPartitionedOpsSupported()) {
+            throw spannerException;
+          }
+        }
+      }
       return runWithSessionRetry(session -> session.executePartitionedUpdate(stmt, options));
     } catch (RuntimeException e) {
       span.setStatus(e);
@@ -319,6 +400,80 @@ class DatabaseClientImpl implements DatabaseClient {
     }
   }
 
+  @Override
+  public ApiFuture<Long> executePartitionedUpdateAsync(
+      final Statement stmt, final UpdateOption... options) {
+    ISpan span = tracer.spanBuilder(PARTITION_DML_TRANSACTION);
+    try (IScope s = tracer.withSpan(span)) {
+      ApiFuture<Long> result;
+      if (canUseMultiplexedSessionsForPartitionedOps()) {
+        ApiFuture<Long> multiplexedResult;
+        try {
+          multiplexedResult =
+              this.multiplexedSessionDatabaseClient.executePartitionedUpdateAsync(stmt, options);
+        } catch (SpannerException spannerException) {
+          multiplexedResult = ApiFutures.immediateFailedFuture(spannerException);
+        }
+        result =
+            ApiFutures.catchingAsync(
+                multiplexedResult,
+                SpannerException.class,
+                spannerException -> {
+                  // Fall back to a regular session if Partitioned DML is not supported on
+                  // multiplexed sessions, in the same way as executePartitionedUpdate.
+                  if (this.multiplexedSessionDatabaseClient
+                      .isMultiplexedSessionsForPartitionedOpsSupported()) {
+                    throw spannerException;
+                  }
+                  return executePartitionedUpdateWithSessionRetryAsync(
+                      getSession(), stmt, options);
+                },
+                MoreExecutors.directExecutor());
+      } else {
+        result = executePartitionedUpdateWithSessionRetryAsync(getSession(), stmt, options);
+      }
+      ApiFutures.addCallback(
+          result,
+          new ApiFutureCallback<Long>() {
+            @Override
+            public void onSuccess(Long updateCount) {
+              span.end();
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+              span.setStatus(t);
+              span.end();
+            }
+          },
+          MoreExecutors.directExecutor());
+      return result;
+    } catch (RuntimeException e) {
+      span.setStatus(e);
+      span.end();
+      throw e;
+    }
+  }
+
+  /**
+   * Executes a Partitioned DML statement asynchronously on the given session, and retries the
+   * statement on a new session if the session is not found.
+   */
+  private ApiFuture<Long> executePartitionedUpdateWithSessionRetryAsync(
+      PooledSessionFuture session, Statement stmt, UpdateOption... options) {
+    return ApiFutures.catchingAsync(
+        session.executePartitionedUpdateAsync(stmt, options),
+        SessionNotFoundException.class,
+        sessionNotFoundException ->
+            executePartitionedUpdateWithSessionRetryAsync(
+                (PooledSessionFuture)
+                    pool.getPooledSessionReplacementHandler()
+                        .replaceSession(sessionNotFoundException, session),
+                stmt,
+                options),
+        MoreExecutors.directExecutor());
+  }
+
   private <T> T runWithSessionRetry(Function<Session, T> callable) {
     PooledSessionFuture session = getSession();
     while (true) {
@@ -340,6 +495,17 @@ class DatabaseClientImpl implements DatabaseClient {
   }
 
   ListenableFuture<Void> closeAsync(ClosedException closedException) {
+    if (this.writeCoalescer != null) {
+      // Writes any pending writes and closes the sessions once these have finished.
+      return Futures.transformAsync(
+          this.writeCoalescer.closeAsync(),
+          ignore -> closeSessionsAsync(closedException),
+          MoreExecutors.directExecutor());
+    }
+    return closeSessionsAsync(closedException);
+  }
+
+  private ListenableFuture<Void> closeSessionsAsync(ClosedException closedException) {
     if (this.multiplexedSessionDatabaseClient != null) {
       // This method is non-blocking.
       this.multiplexedSessionDatabaseClient.close();
@@ -32,4 +32,12 @@ public enum DecodeMode {
    * Decodes a columns of a row the first time the value of that column is retrieved from the row.
    */
   LAZY_PER_COL,
+  /**
+   * Decodes all rows in each message that is received from Spanner into a {@link ColumnarBatch}.
+   * Columns of type {@code BOOL}, {@code INT64} and {@code FLOAT64} are decoded into primitive
+   * arrays, which means that no boxed objects are created for these values. Batches can be
+   * retrieved with {@link ResultSet#nextBatch()}. The getters of {@link ResultSet} can still be
+   * used, and read the values of the current row from the current batch.
+   */
+  COLUMNAR_BATCH,
 }
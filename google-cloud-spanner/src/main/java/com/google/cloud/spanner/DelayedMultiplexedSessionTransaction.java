@@ -20,11 +20,14 @@ import static com.google.cloud.spanner.SessionImpl.NO_CHANNEL_HINT;
 
 import com.google.api.core.ApiFuture;
 import com.google.api.core.ApiFutures;
+import com.google.api.gax.rpc.ServerStream;
 import com.google.cloud.Timestamp;
 import com.google.cloud.spanner.DelayedReadContext.DelayedReadOnlyTransaction;
 import com.google.cloud.spanner.MultiplexedSessionDatabaseClient.MultiplexedSessionTransaction;
 import com.google.cloud.spanner.Options.TransactionOption;
+import com.google.cloud.spanner.Options.UpdateOption;
 import com.google.common.util.concurrent.MoreExecutors;
+import com.google.spanner.v1.BatchWriteResponse;
 import java.util.concurrent.ExecutionException;
 
 /**
@@ -163,6 +166,44 @@ class DelayedMultiplexedSessionTransaction extends AbstractMultiplexedSessionDat
     }
   }
 
+  // This is a blocking method, as the interface that it implements is also defined as a blocking
+  // method.
+  @Override
+  public ServerStream<BatchWriteResponse> batchWriteAtLeastOnce(
+      Iterable<MutationGroup> mutationGroups, TransactionOption... options)
+      throws SpannerException {
+    SessionReference sessionReference = getSessionReference();
+    try (MultiplexedSessionTransaction transaction =
+        new MultiplexedSessionTransaction(
+            client, span, sessionReference, NO_CHANNEL_HINT, /* singleUse = */ false)) {
+      return transaction.batchWriteAtLeastOnce(mutationGroups, options);
+    }
+  }
+
+  // This is a blocking method, as the interface that it implements is also defined as a blocking
+  // method.
+  @Override
+  public long executePartitionedUpdate(Statement stmt, UpdateOption... options) {
+    SessionReference sessionReference = getSessionReference();
+    try (MultiplexedSessionTransaction transaction =
+        new MultiplexedSessionTransaction(
+            client, span, sessionReference, NO_CHANNEL_HINT, /* singleUse = */ false)) {
+      return transaction.executePartitionedUpdate(stmt, options);
+    }
+  }
+
+  @Override
+  public ApiFuture<Long> executePartitionedUpdateAsync(Statement stmt, UpdateOption... options) {
+    // The transaction is marked as done by the transaction itself when the update has finished.
+    return ApiFutures.transformAsync(
+        this.sessionFuture,
+        sessionReference ->
+            new MultiplexedSessionTransaction(
+                    client, span, sessionReference, NO_CHANNEL_HINT, /* singleUse = */ false)
+                .executePartitionedUpdateAsync(stmt, options),
+        MoreExecutors.directExecutor());
+  }
+
   @Override
   public TransactionRunner readWriteTransaction(TransactionOption... options) {
     return new DelayedTransactionRunner(
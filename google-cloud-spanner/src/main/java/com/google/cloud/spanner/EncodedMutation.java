@@ -0,0 +1,97 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner;
+
+import com.google.cloud.spanner.Mutation.Op;
+import java.util.Objects;
+
+/**
+ * A write mutation that has already been encoded to the format that is sent to Cloud Spanner. Use
+ * a {@link MutationWriter} to create an {@code EncodedMutation}, and {@link
+ * TransactionContext#buffer(EncodedMutation)} to apply it in a read/write transaction.
+ *
+ * <p>{@code EncodedMutation} instances are immutable.
+ */
+public final class EncodedMutation {
+  private final Op operation;
+  private final com.google.spanner.v1.Mutation proto;
+
+  EncodedMutation(Op operation, com.google.spanner.v1.Mutation proto) {
+    this.operation = operation;
+    this.proto = proto;
+  }
+
+  /** Returns the name of the table that this mutation will affect. */
+  public String getTable() {
+    return getWrite().getTable();
+  }
+
+  /** Returns the type of operation that this mutation will perform. */
+  public Op getOperation() {
+    return operation;
+  }
+
+  /** Returns the number of rows that this mutation will write. */
+  public int getRowCount() {
+    return getWrite().getValuesCount();
+  }
+
+  int getColumnCount() {
+    return getWrite().getColumnsCount();
+  }
+
+  private com.google.spanner.v1.Mutation.Write getWrite() {
+    switch (operation) {
+      case INSERT:
+        return proto.getInsert();
+      case UPDATE:
+        return proto.getUpdate();
+      case INSERT_OR_UPDATE:
+        return proto.getInsertOrUpdate();
+      case REPLACE:
+        return proto.getReplace();
+      default:
+        throw new AssertionError("Impossible: " + operation);
+    }
+  }
+
+  com.google.spanner.v1.Mutation toProto() {
+    return proto;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof EncodedMutation)) {
+      return false;
+    }
+    EncodedMutation that = (EncodedMutation) o;
+    return operation == that.operation && proto.equals(that.proto);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(operation, proto);
+  }
+
+  @Override
+  public String toString() {
+    return operation + "(" + getTable() + ", " + getRowCount() + " rows)";
+  }
+}
@@ -49,6 +49,12 @@ public class ForwardingAsyncResultSet extends ForwardingResultSet implements Asy
     return getDelegate().setCallback(exec, cb);
   }
 
+  @Override
+  public ApiFuture<Void> setBatchCallback(
+      Executor exec, int maxBatchRows, long maxBatchBytes, BatchReadyCallback cb) {
+    return getDelegate().setBatchCallback(exec, maxBatchRows, maxBatchBytes, cb);
+  }
+
   @Override
   public void cancel() {
     getDelegate().cancel();
@@ -61,6 +61,11 @@ public class ForwardingResultSet extends ForwardingStructReader
     return delegate.get().next();
   }
 
+  @Override
+  public ColumnarBatch nextBatch() throws SpannerException {
+    return delegate.get().nextBatch();
+  }
+
   @Override
   public boolean canGetProtobufValue(int columnIndex) {
     ResultSet resultSetDelegate = delegate.get();
@@ -39,6 +39,8 @@ class GrpcResultSet extends AbstractResultSet<List<Object>>
   private ResultSetMetadata metadata;
   private GrpcStruct currRow;
   private List<Object> rowData;
+  private ColumnarBatch batch;
+  private int batchRow;
   private SpannerException error;
   private ResultSetStats statistics;
   private boolean closed;
@@ -79,25 +81,11 @@ class GrpcResultSet extends AbstractResultSet<List<Object>>
       throw newSpannerException(error);
     }
     try {
-      if (currRow == null) {
-        metadata = iterator.getMetadata();
-        if (metadata.hasTransaction()) {
-          listener.onTransactionMetadata(
-              metadata.getTransaction(), iterator.isWithBeginTransaction());
-        } else if (iterator.isWithBeginTransaction()) {
-          // The query should have returned a transaction.
-          throw SpannerExceptionFactory.newSpannerException(
-              ErrorCode.FAILED_PRECONDITION, AbstractReadContext.NO_TRANSACTION_RETURNED_MSG);
-        }
-        if (rowData == null) {
-          rowData = new ArrayList<>(metadata.getRowType().getFieldsCount());
-          if (decodeMode != DecodeMode.DIRECT) {
-            rowData = Collections.synchronizedList(rowData);
-          }
-        } else {
-          rowData.clear();
-        }
-        currRow = new GrpcStruct(iterator.type(), rowData, decodeMode);
+      if (metadata == null) {
+        initMetadata();
+      }
+      if (decodeMode == DecodeMode.COLUMNAR_BATCH) {
+        return nextRowInBatch();
       }
       boolean hasNext = currRow.consumeRow(iterator);
       if (!hasNext) {
@@ -109,8 +97,102 @@ class GrpcResultSet extends AbstractResultSet<List<Object>>
     } catch (Throwable t) {
       throw yieldError(
           SpannerExceptionFactory.asSpannerException(t),
-          iterator.isWithBeginTransaction() && currRow == null);
+          iterator.isWithBeginTransaction() && metadata == null);
+    }
+  }
+
+  @Override
+  public ColumnarBatch nextBatch() throws SpannerException {
+    checkState(
+        decodeMode == DecodeMode.COLUMNAR_BATCH,
+        "nextBatch() is only supported for DecodeMode#COLUMNAR_BATCH");
+    if (error != null) {
+      throw newSpannerException(error);
+    }
+    try {
+      if (metadata == null) {
+        initMetadata();
+      }
+      ColumnarBatch result;
+      if (batch != null && batchRow + 1 < batch.getRowCount()) {
+        result = batch.slice(batchRow + 1, batch.getRowCount());
+      } else {
+        result = decodeBatch();
+      }
+      if (result == null) {
+        statistics = iterator.getStats();
+        close();
+        return null;
+      }
+      batch = result;
+      batchRow = result.getRowCount() - 1;
+      currRow = new GrpcStruct(iterator.type(), batch.getRowData(batchRow), DecodeMode.DIRECT);
+      return result;
+    } catch (Throwable t) {
+      throw yieldError(
+          SpannerExceptionFactory.asSpannerException(t),
+          iterator.isWithBeginTransaction() && metadata == null);
+    }
+  }
+
+  private void initMetadata() {
+    // The metadata is only assigned once the transaction has been returned, so errors that occur
+    // before that are reported as a failed BeginTransaction.
+    ResultSetMetadata metadata = iterator.getMetadata();
+    if (metadata.hasTransaction()) {
+      listener.onTransactionMetadata(metadata.getTransaction(), iterator.isWithBeginTransaction());
+    } else if (iterator.isWithBeginTransaction()) {
+      // The query should have returned a transaction.
+      throw SpannerExceptionFactory.newSpannerException(
+          ErrorCode.FAILED_PRECONDITION, AbstractReadContext.NO_TRANSACTION_RETURNED_MSG);
+    }
+    this.metadata = metadata;
+    if (decodeMode == DecodeMode.COLUMNAR_BATCH) {
+      return;
+    }
+    if (rowData == null) {
+      rowData = new ArrayList<>(metadata.getRowType().getFieldsCount());
+      if (decodeMode != DecodeMode.DIRECT) {
+        rowData = Collections.synchronizedList(rowData);
+      }
+    } else {
+      rowData.clear();
+    }
+    currRow = new GrpcStruct(iterator.type(), rowData, decodeMode);
+  }
+
+  /**
+   * Moves to the next row in the current batch, and decodes a new batch if all rows in the current
+   * batch have been consumed. The current row is a view of the row in the batch.
+   */
+  private boolean nextRowInBatch() {
+    if (batch == null || batchRow + 1 >= batch.getRowCount()) {
+      batch = decodeBatch();
+      batchRow = -1;
+      if (batch == null) {
+        statistics = iterator.getStats();
+        // Close the ResultSet when there is no more data.
+        close();
+        return false;
+      }
     }
+    batchRow++;
+    currRow = new GrpcStruct(iterator.type(), batch.getRowData(batchRow), DecodeMode.DIRECT);
+    return true;
+  }
+
+  /**
+   * Decodes all rows that are in the {@link PartialResultSet} that is currently being consumed. The
+   * first row of the batch may block until a new {@link PartialResultSet} has been received.
+   * Returns null if there are no more rows.
+   */
+  @Nullable
+  private ColumnarBatch decodeBatch() {
+    ColumnarBatch.Builder builder = new ColumnarBatch.Builder(iterator.type());
+    while (builder.addRow(iterator) && iterator.hasBufferedValues()) {
+      // Continue until all rows in the current PartialResultSet have been decoded.
+    }
+    return builder.getRowCount() == 0 ? null : builder.build();
   }
 
   @Override
@@ -145,8 +227,8 @@ class GrpcResultSet extends AbstractResultSet<List<Object>>
 
   @Override
   public Type getType() {
-    checkState(currRow != null, "next() call required");
-    return currRow.getType();
+    checkState(metadata != null, "next() call required");
+    return iterator.type();
   }
 
   private SpannerException yieldError(SpannerException e, boolean beginTransaction) {
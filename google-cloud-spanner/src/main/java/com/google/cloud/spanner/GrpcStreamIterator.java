@@ -24,6 +24,7 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.AbstractIterator;
 import com.google.common.util.concurrent.Uninterruptibles;
 import com.google.spanner.v1.PartialResultSet;
+import com.google.spanner.v1.ResultSetMetadata;
 import java.time.Duration;
 import java.util.Optional;
 import java.util.concurrent.BlockingQueue;
@@ -44,6 +45,9 @@ class GrpcStreamIterator extends AbstractIterator<PartialResultSet>
   private final ConsumerImpl consumer;
   private final BlockingQueue<PartialResultSet> stream;
   private final Statement statement;
+  private final int prefetchChunks;
+  @Nullable private final AdaptivePrefetchController.StreamWindow window;
+  @Nullable private AbstractResultSet.Listener transactionListener;
 
   private SpannerRpc.StreamingCall call;
   private volatile boolean withBeginTransaction;
@@ -59,10 +63,27 @@ class GrpcStreamIterator extends AbstractIterator<PartialResultSet>
   @VisibleForTesting
   GrpcStreamIterator(
       Statement statement, int prefetchChunks, boolean cancelQueryWhenClientIsClosed) {
+    this(statement, prefetchChunks, cancelQueryWhenClientIsClosed, null);
+  }
+
+  /**
+   * Creates a stream iterator. If a {@link AdaptivePrefetchController.StreamWindow} is given, the
+   * window determines the number of messages that is requested, and registers the bytes that are
+   * buffered by this stream with its {@link AdaptivePrefetchController}. Otherwise, the stream
+   * always prefetches prefetchChunks messages.
+   */
+  GrpcStreamIterator(
+      Statement statement,
+      int prefetchChunks,
+      boolean cancelQueryWhenClientIsClosed,
+      @Nullable AdaptivePrefetchController.StreamWindow window) {
     this.statement = statement;
+    this.prefetchChunks = prefetchChunks;
     this.consumer = new ConsumerImpl(cancelQueryWhenClientIsClosed);
+    this.window = window;
     // One extra to allow for END_OF_STREAM message.
-    this.stream = new LinkedBlockingQueue<>(prefetchChunks + 1);
+    this.stream =
+        new LinkedBlockingQueue<>((window == null ? prefetchChunks : window.getMaxWindow()) + 1);
   }
 
   protected final SpannerRpc.ResultStreamConsumer consumer() {
@@ -73,6 +94,17 @@ class GrpcStreamIterator extends AbstractIterator<PartialResultSet>
     this.streamMessageListener = Preconditions.checkNotNull(streamMessageListener);
   }
 
+  /**
+   * Sets the listener that is notified of the transaction that is returned by a stream that
+   * includes a BeginTransaction option. The listener is notified as soon as the first message of
+   * the stream is received, instead of when the consumer of the stream reads that message. This
+   * allows other statements that are waiting for the transaction id to proceed while the result of
+   * the first statement has not yet been read. Must be called before the call is started.
+   */
+  void setTransactionListener(AbstractResultSet.Listener transactionListener) {
+    this.transactionListener = Preconditions.checkNotNull(transactionListener);
+  }
+
   public void setCall(SpannerRpc.StreamingCall call, boolean withBeginTransaction) {
     this.call = call;
     this.withBeginTransaction = withBeginTransaction;
@@ -95,11 +127,23 @@ class GrpcStreamIterator extends AbstractIterator<PartialResultSet>
     }
   }
 
+  /** Requests the initial batch of messages for the call that has been set on this iterator. */
+  void requestInitialMessages() {
+    if (window == null) {
+      call.request(prefetchChunks);
+    } else {
+      call.request(window.initialRequest());
+    }
+  }
+
   @Override
   public void close(@Nullable String message) {
     if (call != null) {
       call.cancel(message);
     }
+    if (window != null) {
+      window.close();
+    }
   }
 
   @Override
@@ -110,6 +154,7 @@ class GrpcStreamIterator extends AbstractIterator<PartialResultSet>
   @Override
   protected final PartialResultSet computeNext() {
     PartialResultSet next;
+    boolean waited = window != null && stream.isEmpty();
     try {
       if (streamWaitTimeoutUnit != null) {
         next = stream.poll(streamWaitTimeoutValue, streamWaitTimeoutUnit);
@@ -125,12 +170,19 @@ class GrpcStreamIterator extends AbstractIterator<PartialResultSet>
       throw SpannerExceptionFactory.propagateInterrupt(e);
     }
     if (next != END_OF_STREAM) {
-      call.request(1);
+      int numMessages =
+          window == null ? 1 : window.onMessageConsumed(next.getSerializedSize(), waited);
+      if (numMessages > 0) {
+        call.request(numMessages);
+      }
       return next;
     }
 
     // All done - close() no longer needs to cancel the call.
     call = null;
+    if (window != null) {
+      window.close();
+    }
 
     if (error != null) {
       throw SpannerExceptionFactory.newSpannerException(error);
@@ -141,11 +193,33 @@ class GrpcStreamIterator extends AbstractIterator<PartialResultSet>
   }
 
   private void addToStream(PartialResultSet results) {
+    if (results != END_OF_STREAM) {
+      if (window != null) {
+        window.onMessageReceived(results.getSerializedSize());
+      }
+    }
     // We assume that nothing from the user will interrupt gRPC event threads.
     Uninterruptibles.putUninterruptibly(stream, results);
     onStreamMessage(results);
   }
 
+  /**
+   * Notifies the transaction listener of the transaction in the given metadata. This is called on
+   * the gRPC thread before the message is added to the stream, so the transaction is known before
+   * the consumer of the stream reads the message.
+   */
+  private void releaseTransaction(ResultSetMetadata metadata) {
+    if (!metadata.hasTransaction() || metadata.getTransaction().getId().isEmpty()) {
+      // The consumer of the stream will raise an error for the missing transaction.
+      return;
+    }
+    try {
+      transactionListener.onTransactionMetadata(metadata.getTransaction(), true);
+    } catch (SpannerException ignore) {
+      // Ignore, the same error is raised when the consumer of the stream reads the metadata.
+    }
+  }
+
   private class ConsumerImpl implements SpannerRpc.ResultStreamConsumer {
     private final boolean cancelQueryWhenClientIsClosed;
 
@@ -155,6 +229,9 @@ class GrpcStreamIterator extends AbstractIterator<PartialResultSet>
 
     @Override
     public void onPartialResultSet(PartialResultSet results) {
+      if (withBeginTransaction && transactionListener != null && results.hasMetadata()) {
+        releaseTransaction(results.getMetadata());
+      }
       addToStream(results);
     }
 
@@ -33,18 +33,17 @@ import com.google.cloud.spanner.Type.Code;
 import com.google.cloud.spanner.Type.StructField;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Lists;
-import com.google.common.io.CharSource;
 import com.google.protobuf.AbstractMessage;
 import com.google.protobuf.ListValue;
 import com.google.protobuf.NullValue;
 import com.google.protobuf.ProtocolMessageEnum;
 import com.google.protobuf.Value.KindCase;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.Serializable;
 import java.math.BigDecimal;
-import java.nio.charset.StandardCharsets;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
-import java.util.Base64;
 import java.util.BitSet;
 import java.util.Collections;
 import java.util.Iterator;
@@ -262,7 +261,7 @@ class GrpcStruct extends Struct implements Serializable {
     }
   }
 
-  private static Object decodeValue(Type fieldType, com.google.protobuf.Value proto) {
+  static Object decodeValue(Type fieldType, com.google.protobuf.Value proto) {
     if (proto.getKindCase() == KindCase.NULL_VALUE) {
       return null;
     }
@@ -355,7 +354,7 @@ class GrpcStruct extends Struct implements Serializable {
     }
   }
 
-  private static void checkType(
+  static void checkType(
       Type fieldType, com.google.protobuf.Value proto, KindCase expected) {
     if (proto.getKindCase() != expected) {
       throw newSpannerException(
@@ -411,13 +410,7 @@ class GrpcStruct extends Struct implements Serializable {
       return (T)
           message
               .toBuilder()
-              .mergeFrom(
-                  Base64.getDecoder()
-                      .wrap(
-                          CharSource.wrap(
-                                  ((LazyByteArray) rowData.get(columnIndex)).getBase64String())
-                              .asByteSource(StandardCharsets.UTF_8)
-                              .openStream()))
+              .mergeFrom(((LazyByteArray) rowData.get(columnIndex)).asInputStream())
               .build();
     } catch (IOException ioException) {
       throw SpannerExceptionFactory.asSpannerException(ioException);
@@ -486,6 +479,16 @@ class GrpcStruct extends Struct implements Serializable {
     return getLazyBytesInternal(columnIndex).getByteArray();
   }
 
+  @Override
+  protected ByteBuffer getBytesAsByteBufferInternal(int columnIndex) {
+    return getLazyBytesInternal(columnIndex).asReadOnlyByteBuffer();
+  }
+
+  @Override
+  protected InputStream getBytesAsInputStreamInternal(int columnIndex) {
+    return getLazyBytesInternal(columnIndex).asInputStream();
+  }
+
   LazyByteArray getLazyBytesInternal(int columnIndex) {
     ensureDecoded(columnIndex);
     return (LazyByteArray) rowData.get(columnIndex);
@@ -782,12 +785,7 @@ class GrpcStruct extends Struct implements Serializable {
               (T)
                   message
                       .toBuilder()
-                      .mergeFrom(
-                          Base64.getDecoder()
-                              .wrap(
-                                  CharSource.wrap(protoMessageBytes.getBase64String())
-                                      .asByteSource(StandardCharsets.UTF_8)
-                                      .openStream()))
+                      .mergeFrom(protoMessageBytes.asInputStream())
                       .build());
         }
       }
@@ -22,12 +22,12 @@ import static com.google.common.base.Preconditions.checkState;
 import com.google.cloud.spanner.AbstractResultSet.CloseableIterator;
 import com.google.cloud.spanner.AbstractResultSet.Listener;
 import com.google.common.collect.AbstractIterator;
+import com.google.protobuf.ByteString;
 import com.google.protobuf.ListValue;
 import com.google.protobuf.Value.KindCase;
 import com.google.spanner.v1.PartialResultSet;
 import com.google.spanner.v1.ResultSetMetadata;
 import com.google.spanner.v1.ResultSetStats;
-import com.google.spanner.v1.TypeCode;
 import java.util.ArrayList;
 import java.util.List;
 import javax.annotation.Nullable;
@@ -52,7 +52,6 @@ class GrpcValueIterator extends AbstractIterator<com.google.protobuf.Value> {
     this.listener = listener;
   }
 
-  @SuppressWarnings("unchecked")
   @Override
   protected com.google.protobuf.Value computeNext() {
     if (!ensureReady(StreamValue.RESULT)) {
@@ -73,39 +72,48 @@ class GrpcValueIterator extends AbstractIterator<com.google.protobuf.Value> {
       return value;
     }
 
-    Object merged =
-        kind == KindCase.STRING_VALUE
-            ? value.getStringValue()
-            : new ArrayList<>(value.getListValue().getValuesList());
+    if (kind == KindCase.STRING_VALUE) {
+      return mergeChunkedString(value);
+    }
+    List<com.google.protobuf.Value> merged = new ArrayList<>(value.getListValue().getValuesList());
     while (current.getChunkedValue() && pos == current.getValuesCount()) {
-      if (!ensureReady(StreamValue.RESULT)) {
-        throw newSpannerException(
-            ErrorCode.INTERNAL, "Stream closed in the middle of chunked value");
-      }
-      com.google.protobuf.Value newValue = current.getValues(pos++);
-      if (newValue.getKindCase() != kind) {
-        throw newSpannerException(
-            ErrorCode.INTERNAL,
-            "Unexpected type in middle of chunked value. Expected: "
-                + kind
-                + " but got: "
-                + newValue.getKindCase());
-      }
-      if (kind == KindCase.STRING_VALUE) {
-        merged = merged + newValue.getStringValue();
-      } else {
-        concatLists(
-            (List<com.google.protobuf.Value>) merged, newValue.getListValue().getValuesList());
-      }
+      com.google.protobuf.Value newValue = nextChunk(kind);
+      concatLists(merged, newValue.getListValue().getValuesList());
     }
-    if (kind == KindCase.STRING_VALUE) {
-      return com.google.protobuf.Value.newBuilder().setStringValue((String) merged).build();
-    } else {
-      return com.google.protobuf.Value.newBuilder()
-          .setListValue(
-              ListValue.newBuilder().addAllValues((List<com.google.protobuf.Value>) merged))
-          .build();
+    return com.google.protobuf.Value.newBuilder()
+        .setListValue(ListValue.newBuilder().addAllValues(merged))
+        .build();
+  }
+
+  /**
+   * Merges a string value that has been split across multiple {@link PartialResultSet}s. The
+   * chunks are concatenated as {@link ByteString}s, which creates a rope instead of copying the
+   * data that has been received so far for each new chunk. The merged value is only decoded to a
+   * {@link String} once, when it is actually read.
+   */
+  private com.google.protobuf.Value mergeChunkedString(com.google.protobuf.Value first) {
+    ByteString merged = first.getStringValueBytes();
+    while (current.getChunkedValue() && pos == current.getValuesCount()) {
+      merged = merged.concat(nextChunk(KindCase.STRING_VALUE).getStringValueBytes());
+    }
+    return com.google.protobuf.Value.newBuilder().setStringValueBytes(merged).build();
+  }
+
+  /** Returns the next part of a chunked value and verifies that it is of the expected kind. */
+  private com.google.protobuf.Value nextChunk(KindCase kind) {
+    if (!ensureReady(StreamValue.RESULT)) {
+      throw newSpannerException(ErrorCode.INTERNAL, "Stream closed in the middle of chunked value");
+    }
+    com.google.protobuf.Value newValue = current.getValues(pos++);
+    if (newValue.getKindCase() != kind) {
+      throw newSpannerException(
+          ErrorCode.INTERNAL,
+          "Unexpected type in middle of chunked value. Expected: "
+              + kind
+              + " but got: "
+              + newValue.getKindCase());
     }
+    return newValue;
   }
 
   ResultSetMetadata getMetadata() throws SpannerException {
@@ -149,13 +157,8 @@ class GrpcValueIterator extends AbstractIterator<com.google.protobuf.Value> {
           throw newSpannerException(ErrorCode.INTERNAL, "Missing type metadata in first message");
         }
         metadata = current.getMetadata();
-        com.google.spanner.v1.Type typeProto =
-            com.google.spanner.v1.Type.newBuilder()
-                .setCode(TypeCode.STRUCT)
-                .setStructType(metadata.getRowType())
-                .build();
         try {
-          type = Type.fromProto(typeProto);
+          type = RowTypeCache.getRowType(metadata.getRowType());
         } catch (IllegalArgumentException e) {
           throw newSpannerException(
               ErrorCode.INTERNAL, "Invalid type metadata: " + e.getMessage(), e);
@@ -175,6 +178,15 @@ class GrpcValueIterator extends AbstractIterator<com.google.protobuf.Value> {
     return true;
   }
 
+  /**
+   * Returns true if the {@link PartialResultSet} that is currently being consumed contains more
+   * values. This can be used to consume all values in a message without waiting for a new message
+   * from the stream.
+   */
+  boolean hasBufferedValues() {
+    return current != null && pos < current.getValuesCount();
+  }
+
   void close(@Nullable String message) {
     stream.close(message);
   }
@@ -196,10 +208,11 @@ class GrpcValueIterator extends AbstractIterator<com.google.protobuf.Value> {
       if (isMergeable(lastKind) && lastKind == firstKind) {
         com.google.protobuf.Value merged;
         if (lastKind == KindCase.STRING_VALUE) {
-          String lastStr = last.getStringValue();
-          String firstStr = first.getStringValue();
           merged =
-              com.google.protobuf.Value.newBuilder().setStringValue(lastStr + firstStr).build();
+              com.google.protobuf.Value.newBuilder()
+                  .setStringValueBytes(
+                      last.getStringValueBytes().concat(first.getStringValueBytes()))
+                  .build();
         } else { // List
           List<com.google.protobuf.Value> mergedList = new ArrayList<>();
           mergedList.addAll(last.getListValue().getValuesList());
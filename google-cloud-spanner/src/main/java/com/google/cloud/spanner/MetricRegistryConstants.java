@@ -97,6 +97,13 @@ class MetricRegistryConstants {
   static final String NUM_RELEASED_SESSIONS_DESCRIPTION =
       "The number of sessions released by the user and pool maintainer.";
   static final String NUM_SESSIONS_IN_POOL_DESCRIPTION = "The number of sessions in the pool.";
+  static final String SESSION_KEEP_ALIVE_LATENCY = "spanner/session_keep_alive_latency";
+  static final String SESSION_KEEP_ALIVE_LATENCY_DESCRIPTION =
+      "The latency of the keep-alive queries that are executed by the session pool.";
+  static final String NUM_MAINTENANCE_CYCLE_OVERRUNS = "spanner/num_maintenance_cycle_overruns";
+  static final String NUM_MAINTENANCE_CYCLE_OVERRUNS_DESCRIPTION =
+      "The number of session pool maintenance cycles that started while the keep-alive queries of"
+          + " a previous cycle were still running.";
 
   static final String SPANNER_GFE_LATENCY = "spanner/gfe_latency";
   static final String SPANNER_GFE_LATENCY_DESCRIPTION =
@@ -104,4 +111,28 @@ class MetricRegistryConstants {
   static final String SPANNER_GFE_HEADER_MISSING_COUNT = "spanner/gfe_header_missing_count";
   static final String SPANNER_GFE_HEADER_MISSING_COUNT_DESCRIPTION =
       "Number of RPC responses received without the server-timing header, most likely means that the RPC never reached Google's network";
+
+  static final String PREFETCH_WINDOW = "spanner/prefetch_window";
+  static final String PREFETCH_WINDOW_DESCRIPTION =
+      "The total number of messages that active streaming queries and reads may prefetch.";
+  static final String PREFETCH_BUFFERED_BYTES = "spanner/prefetch_buffered_bytes";
+  static final String PREFETCH_BUFFERED_BYTES_DESCRIPTION =
+      "The number of bytes that are buffered by active streaming queries and reads.";
+
+  static final String STALE_READ_CACHE_HITS = "spanner/stale_read_cache_hits";
+  static final String STALE_READ_CACHE_HITS_DESCRIPTION =
+      "The number of stale reads and queries that were served from the client-side result cache.";
+  static final String STALE_READ_CACHE_MISSES = "spanner/stale_read_cache_misses";
+  static final String STALE_READ_CACHE_MISSES_DESCRIPTION =
+      "The number of cacheable stale reads and queries that were not found in the result cache.";
+  static final String STALE_READ_CACHE_BYTES = "spanner/stale_read_cache_bytes";
+  static final String STALE_READ_CACHE_BYTES_DESCRIPTION =
+      "The estimated number of bytes of the results in the client-side result cache.";
+
+  static final String ROW_TYPE_CACHE_HITS = "spanner/row_type_cache_hits";
+  static final String ROW_TYPE_CACHE_HITS_DESCRIPTION =
+      "The number of result sets that reused a cached row type.";
+  static final String ROW_TYPE_CACHE_MISSES = "spanner/row_type_cache_misses";
+  static final String ROW_TYPE_CACHE_MISSES_DESCRIPTION =
+      "The number of result sets with a row type that was not found in the row type cache.";
 }
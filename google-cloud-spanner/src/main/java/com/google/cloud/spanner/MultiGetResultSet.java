@@ -0,0 +1,242 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner;
+
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.spanner.v1.ResultSetStats;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * {@link ResultSet} for a read that has been split into batches of keys by {@link
+ * Options#multiGet(int, boolean)}. Up to {@link #DEFAULT_MAX_CONCURRENT_BATCHES} batches are
+ * started when the result set is created, so the read RPCs run concurrently and each buffer their
+ * first results while the batches are consumed one at a time. The next batch is started each time
+ * a batch has been consumed. In a read/write transaction that has not yet returned a transaction
+ * id, only the first batch is started when the result set is created. That batch includes the
+ * BeginTransaction option, and the other batches are started once it has returned the transaction
+ * id.
+ *
+ * <p>The batches are either consumed in the order of the key set, or in the order in which the
+ * batches return their first result. A batch that is being consumed is always read to the end
+ * before the next batch is consumed.
+ */
+class MultiGetResultSet extends ForwardingResultSet {
+  /** The maximum number of batches that are streaming and have not been consumed at any time. */
+  static final int DEFAULT_MAX_CONCURRENT_BATCHES = 8;
+
+  /** Splits the point keys of the given key set into key sets of at most batchSize keys. */
+  static List<KeySet> splitKeys(KeySet keys, int batchSize) {
+    Preconditions.checkArgument(batchSize > 0, "batchSize should be greater than 0");
+    List<KeySet> batches = new ArrayList<>();
+    KeySet.Builder builder = null;
+    int batchKeys = 0;
+    for (Key key : keys.getKeys()) {
+      if (builder == null) {
+        builder = KeySet.newBuilder();
+      }
+      builder.addKey(key);
+      if (++batchKeys == batchSize) {
+        batches.add(builder.build());
+        builder = null;
+        batchKeys = 0;
+      }
+    }
+    if (builder != null) {
+      batches.add(builder.build());
+    }
+    return batches;
+  }
+
+  private final ImmutableList<ResultSet> batches;
+  private final boolean preserveKeyOrder;
+  private final int maxConcurrentBatches;
+
+  /** The indexes of the batches that have returned a first result, in the order of arrival. */
+  private final LinkedBlockingQueue<Integer> readyBatches = new LinkedBlockingQueue<>();
+
+  private final AtomicIntegerArray batchStarted;
+  private int numStreamingBatches;
+  private int numConsumedBatches;
+  private int numFinishedBatches;
+  private boolean waitForFirstBatch;
+  private boolean beforeFirst = true;
+  private boolean closed;
+
+  /**
+   * Creates a result set for the given batches. If startFirstBatchAlone is true, then only the
+   * first batch is started when the result set is created, and the other batches are started when
+   * the first batch has returned its first result.
+   */
+  MultiGetResultSet(
+      List<ResultSet> batches, boolean preserveKeyOrder, boolean startFirstBatchAlone) {
+    this(batches, preserveKeyOrder, startFirstBatchAlone, DEFAULT_MAX_CONCURRENT_BATCHES);
+  }
+
+  @VisibleForTesting
+  MultiGetResultSet(
+      List<ResultSet> batches,
+      boolean preserveKeyOrder,
+      boolean startFirstBatchAlone,
+      int maxConcurrentBatches) {
+    super(batches.get(0));
+    Preconditions.checkArgument(
+        maxConcurrentBatches > 0, "maxConcurrentBatches should be greater than 0");
+    this.batches = ImmutableList.copyOf(batches);
+    this.preserveKeyOrder = preserveKeyOrder;
+    this.maxConcurrentBatches = maxConcurrentBatches;
+    this.batchStarted = new AtomicIntegerArray(batches.size());
+    this.waitForFirstBatch = startFirstBatchAlone;
+    if (startFirstBatchAlone) {
+      startStreaming(1);
+    } else {
+      startNextBatches();
+    }
+  }
+
+  /**
+   * Starts the batches that may stream concurrently with the batches that have not been consumed.
+   * This is a no-op while the first batch has not returned the transaction id.
+   */
+  private void startNextBatches() {
+    if (!waitForFirstBatch) {
+      startStreaming(Math.min(batches.size(), numFinishedBatches + maxConcurrentBatches));
+    }
+  }
+
+  /** Starts streaming all batches up to the given number of batches. */
+  private void startStreaming(int numBatches) {
+    for (; numStreamingBatches < numBatches; numStreamingBatches++) {
+      final int batchIndex = numStreamingBatches;
+      boolean started =
+          StreamingUtil.initiateStreaming(
+              this.batches.get(batchIndex),
+              (partialResultSet, bufferIsFull) -> onBatchMessage(batchIndex));
+      if (!started) {
+        // Result sets that do not support streaming are always ready.
+        onBatchMessage(batchIndex);
+      }
+    }
+  }
+
+  private void onBatchMessage(int batchIndex) {
+    if (batchStarted.compareAndSet(batchIndex, 0, 1)) {
+      readyBatches.add(batchIndex);
+    }
+  }
+
+  @Override
+  protected void checkValidState() {
+    checkState(!closed, "This result set has been closed");
+  }
+
+  /** Moves to the next batch. Returns false if all batches have been consumed. */
+  private boolean nextBatchResultSet() {
+    // The current batch has been read to the end, which allows the next batch to start.
+    numFinishedBatches = numConsumedBatches;
+    if (numConsumedBatches == batches.size()) {
+      return false;
+    }
+    startNextBatches();
+    int batchIndex;
+    if (preserveKeyOrder) {
+      batchIndex = numConsumedBatches;
+    } else {
+      try {
+        batchIndex = readyBatches.take();
+      } catch (InterruptedException interruptedException) {
+        throw SpannerExceptionFactory.propagateInterrupt(interruptedException);
+      }
+    }
+    replaceDelegate(batches.get(batchIndex));
+    numConsumedBatches++;
+    beforeFirst = false;
+    return true;
+  }
+
+  @Override
+  public boolean next() throws SpannerException {
+    checkValidState();
+    if (beforeFirst && !nextBatchResultSet()) {
+      return false;
+    }
+    while (true) {
+      boolean hasNext = super.next();
+      // The first result of the first batch includes the transaction id that the other batches
+      // need. This is a no-op if the batches have already been started.
+      waitForFirstBatch = false;
+      startNextBatches();
+      if (hasNext) {
+        return true;
+      }
+      if (!nextBatchResultSet()) {
+        return false;
+      }
+    }
+  }
+
+  @Override
+  public ColumnarBatch nextBatch() throws SpannerException {
+    checkValidState();
+    if (beforeFirst && !nextBatchResultSet()) {
+      return null;
+    }
+    while (true) {
+      ColumnarBatch batch = super.nextBatch();
+      waitForFirstBatch = false;
+      startNextBatches();
+      if (batch != null) {
+        return batch;
+      }
+      if (!nextBatchResultSet()) {
+        return null;
+      }
+    }
+  }
+
+  @VisibleForTesting
+  int getNumBatches() {
+    return batches.size();
+  }
+
+  @Override
+  public void close() {
+    if (!closed) {
+      closed = true;
+      for (ResultSet batch : batches) {
+        batch.close();
+      }
+    }
+  }
+
+  @Override
+  public ResultSetStats getStats() {
+    return null;
+  }
+
+  @Override
+  public boolean initiateStreaming(AsyncResultSet.StreamMessageListener streamMessageListener) {
+    // The batches are started by this result set.
+    return false;
+  }
+}
@@ -22,20 +22,23 @@ import static com.google.cloud.spanner.SpannerExceptionFactory.newSpannerExcepti
 import com.google.api.core.ApiFuture;
 import com.google.api.core.ApiFutures;
 import com.google.api.core.SettableApiFuture;
+import com.google.api.gax.rpc.ServerStream;
 import com.google.cloud.Timestamp;
 import com.google.cloud.spanner.Options.TransactionOption;
+import com.google.cloud.spanner.Options.UpdateOption;
 import com.google.cloud.spanner.SessionClient.SessionConsumer;
 import com.google.cloud.spanner.SpannerException.ResourceNotFoundException;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.util.concurrent.MoreExecutors;
+import com.google.spanner.v1.BatchWriteRequest;
+import com.google.spanner.v1.BatchWriteResponse;
 import com.google.spanner.v1.BeginTransactionRequest;
 import com.google.spanner.v1.RequestOptions;
 import com.google.spanner.v1.Transaction;
 import java.time.Clock;
 import java.time.Duration;
 import java.time.Instant;
-import java.util.BitSet;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.ExecutionException;
@@ -45,7 +48,6 @@ import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -69,7 +71,9 @@ final class MultiplexedSessionDatabaseClient extends AbstractMultiplexedSessionD
 
     private final boolean singleUse;
 
-    private final int singleUseChannelHint;
+    private final int channelHint;
+
+    private final AtomicBoolean channelReleased = new AtomicBoolean();
 
     private boolean done;
 
@@ -77,16 +81,26 @@ final class MultiplexedSessionDatabaseClient extends AbstractMultiplexedSessionD
         MultiplexedSessionDatabaseClient client,
         ISpan span,
         SessionReference sessionReference,
-        int singleUseChannelHint,
+        int channelHint,
         boolean singleUse) {
-      super(client.sessionClient.getSpanner(), sessionReference, singleUseChannelHint);
+      super(client.sessionClient.getSpanner(), sessionReference, channelHint);
       this.client = client;
       this.singleUse = singleUse;
-      this.singleUseChannelHint = singleUseChannelHint;
+      this.channelHint = channelHint;
       this.client.numSessionsAcquired.incrementAndGet();
       setCurrentSpan(span);
     }
 
+    /**
+     * Registers with the channel load balancer that this transaction is no longer in flight. This
+     * method can safely be called multiple times.
+     */
+    private void releaseChannel() {
+      if (this.channelHint != NO_CHANNEL_HINT && this.channelReleased.compareAndSet(false, true)) {
+        this.client.channelLoadBalancer.release(this.channelHint);
+      }
+    }
+
     @Override
     void onError(SpannerException spannerException) {
       if (this.client.resourceNotFoundException.get() == null
@@ -101,6 +115,9 @@ final class MultiplexedSessionDatabaseClient extends AbstractMultiplexedSessionD
       // UNIMPLEMENTED with error message "Transaction type read_write not supported with
       // multiplexed sessions" is returned.
       this.client.maybeMarkUnimplementedForRW(spannerException);
+      // Mark multiplexed sessions for partitioned operations as unimplemented and fall back to
+      // regular sessions if UNIMPLEMENTED is returned for a Partitioned DML transaction.
+      this.client.maybeMarkUnimplementedForPartitionedOps(spannerException);
     }
 
     @Override
@@ -111,19 +128,78 @@ final class MultiplexedSessionDatabaseClient extends AbstractMultiplexedSessionD
       if (this.singleUse && getActiveTransaction() != null) {
         getActiveTransaction().close();
         setActive(null);
-        if (this.singleUseChannelHint != NO_CHANNEL_HINT) {
-          this.client.channelUsage.clear(this.singleUseChannelHint);
-        }
-        this.client.numCurrentSingleUseTransactions.decrementAndGet();
+        releaseChannel();
       }
     }
 
     @Override
     public CommitResponse writeAtLeastOnceWithOptions(
         Iterable<Mutation> mutations, TransactionOption... options) throws SpannerException {
-      CommitResponse response = super.writeAtLeastOnceWithOptions(mutations, options);
-      onTransactionDone();
-      return response;
+      try {
+        return super.writeAtLeastOnceWithOptions(mutations, options);
+      } finally {
+        onTransactionDone();
+      }
+    }
+
+    @Override
+    public ServerStream<BatchWriteResponse> batchWriteAtLeastOnce(
+        Iterable<MutationGroup> mutationGroups, TransactionOption... options)
+        throws SpannerException {
+      try {
+        return super.batchWriteAtLeastOnce(mutationGroups, options);
+      } catch (SpannerException spannerException) {
+        onTransactionDone();
+        throw spannerException;
+      }
+    }
+
+    @Override
+    ServerStream<BatchWriteResponse> executeBatchWrite(BatchWriteRequest request) {
+      // The stream is consumed lazily by the caller, so the transaction and its channel are only
+      // released once the stream has completed, failed or been cancelled.
+      return client
+          .sessionClient
+          .getSpanner()
+          .getRpc()
+          .batchWriteAtLeastOnce(request, getOptions(), this::onTransactionDone);
+    }
+
+    @Override
+    public long executePartitionedUpdate(Statement stmt, UpdateOption... options) {
+      try {
+        return super.executePartitionedUpdate(stmt, options);
+      } catch (SpannerException spannerException) {
+        onError(spannerException);
+        throw spannerException;
+      } finally {
+        onTransactionDone();
+      }
+    }
+
+    @Override
+    ApiFuture<Long> executePartitionedUpdateAsync(Statement stmt, UpdateOption... options) {
+      ApiFuture<Long> result;
+      try {
+        result = super.executePartitionedUpdateAsync(stmt, options);
+      } catch (SpannerException spannerException) {
+        onError(spannerException);
+        onTransactionDone();
+        throw spannerException;
+      }
+      // Register the error before the returned future is done, so a caller that falls back to a
+      // regular session after an error sees the updated state of the client.
+      result =
+          ApiFutures.catching(
+              result,
+              SpannerException.class,
+              spannerException -> {
+                onError(spannerException);
+                throw spannerException;
+              },
+              MoreExecutors.directExecutor());
+      result.addListener(this::onTransactionDone, MoreExecutors.directExecutor());
+      return result;
     }
 
     @Override
@@ -137,6 +213,7 @@ final class MultiplexedSessionDatabaseClient extends AbstractMultiplexedSessionD
       }
       if (markedDone) {
         client.numSessionsReleased.incrementAndGet();
+        releaseChannel();
       }
     }
 
@@ -147,19 +224,13 @@ final class MultiplexedSessionDatabaseClient extends AbstractMultiplexedSessionD
   }
 
   /**
-   * Keeps track of which channels have been 'given' to single-use transactions for a given Spanner
-   * instance.
+   * Keeps track of the load on the channels of a given Spanner instance. The load balancer is
+   * shared by all clients of the same Spanner instance, as these also share the same channels.
    */
-  private static final Map<SpannerImpl, BitSet> CHANNEL_USAGE = new HashMap<>();
+  private static final Map<SpannerImpl, ChannelLoadBalancer> CHANNEL_LOAD_BALANCERS =
+      new HashMap<>();
 
-  private final BitSet channelUsage;
-
-  private final int numChannels;
-
-  /**
-   * The number of single-use read-only transactions currently running on this multiplexed session.
-   */
-  private final AtomicInteger numCurrentSingleUseTransactions = new AtomicInteger();
+  private final ChannelLoadBalancer channelLoadBalancer;
 
   private boolean isClosed;
 
@@ -211,16 +282,23 @@ final class MultiplexedSessionDatabaseClient extends AbstractMultiplexedSessionD
    */
   @VisibleForTesting final AtomicBoolean unimplementedForRW = new AtomicBoolean(false);
 
+  /**
+   * This flag is set to true if the server return UNIMPLEMENTED when a Partitioned DML transaction
+   * is executed on a multiplexed session. TODO: Remove once this is guaranteed to be available.
+   */
+  @VisibleForTesting final AtomicBoolean unimplementedForPartitionedOps = new AtomicBoolean(false);
+
   MultiplexedSessionDatabaseClient(SessionClient sessionClient) {
     this(sessionClient, Clock.systemUTC());
   }
 
   @VisibleForTesting
   MultiplexedSessionDatabaseClient(SessionClient sessionClient, Clock clock) {
-    this.numChannels = sessionClient.getSpanner().getOptions().getNumChannels();
-    synchronized (CHANNEL_USAGE) {
-      CHANNEL_USAGE.putIfAbsent(sessionClient.getSpanner(), new BitSet(numChannels));
-      this.channelUsage = CHANNEL_USAGE.get(sessionClient.getSpanner());
+    int numChannels = sessionClient.getSpanner().getOptions().getNumChannels();
+    synchronized (CHANNEL_LOAD_BALANCERS) {
+      this.channelLoadBalancer =
+          CHANNEL_LOAD_BALANCERS.computeIfAbsent(
+              sessionClient.getSpanner(), ignore -> new ChannelLoadBalancer(numChannels));
     }
     this.sessionExpirationDuration =
         Duration.ofMillis(
@@ -308,6 +386,15 @@ final class MultiplexedSessionDatabaseClient extends AbstractMultiplexedSessionD
     }
   }
 
+  private void maybeMarkUnimplementedForPartitionedOps(SpannerException spannerException) {
+    if (spannerException.getErrorCode() == ErrorCode.UNIMPLEMENTED
+        && verifyErrorMessage(
+            spannerException,
+            "Transaction type partitioned_dml not supported with multiplexed sessions")) {
+      unimplementedForPartitionedOps.set(true);
+    }
+  }
+
   private boolean verifyErrorMessage(SpannerException spannerException, String message) {
     if (spannerException.getCause() == null) {
       return false;
@@ -383,6 +470,19 @@ final class MultiplexedSessionDatabaseClient extends AbstractMultiplexedSessionD
     return !this.unimplementedForRW.get();
   }
 
+  boolean isMultiplexedSessionsForPartitionedOpsSupported() {
+    return !this.unimplementedForPartitionedOps.get();
+  }
+
+  /** Returns true if Partitioned DML should be executed on the multiplexed session. */
+  boolean isMultiplexedSessionsForPartitionedOpsEnabled() {
+    return this.sessionClient
+        .getSpanner()
+        .getOptions()
+        .getSessionPoolOptions()
+        .getUseMultiplexedSessionPartitionedOps();
+  }
+
   void close() {
     synchronized (this) {
       if (!this.isClosed) {
@@ -447,7 +547,8 @@ final class MultiplexedSessionDatabaseClient extends AbstractMultiplexedSessionD
           // session, such as for example a DatabaseNotFound exception. We therefore do not need
           // any special handling of such errors.
           multiplexedSessionReference.get().get(),
-          singleUse ? getSingleUseChannelHint() : NO_CHANNEL_HINT,
+          // All transactions are assigned to the channel with the fewest transactions in flight.
+          channelLoadBalancer.acquire(),
           singleUse);
     } catch (ExecutionException executionException) {
       throw SpannerExceptionFactory.asSpannerException(executionException.getCause());
@@ -461,24 +562,6 @@ final class MultiplexedSessionDatabaseClient extends AbstractMultiplexedSessionD
         this, tracer.getCurrentSpan(), multiplexedSessionReference.get());
   }
 
-  private int getSingleUseChannelHint() {
-    if (this.numCurrentSingleUseTransactions.incrementAndGet() > this.numChannels) {
-      return NO_CHANNEL_HINT;
-    }
-    synchronized (this.channelUsage) {
-      // Get the first unused channel.
-      int channel = this.channelUsage.nextClearBit(/* fromIndex = */ 0);
-      // BitSet returns an index larger than its original size if all the bits are set.
-      // This then means that all channels have already been assigned to single-use transactions,
-      // and that we should not use a specific channel, but rather pick a random one.
-      if (channel == this.numChannels) {
-        return NO_CHANNEL_HINT;
-      }
-      this.channelUsage.set(channel);
-      return channel;
-    }
-  }
-
   @Override
   public Timestamp write(Iterable<Mutation> mutations) throws SpannerException {
     return createMultiplexedSessionTransaction(/* singleUse = */ false).write(mutations);
@@ -499,6 +582,26 @@ final class MultiplexedSessionDatabaseClient extends AbstractMultiplexedSessionD
         .writeAtLeastOnceWithOptions(mutations, options);
   }
 
+  @Override
+  public ServerStream<BatchWriteResponse> batchWriteAtLeastOnce(
+      Iterable<MutationGroup> mutationGroups, TransactionOption... options)
+      throws SpannerException {
+    return createMultiplexedSessionTransaction(/* singleUse = */ false)
+        .batchWriteAtLeastOnce(mutationGroups, options);
+  }
+
+  @Override
+  public long executePartitionedUpdate(Statement stmt, UpdateOption... options) {
+    return createMultiplexedSessionTransaction(/* singleUse = */ false)
+        .executePartitionedUpdate(stmt, options);
+  }
+
+  @Override
+  public ApiFuture<Long> executePartitionedUpdateAsync(Statement stmt, UpdateOption... options) {
+    return createMultiplexedSessionTransaction(/* singleUse = */ false)
+        .executePartitionedUpdateAsync(stmt, options);
+  }
+
   @Override
   public ReadContext singleUse() {
     return createMultiplexedSessionTransaction(/* singleUse = */ true).singleUse();
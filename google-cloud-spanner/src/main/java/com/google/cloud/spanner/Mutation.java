@@ -20,9 +20,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Preconditions.checkState;
 
 import com.google.common.collect.ImmutableList;
-import com.google.protobuf.ListValue;
 import java.io.Serializable;
-import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
@@ -30,7 +28,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.concurrent.ThreadLocalRandom;
 import javax.annotation.Nullable;
 
 /**
@@ -417,110 +414,17 @@ public final class Mutation implements Serializable {
    */
   static com.google.spanner.v1.Mutation toProtoAndReturnRandomMutation(
       Iterable<Mutation> mutations, List<com.google.spanner.v1.Mutation> out) {
-    Mutation last = null;
-    // The mutation currently being built.
-    com.google.spanner.v1.Mutation.Builder proto = null;
-    // The "write" (!= DELETE) or "keySet" (==DELETE) for the last mutation encoded, for coalescing.
-    com.google.spanner.v1.Mutation.Write.Builder write = null;
-    com.google.spanner.v1.KeySet.Builder keySet = null;
-
-    // Stores all the mutations excluding INSERT mutations.
-    List<com.google.spanner.v1.Mutation> allMutationsExcludingInsert = new ArrayList<>();
-    // Stores the INSERT mutation with largest number of values.
-    com.google.spanner.v1.Mutation largestInsertMutation =
-        com.google.spanner.v1.Mutation.getDefaultInstance();
-
+    MutationEncoder encoder = new MutationEncoder();
     for (Mutation mutation : mutations) {
-      if (mutation.operation == Op.DELETE) {
-        if (last != null && last.operation == Op.DELETE && mutation.table.equals(last.table)) {
-          mutation.keySet.appendToProto(keySet);
-        } else {
-          if (proto != null) {
-            com.google.spanner.v1.Mutation builtMutation = proto.build();
-            out.add(builtMutation);
-            // Skip tracking the largest insert mutation if there are mutations other than INSERT.
-            if (allMutationsExcludingInsert.isEmpty()
-                && checkIfInsertMutationWithLargeValue(builtMutation, largestInsertMutation)) {
-              largestInsertMutation = builtMutation;
-            }
-            maybeAddMutationToListExcludingInserts(builtMutation, allMutationsExcludingInsert);
-          }
-          proto = com.google.spanner.v1.Mutation.newBuilder();
-          com.google.spanner.v1.Mutation.Delete.Builder delete =
-              proto.getDeleteBuilder().setTable(mutation.table);
-          keySet = delete.getKeySetBuilder();
-          mutation.keySet.appendToProto(keySet);
-        }
-        write = null;
-      } else {
-        ListValue.Builder values = ListValue.newBuilder();
-        for (Value value : mutation.getValues()) {
-          values.addValues(value.toProto());
-        }
-        if (last != null
-            && mutation.operation == last.operation
-            && mutation.table.equals(last.table)
-            && mutation.columns.equals(last.columns)) {
-          // Same as previous mutation: coalesce values to reduce request size.
-          write.addValues(values);
-        } else {
-          if (proto != null) {
-            com.google.spanner.v1.Mutation builtMutation = proto.build();
-            out.add(builtMutation);
-            // Skip tracking the largest insert mutation if there are mutations other than INSERT.
-            if (allMutationsExcludingInsert.isEmpty()
-                && checkIfInsertMutationWithLargeValue(builtMutation, largestInsertMutation)) {
-              largestInsertMutation = builtMutation;
-            }
-            maybeAddMutationToListExcludingInserts(builtMutation, allMutationsExcludingInsert);
-          }
-          proto = com.google.spanner.v1.Mutation.newBuilder();
-          switch (mutation.operation) {
-            case INSERT:
-              write = proto.getInsertBuilder();
-              break;
-            case UPDATE:
-              write = proto.getUpdateBuilder();
-              break;
-            case INSERT_OR_UPDATE:
-              write = proto.getInsertOrUpdateBuilder();
-              break;
-            case REPLACE:
-              write = proto.getReplaceBuilder();
-              break;
-            default:
-              throw new AssertionError("Impossible: " + mutation.operation);
-          }
-          write.setTable(mutation.table).addAllColumns(mutation.columns).addValues(values);
-        }
-        keySet = null;
-      }
-      last = mutation;
-    }
-    // Flush last item.
-    if (proto != null) {
-      com.google.spanner.v1.Mutation builtMutation = proto.build();
-      out.add(proto.build());
-      // Skip tracking the largest insert mutation if there are mutations other than INSERT.
-      if (allMutationsExcludingInsert.isEmpty()
-          && checkIfInsertMutationWithLargeValue(builtMutation, largestInsertMutation)) {
-        largestInsertMutation = builtMutation;
-      }
-      maybeAddMutationToListExcludingInserts(builtMutation, allMutationsExcludingInsert);
-    }
-
-    // Select a random mutation based on the heuristic.
-    if (!allMutationsExcludingInsert.isEmpty()) {
-      return allMutationsExcludingInsert.get(
-          ThreadLocalRandom.current().nextInt(allMutationsExcludingInsert.size()));
-    } else {
-      return largestInsertMutation;
+      encoder.add(mutation);
     }
+    out.addAll(encoder.build());
+    return encoder.getRandomMutation();
   }
 
   // Returns true if the input mutation is of type INSERT and has more values than the current
   // largest insert mutation.
-  private static boolean checkIfInsertMutationWithLargeValue(
+  static boolean checkIfInsertMutationWithLargeValue(
       com.google.spanner.v1.Mutation mutation,
       com.google.spanner.v1.Mutation largestInsertMutation) {
     // If largestInsertMutation is a default instance of Mutation, replace it with the current
@@ -534,7 +438,7 @@ public final class Mutation implements Serializable {
   }
 
   // Stores all mutations that are not of type INSERT.
-  private static void maybeAddMutationToListExcludingInserts(
+  static void maybeAddMutationToListExcludingInserts(
       com.google.spanner.v1.Mutation mutation,
       List<com.google.spanner.v1.Mutation> allMutationsExcludingInsert) {
     if (!mutation.hasInsert()) {
@@ -0,0 +1,201 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner;
+
+import com.google.cloud.spanner.Mutation.Op;
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.ListValue;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Encodes {@link Mutation}s to protobuf mutations one by one as they are added. Consecutive
+ * mutations with the same operation and table (and for writes also the same columns) are
+ * coalesced into one protobuf mutation to reduce the request size. The encoder keeps running
+ * totals of the number of mutations and the number of serialized bytes, so callers can check
+ * these against the limits of Cloud Spanner before sending a request.
+ *
+ * <p>The mutation count that is computed by this encoder is the number of column values that are
+ * written plus the number of keys and key ranges that are deleted. Cloud Spanner also counts the
+ * mutations on secondary indexes, which are unknown to the client. The count is therefore a lower
+ * bound of the count that Cloud Spanner will use.
+ *
+ * <p>This class is not thread-safe.
+ */
+class MutationEncoder {
+  private final List<com.google.spanner.v1.Mutation> encoded = new ArrayList<>();
+
+  /** The last mutation that was added, for coalescing. */
+  private Mutation last;
+  // The mutation currently being built.
+  private com.google.spanner.v1.Mutation.Builder proto;
+  // The "write" (!= DELETE) or "keySet" (==DELETE) for the last mutation encoded, for coalescing.
+  private com.google.spanner.v1.Mutation.Write.Builder write;
+  private com.google.spanner.v1.KeySet.Builder keySet;
+  private long currentSerializedSize;
+
+  private long finishedSerializedSize;
+  private long mutationCount;
+
+  // Stores all the mutations excluding INSERT mutations.
+  private final List<com.google.spanner.v1.Mutation> allMutationsExcludingInsert =
+      new ArrayList<>();
+  // Stores the INSERT mutation with largest number of values.
+  private com.google.spanner.v1.Mutation largestInsertMutation =
+      com.google.spanner.v1.Mutation.getDefaultInstance();
+
+  /** Encodes the given mutation and adds it to this encoder. */
+  void add(Mutation mutation) {
+    if (mutation.getOperation() == Op.DELETE) {
+      com.google.spanner.v1.KeySet.Builder keysBuilder = com.google.spanner.v1.KeySet.newBuilder();
+      mutation.getKeySet().appendToProto(keysBuilder);
+      com.google.spanner.v1.KeySet keys = keysBuilder.build();
+      mutationCount += keys.getKeysCount() + keys.getRangesCount() + (keys.getAll() ? 1 : 0);
+      if (last != null
+          && last.getOperation() == Op.DELETE
+          && mutation.getTable().equals(last.getTable())) {
+        keySet.mergeFrom(keys);
+        currentSerializedSize += keys.getSerializedSize();
+      } else {
+        finishCurrent();
+        proto = com.google.spanner.v1.Mutation.newBuilder();
+        com.google.spanner.v1.Mutation.Delete.Builder delete =
+            proto.getDeleteBuilder().setTable(mutation.getTable());
+        keySet = delete.getKeySetBuilder().mergeFrom(keys);
+        currentSerializedSize = delete.build().getSerializedSize();
+      }
+      write = null;
+    } else {
+      ListValue.Builder values = ListValue.newBuilder();
+      for (Value value : mutation.getValues()) {
+        values.addValues(value.toProto());
+      }
+      mutationCount += values.getValuesCount();
+      if (last != null
+          && mutation.getOperation() == last.getOperation()
+          && mutation.getTable().equals(last.getTable())
+          && mutation.getColumns().equals(last.getColumns())) {
+        // Same as previous mutation: coalesce values to reduce request size.
+        write.addValues(values);
+        currentSerializedSize +=
+            CodedOutputStream.computeMessageSize(
+                com.google.spanner.v1.Mutation.Write.VALUES_FIELD_NUMBER, values.build());
+      } else {
+        finishCurrent();
+        proto = com.google.spanner.v1.Mutation.newBuilder();
+        switch (mutation.getOperation()) {
+          case INSERT:
+            write = proto.getInsertBuilder();
+            break;
+          case UPDATE:
+            write = proto.getUpdateBuilder();
+            break;
+          case INSERT_OR_UPDATE:
+            write = proto.getInsertOrUpdateBuilder();
+            break;
+          case REPLACE:
+            write = proto.getReplaceBuilder();
+            break;
+          default:
+            throw new AssertionError("Impossible: " + mutation.getOperation());
+        }
+        write
+            .setTable(mutation.getTable())
+            .addAllColumns(mutation.getColumns())
+            .addValues(values);
+        currentSerializedSize = write.build().getSerializedSize();
+      }
+      keySet = null;
+    }
+    last = mutation;
+  }
+
+  /** Adds a mutation that has already been encoded. */
+  void add(EncodedMutation mutation) {
+    finishCurrent();
+    mutationCount += (long) mutation.getColumnCount() * mutation.getRowCount();
+    addEncoded(mutation.toProto());
+  }
+
+  private void finishCurrent() {
+    if (proto != null) {
+      addEncoded(proto.build());
+      proto = null;
+      write = null;
+      keySet = null;
+      currentSerializedSize = 0L;
+    }
+    last = null;
+  }
+
+  private void addEncoded(com.google.spanner.v1.Mutation mutation) {
+    encoded.add(mutation);
+    finishedSerializedSize += mutation.getSerializedSize();
+    // Skip tracking the largest insert mutation if there are mutations other than INSERT.
+    if (allMutationsExcludingInsert.isEmpty()
+        && Mutation.checkIfInsertMutationWithLargeValue(mutation, largestInsertMutation)) {
+      largestInsertMutation = mutation;
+    }
+    Mutation.maybeAddMutationToListExcludingInserts(mutation, allMutationsExcludingInsert);
+  }
+
+  /** Returns true if no mutations have been added to this encoder. */
+  boolean isEmpty() {
+    return proto == null && encoded.isEmpty();
+  }
+
+  /** Returns the number of mutations that have been added to this encoder. */
+  long getMutationCount() {
+    return mutationCount;
+  }
+
+  /**
+   * Returns the (estimated) number of bytes that the encoded mutations will use in a request. The
+   * estimate does not include the protobuf overhead of the repeated mutations field itself.
+   */
+  long getSerializedSize() {
+    return finishedSerializedSize + currentSerializedSize;
+  }
+
+  /** Finishes the encoding and returns all encoded mutations. */
+  List<com.google.spanner.v1.Mutation> build() {
+    finishCurrent();
+    return encoded;
+  }
+
+  /**
+   * Returns a random mutation from the encoded mutations based on the following heuristics:
+   *
+   * <ol>
+   *   <li>1. Prefer mutations other than INSERT, as INSERT mutations may contain autogenerated
+   *       columns whose information is unavailable on the client.
+   *   <li>If the list only contains INSERT mutations, select the one with the highest number of
+   *       values.
+   * </ol>
+   *
+   * This method may only be called after {@link #build()}.
+   */
+  com.google.spanner.v1.Mutation getRandomMutation() {
+    if (!allMutationsExcludingInsert.isEmpty()) {
+      return allMutationsExcludingInsert.get(
+          ThreadLocalRandom.current().nextInt(allMutationsExcludingInsert.size()));
+    } else {
+      return largestInsertMutation;
+    }
+  }
+}
@@ -0,0 +1,253 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.cloud.ByteArray;
+import com.google.cloud.Date;
+import com.google.cloud.Timestamp;
+import com.google.cloud.spanner.Mutation.Op;
+import com.google.protobuf.ListValue;
+import java.util.HashSet;
+import java.util.Set;
+import javax.annotation.Nullable;
+
+/**
+ * Row-oriented writer for {@link Op#INSERT}, {@link Op#INSERT_OR_UPDATE}, {@link Op#UPDATE}, and
+ * {@link Op#REPLACE} mutations that write many rows with the same columns to the same table. The
+ * values of each row are encoded directly into the format that is sent to Cloud Spanner when they
+ * are added, which means that no intermediate {@link Value} or {@link Mutation} objects are
+ * created, and that the encoding work is not postponed until the transaction is committed. For
+ * example, to insert two rows into table "T" with columns "C1" and "C2", write the following code:
+ *
+ * <pre>
+ *     EncodedMutation m = MutationWriter.newInsertWriter("T", "C1", "C2")
+ *         .addRow().addInt64(1L).addString("x")
+ *         .addRow().addInt64(2L).addString("y")
+ *         .build();
+ *     transaction.buffer(m);
+ * </pre>
+ *
+ * <p>The values of each row must be added in the same order as the columns of the writer.
+ */
+public final class MutationWriter {
+  private static final String COMMIT_TIMESTAMP_STRING = "spanner.commit_timestamp()";
+
+  private final Op operation;
+  private final int numColumns;
+  private final com.google.spanner.v1.Mutation.Builder proto;
+  private final com.google.spanner.v1.Mutation.Write.Builder write;
+  private ListValue.Builder currentRow;
+  private boolean built;
+
+  private MutationWriter(Op operation, String table, String... columns) {
+    this.operation = operation;
+    this.numColumns = columns.length;
+    this.proto = com.google.spanner.v1.Mutation.newBuilder();
+    switch (operation) {
+      case INSERT:
+        this.write = proto.getInsertBuilder();
+        break;
+      case UPDATE:
+        this.write = proto.getUpdateBuilder();
+        break;
+      case INSERT_OR_UPDATE:
+        this.write = proto.getInsertOrUpdateBuilder();
+        break;
+      case REPLACE:
+        this.write = proto.getReplaceBuilder();
+        break;
+      default:
+        throw new AssertionError("Impossible: " + operation);
+    }
+    this.write.setTable(checkNotNull(table));
+    Set<String> columnNameSet = new HashSet<>();
+    for (String column : columns) {
+      if (!columnNameSet.add(checkNotNull(column).toLowerCase())) {
+        throw new IllegalArgumentException("Duplicate column: " + column.toLowerCase());
+      }
+      this.write.addColumns(column);
+    }
+  }
+
+  /**
+   * Returns a writer that can be used to construct an {@link Op#INSERT} mutation against {@code
+   * table}; see the {@code INSERT} documentation for mutation semantics.
+   */
+  public static MutationWriter newInsertWriter(String table, String... columns) {
+    return new MutationWriter(Op.INSERT, table, columns);
+  }
+
+  /**
+   * Returns a writer that can be used to construct an {@link Op#UPDATE} mutation against {@code
+   * table}; see the {@code UPDATE} documentation for mutation semantics.
+   */
+  public static MutationWriter newUpdateWriter(String table, String... columns) {
+    return new MutationWriter(Op.UPDATE, table, columns);
+  }
+
+  /**
+   * Returns a writer that can be used to construct an {@link Op#INSERT_OR_UPDATE} mutation against
+   * {@code table}; see the {@code INSERT_OR_UPDATE} documentation for mutation semantics.
+   */
+  public static MutationWriter newInsertOrUpdateWriter(String table, String... columns) {
+    return new MutationWriter(Op.INSERT_OR_UPDATE, table, columns);
+  }
+
+  /**
+   * Returns a writer that can be used to construct an {@link Op#REPLACE} mutation against {@code
+   * table}; see the {@code REPLACE} documentation for mutation semantics.
+   */
+  public static MutationWriter newReplaceWriter(String table, String... columns) {
+    return new MutationWriter(Op.REPLACE, table, columns);
+  }
+
+  /**
+   * Starts a new row. The values of the row must be added with the {@code add} methods of this
+   * writer before the next row is started or the mutation is built.
+   *
+   * @throws IllegalStateException if the previous row does not contain a value for each column,
+   *     or if this writer has already been built
+   */
+  public MutationWriter addRow() {
+    checkState(!built, "This writer has already been built");
+    checkRowComplete();
+    currentRow = write.addValuesBuilder();
+    return this;
+  }
+
+  /** Adds a {@code BOOL} value to the current row. */
+  public MutationWriter addBool(boolean value) {
+    nextValue().setBoolValue(value);
+    return this;
+  }
+
+  /** Adds an {@code INT64} value to the current row. */
+  public MutationWriter addInt64(long value) {
+    nextValue().setStringValue(Long.toString(value));
+    return this;
+  }
+
+  /** Adds a {@code FLOAT64} value to the current row. */
+  public MutationWriter addFloat64(double value) {
+    nextValue().setNumberValue(value);
+    return this;
+  }
+
+  /** Adds a {@code STRING} value to the current row. */
+  public MutationWriter addString(@Nullable String value) {
+    if (value == null) {
+      return addNull();
+    }
+    nextValue().setStringValue(value);
+    return this;
+  }
+
+  /** Adds a {@code BYTES} value to the current row. */
+  public MutationWriter addBytes(@Nullable ByteArray value) {
+    if (value == null) {
+      return addNull();
+    }
+    nextValue().setStringValue(value.toBase64());
+    return this;
+  }
+
+  /**
+   * Adds a {@code TIMESTAMP} value to the current row. {@link Value#COMMIT_TIMESTAMP} can be used
+   * to write the commit timestamp of the transaction.
+   */
+  public MutationWriter addTimestamp(@Nullable Timestamp value) {
+    if (value == null) {
+      return addNull();
+    }
+    String timestamp = value == Value.COMMIT_TIMESTAMP ? COMMIT_TIMESTAMP_STRING : value.toString();
+    nextValue().setStringValue(timestamp);
+    return this;
+  }
+
+  /** Adds a {@code DATE} value to the current row. */
+  public MutationWriter addDate(@Nullable Date value) {
+    if (value == null) {
+      return addNull();
+    }
+    nextValue().setStringValue(value.toString());
+    return this;
+  }
+
+  /** Adds a {@code NULL} value to the current row. */
+  public MutationWriter addNull() {
+    nextValue().mergeFrom(Value.NULL_PROTO);
+    return this;
+  }
+
+  /**
+   * Adds a value of any type to the current row. Use this method for types that do not have a
+   * dedicated {@code add} method in this writer, such as {@code NUMERIC}, {@code JSON}, and arrays.
+   */
+  public MutationWriter addValue(Value value) {
+    checkNotNull(value);
+    checkCanAddValue();
+    currentRow.addValues(value.toProto());
+    return this;
+  }
+
+  /** Returns the number of rows that have been started in this writer. */
+  public int getRowCount() {
+    return write.getValuesCount();
+  }
+
+  /**
+   * Returns a newly created {@link EncodedMutation} based on the rows in this writer. A writer can
+   * only be built once.
+   *
+   * @throws IllegalStateException if the last row does not contain a value for each column
+   */
+  public EncodedMutation build() {
+    checkState(!built, "This writer has already been built");
+    checkRowComplete();
+    built = true;
+    currentRow = null;
+    return new EncodedMutation(operation, proto.build());
+  }
+
+  private com.google.protobuf.Value.Builder nextValue() {
+    checkCanAddValue();
+    return currentRow.addValuesBuilder();
+  }
+
+  private void checkCanAddValue() {
+    checkState(!built, "This writer has already been built");
+    checkState(currentRow != null, "No row has been started. Call addRow() first.");
+    checkState(
+        currentRow.getValuesCount() < numColumns,
+        "The current row already contains a value for each of the %s columns",
+        numColumns);
+  }
+
+  private void checkRowComplete() {
+    if (currentRow != null) {
+      checkState(
+          currentRow.getValuesCount() == numColumns,
+          "Row %s contains %s values, but the writer has %s columns",
+          write.getValuesCount() - 1,
+          currentRow.getValuesCount(),
+          numColumns);
+    }
+  }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner;
+
+import java.util.Map;
+
+/**
+ * {@link ISpan} that is returned by {@link TraceWrapper} when tracing is disabled. All methods are
+ * no-ops, and making this span the current span does not change the current context.
+ */
+final class NoopSpan implements ISpan {
+  static final NoopSpan INSTANCE = new NoopSpan();
+
+  /** The scope that is returned by {@link TraceWrapper#withSpan(ISpan)} for a {@link NoopSpan}. */
+  static final IScope NOOP_SCOPE = () -> {};
+
+  private NoopSpan() {}
+
+  @Override
+  public void addAnnotation(String message, Map<String, Object> attributes) {}
+
+  @Override
+  public void addAnnotation(String message) {}
+
+  @Override
+  public void addAnnotation(String message, String key, String value) {}
+
+  @Override
+  public void addAnnotation(String message, String key, long value) {}
+
+  @Override
+  public void addAnnotation(String message, Throwable e) {}
+
+  @Override
+  public void setStatus(Throwable e) {}
+
+  @Override
+  public void setStatus(ErrorCode errorCode) {}
+
+  @Override
+  public void end() {}
+}
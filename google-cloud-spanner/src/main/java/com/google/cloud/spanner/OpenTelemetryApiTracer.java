@@ -59,6 +59,13 @@ class OpenTelemetryApiTracer implements ApiTracer {
   private final Span span;
   private final OperationType operationType;
 
+  /**
+   * Whether the span of this tracer is recorded. Spans that are not sampled are not recorded, and
+   * this tracer then skips counting messages and building attributes and events for the span. The
+   * span is still made current in {@link #inScope()}, so child spans inherit the sampling decision.
+   */
+  private final boolean recording;
+
   private volatile String lastConnectionId;
   private volatile long currentAttemptId;
   private final AtomicLong attemptSentMessages = new AtomicLong(0);
@@ -69,6 +76,7 @@ class OpenTelemetryApiTracer implements ApiTracer {
   OpenTelemetryApiTracer(@Nonnull Span span, @Nonnull OperationType operationType) {
     this.span = Preconditions.checkNotNull(span);
     this.operationType = Preconditions.checkNotNull(operationType);
+    this.recording = span.isRecording();
   }
 
   Span getSpan() {
@@ -83,6 +91,10 @@ class OpenTelemetryApiTracer implements ApiTracer {
 
   @Override
   public void operationSucceeded() {
+    if (!recording) {
+      span.end();
+      return;
+    }
     span.setAllAttributes(baseOperationAttributes());
     span.setStatus(StatusCode.OK);
     span.end();
@@ -90,6 +102,10 @@ class OpenTelemetryApiTracer implements ApiTracer {
 
   @Override
   public void operationCancelled() {
+    if (!recording) {
+      span.end();
+      return;
+    }
     span.setAllAttributes(baseOperationAttributes());
     span.setStatus(StatusCode.ERROR, "Cancelled by caller");
     span.end();
@@ -97,6 +113,10 @@ class OpenTelemetryApiTracer implements ApiTracer {
 
   @Override
   public void operationFailed(Throwable error) {
+    if (!recording) {
+      span.end();
+      return;
+    }
     span.setAllAttributes(baseOperationAttributes());
     span.setStatus(StatusCode.ERROR, error.getMessage());
     span.end();
@@ -104,6 +124,10 @@ class OpenTelemetryApiTracer implements ApiTracer {
 
   @Override
   public void lroStartFailed(Throwable error) {
+    if (!recording) {
+      span.end();
+      return;
+    }
     span.addEvent(
         "Operation failed to start", Attributes.of(EXCEPTION_MESSAGE_KEY, error.getMessage()));
     span.setStatus(StatusCode.ERROR, error.getMessage());
@@ -112,11 +136,17 @@ class OpenTelemetryApiTracer implements ApiTracer {
 
   @Override
   public void lroStartSucceeded() {
+    if (!recording) {
+      return;
+    }
     span.addEvent("Operation started");
   }
 
   @Override
   public void connectionSelected(String id) {
+    if (!recording) {
+      return;
+    }
     lastConnectionId = id;
   }
 
@@ -127,6 +157,9 @@ class OpenTelemetryApiTracer implements ApiTracer {
 
   @Override
   public void attemptStarted(@Nullable Object request, int attemptNumber) {
+    if (!recording) {
+      return;
+    }
     currentAttemptId = attemptNumber;
     attemptSentMessages.set(0);
     attemptReceivedMessages = 0;
@@ -143,6 +176,9 @@ class OpenTelemetryApiTracer implements ApiTracer {
 
   @Override
   public void attemptSucceeded() {
+    if (!recording) {
+      return;
+    }
     Attributes attributes = baseAttemptAttributes();
 
     // Same infrastructure is used for both polling and retries, so need to disambiguate it here.
@@ -155,6 +191,9 @@ class OpenTelemetryApiTracer implements ApiTracer {
 
   @Override
   public void attemptCancelled() {
+    if (!recording) {
+      return;
+    }
     Attributes attributes = baseAttemptAttributes();
 
     // Same infrastructure is used for both polling and retries, so need to disambiguate it here.
@@ -175,6 +214,9 @@ class OpenTelemetryApiTracer implements ApiTracer {
 
   @Override
   public void attemptFailedDuration(Throwable error, Duration delay) {
+    if (!recording) {
+      return;
+    }
     AttributesBuilder builder = baseAttemptAttributesBuilder();
     if (delay != null) {
       builder.put(RETRY_DELAY_KEY, delay.toMillis());
@@ -196,6 +238,9 @@ class OpenTelemetryApiTracer implements ApiTracer {
 
   @Override
   public void attemptFailedRetriesExhausted(@Nonnull Throwable error) {
+    if (!recording) {
+      return;
+    }
     AttributesBuilder builder = baseAttemptAttributesBuilder();
     builder.put(EXCEPTION_MESSAGE_KEY, error.getMessage());
     Attributes attributes = builder.build();
@@ -211,6 +256,9 @@ class OpenTelemetryApiTracer implements ApiTracer {
 
   @Override
   public void attemptPermanentFailure(@Nonnull Throwable error) {
+    if (!recording) {
+      return;
+    }
     AttributesBuilder builder = baseAttemptAttributesBuilder();
     builder.put(EXCEPTION_MESSAGE_KEY, error.getMessage());
     Attributes attributes = builder.build();
@@ -226,18 +274,27 @@ class OpenTelemetryApiTracer implements ApiTracer {
 
   @Override
   public void responseReceived() {
+    if (!recording) {
+      return;
+    }
     attemptReceivedMessages++;
     totalReceivedMessages++;
   }
 
   @Override
   public void requestSent() {
+    if (!recording) {
+      return;
+    }
     attemptSentMessages.incrementAndGet();
     totalSentMessages.incrementAndGet();
   }
 
   @Override
   public void batchRequestSent(long elementCount, long requestSize) {
+    if (!recording) {
+      return;
+    }
     span.setAllAttributes(
         Attributes.of(BATCH_COUNT_KEY, elementCount, BATCH_SIZE_KEY, requestSize));
   }
@@ -36,6 +36,10 @@ class OpenTelemetrySpan implements ISpan {
 
   @Override
   public void addAnnotation(String message, Map<String, Object> attributes) {
+    // Skip building the attributes if the span is not sampled, as the event would be discarded.
+    if (!openTelemetrySpan.isRecording()) {
+      return;
+    }
     AttributesBuilder otAttributesBuilder = Attributes.builder();
     for (Map.Entry<String, Object> entry : attributes.entrySet()) {
       String key = entry.getKey();
@@ -56,21 +60,33 @@ class OpenTelemetrySpan implements ISpan {
 
   @Override
   public void addAnnotation(String message, String key, String value) {
+    if (!openTelemetrySpan.isRecording()) {
+      return;
+    }
     openTelemetrySpan.addEvent(message, Attributes.builder().put(key, value).build());
   }
 
   @Override
   public void addAnnotation(String message, String key, long value) {
+    if (!openTelemetrySpan.isRecording()) {
+      return;
+    }
     openTelemetrySpan.addEvent(message, Attributes.builder().put(key, value).build());
   }
 
   @Override
   public void addAnnotation(String message, Throwable e) {
+    if (!openTelemetrySpan.isRecording()) {
+      return;
+    }
     openTelemetrySpan.addEvent(message, this.createOpenTelemetryExceptionAnnotations(e));
   }
 
   @Override
   public void setStatus(Throwable e) {
+    if (!openTelemetrySpan.isRecording()) {
+      return;
+    }
     if (e instanceof SpannerException) {
       openTelemetrySpan.setStatus(StatusCode.ERROR, ((SpannerException) e).getErrorCode().name());
     } else {
@@ -160,6 +160,46 @@ public final class Options implements Serializable {
     return new OrderByOption(orderBy);
   }
 
+  /**
+   * Specifying this option splits a read of a {@link KeySet} that only contains point keys into
+   * batches of at most {@code batchSize} keys. The batches are executed as concurrent read RPCs at
+   * the same read timestamp, and the results are returned as one result set. At most 8 batches
+   * are streamed concurrently, and the next batch is started each time a batch has been consumed.
+   * Reads in a multi-use transaction execute the batches in that transaction. Single-use reads
+   * resolve their {@link TimestampBound} once by beginning a read-only transaction that is used
+   * for all batches.
+   *
+   * <p>Bounded staleness cannot be used for such a transaction. A single-use read with {@link
+   * TimestampBound#ofMaxStaleness(long, java.util.concurrent.TimeUnit)} therefore reads at an
+   * exact staleness of that maximum, instead of at the newest timestamp that Cloud Spanner can
+   * serve without blocking. The rows can therefore be older than the rows of the same read without
+   * this option, but never older than the maximum staleness. A bound with {@link
+   * TimestampBound#ofMinReadTimestamp(com.google.cloud.Timestamp)} is resolved to a strong read.
+   *
+   * <p>A read with a key set that contains key ranges, or that also has a {@link #limit(long)}, is
+   * executed as a single read.
+   *
+   * @param batchSize the maximum number of keys per read RPC
+   * @param preserveKeyOrder if true, the rows are returned batch by batch in the order of the keys
+   *     in the key set, which means that the result is in key order if the keys in the key set are
+   *     in key order. If false, the batches are returned in the order in which they start to
+   *     return results.
+   */
+  public static ReadOption multiGet(int batchSize, boolean preserveKeyOrder) {
+    Preconditions.checkArgument(batchSize > 0, "batchSize should be greater than 0");
+    return new MultiGetOption(batchSize, preserveKeyOrder);
+  }
+
+  /**
+   * Specifying this option registers a listener for the stats that are received while a
+   * Partitioned DML statement is executed with {@link
+   * DatabaseClient#executePartitionedUpdateAsync(Statement, UpdateOption...)}.
+   */
+  static UpdateOption partitionedUpdateStatsListener(
+      PartitionedDmlTransaction.StatsListener listener) {
+    return new PartitionedUpdateStatsListenerOption(Preconditions.checkNotNull(listener));
+  }
+
   /**
    * Specifying this will allow the client to prefetch up to {@code prefetchChunks} {@code
    * PartialResultSet} chunks for read and query. The data size of each chunk depends on the server
@@ -189,6 +229,26 @@ public final class Options implements Serializable {
     return new MaxCommitDelayOption(maxCommitDelay);
   }
 
+  /**
+   * Specifies limits for the mutations that are buffered in a read/write transaction. Buffering a
+   * mutation that causes the transaction to exceed one of these limits fails directly with a
+   * {@link TransactionMutationLimitExceededException}, and the transaction can then no longer be
+   * committed. This prevents the client from sending a commit request that Spanner would reject.
+   *
+   * <p>The mutation count that is computed by the client does not include mutations on secondary
+   * indexes. The limits should therefore be set lower than the limits of Spanner for tables that
+   * have secondary indexes.
+   *
+   * @param maxMutationCount the maximum number of mutations in the transaction, or 0 for no limit
+   * @param maxMutationBytes the maximum serialized size of the mutations in the transaction, or 0
+   *     for no limit
+   */
+  public static TransactionOption mutationLimits(long maxMutationCount, long maxMutationBytes) {
+    Preconditions.checkArgument(maxMutationCount >= 0L, "maxMutationCount should be >= 0");
+    Preconditions.checkArgument(maxMutationBytes >= 0L, "maxMutationBytes should be >= 0");
+    return new MutationLimitsOption(maxMutationCount, maxMutationBytes);
+  }
+
   /**
    * Specifying this will cause the reads, queries, updates and writes operations statistics
    * collection to be grouped by tag.
@@ -290,6 +350,16 @@ public final class Options implements Serializable {
     return new DecodeOption(decodeMode);
   }
 
+  /**
+   * Specifying this option bypasses the client-side result cache for a single-use read or query,
+   * also when the cache has been enabled with {@link
+   * SpannerOptions.Builder#enableStaleReadCache(long)}. The result of the read or query is then
+   * always fetched from Spanner, and is not added to the cache.
+   */
+  public static ReadAndQueryOption skipResultCache() {
+    return SKIP_RESULT_CACHE_OPTION;
+  }
+
   /** Option to request {@link CommitStats} for read/write transactions. */
   static final class CommitStatsOption extends InternalOption implements TransactionOption {
     @Override
@@ -314,6 +384,23 @@ public final class Options implements Serializable {
     }
   }
 
+  /** Option to set {@link #mutationLimits(long, long)} for read/write transactions. */
+  static final class MutationLimitsOption extends InternalOption implements TransactionOption {
+    final long maxMutationCount;
+    final long maxMutationBytes;
+
+    MutationLimitsOption(long maxMutationCount, long maxMutationBytes) {
+      this.maxMutationCount = maxMutationCount;
+      this.maxMutationBytes = maxMutationBytes;
+    }
+
+    @Override
+    void appendToOptions(Options options) {
+      options.maxMutationCount = maxMutationCount;
+      options.maxMutationBytes = maxMutationBytes;
+    }
+  }
+
   /** Option to request Optimistic Concurrency Control for read/write transactions. */
   static final class OptimisticLockOption extends InternalOption implements TransactionOption {
     @Override
@@ -436,6 +523,16 @@ public final class Options implements Serializable {
     }
   }
 
+  static final SkipResultCacheOption SKIP_RESULT_CACHE_OPTION = new SkipResultCacheOption();
+
+  /** Option to bypass the client-side result cache for stale reads. */
+  static final class SkipResultCacheOption extends InternalOption implements ReadAndQueryOption {
+    @Override
+    void appendToOptions(Options options) {
+      options.skipResultCache = true;
+    }
+  }
+
   static final class DecodeOption extends InternalOption implements ReadAndQueryOption {
     private final DecodeMode decodeMode;
 
@@ -453,6 +550,9 @@ public final class Options implements Serializable {
 
   private Duration maxCommitDelay;
 
+  private Long maxMutationCount;
+  private Long maxMutationBytes;
+
   private Long limit;
   private Integer prefetchChunks;
   private Integer bufferRows;
@@ -468,7 +568,11 @@ public final class Options implements Serializable {
   private Boolean dataBoostEnabled;
   private DirectedReadOptions directedReadOptions;
   private DecodeMode decodeMode;
+  private boolean skipResultCache;
   private RpcOrderBy orderBy;
+  private Integer multiGetBatchSize;
+  private boolean multiGetPreserveKeyOrder;
+  private transient PartitionedDmlTransaction.StatsListener partitionedUpdateStatsListener;
 
   // Construction is via factory methods below.
   private Options() {}
@@ -485,6 +589,18 @@ public final class Options implements Serializable {
     return maxCommitDelay;
   }
 
+  boolean hasMutationLimits() {
+    return maxMutationCount != null;
+  }
+
+  long maxMutationCount() {
+    return maxMutationCount == null ? 0L : maxMutationCount;
+  }
+
+  long maxMutationBytes() {
+    return maxMutationBytes == null ? 0L : maxMutationBytes;
+  }
+
   boolean hasLimit() {
     return limit != null;
   }
@@ -597,6 +713,10 @@ public final class Options implements Serializable {
     return decodeMode;
   }
 
+  boolean skipResultCache() {
+    return skipResultCache;
+  }
+
   boolean hasOrderBy() {
     return orderBy != null;
   }
@@ -605,6 +725,26 @@ public final class Options implements Serializable {
     return orderBy == null ? null : orderBy.proto;
   }
 
+  boolean hasMultiGetBatchSize() {
+    return multiGetBatchSize != null;
+  }
+
+  int multiGetBatchSize() {
+    return multiGetBatchSize;
+  }
+
+  boolean multiGetPreserveKeyOrder() {
+    return multiGetPreserveKeyOrder;
+  }
+
+  boolean hasPartitionedUpdateStatsListener() {
+    return partitionedUpdateStatsListener != null;
+  }
+
+  PartitionedDmlTransaction.StatsListener partitionedUpdateStatsListener() {
+    return partitionedUpdateStatsListener;
+  }
+
   @Override
   public String toString() {
     StringBuilder b = new StringBuilder();
@@ -614,6 +754,12 @@ public final class Options implements Serializable {
     if (maxCommitDelay != null) {
       b.append("maxCommitDelay: ").append(maxCommitDelay).append(' ');
     }
+    if (maxMutationCount != null) {
+      b.append("maxMutationCount: ").append(maxMutationCount).append(' ');
+    }
+    if (maxMutationBytes != null) {
+      b.append("maxMutationBytes: ").append(maxMutationBytes).append(' ');
+    }
     if (limit != null) {
       b.append("limit: ").append(limit).append(' ');
     }
@@ -658,9 +804,21 @@ public final class Options implements Serializable {
     if (decodeMode != null) {
       b.append("decodeMode: ").append(decodeMode).append(' ');
     }
+    if (skipResultCache) {
+      b.append("skipResultCache: ").append(skipResultCache).append(' ');
+    }
     if (orderBy != null) {
       b.append("orderBy: ").append(orderBy).append(' ');
     }
+    if (multiGetBatchSize != null) {
+      b.append("multiGetBatchSize: ").append(multiGetBatchSize).append(' ');
+      b.append("multiGetPreserveKeyOrder: ").append(multiGetPreserveKeyOrder).append(' ');
+    }
+    if (partitionedUpdateStatsListener != null) {
+      b.append("partitionedUpdateStatsListener: ")
+          .append(partitionedUpdateStatsListener)
+          .append(' ');
+    }
     return b.toString();
   }
 
@@ -678,6 +836,8 @@ public final class Options implements Serializable {
     Options that = (Options) o;
     return Objects.equals(withCommitStats, that.withCommitStats)
         && Objects.equals(maxCommitDelay, that.maxCommitDelay)
+        && Objects.equals(maxMutationCount, that.maxMutationCount)
+        && Objects.equals(maxMutationBytes, that.maxMutationBytes)
         && (!hasLimit() && !that.hasLimit()
             || hasLimit() && that.hasLimit() && Objects.equals(limit(), that.limit()))
         && (!hasPrefetchChunks() && !that.hasPrefetchChunks()
@@ -700,7 +860,11 @@ public final class Options implements Serializable {
         && Objects.equals(withExcludeTxnFromChangeStreams(), that.withExcludeTxnFromChangeStreams())
         && Objects.equals(dataBoostEnabled(), that.dataBoostEnabled())
         && Objects.equals(directedReadOptions(), that.directedReadOptions())
-        && Objects.equals(orderBy(), that.orderBy());
+        && Objects.equals(skipResultCache, that.skipResultCache)
+        && Objects.equals(orderBy(), that.orderBy())
+        && Objects.equals(multiGetBatchSize, that.multiGetBatchSize)
+        && multiGetPreserveKeyOrder == that.multiGetPreserveKeyOrder
+        && Objects.equals(partitionedUpdateStatsListener, that.partitionedUpdateStatsListener);
   }
 
   @Override
@@ -712,6 +876,12 @@ public final class Options implements Serializable {
     if (maxCommitDelay != null) {
       result = 31 * result + maxCommitDelay.hashCode();
     }
+    if (maxMutationCount != null) {
+      result = 31 * result + maxMutationCount.hashCode();
+    }
+    if (maxMutationBytes != null) {
+      result = 31 * result + maxMutationBytes.hashCode();
+    }
     if (limit != null) {
       result = 31 * result + limit.hashCode();
     }
@@ -757,9 +927,19 @@ public final class Options implements Serializable {
     if (decodeMode != null) {
       result = 31 * result + decodeMode.hashCode();
     }
+    if (skipResultCache) {
+      result = 31 * result + 1231;
+    }
     if (orderBy != null) {
       result = 31 * result + orderBy.hashCode();
     }
+    if (multiGetBatchSize != null) {
+      result = 31 * result + multiGetBatchSize.hashCode();
+      result = 31 * result + (multiGetPreserveKeyOrder ? 1231 : 1237);
+    }
+    if (partitionedUpdateStatsListener != null) {
+      result = 31 * result + partitionedUpdateStatsListener.hashCode();
+    }
     return result;
   }
 
@@ -840,6 +1020,36 @@ public final class Options implements Serializable {
     }
   }
 
+  static final class PartitionedUpdateStatsListenerOption extends InternalOption
+      implements UpdateOption {
+    private final PartitionedDmlTransaction.StatsListener listener;
+
+    PartitionedUpdateStatsListenerOption(PartitionedDmlTransaction.StatsListener listener) {
+      this.listener = listener;
+    }
+
+    @Override
+    void appendToOptions(Options options) {
+      options.partitionedUpdateStatsListener = listener;
+    }
+  }
+
+  static final class MultiGetOption extends InternalOption implements ReadOption {
+    private final int batchSize;
+    private final boolean preserveKeyOrder;
+
+    MultiGetOption(int batchSize, boolean preserveKeyOrder) {
+      this.batchSize = batchSize;
+      this.preserveKeyOrder = preserveKeyOrder;
+    }
+
+    @Override
+    void appendToOptions(Options options) {
+      options.multiGetBatchSize = batchSize;
+      options.multiGetPreserveKeyOrder = preserveKeyOrder;
+    }
+  }
+
   static class OrderByOption extends InternalOption implements ReadOption {
     private final RpcOrderBy orderBy;
 
@@ -18,7 +18,11 @@ package com.google.cloud.spanner;
 
 import static com.google.common.base.Preconditions.checkState;
 
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
 import com.google.api.core.InternalApi;
+import com.google.api.core.SettableApiFuture;
 import com.google.api.gax.grpc.GrpcStatusCode;
 import com.google.api.gax.rpc.AbortedException;
 import com.google.api.gax.rpc.DeadlineExceededException;
@@ -30,11 +34,13 @@ import com.google.cloud.spanner.spi.v1.SpannerRpc;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Stopwatch;
 import com.google.common.base.Ticker;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.protobuf.ByteString;
 import com.google.spanner.v1.BeginTransactionRequest;
 import com.google.spanner.v1.ExecuteSqlRequest;
 import com.google.spanner.v1.PartialResultSet;
 import com.google.spanner.v1.RequestOptions;
+import com.google.spanner.v1.ResultSetStats;
 import com.google.spanner.v1.Transaction;
 import com.google.spanner.v1.TransactionOptions;
 import com.google.spanner.v1.TransactionSelector;
@@ -51,6 +57,19 @@ public class PartitionedDmlTransaction implements SessionImpl.SessionTransaction
 
   private static final Logger LOGGER = Logger.getLogger(PartitionedDmlTransaction.class.getName());
 
+  /**
+   * Listener for the {@link ResultSetStats} that are received while a Partitioned DML statement is
+   * executed asynchronously.
+   */
+  interface StatsListener {
+    /**
+     * Called for each message that contains stats. The rowCountLowerBound is the sum of all lower
+     * bounds that have been received so far for the current transaction. This sum starts at zero
+     * again if the statement is restarted with a new transaction after it was aborted.
+     */
+    void onStats(ResultSetStats stats, long rowCountLowerBound);
+  }
+
   private final SessionImpl session;
   private final SpannerRpc rpc;
   private final Ticker ticker;
@@ -133,6 +152,162 @@ public class PartitionedDmlTransaction implements SessionImpl.SessionTransaction
     }
   }
 
+  /**
+   * Executes the {@link Statement} using a partitioned dml transaction without blocking the calling
+   * thread. The statement is retried in the same way as by {@link
+   * #executeStreamingPartitionedUpdate(Statement, Duration, UpdateOption...)}, but the transaction
+   * is started with BeginTransactionAsync and the results are received by a {@link
+   * SpannerRpc.ResultStreamConsumer}.
+   */
+  ApiFuture<Long> executeStreamingPartitionedUpdateAsync(
+      final Statement statement, final Duration timeout, final UpdateOption... updateOptions) {
+    checkState(isValid, "Partitioned DML has been invalidated by a new operation on the session");
+    LOGGER.log(Level.FINER, "Starting async PartitionedUpdate statement");
+    AsyncPartitionedUpdate update =
+        new AsyncPartitionedUpdate(statement, timeout, Options.fromUpdateOptions(updateOptions));
+    update.restart();
+    return update.result;
+  }
+
+  /**
+   * The state of one asynchronous Partitioned DML statement. A new stream is only started after
+   * the previous stream has finished, and all state changes are guarded by the monitor of this
+   * object.
+   */
+  private final class AsyncPartitionedUpdate implements SpannerRpc.ResultStreamConsumer {
+    private final Statement statement;
+    private final Duration timeout;
+    private final Options options;
+    private final Stopwatch stopwatch = Stopwatch.createStarted(ticker);
+    private final SettableApiFuture<Long> result = SettableApiFuture.create();
+
+    private ExecuteSqlRequest request;
+    private SpannerRpc.StreamingCall call;
+    private ByteString resumeToken = ByteString.EMPTY;
+    private boolean foundStats;
+    private long updateCount;
+
+    private AsyncPartitionedUpdate(Statement statement, Duration timeout, Options options) {
+      this.statement = statement;
+      this.timeout = timeout;
+      this.options = options;
+      this.result.addListener(this::cancelIfCancelled, MoreExecutors.directExecutor());
+    }
+
+    private synchronized void cancelIfCancelled() {
+      if (result.isCancelled() && call != null) {
+        call.cancel("Partitioned DML statement was cancelled");
+      }
+    }
+
+    /** Starts (again) with a new transaction. */
+    private void restart() {
+      ApiFutures.addCallback(
+          newTransactionRequestFromAsync(statement, options),
+          new ApiFutureCallback<ExecuteSqlRequest>() {
+            @Override
+            public void onSuccess(ExecuteSqlRequest newRequest) {
+              startStream(newRequest);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+              result.setException(SpannerExceptionFactory.asSpannerException(t));
+            }
+          },
+          MoreExecutors.directExecutor());
+    }
+
+    private synchronized void startStream(ExecuteSqlRequest newRequest) {
+      if (result.isDone()) {
+        return;
+      }
+      request = newRequest;
+      call = null;
+      try {
+        call =
+            rpc.executeStreamingPartitionedDml(
+                request, this, session.getOptions(), tryUpdateTimeout(timeout, stopwatch));
+        // The stream uses manual flow control, so no message is delivered until it is requested.
+        call.request(1);
+      } catch (Exception e) {
+        result.setException(SpannerExceptionFactory.newSpannerException(e));
+      }
+    }
+
+    @Override
+    public synchronized void onPartialResultSet(PartialResultSet rs) {
+      if (result.isDone()) {
+        return;
+      }
+      if (!rs.getResumeToken().isEmpty()) {
+        resumeToken = rs.getResumeToken();
+      }
+      if (rs.hasStats()) {
+        foundStats = rs.getStats().hasRowCountLowerBound();
+        updateCount += rs.getStats().getRowCountLowerBound();
+        if (options.hasPartitionedUpdateStatsListener()) {
+          try {
+            options.partitionedUpdateStatsListener().onStats(rs.getStats(), updateCount);
+          } catch (RuntimeException e) {
+            if (call != null) {
+              call.cancel("Partitioned DML stats listener failed");
+            }
+            result.setException(SpannerExceptionFactory.newSpannerException(e));
+            return;
+          }
+        }
+      }
+      call.request(1);
+    }
+
+    @Override
+    public synchronized void onCompleted() {
+      if (result.isDone()) {
+        return;
+      }
+      if (!foundStats) {
+        result.setException(
+            SpannerExceptionFactory.newSpannerException(
+                ErrorCode.INVALID_ARGUMENT,
+                "Partitioned DML response missing stats possibly due to non-DML statement as"
+                    + " input"));
+      } else {
+        LOGGER.log(Level.FINER, "Finished async PartitionedUpdate statement");
+        result.set(updateCount);
+      }
+    }
+
+    @Override
+    public synchronized void onError(SpannerException e) {
+      if (result.isDone()) {
+        return;
+      }
+      if (e.getErrorCode() == ErrorCode.UNAVAILABLE
+          || (e.getErrorCode() == ErrorCode.INTERNAL && e.isRetryable())) {
+        LOGGER.log(Level.FINER, "Retrying async PartitionedDml transaction after " + e, e);
+        if (resumeToken.isEmpty()) {
+          restart();
+        } else {
+          startStream(ExecuteSqlRequest.newBuilder(request).setResumeToken(resumeToken).build());
+        }
+      } else if (e.getErrorCode() == ErrorCode.ABORTED) {
+        LOGGER.log(Level.FINER, "Retrying async PartitionedDml transaction after abort", e);
+        resumeToken = ByteString.EMPTY;
+        foundStats = false;
+        updateCount = 0L;
+        restart();
+      } else {
+        result.setException(e);
+      }
+    }
+
+    @Override
+    public boolean cancelQueryWhenClientIsClosed() {
+      return false;
+    }
+  }
+
   @Override
   public void invalidate() {
     isValid = false;
@@ -171,8 +346,20 @@ public class PartitionedDmlTransaction implements SessionImpl.SessionTransaction
 
   @VisibleForTesting
   ExecuteSqlRequest newTransactionRequestFrom(final Statement statement, final Options options) {
-    ByteString transactionId = initTransaction(options);
+    return newExecuteSqlRequest(statement, options, initTransaction(options));
+  }
 
+  private ApiFuture<ExecuteSqlRequest> newTransactionRequestFromAsync(
+      final Statement statement, final Options options) {
+    return ApiFutures.transform(
+        rpc.beginTransactionAsync(newBeginTransactionRequest(options), session.getOptions(), true),
+        transaction ->
+            newExecuteSqlRequest(statement, options, checkTransactionId(transaction.getId())),
+        MoreExecutors.directExecutor());
+  }
+
+  private ExecuteSqlRequest newExecuteSqlRequest(
+      final Statement statement, final Options options, final ByteString transactionId) {
     final TransactionSelector transactionSelector =
         TransactionSelector.newBuilder().setId(transactionId).build();
     final ExecuteSqlRequest.Builder builder =
@@ -200,22 +387,29 @@ public class PartitionedDmlTransaction implements SessionImpl.SessionTransaction
   }
 
   private ByteString initTransaction(final Options options) {
-    final BeginTransactionRequest request =
-        BeginTransactionRequest.newBuilder()
-            .setSession(session.getName())
-            .setOptions(
-                TransactionOptions.newBuilder()
-                    .setPartitionedDml(TransactionOptions.PartitionedDml.getDefaultInstance())
-                    .setExcludeTxnFromChangeStreams(
-                        options.withExcludeTxnFromChangeStreams() == Boolean.TRUE))
-            .build();
-    Transaction tx = rpc.beginTransaction(request, session.getOptions(), true);
-    if (tx.getId().isEmpty()) {
+    Transaction tx =
+        rpc.beginTransaction(newBeginTransactionRequest(options), session.getOptions(), true);
+    return checkTransactionId(tx.getId());
+  }
+
+  private BeginTransactionRequest newBeginTransactionRequest(final Options options) {
+    return BeginTransactionRequest.newBuilder()
+        .setSession(session.getName())
+        .setOptions(
+            TransactionOptions.newBuilder()
+                .setPartitionedDml(TransactionOptions.PartitionedDml.getDefaultInstance())
+                .setExcludeTxnFromChangeStreams(
+                    options.withExcludeTxnFromChangeStreams() == Boolean.TRUE))
+        .build();
+  }
+
+  private ByteString checkTransactionId(final ByteString transactionId) {
+    if (transactionId.isEmpty()) {
       throw SpannerExceptionFactory.newSpannerException(
           ErrorCode.INTERNAL,
           "Failed to init transaction, missing transaction id\n" + session.getName());
     }
-    return tx.getId();
+    return transactionId;
   }
 
   private void setParameters(
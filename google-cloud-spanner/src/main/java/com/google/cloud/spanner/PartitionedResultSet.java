@@ -0,0 +1,330 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Supplier;
+import com.google.spanner.v1.ResultSetMetadata;
+import com.google.spanner.v1.ResultSetStats;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * {@link ResultSet} that executes a list of {@link Partition}s in parallel and returns the merged
+ * results of all partitions. The order of the rows is not guaranteed.
+ *
+ * <p>Each partition is executed on a thread from a thread pool that is owned by the result set. The
+ * number of rows that is buffered is limited to {@code bufferRowsPerPartition} times the number of
+ * partitions that is executed in parallel. A partition that fails with a retryable error before it
+ * has returned any rows is executed again, up to {@link #MAX_PARTITION_ATTEMPTS} times. Closing the
+ * result set cancels all partitions that are still running.
+ */
+class PartitionedResultSet extends ForwardingStructReader implements ResultSet {
+  static final int DEFAULT_BUFFER_ROWS_PER_PARTITION = 32;
+  static final int MAX_PARTITION_ATTEMPTS = 3;
+
+  /** A row, the metadata of a partition, an error, or the end of a partition. */
+  private static final class PartitionResult {
+    private static final PartitionResult FINISHED = new PartitionResult(null, null, null, null);
+
+    private final Struct row;
+    private final Type type;
+    private final ResultSetMetadata metadata;
+    private final SpannerException exception;
+
+    private PartitionResult(
+        Struct row, Type type, ResultSetMetadata metadata, SpannerException exception) {
+      this.row = row;
+      this.type = type;
+      this.metadata = metadata;
+      this.exception = exception;
+    }
+  }
+
+  /** Holds the row that the result set is currently positioned at. */
+  private static final class CurrentRow implements Supplier<Struct> {
+    private Struct row;
+
+    @Override
+    public Struct get() {
+      Preconditions.checkState(row != null, "next() call required");
+      return row;
+    }
+  }
+
+  private final class PartitionExecutor implements Runnable {
+    private final Partition partition;
+
+    private PartitionExecutor(Partition partition) {
+      this.partition = partition;
+    }
+
+    @Override
+    public void run() {
+      try {
+        for (int attempt = 1; ; attempt++) {
+          boolean returnedRows = false;
+          try (ResultSet resultSet = partitionFunction.apply(partition)) {
+            while (!stopped.get() && resultSet.next()) {
+              if (!returnedRows) {
+                putMetadata(resultSet);
+                returnedRows = true;
+              }
+              queue.put(new PartitionResult(resultSet.getCurrentRowAsStruct(), null, null, null));
+            }
+            if (!returnedRows && !stopped.get()) {
+              putMetadata(resultSet);
+            }
+            return;
+          } catch (SpannerException exception) {
+            // The partition can safely be retried if it has not returned any rows yet. Transient
+            // errors halfway through a partition are already retried by the stream using a resume
+            // token.
+            if (returnedRows
+                || stopped.get()
+                || !exception.isRetryable()
+                || attempt >= MAX_PARTITION_ATTEMPTS) {
+              throw exception;
+            }
+          }
+        }
+      } catch (InterruptedException interruptedException) {
+        Thread.currentThread().interrupt();
+      } catch (Throwable throwable) {
+        offer(
+            new PartitionResult(
+                null, null, null, SpannerExceptionFactory.asSpannerException(throwable)));
+        metadataAvailableLatch.countDown();
+      } finally {
+        // Always put a FINISHED result in the queue, so the consumer can safely block on the queue
+        // until all partitions have finished.
+        offer(PartitionResult.FINISHED);
+      }
+    }
+
+    private void putMetadata(ResultSet resultSet) throws InterruptedException {
+      queue.put(new PartitionResult(null, resultSet.getType(), resultSet.getMetadata(), null));
+      metadataAvailableLatch.countDown();
+    }
+
+    private void offer(PartitionResult result) {
+      try {
+        queue.put(result);
+      } catch (InterruptedException interruptedException) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private final Function<Partition, ResultSet> partitionFunction;
+  private final int parallelism;
+  private final int numPartitions;
+  private final ExecutorService executor;
+  private final LinkedBlockingDeque<PartitionResult> queue;
+  private final CountDownLatch metadataAvailableLatch = new CountDownLatch(1);
+  private final AtomicBoolean stopped = new AtomicBoolean();
+  private volatile Type type;
+  private volatile ResultSetMetadata metadata;
+  private final CurrentRow currentRow;
+  private int unfinishedPartitions;
+  private SpannerException exception;
+  private boolean closed;
+
+  PartitionedResultSet(
+      Function<Partition, ResultSet> partitionFunction,
+      List<Partition> partitions,
+      int maxParallelism,
+      int bufferRowsPerPartition) {
+    this(partitionFunction, partitions, maxParallelism, bufferRowsPerPartition, new CurrentRow());
+  }
+
+  private PartitionedResultSet(
+      Function<Partition, ResultSet> partitionFunction,
+      List<Partition> partitions,
+      int maxParallelism,
+      int bufferRowsPerPartition,
+      CurrentRow currentRow) {
+    super(currentRow);
+    Preconditions.checkArgument(maxParallelism >= 0, "maxParallelism must be >= 0");
+    Preconditions.checkArgument(bufferRowsPerPartition > 0, "bufferRowsPerPartition must be > 0");
+    this.currentRow = currentRow;
+    this.partitionFunction = Preconditions.checkNotNull(partitionFunction);
+    this.numPartitions = partitions.size();
+    this.unfinishedPartitions = partitions.size();
+    if (maxParallelism == 0) {
+      // Dynamically determine parallelism.
+      this.parallelism =
+          Math.max(1, Math.min(partitions.size(), Runtime.getRuntime().availableProcessors()));
+    } else {
+      this.parallelism = Math.max(1, Math.min(partitions.size(), maxParallelism));
+    }
+    this.queue = new LinkedBlockingDeque<>(bufferRowsPerPartition * this.parallelism);
+    this.executor =
+        Executors.newFixedThreadPool(
+            this.parallelism,
+            runnable -> {
+              Thread thread = new Thread(runnable);
+              thread.setName("partitioned-result-set-worker");
+              thread.setDaemon(true);
+              return thread;
+            });
+    for (Partition partition : partitions) {
+      this.executor.submit(new PartitionExecutor(partition));
+    }
+    // Pre-emptively shut down the executor. This does not terminate any running tasks, but it
+    // guarantees that the threads are stopped once all partitions have finished, regardless
+    // whether the result set is closed.
+    this.executor.shutdown();
+    if (partitions.isEmpty()) {
+      metadataAvailableLatch.countDown();
+    }
+  }
+
+  @VisibleForTesting
+  int getParallelism() {
+    return parallelism;
+  }
+
+  @VisibleForTesting
+  int getNumPartitions() {
+    return numPartitions;
+  }
+
+  @Override
+  protected void checkValidState() {
+    Preconditions.checkState(!closed, "This result set has been closed");
+  }
+
+  @Override
+  public boolean next() throws SpannerException {
+    if (exception != null) {
+      throw exception;
+    }
+    checkValidState();
+    try {
+      while (unfinishedPartitions > 0) {
+        PartitionResult result = queue.take();
+        if (result == PartitionResult.FINISHED) {
+          unfinishedPartitions--;
+        } else if (result.exception != null) {
+          exception = result.exception;
+          close();
+          throw exception;
+        } else if (result.row != null) {
+          currentRow.row = result.row;
+          return true;
+        } else {
+          setMetadata(result);
+        }
+      }
+      currentRow.row = null;
+      return false;
+    } catch (InterruptedException interruptedException) {
+      close();
+      throw SpannerExceptionFactory.propagateInterrupt(interruptedException);
+    }
+  }
+
+  private void setMetadata(PartitionResult result) {
+    if (type == null) {
+      type = result.type;
+      metadata = result.metadata;
+    }
+  }
+
+  private void waitForMetadata() {
+    if (type != null) {
+      return;
+    }
+    try {
+      metadataAvailableLatch.await();
+    } catch (InterruptedException interruptedException) {
+      throw SpannerExceptionFactory.propagateInterrupt(interruptedException);
+    }
+    for (PartitionResult result : queue) {
+      if (result.exception != null) {
+        throw result.exception;
+      }
+      if (result.type != null) {
+        setMetadata(result);
+        return;
+      }
+    }
+  }
+
+  @Override
+  public Struct getCurrentRowAsStruct() {
+    checkValidState();
+    return currentRow.get();
+  }
+
+  @Override
+  public void close() {
+    if (!closed) {
+      closed = true;
+      stopped.set(true);
+      // shutdownNow interrupts all running partitions. This also cancels the streaming calls of
+      // these partitions.
+      executor.shutdownNow();
+    }
+  }
+
+  @Override
+  public ResultSetStats getStats() {
+    return null;
+  }
+
+  @Override
+  public ResultSetMetadata getMetadata() {
+    checkValidState();
+    waitForMetadata();
+    return metadata == null ? ResultSetMetadata.getDefaultInstance() : metadata;
+  }
+
+  @Override
+  public Type getType() {
+    checkValidState();
+    waitForMetadata();
+    return type == null ? Type.struct() : type;
+  }
+
+  @Override
+  public int getColumnCount() {
+    return getType().getStructFields().size();
+  }
+
+  @Override
+  public int getColumnIndex(String columnName) {
+    return getType().getFieldIndex(columnName);
+  }
+
+  @Override
+  public Type getColumnType(int columnIndex) {
+    return getType().getStructFields().get(columnIndex).getType();
+  }
+
+  @Override
+  public Type getColumnType(String columnName) {
+    return getType().getStructFields().get(getColumnIndex(columnName)).getType();
+  }
+}
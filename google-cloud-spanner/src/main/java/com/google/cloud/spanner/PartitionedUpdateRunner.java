@@ -0,0 +1,247 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.api.core.SettableApiFuture;
+import com.google.cloud.spanner.Options.UpdateOption;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.spanner.v1.ResultSetStats;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import javax.annotation.Nullable;
+
+/**
+ * Executes a list of Partitioned DML statements with {@link
+ * DatabaseClient#executePartitionedUpdateAsync(Statement, UpdateOption...)}, with at most a fixed
+ * number of statements running at the same time. A new statement is started on the executor for
+ * asynchronous operations of the client each time a running statement finishes, so the calling
+ * thread is not blocked while the statements are executed.
+ *
+ * <p>Example of running a set of backfill statements with at most 4 concurrent statements:
+ *
+ * <pre>{@code
+ * PartitionedUpdateRunner runner =
+ *     PartitionedUpdateRunner.create(
+ *         dbClient,
+ *         4,
+ *         (index, statement, stats, rowCount) ->
+ *             System.out.printf("Statement %d: at least %d rows%n", index, rowCount));
+ * List<Long> rowCounts = runner.executeAsync(statements).get();
+ * }</pre>
+ */
+public final class PartitionedUpdateRunner {
+
+  /** Listener for the progress of the statements that are executed by a runner. */
+  public interface ProgressListener {
+    /**
+     * Called each time a statement receives {@link ResultSetStats} from Spanner. This method is
+     * called by the thread that receives the results of the statement, and should not block.
+     *
+     * @param statementIndex the index of the statement in the list of statements
+     * @param statement the statement that received the stats
+     * @param stats the stats that were received
+     * @param rowCountLowerBound the sum of the row count lower bounds that have been received so
+     *     far for the statement. This sum starts at zero again if the statement is restarted after
+     *     its transaction was aborted.
+     */
+    void onProgress(
+        int statementIndex, Statement statement, ResultSetStats stats, long rowCountLowerBound);
+  }
+
+  private final DatabaseClient client;
+  private final int maxConcurrentStatements;
+  @Nullable private final ProgressListener progressListener;
+
+  /**
+   * The executor that starts the statements. Starting a statement can block while it waits for a
+   * session from the session pool, so statements are not started on the gRPC thread that finished
+   * the previous statement.
+   */
+  private final Executor executor;
+
+  /**
+   * Creates a runner that executes Partitioned DML statements on the given client with at most
+   * maxConcurrentStatements statements running at the same time.
+   */
+  public static PartitionedUpdateRunner create(
+      DatabaseClient client, int maxConcurrentStatements) {
+    return create(client, maxConcurrentStatements, null);
+  }
+
+  /**
+   * Creates a runner that executes Partitioned DML statements on the given client with at most
+   * maxConcurrentStatements statements running at the same time, and that reports the progress of
+   * the statements to the given listener.
+   */
+  public static PartitionedUpdateRunner create(
+      DatabaseClient client,
+      int maxConcurrentStatements,
+      @Nullable ProgressListener progressListener) {
+    Preconditions.checkNotNull(client);
+    Preconditions.checkArgument(
+        maxConcurrentStatements > 0, "maxConcurrentStatements should be greater than 0");
+    return new PartitionedUpdateRunner(client, maxConcurrentStatements, progressListener);
+  }
+
+  private PartitionedUpdateRunner(
+      DatabaseClient client,
+      int maxConcurrentStatements,
+      @Nullable ProgressListener progressListener) {
+    this.client = client;
+    this.maxConcurrentStatements = maxConcurrentStatements;
+    this.progressListener = progressListener;
+    this.executor =
+        client instanceof DatabaseClientImpl
+            ? ((DatabaseClientImpl) client).getAsyncExecutor()
+            : MoreExecutors.directExecutor();
+  }
+
+  /**
+   * Executes the given Partitioned DML statements. The statements are started in the order of the
+   * list. The returned future returns the lower bound of the number of modified rows of each
+   * statement in the same order as the statements when all statements have finished.
+   *
+   * <p>The returned future fails with the error of the first statement that fails. No new
+   * statements are started after a statement has failed, but statements that are already running
+   * are not cancelled, as Partitioned DML statements cannot be rolled back. Cancelling the returned
+   * future cancels all running statements.
+   */
+  public ApiFuture<List<Long>> executeAsync(List<Statement> statements, UpdateOption... options) {
+    Preconditions.checkNotNull(statements);
+    Preconditions.checkNotNull(options);
+    return new Execution(ImmutableList.copyOf(statements), options).start();
+  }
+
+  /** The state of one call to {@link #executeAsync(List, UpdateOption...)}. */
+  private final class Execution {
+    private final ImmutableList<Statement> statements;
+    private final UpdateOption[] options;
+    private final Long[] rowCounts;
+    private final SettableApiFuture<List<Long>> result = SettableApiFuture.create();
+    private final Set<ApiFuture<Long>> runningStatements = new HashSet<>();
+    private int nextStatement;
+    private int numFinishedStatements;
+
+    private Execution(ImmutableList<Statement> statements, UpdateOption[] options) {
+      this.statements = statements;
+      this.options = options;
+      this.rowCounts = new Long[statements.size()];
+    }
+
+    private ApiFuture<List<Long>> start() {
+      if (statements.isEmpty()) {
+        result.set(ImmutableList.of());
+        return result;
+      }
+      result.addListener(this::cancelIfCancelled, MoreExecutors.directExecutor());
+      for (int i = 0; i < Math.min(maxConcurrentStatements, statements.size()); i++) {
+        dispatchNextStatement();
+      }
+      return result;
+    }
+
+    private void dispatchNextStatement() {
+      try {
+        executor.execute(this::startNextStatement);
+      } catch (RejectedExecutionException e) {
+        result.setException(SpannerExceptionFactory.asSpannerException(e));
+      }
+    }
+
+    private void cancelIfCancelled() {
+      if (result.isCancelled()) {
+        List<ApiFuture<Long>> running;
+        synchronized (this) {
+          running = ImmutableList.copyOf(runningStatements);
+        }
+        for (ApiFuture<Long> statement : running) {
+          statement.cancel(true);
+        }
+      }
+    }
+
+    private UpdateOption[] optionsFor(int index) {
+      if (progressListener == null) {
+        return options;
+      }
+      Statement statement = statements.get(index);
+      UpdateOption[] statementOptions = Arrays.copyOf(options, options.length + 1);
+      statementOptions[options.length] =
+          Options.partitionedUpdateStatsListener(
+              (stats, rowCountLowerBound) ->
+                  progressListener.onProgress(index, statement, stats, rowCountLowerBound));
+      return statementOptions;
+    }
+
+    private void startNextStatement() {
+      final int index;
+      synchronized (this) {
+        if (result.isDone() || nextStatement == statements.size()) {
+          return;
+        }
+        index = nextStatement++;
+      }
+      final ApiFuture<Long> update;
+      try {
+        update = client.executePartitionedUpdateAsync(statements.get(index), optionsFor(index));
+      } catch (RuntimeException e) {
+        result.setException(SpannerExceptionFactory.asSpannerException(e));
+        return;
+      }
+      synchronized (this) {
+        runningStatements.add(update);
+      }
+      ApiFutures.addCallback(
+          update,
+          new ApiFutureCallback<Long>() {
+            @Override
+            public void onSuccess(Long rowCount) {
+              boolean allFinished;
+              synchronized (Execution.this) {
+                runningStatements.remove(update);
+                rowCounts[index] = rowCount;
+                allFinished = ++numFinishedStatements == statements.size();
+              }
+              if (allFinished) {
+                result.set(Collections.unmodifiableList(Arrays.asList(rowCounts)));
+              } else {
+                dispatchNextStatement();
+              }
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+              synchronized (Execution.this) {
+                runningStatements.remove(update);
+              }
+              result.setException(t);
+            }
+          },
+          MoreExecutors.directExecutor());
+    }
+  }
+}
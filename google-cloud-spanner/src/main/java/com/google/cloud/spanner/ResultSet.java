@@ -45,6 +45,21 @@ public interface ResultSet extends AutoCloseable, StructReader {
    */
   boolean next() throws SpannerException;
 
+  /**
+   * Advances the result set past the next batch of rows and returns these rows as a {@link
+   * ColumnarBatch}, or returns null if no more rows exist. A batch contains the rows that were
+   * returned in one message from Spanner. If the result set is positioned in the middle of a batch
+   * because of earlier calls to {@link #next()}, the remaining rows of that batch are returned.
+   * After this method has returned a batch, the result set is positioned on the last row of the
+   * batch. This method may block.
+   *
+   * <p>This method is only supported for queries and reads that use {@link
+   * DecodeMode#COLUMNAR_BATCH}.
+   */
+  default ColumnarBatch nextBatch() throws SpannerException {
+    throw new UnsupportedOperationException("Method should be overridden");
+  }
+
   /**
    * Creates an immutable version of the row that the result set is positioned over. This may
    * involve copying internal data structures, and so converting all rows to {@code Struct} objects
@@ -66,6 +66,7 @@ abstract class ResumableStreamIterator extends AbstractIterator<PartialResultSet
   private BackOff backOff;
   private final LinkedList<PartialResultSet> buffer = new LinkedList<>();
   private final int maxBufferSize;
+  @Nullable private final AdaptivePrefetchController.Account resultBufferAccount;
   private final ISpan span;
   private final TraceWrapper tracer;
   private CloseableIterator<PartialResultSet> stream;
@@ -106,8 +107,31 @@ abstract class ResumableStreamIterator extends AbstractIterator<PartialResultSet
       ErrorHandler errorHandler,
       RetrySettings streamingRetrySettings,
       Set<Code> retryableCodes) {
+    this(
+        maxBufferSize,
+        streamName,
+        parent,
+        tracer,
+        attributes,
+        errorHandler,
+        streamingRetrySettings,
+        retryableCodes,
+        null);
+  }
+
+  protected ResumableStreamIterator(
+      int maxBufferSize,
+      String streamName,
+      ISpan parent,
+      TraceWrapper tracer,
+      Attributes attributes,
+      ErrorHandler errorHandler,
+      RetrySettings streamingRetrySettings,
+      Set<Code> retryableCodes,
+      @Nullable AdaptivePrefetchController.Account resultBufferAccount) {
     checkArgument(maxBufferSize >= 0);
     this.maxBufferSize = maxBufferSize;
+    this.resultBufferAccount = resultBufferAccount;
     this.tracer = tracer;
     this.span = tracer.spanBuilderWithExplicitParent(streamName, parent, attributes);
     this.errorHandler = errorHandler;
@@ -216,6 +240,9 @@ abstract class ResumableStreamIterator extends AbstractIterator<PartialResultSet
       span.end();
       stream = null;
     }
+    if (resultBufferAccount != null) {
+      resultBufferAccount.close();
+    }
   }
 
   @Override
@@ -241,7 +268,7 @@ abstract class ResumableStreamIterator extends AbstractIterator<PartialResultSet
       // Buffer contains items up to a resume token or has reached capacity: flush.
       if (!buffer.isEmpty()
           && (finished || !safeToRetry || !buffer.getLast().getResumeToken().isEmpty())) {
-        return buffer.pop();
+        return releaseFromBuffer(buffer.pop());
       }
       try {
         if (stream.hasNext()) {
@@ -258,6 +285,9 @@ abstract class ResumableStreamIterator extends AbstractIterator<PartialResultSet
             return next;
           }
           buffer.add(next);
+          if (resultBufferAccount != null) {
+            resultBufferAccount.add(next.getSerializedSize());
+          }
           if (buffer.size() > maxBufferSize && buffer.getLast().getResumeToken().isEmpty()) {
             // We need to flush without a restart token.  Errors encountered until we see
             // such a token will fail the read.
@@ -276,7 +306,7 @@ abstract class ResumableStreamIterator extends AbstractIterator<PartialResultSet
           logger.log(Level.FINE, "Retryable exception, will sleep and retry", spannerException);
           // Truncate any items in the buffer before the last retry token.
           while (!buffer.isEmpty() && buffer.getLast().getResumeToken().isEmpty()) {
-            buffer.removeLast();
+            releaseFromBuffer(buffer.removeLast());
           }
           assert buffer.isEmpty() || buffer.getLast().getResumeToken().equals(resumeToken);
           stream = null;
@@ -316,6 +346,13 @@ abstract class ResumableStreamIterator extends AbstractIterator<PartialResultSet
     }
   }
 
+  private PartialResultSet releaseFromBuffer(PartialResultSet partialResultSet) {
+    if (resultBufferAccount != null) {
+      resultBufferAccount.release(partialResultSet.getSerializedSize());
+    }
+    return partialResultSet;
+  }
+
   private void startGrpcStreaming() {
     if (stream == null) {
       span.addAnnotation(
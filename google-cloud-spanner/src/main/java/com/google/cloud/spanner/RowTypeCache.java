@@ -0,0 +1,158 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner;
+
+import static com.google.cloud.spanner.MetricRegistryConstants.COUNT;
+import static com.google.cloud.spanner.MetricRegistryConstants.ROW_TYPE_CACHE_HITS;
+import static com.google.cloud.spanner.MetricRegistryConstants.ROW_TYPE_CACHE_HITS_DESCRIPTION;
+import static com.google.cloud.spanner.MetricRegistryConstants.ROW_TYPE_CACHE_MISSES;
+import static com.google.cloud.spanner.MetricRegistryConstants.ROW_TYPE_CACHE_MISSES_DESCRIPTION;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.spanner.v1.StructType;
+import com.google.spanner.v1.TypeCode;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.Meter;
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+import javax.annotation.Nullable;
+
+/**
+ * Cache for the {@link Type}s of the rows of result sets. Applications often execute the same
+ * queries many times, and all result sets of such a query have the same row type. The cache
+ * ensures that these result sets share one {@link Type} instance with a prebuilt index of field
+ * names, instead of building a new {@link Type} and field index for each result set.
+ *
+ * <p>The cache is keyed by the {@link StructType} in the metadata of a result set. The maximum
+ * number of cached row types can be set with the System property `spanner.row_type_cache_size`.
+ * The default is {@value #DEFAULT_MAX_ROW_TYPE_CACHE_SIZE}, and a size of 0 disables the cache.
+ * The cache always records its hit rate, which is returned by {@link #getStats()} and exported as
+ * OpenTelemetry metrics by {@link #registerMetrics(OpenTelemetry)}.
+ */
+final class RowTypeCache {
+  /** The default maximum number of row types in the cache. */
+  static final int DEFAULT_MAX_ROW_TYPE_CACHE_SIZE = 1000;
+
+  @Nullable private static final Cache<StructType, Type> CACHE = createCache();
+
+  /** The {@link OpenTelemetry} instances that the cache metrics have been registered with. */
+  private static final Set<OpenTelemetry> REGISTERED_OPEN_TELEMETRY_INSTANCES =
+      Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
+  private RowTypeCache() {}
+
+  private static int getMaxRowTypeCacheSize() {
+    String stringValue = System.getProperty("spanner.row_type_cache_size");
+    if (stringValue == null) {
+      return DEFAULT_MAX_ROW_TYPE_CACHE_SIZE;
+    }
+    int value = 0;
+    try {
+      value = Integer.parseInt(stringValue);
+    } catch (NumberFormatException ignore) {
+    }
+    return Math.max(value, 0);
+  }
+
+  @Nullable
+  private static Cache<StructType, Type> createCache() {
+    int maxCacheSize = getMaxRowTypeCacheSize();
+    if (maxCacheSize == 0) {
+      return null;
+    }
+    // The values are softly referenced, so the cache does not keep row types that are no longer
+    // used alive when the JVM runs low on memory.
+    return CacheBuilder.newBuilder()
+        .maximumSize(maxCacheSize)
+        .softValues()
+        .concurrencyLevel(Runtime.getRuntime().availableProcessors())
+        .recordStats()
+        .build();
+  }
+
+  /**
+   * Returns the {@link Type} of the rows with the given {@link StructType}. The returned {@link
+   * Type} can be shared with other result sets with the same row type.
+   *
+   * @throws IllegalArgumentException if the given row type is not a valid type
+   */
+  static Type getRowType(StructType rowType) {
+    if (CACHE == null) {
+      return createRowType(rowType);
+    }
+    Type type = CACHE.getIfPresent(rowType);
+    if (type == null) {
+      type = createRowType(rowType);
+      type.initFieldIndex();
+      CACHE.put(rowType, type);
+    }
+    return type;
+  }
+
+  private static Type createRowType(StructType rowType) {
+    return Type.fromProto(
+        com.google.spanner.v1.Type.newBuilder()
+            .setCode(TypeCode.STRUCT)
+            .setStructType(rowType)
+            .build());
+  }
+
+  /** Returns the statistics of the cache, including the hit rate, or null if it is disabled. */
+  @Nullable
+  static CacheStats getStats() {
+    return CACHE == null ? null : CACHE.stats();
+  }
+
+  /**
+   * Registers counters for the hits and misses of the cache. The cache is shared by all {@link
+   * Spanner} instances in the JVM, so the counters are only registered once for each {@link
+   * OpenTelemetry} instance, and are not removed when a {@link Spanner} instance is closed.
+   */
+  static void registerMetrics(OpenTelemetry openTelemetry) {
+    if (CACHE == null
+        || openTelemetry == null
+        || !SpannerOptions.isEnabledOpenTelemetryMetrics()
+        || !REGISTERED_OPEN_TELEMETRY_INSTANCES.add(openTelemetry)) {
+      return;
+    }
+    Attributes attributes = Attributes.empty();
+    Meter meter = openTelemetry.getMeter(MetricRegistryConstants.INSTRUMENTATION_SCOPE);
+    meter
+        .counterBuilder(ROW_TYPE_CACHE_HITS)
+        .setDescription(ROW_TYPE_CACHE_HITS_DESCRIPTION)
+        .setUnit(COUNT)
+        .buildWithCallback(measurement -> measurement.record(CACHE.stats().hitCount(), attributes));
+    meter
+        .counterBuilder(ROW_TYPE_CACHE_MISSES)
+        .setDescription(ROW_TYPE_CACHE_MISSES_DESCRIPTION)
+        .setUnit(COUNT)
+        .buildWithCallback(
+            measurement -> measurement.record(CACHE.stats().missCount(), attributes));
+  }
+
+  @VisibleForTesting
+  static void clear() {
+    if (CACHE != null) {
+      CACHE.invalidateAll();
+    }
+  }
+}
@@ -206,6 +206,18 @@ class SessionImpl implements Session {
         stmt, spanner.getOptions().getPartitionedDmlTimeoutDuration(), options);
   }
 
+  /**
+   * Executes a Partitioned DML statement on this session without blocking the calling thread. The
+   * session may not be used for any other operation until the returned future is done.
+   */
+  ApiFuture<Long> executePartitionedUpdateAsync(Statement stmt, UpdateOption... options) {
+    setActive(null);
+    PartitionedDmlTransaction txn =
+        new PartitionedDmlTransaction(this, spanner.getRpc(), Ticker.systemTicker());
+    return txn.executeStreamingPartitionedUpdateAsync(
+        stmt, spanner.getOptions().getPartitionedDmlTimeoutDuration(), options);
+  }
+
   @Override
   public Timestamp write(Iterable<Mutation> mutations) throws SpannerException {
     return writeWithOptions(mutations).getCommitTimestamp();
@@ -315,7 +327,7 @@ class SessionImpl implements Session {
     }
     ISpan span = tracer.spanBuilder(SpannerImpl.BATCH_WRITE);
     try (IScope s = tracer.withSpan(span)) {
-      return spanner.getRpc().batchWriteAtLeastOnce(requestBuilder.build(), getOptions());
+      return executeBatchWrite(requestBuilder.build());
     } catch (Throwable e) {
       span.setStatus(e);
       throw SpannerExceptionFactory.newSpannerException(e);
@@ -324,6 +336,10 @@ class SessionImpl implements Session {
     }
   }
 
+  ServerStream<BatchWriteResponse> executeBatchWrite(BatchWriteRequest request) {
+    return spanner.getRpc().batchWriteAtLeastOnce(request, getOptions());
+  }
+
   @Override
   public ReadContext singleUse() {
     return singleUse(TimestampBound.strong());
@@ -338,6 +354,7 @@ class SessionImpl implements Session {
             .setRpc(spanner.getRpc())
             .setDefaultQueryOptions(spanner.getDefaultQueryOptions(getDatabaseId()))
             .setDefaultPrefetchChunks(spanner.getDefaultPrefetchChunks())
+            .setPrefetchController(spanner.getPrefetchController())
             .setDefaultDecodeMode(spanner.getDefaultDecodeMode())
             .setDefaultDirectedReadOptions(spanner.getOptions().getDirectedReadOptions())
             .setSpan(currentSpan)
@@ -361,6 +378,7 @@ class SessionImpl implements Session {
             .setRpc(spanner.getRpc())
             .setDefaultQueryOptions(spanner.getDefaultQueryOptions(getDatabaseId()))
             .setDefaultPrefetchChunks(spanner.getDefaultPrefetchChunks())
+            .setPrefetchController(spanner.getPrefetchController())
             .setDefaultDecodeMode(spanner.getDefaultDecodeMode())
             .setDefaultDirectedReadOptions(spanner.getOptions().getDirectedReadOptions())
             .setSpan(currentSpan)
@@ -384,6 +402,7 @@ class SessionImpl implements Session {
             .setRpc(spanner.getRpc())
             .setDefaultQueryOptions(spanner.getDefaultQueryOptions(getDatabaseId()))
             .setDefaultPrefetchChunks(spanner.getDefaultPrefetchChunks())
+            .setPrefetchController(spanner.getPrefetchController())
             .setDefaultDecodeMode(spanner.getDefaultDecodeMode())
             .setDefaultDirectedReadOptions(spanner.getOptions().getDirectedReadOptions())
             .setSpan(currentSpan)
@@ -493,6 +512,7 @@ class SessionImpl implements Session {
         .setRpc(spanner.getRpc())
         .setDefaultQueryOptions(spanner.getDefaultQueryOptions(getDatabaseId()))
         .setDefaultPrefetchChunks(spanner.getDefaultPrefetchChunks())
+        .setPrefetchController(spanner.getPrefetchController())
         .setDefaultDecodeMode(spanner.getDefaultDecodeMode())
         .setSpan(currentSpan)
         .setTracer(tracer)
@@ -27,6 +27,8 @@ import static com.google.cloud.spanner.MetricRegistryConstants.METRIC_PREFIX;
 import static com.google.cloud.spanner.MetricRegistryConstants.NUM_ACQUIRED_SESSIONS;
 import static com.google.cloud.spanner.MetricRegistryConstants.NUM_ACQUIRED_SESSIONS_DESCRIPTION;
 import static com.google.cloud.spanner.MetricRegistryConstants.NUM_IN_USE_SESSIONS;
+import static com.google.cloud.spanner.MetricRegistryConstants.NUM_MAINTENANCE_CYCLE_OVERRUNS;
+import static com.google.cloud.spanner.MetricRegistryConstants.NUM_MAINTENANCE_CYCLE_OVERRUNS_DESCRIPTION;
 import static com.google.cloud.spanner.MetricRegistryConstants.NUM_READ_SESSIONS;
 import static com.google.cloud.spanner.MetricRegistryConstants.NUM_RELEASED_SESSIONS;
 import static com.google.cloud.spanner.MetricRegistryConstants.NUM_RELEASED_SESSIONS_DESCRIPTION;
@@ -38,6 +40,8 @@ import static com.google.cloud.spanner.MetricRegistryConstants.NUM_SESSIONS_IN_U
 import static com.google.cloud.spanner.MetricRegistryConstants.NUM_WRITE_SESSIONS;
 import static com.google.cloud.spanner.MetricRegistryConstants.SESSIONS_TIMEOUTS_DESCRIPTION;
 import static com.google.cloud.spanner.MetricRegistryConstants.SESSIONS_TYPE;
+import static com.google.cloud.spanner.MetricRegistryConstants.SESSION_KEEP_ALIVE_LATENCY;
+import static com.google.cloud.spanner.MetricRegistryConstants.SESSION_KEEP_ALIVE_LATENCY_DESCRIPTION;
 import static com.google.cloud.spanner.MetricRegistryConstants.SPANNER_DEFAULT_LABEL_VALUES;
 import static com.google.cloud.spanner.MetricRegistryConstants.SPANNER_LABEL_KEYS;
 import static com.google.cloud.spanner.MetricRegistryConstants.SPANNER_LABEL_KEYS_WITH_MULTIPLEXED_SESSIONS;
@@ -47,6 +51,7 @@ import static com.google.cloud.spanner.SpannerExceptionFactory.newSpannerExcepti
 import static com.google.common.base.Preconditions.checkState;
 
 import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
 import com.google.api.core.ApiFutures;
 import com.google.api.core.SettableApiFuture;
 import com.google.api.gax.core.ExecutorProvider;
@@ -88,22 +93,30 @@ import io.opencensus.metrics.Metrics;
 import io.opentelemetry.api.OpenTelemetry;
 import io.opentelemetry.api.common.Attributes;
 import io.opentelemetry.api.common.AttributesBuilder;
+import io.opentelemetry.api.metrics.LongHistogram;
 import io.opentelemetry.api.metrics.Meter;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Queue;
 import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
@@ -112,6 +125,8 @@ import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.annotation.Nonnull;
@@ -191,6 +206,17 @@ class SessionPool {
 
       @Override
       public ApiFuture<Void> setCallback(Executor exec, ReadyCallback cb) {
+        return trackAsyncOperation(() -> super.setCallback(exec, cb));
+      }
+
+      @Override
+      public ApiFuture<Void> setBatchCallback(
+          Executor exec, int maxBatchRows, long maxBatchBytes, BatchReadyCallback cb) {
+        return trackAsyncOperation(
+            () -> super.setBatchCallback(exec, maxBatchRows, maxBatchBytes, cb));
+      }
+
+      private ApiFuture<Void> trackAsyncOperation(Supplier<ApiFuture<Void>> setCallback) {
         Runnable listener =
             () -> {
               synchronized (lock) {
@@ -203,7 +229,7 @@ class SessionPool {
         try {
           asyncOperationsCount.incrementAndGet();
           addListener(listener);
-          return super.setCallback(exec, cb);
+          return setCallback.get();
         } catch (Throwable t) {
           removeListener(listener);
           asyncOperationsCount.decrementAndGet();
@@ -268,9 +294,18 @@ class SessionPool {
 
         @Override
         public boolean next() throws SpannerException {
+          return retryOnSessionNotFound(this::internalNext);
+        }
+
+        @Override
+        public ColumnarBatch nextBatch() throws SpannerException {
+          return retryOnSessionNotFound(this::internalNextBatch);
+        }
+
+        private <R> R retryOnSessionNotFound(Supplier<R> advance) {
           while (true) {
             try {
-              return internalNext();
+              return advance.get();
             } catch (SessionNotFoundException e) {
               while (true) {
                 // Keep the replace-if-possible outside the try-block to let the exception bubble up
@@ -289,8 +324,16 @@ class SessionPool {
         }
 
         private boolean internalNext() {
+          return internalAdvance(super::next, Boolean::booleanValue);
+        }
+
+        private ColumnarBatch internalNextBatch() {
+          return internalAdvance(super::nextBatch, Objects::nonNull);
+        }
+
+        private <R> R internalAdvance(Supplier<R> advance, Predicate<R> hasMore) {
           try {
-            boolean ret = super.next();
+            R ret = advance.get();
             if (beforeFirst) {
               synchronized (lock) {
                 session.get().markUsed();
@@ -298,7 +341,7 @@ class SessionPool {
                 sessionUsedForQuery = true;
               }
             }
-            if (!ret && isSingleUse) {
+            if (!hasMore.test(ret) && isSingleUse) {
               close();
             }
             return ret;
@@ -575,7 +618,7 @@ class SessionPool {
         synchronized (lock) {
           numSessionsInUse--;
           numSessionsReleased++;
-          checkedOutSessions.remove(session);
+          removeCheckedOutSession(session);
           markedCheckedOutSessions.remove(session);
         }
         session.leakedException = null;
@@ -642,6 +685,15 @@ class SessionPool {
         throw handler.handleSessionNotFound(e);
       }
     }
+
+    @Override
+    public ColumnarBatch nextBatch() {
+      try {
+        return super.nextBatch();
+      } catch (SessionNotFoundException e) {
+        throw handler.handleSessionNotFound(e);
+      }
+    }
   }
 
   static class AsyncSessionPoolResultSet extends ForwardingAsyncResultSet {
@@ -665,6 +717,22 @@ class SessionPool {
           });
     }
 
+    @Override
+    public ApiFuture<Void> setBatchCallback(
+        Executor executor, int maxBatchRows, long maxBatchBytes, BatchReadyCallback callback) {
+      return super.setBatchCallback(
+          executor,
+          maxBatchRows,
+          maxBatchBytes,
+          (resultSet, batch) -> {
+            try {
+              return callback.batchReady(resultSet, batch);
+            } catch (SessionNotFoundException e) {
+              throw handler.handleSessionNotFound(e);
+            }
+          });
+    }
+
     @Override
     public boolean next() {
       try {
@@ -792,6 +860,21 @@ class SessionPool {
       return delegate.bufferAsync(mutations);
     }
 
+    @Override
+    public void buffer(EncodedMutation mutation) {
+      delegate.buffer(mutation);
+    }
+
+    @Override
+    public long getBufferedMutationCount() {
+      return delegate.getBufferedMutationCount();
+    }
+
+    @Override
+    public long getBufferedMutationBytes() {
+      return delegate.getBufferedMutationBytes();
+    }
+
     @SuppressWarnings("deprecation")
     @Override
     public ResultSetStats analyzeUpdate(
@@ -1311,6 +1394,10 @@ class SessionPool {
     private final CountDownLatch initialized = new CountDownLatch(1);
     private final ISpan span;
 
+    /** The channel that this session was counted for when it was checked out, or -1. */
+    @GuardedBy("lock")
+    private int checkedOutChannel = -1;
+
     @VisibleForTesting
     PooledSessionFuture(ListenableFuture<PooledSession> delegate, ISpan span) {
       super(delegate);
@@ -1494,6 +1581,45 @@ class SessionPool {
       }
     }
 
+    /**
+     * Executes a Partitioned DML statement on this session without blocking the calling thread.
+     * The session is returned to the pool before the returned future is done.
+     */
+    ApiFuture<Long> executePartitionedUpdateAsync(Statement stmt, UpdateOption... options) {
+      ApiFuture<Long> update;
+      try {
+        update = get(true).executePartitionedUpdateAsync(stmt, options);
+      } catch (RuntimeException e) {
+        close();
+        throw e;
+      }
+      SettableApiFuture<Long> result = SettableApiFuture.create();
+      ApiFutures.addCallback(
+          update,
+          new ApiFutureCallback<Long>() {
+            @Override
+            public void onSuccess(Long updateCount) {
+              close();
+              result.set(updateCount);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+              close();
+              result.setException(t);
+            }
+          },
+          MoreExecutors.directExecutor());
+      result.addListener(
+          () -> {
+            if (result.isCancelled()) {
+              update.cancel(true);
+            }
+          },
+          MoreExecutors.directExecutor());
+      return result;
+    }
+
     @Override
     public String getName() {
       return get().getName();
@@ -1520,7 +1646,7 @@ class SessionPool {
       } finally {
         synchronized (lock) {
           leakedException = null;
-          checkedOutSessions.remove(this);
+          removeCheckedOutSession(this);
           markedCheckedOutSessions.remove(this);
         }
       }
@@ -1553,7 +1679,7 @@ class SessionPool {
           span.addAnnotation("Using Session", "sessionId", res.getName());
           synchronized (lock) {
             incrementNumSessionsInUse();
-            checkedOutSessions.add(this);
+            addCheckedOutSession(this, res);
           }
           res.eligibleForLongRunning = eligibleForLongRunning;
         }
@@ -1709,6 +1835,21 @@ class SessionPool {
       }
     }
 
+    ApiFuture<Long> executePartitionedUpdateAsync(Statement stmt, UpdateOption... options) {
+      try {
+        markUsed();
+        return ApiFutures.catching(
+            delegate.executePartitionedUpdateAsync(stmt, options),
+            SpannerException.class,
+            e -> {
+              throw lastException = e;
+            },
+            MoreExecutors.directExecutor());
+      } catch (SpannerException e) {
+        throw lastException = e;
+      }
+    }
+
     @Override
     public ReadContext singleUse() {
       return delegate.singleUse();
@@ -2017,6 +2158,20 @@ class SessionPool {
     @GuardedBy("lock")
     boolean running;
 
+    /**
+     * Sessions that have been selected for a keep-alive query, but for which the query has not yet
+     * been started.
+     */
+    @GuardedBy("lock")
+    private final Queue<Tuple<PooledSession, Integer>> pendingKeepAlives = new ArrayDeque<>();
+
+    @GuardedBy("lock")
+    private int numKeepAlivesInFlight;
+
+    /** Executes the keep-alive queries. This executor is created when it is first needed. */
+    @GuardedBy("lock")
+    private ExecutorService keepAliveExecutor;
+
     void init() {
       lastExecutionTime = clock.instant();
 
@@ -2033,6 +2188,9 @@ class SessionPool {
         if (!closed) {
           closed = true;
           scheduledFuture.cancel(false);
+          if (keepAliveExecutor != null) {
+            keepAliveExecutor.shutdown();
+          }
           if (!running) {
             decrementPendingClosures(1);
           }
@@ -2103,6 +2261,10 @@ class SessionPool {
     private void keepAliveSessions(Instant currTime) {
       long numSessionsToKeepAlive = 0;
       synchronized (lock) {
+        if (!pendingKeepAlives.isEmpty() || numKeepAlivesInFlight > 0) {
+          // The keep-alive queries of a previous cycle are still running.
+          numMaintenanceCycleOverruns++;
+        }
         if (numSessionsInUse >= (options.getMinSessions() + options.getMaxIdleSessions())) {
           // At least MinSessions are in use, so we don't have to ping any sessions.
           return;
@@ -2119,23 +2281,107 @@ class SessionPool {
       // Now go over all the remaining sessions and see if they need to be kept alive explicitly.
       Instant keepAliveThreshold = currTime.minus(keepAliveMillis);
 
-      // Keep chugging till there is no session that needs to be kept alive.
-      while (numSessionsToKeepAlive > 0) {
+      synchronized (lock) {
+        // Select all sessions that need to be kept alive in this cycle.
+        List<Tuple<PooledSession, Integer>> sessionsToKeepAlive = new ArrayList<>();
+        while (numSessionsToKeepAlive > 0) {
+          Tuple<PooledSession, Integer> sessionToKeepAlive =
+              findSessionToKeepAlive(sessions, keepAliveThreshold, 0);
+          if (sessionToKeepAlive == null) {
+            break;
+          }
+          sessionsToKeepAlive.add(sessionToKeepAlive);
+          numSessionsToKeepAlive--;
+        }
+        pendingKeepAlives.addAll(interleaveChannels(sessionsToKeepAlive));
+      }
+      startKeepAlives();
+    }
+
+    /**
+     * Orders the given sessions so that consecutive sessions use different gRPC channels. This
+     * spreads the keep-alive queries that are executed in parallel over all channels.
+     */
+    private List<Tuple<PooledSession, Integer>> interleaveChannels(
+        List<Tuple<PooledSession, Integer>> sessionsToKeepAlive) {
+      if (numChannels <= 1 || sessionsToKeepAlive.size() <= 1) {
+        return sessionsToKeepAlive;
+      }
+      Map<Integer, Queue<Tuple<PooledSession, Integer>>> sessionsPerChannel = new LinkedHashMap<>();
+      for (Tuple<PooledSession, Integer> session : sessionsToKeepAlive) {
+        sessionsPerChannel
+            .computeIfAbsent(session.x().getChannel(), ignore -> new ArrayDeque<>())
+            .add(session);
+      }
+      List<Tuple<PooledSession, Integer>> result = new ArrayList<>(sessionsToKeepAlive.size());
+      while (result.size() < sessionsToKeepAlive.size()) {
+        for (Queue<Tuple<PooledSession, Integer>> channelSessions : sessionsPerChannel.values()) {
+          Tuple<PooledSession, Integer> session = channelSessions.poll();
+          if (session != null) {
+            result.add(session);
+          }
+        }
+      }
+      return result;
+    }
+
+    /** Starts pending keep-alive queries until the maximum number of parallel queries runs. */
+    private void startKeepAlives() {
+      while (true) {
         Tuple<PooledSession, Integer> sessionToKeepAlive;
+        ExecutorService executorService;
         synchronized (lock) {
-          sessionToKeepAlive = findSessionToKeepAlive(sessions, keepAliveThreshold, 0);
-        }
-        if (sessionToKeepAlive == null) {
-          break;
+          if (pendingKeepAlives.isEmpty()
+              || numKeepAlivesInFlight >= options.getMaxConcurrentKeepAlives()) {
+            return;
+          }
+          if (keepAliveExecutor == null) {
+            keepAliveExecutor =
+                Executors.newCachedThreadPool(
+                    ThreadFactoryUtil.createVirtualOrPlatformDaemonThreadFactory(
+                        "session-pool-keep-alive", true));
+          }
+          sessionToKeepAlive = pendingKeepAlives.poll();
+          executorService = keepAliveExecutor;
+          numKeepAlivesInFlight++;
         }
         try {
-          logger.log(Level.FINE, "Keeping alive session " + sessionToKeepAlive.x().getName());
-          numSessionsToKeepAlive--;
-          sessionToKeepAlive.x().keepAlive();
+          executorService.execute(() -> keepAlive(sessionToKeepAlive));
+        } catch (RejectedExecutionException ignore) {
+          // The pool has been closed.
+          synchronized (lock) {
+            numKeepAlivesInFlight--;
+          }
           releaseSession(sessionToKeepAlive);
-        } catch (SpannerException e) {
+        }
+      }
+    }
+
+    private void keepAlive(Tuple<PooledSession, Integer> sessionToKeepAlive) {
+      try {
+        logger.log(Level.FINE, "Keeping alive session " + sessionToKeepAlive.x().getName());
+        long startNanos = System.nanoTime();
+        sessionToKeepAlive.x().keepAlive();
+        recordKeepAliveLatency(System.nanoTime() - startNanos);
+        releaseSession(sessionToKeepAlive);
+      } catch (SpannerException e) {
+        // The session will be closed by the pool if the pool was closed in the meantime.
+        if (!SessionPool.this.isClosed()) {
           handleException(e, sessionToKeepAlive);
         }
+      } finally {
+        synchronized (lock) {
+          numKeepAlivesInFlight--;
+        }
+        startKeepAlives();
+      }
+    }
+
+    /** Returns true if there are keep-alive queries that are pending or running. */
+    @VisibleForTesting
+    boolean hasPendingKeepAlives() {
+      synchronized (lock) {
+        return !pendingKeepAlives.isEmpty() || numKeepAlivesInFlight > 0;
       }
     }
 
@@ -2224,6 +2470,7 @@ class SessionPool {
                   }
                 }
                 iterator.remove();
+                onCheckedOutSessionRemoved(sessionFuture);
               }
             }
           }
@@ -2298,7 +2545,7 @@ class SessionPool {
   private final LinkedList<PooledSession> sessions = new LinkedList<>();
 
   @GuardedBy("lock")
-  private final Queue<WaiterFuture> waiters = new LinkedList<>();
+  private final Queue<WaiterFuture> waiters = new ArrayDeque<>();
 
   @GuardedBy("lock")
   private int numSessionsBeingCreated = 0;
@@ -2318,6 +2565,14 @@ class SessionPool {
   @GuardedBy("lock")
   private long numIdleSessionsRemoved = 0;
 
+  @GuardedBy("lock")
+  private long numMaintenanceCycleOverruns = 0;
+
+  /** Records the latency of keep-alive queries. This is null if metrics are disabled. */
+  private LongHistogram keepAliveLatencies;
+
+  private Attributes keepAliveAttributes;
+
   @GuardedBy("lock")
   private long transactionsPerSecond = 0L;
 
@@ -2336,6 +2591,14 @@ class SessionPool {
   @GuardedBy("lock")
   private final Set<PooledSessionFuture> markedCheckedOutSessions = new HashSet<>();
 
+  /**
+   * The number of checked out sessions per channel. This is updated together with {@link
+   * #checkedOutSessions}, so the pool does not have to iterate over all checked out sessions while
+   * holding the lock each time a session is released.
+   */
+  @GuardedBy("lock")
+  private final int[] numCheckedOutSessionsPerChannel;
+
   private final SessionConsumer sessionConsumer = new SessionConsumerImpl();
 
   @VisibleForTesting Function<PooledSession, Void> idleSessionRemovedListener;
@@ -2477,6 +2740,7 @@ class SessionPool {
     this.executor = executor;
     this.sessionClient = sessionClient;
     this.numChannels = sessionClient.getSpanner().getOptions().getNumChannels();
+    this.numCheckedOutSessionsPerChannel = new int[Math.max(1, this.numChannels)];
     this.clock = clock;
     this.initialReleasePosition = initialReleasePosition;
     this.poolMaintainer = new PoolMaintainer();
@@ -2541,6 +2805,11 @@ class SessionPool {
     }
   }
 
+  /** Returns the executor provider that is used for asynchronous operations on this pool. */
+  ExecutorProvider getAsyncExecutorProvider() {
+    return sessionClient.getSpanner().getAsyncExecutorProvider();
+  }
+
   PooledSessionReplacementHandler getPooledSessionReplacementHandler() {
     return pooledSessionReplacementHandler;
   }
@@ -2593,6 +2862,18 @@ class SessionPool {
     }
   }
 
+  long getNumMaintenanceCycleOverruns() {
+    synchronized (lock) {
+      return numMaintenanceCycleOverruns;
+    }
+  }
+
+  private void recordKeepAliveLatency(long elapsedNanos) {
+    if (keepAliveLatencies != null) {
+      keepAliveLatencies.record(TimeUnit.NANOSECONDS.toMillis(elapsedNanos), keepAliveAttributes);
+    }
+  }
+
   @VisibleForTesting
   long numLeakedSessionsRemoved() {
     synchronized (lock) {
@@ -2757,15 +3038,20 @@ class SessionPool {
         sess = sessions.poll();
       }
       if (sess == null) {
-        span.addAnnotation("No session available");
         maybeCreateSession();
         waiter = new WaiterFuture();
         waiters.add(waiter);
-      } else {
-        span.addAnnotation("Acquired session");
       }
-      return checkoutSession(span, sess, waiter);
     }
+    // Creating the future for the session and tracing does not need to happen while holding the
+    // lock. This keeps the critical section that is shared by all threads that check out or
+    // release a session as short as possible.
+    if (sess == null) {
+      span.addAnnotation("No session available");
+    } else {
+      span.addAnnotation("Acquired session");
+    }
+    return checkoutSession(span, sess, waiter);
   }
 
   private PooledSessionFuture checkoutSession(
@@ -2924,10 +3210,46 @@ class SessionPool {
         && this.numSessionsInUse >= this.numChannels;
   }
 
+  @GuardedBy("lock")
   private boolean isUnbalanced(PooledSession session) {
     int channel = session.getChannel();
     int numChannels = sessionClient.getSpanner().getOptions().getNumChannels();
-    return isUnbalanced(channel, this.sessions, this.checkedOutSessions, numChannels);
+    int numCheckedOutSessionsOnChannel =
+        channel >= 0 && channel < numCheckedOutSessionsPerChannel.length
+            ? numCheckedOutSessionsPerChannel[channel]
+            : 0;
+    return isUnbalanced(
+        channel,
+        this.sessions,
+        this.checkedOutSessions.size(),
+        numCheckedOutSessionsOnChannel,
+        numChannels);
+  }
+
+  @GuardedBy("lock")
+  private void addCheckedOutSession(PooledSessionFuture sessionFuture, PooledSession session) {
+    if (checkedOutSessions.add(sessionFuture)) {
+      int channel = session.getChannel();
+      if (channel >= 0 && channel < numCheckedOutSessionsPerChannel.length) {
+        sessionFuture.checkedOutChannel = channel;
+        numCheckedOutSessionsPerChannel[channel]++;
+      }
+    }
+  }
+
+  @GuardedBy("lock")
+  private void removeCheckedOutSession(PooledSessionFuture sessionFuture) {
+    if (checkedOutSessions.remove(sessionFuture)) {
+      onCheckedOutSessionRemoved(sessionFuture);
+    }
+  }
+
+  @GuardedBy("lock")
+  private void onCheckedOutSessionRemoved(PooledSessionFuture sessionFuture) {
+    if (sessionFuture.checkedOutChannel >= 0) {
+      numCheckedOutSessionsPerChannel[sessionFuture.checkedOutChannel]--;
+      sessionFuture.checkedOutChannel = -1;
+    }
   }
 
   /**
@@ -2964,9 +3286,35 @@ class SessionPool {
       List<PooledSession> sessions,
       Set<PooledSessionFuture> checkedOutSessions,
       int numChannels) {
+    int numCheckedOutSessionsOnChannel = 0;
+    for (PooledSessionFuture otherSession : checkedOutSessions) {
+      if (otherSession.isDone() && channelOfSessionBeingAdded == otherSession.get().getChannel()) {
+        numCheckedOutSessionsOnChannel++;
+      }
+    }
+    return isUnbalanced(
+        channelOfSessionBeingAdded,
+        sessions,
+        checkedOutSessions.size(),
+        numCheckedOutSessionsOnChannel,
+        numChannels);
+  }
+
+  /**
+   * Same as {@link #isUnbalanced(int, List, Set, int)}, but uses the number of checked out sessions
+   * that use the same channel as the session being added, instead of the set of checked out
+   * sessions. The pool keeps track of this number per channel, which means that it does not need
+   * to iterate over all checked out sessions while holding the lock.
+   */
+  static boolean isUnbalanced(
+      int channelOfSessionBeingAdded,
+      List<PooledSession> sessions,
+      int numCheckedOutSessions,
+      int numCheckedOutSessionsOnChannel,
+      int numChannels) {
     // Do not re-balance the pool if the number of checked out sessions is low, as it is
     // better to re-use sessions as much as possible in a low-QPS scenario.
-    if (sessions.isEmpty() || checkedOutSessions.size() <= 2) {
+    if (sessions.isEmpty() || numCheckedOutSessions <= 2) {
       return false;
     }
     if (numChannels == 1) {
@@ -2981,8 +3329,9 @@ class SessionPool {
     // two sessions use those two channels.
     int maxSessionsAtHeadOfPool = Math.min(numChannels, 3);
     int count = 0;
+    Iterator<PooledSession> iterator = sessions.iterator();
     for (int i = 0; i < Math.min(numChannels, sessions.size()); i++) {
-      PooledSession otherSession = sessions.get(i);
+      PooledSession otherSession = iterator.next();
       if (channelOfSessionBeingAdded == otherSession.getChannel()) {
         count++;
         if (count >= maxSessionsAtHeadOfPool) {
@@ -2994,17 +3343,8 @@ class SessionPool {
     // numCheckedOut / numChannels
     // We check whether we are more than a factor two away from that perfect distribution.
     // If we are, then we re-balance.
-    count = 0;
-    int checkedOutThreshold = Math.max(2, 2 * checkedOutSessions.size() / numChannels);
-    for (PooledSessionFuture otherSession : checkedOutSessions) {
-      if (otherSession.isDone() && channelOfSessionBeingAdded == otherSession.get().getChannel()) {
-        count++;
-        if (count > checkedOutThreshold) {
-          return true;
-        }
-      }
-    }
-    return false;
+    int checkedOutThreshold = Math.max(2, 2 * numCheckedOutSessions / numChannels);
+    return numCheckedOutSessionsOnChannel > checkedOutThreshold;
   }
 
   private void handleCreateSessionsFailure(SpannerException e, int count) {
@@ -3462,5 +3802,22 @@ class SessionPool {
               measurement.record(
                   numMultiplexedSessionsReleased.get(), attributesMultiplexedSession);
             });
+
+    this.keepAliveAttributes = attributes == null ? Attributes.empty() : attributes;
+    this.keepAliveLatencies =
+        meter
+            .histogramBuilder(SESSION_KEEP_ALIVE_LATENCY)
+            .ofLongs()
+            .setDescription(SESSION_KEEP_ALIVE_LATENCY_DESCRIPTION)
+            .setUnit("ms")
+            .build();
+    meter
+        .counterBuilder(NUM_MAINTENANCE_CYCLE_OVERRUNS)
+        .setDescription(NUM_MAINTENANCE_CYCLE_OVERRUNS_DESCRIPTION)
+        .setUnit(COUNT)
+        .buildWithCallback(
+            measurement -> {
+              measurement.record(this.getNumMaintenanceCycleOverruns(), keepAliveAttributes);
+            });
   }
 }
@@ -54,6 +54,7 @@ public class SessionPoolOptions {
   private final long loopFrequency;
   private final Duration multiplexedSessionMaintenanceLoopFrequency;
   private final int keepAliveIntervalMinutes;
+  private final int maxConcurrentKeepAlives;
   private final Duration removeInactiveSessionAfter;
   private final ActionOnSessionNotFound actionOnSessionNotFound;
   private final ActionOnSessionLeak actionOnSessionLeak;
@@ -85,6 +86,8 @@ public class SessionPoolOptions {
 
   private final boolean useMultiplexedSessionForRW;
 
+  private final boolean useMultiplexedSessionPartitionedOps;
+
   private final Duration multiplexedSessionMaintenanceDuration;
 
   private SessionPoolOptions(Builder builder) {
@@ -105,6 +108,7 @@ public class SessionPoolOptions {
     this.multiplexedSessionMaintenanceLoopFrequency =
         builder.multiplexedSessionMaintenanceLoopFrequency;
     this.keepAliveIntervalMinutes = builder.keepAliveIntervalMinutes;
+    this.maxConcurrentKeepAlives = builder.maxConcurrentKeepAlives;
     this.removeInactiveSessionAfter = builder.removeInactiveSessionAfter;
     this.autoDetectDialect = builder.autoDetectDialect;
     this.waitForMinSessions = builder.waitForMinSessions;
@@ -127,6 +131,14 @@ public class SessionPoolOptions {
         (useMultiplexedSessionForRWFromEnvVariable != null)
             ? useMultiplexedSessionForRWFromEnvVariable
             : builder.useMultiplexedSessionForRW;
+    // useMultiplexedSessionPartitionedOps priority => Environment var > builder setter > client
+    // default
+    Boolean useMultiplexedSessionPartitionedOpsFromEnvVariable =
+        getUseMultiplexedSessionPartitionedOpsFromEnvVariable();
+    this.useMultiplexedSessionPartitionedOps =
+        (useMultiplexedSessionPartitionedOpsFromEnvVariable != null)
+            ? useMultiplexedSessionPartitionedOpsFromEnvVariable
+            : builder.useMultiplexedSessionPartitionedOps;
     this.multiplexedSessionMaintenanceDuration = builder.multiplexedSessionMaintenanceDuration;
   }
 
@@ -153,6 +165,7 @@ public class SessionPoolOptions {
             this.multiplexedSessionMaintenanceLoopFrequency,
             other.multiplexedSessionMaintenanceLoopFrequency)
         && Objects.equals(this.keepAliveIntervalMinutes, other.keepAliveIntervalMinutes)
+        && Objects.equals(this.maxConcurrentKeepAlives, other.maxConcurrentKeepAlives)
         && Objects.equals(this.removeInactiveSessionAfter, other.removeInactiveSessionAfter)
         && Objects.equals(this.autoDetectDialect, other.autoDetectDialect)
         && Objects.equals(this.waitForMinSessions, other.waitForMinSessions)
@@ -164,6 +177,8 @@ public class SessionPoolOptions {
         && Objects.equals(this.poolMaintainerClock, other.poolMaintainerClock)
         && Objects.equals(this.useMultiplexedSession, other.useMultiplexedSession)
         && Objects.equals(this.useMultiplexedSessionForRW, other.useMultiplexedSessionForRW)
+        && Objects.equals(
+            this.useMultiplexedSessionPartitionedOps, other.useMultiplexedSessionPartitionedOps)
         && Objects.equals(
             this.multiplexedSessionMaintenanceDuration,
             other.multiplexedSessionMaintenanceDuration);
@@ -185,6 +200,7 @@ public class SessionPoolOptions {
         this.loopFrequency,
         this.multiplexedSessionMaintenanceLoopFrequency,
         this.keepAliveIntervalMinutes,
+        this.maxConcurrentKeepAlives,
         this.removeInactiveSessionAfter,
         this.autoDetectDialect,
         this.waitForMinSessions,
@@ -196,6 +212,7 @@ public class SessionPoolOptions {
         this.useMultiplexedSession,
         this.useMultiplexedSessionBlindWrite,
         this.useMultiplexedSessionForRW,
+        this.useMultiplexedSessionPartitionedOps,
         this.multiplexedSessionMaintenanceDuration);
   }
 
@@ -247,6 +264,10 @@ public class SessionPoolOptions {
     return keepAliveIntervalMinutes;
   }
 
+  public int getMaxConcurrentKeepAlives() {
+    return maxConcurrentKeepAlives;
+  }
+
   /** This method is obsolete. Use {@link #getRemoveInactiveSessionAfterDuration()} instead. */
   @ObsoleteApi("Use getRemoveInactiveSessionAfterDuration() instead")
   public org.threeten.bp.Duration getRemoveInactiveSessionAfter() {
@@ -349,6 +370,14 @@ public class SessionPoolOptions {
     return getUseMultiplexedSession() && useMultiplexedSessionForRW;
   }
 
+  @VisibleForTesting
+  @InternalApi
+  public boolean getUseMultiplexedSessionPartitionedOps() {
+    // Multiplexed sessions for partitioned operations are enabled only if both global multiplexed
+    // sessions and partitioned operations multiplexed session flags are set to true.
+    return getUseMultiplexedSession() && useMultiplexedSessionPartitionedOps;
+  }
+
   private static Boolean getUseMultiplexedSessionFromEnvVariable() {
     String useMultiplexedSessionFromEnvVariable =
         System.getenv("GOOGLE_CLOUD_SPANNER_MULTIPLEXED_SESSIONS");
@@ -371,6 +400,23 @@ public class SessionPoolOptions {
     return null;
   }
 
+  private static Boolean getUseMultiplexedSessionPartitionedOpsFromEnvVariable() {
+    String useMultiplexedSessionPartitionedOpsFromEnvVariable =
+        System.getenv("GOOGLE_CLOUD_SPANNER_MULTIPLEXED_SESSIONS_PARTITIONED_OPS");
+    if (useMultiplexedSessionPartitionedOpsFromEnvVariable != null
+        && useMultiplexedSessionPartitionedOpsFromEnvVariable.length() > 0) {
+      if ("true".equalsIgnoreCase(useMultiplexedSessionPartitionedOpsFromEnvVariable)
+          || "false".equalsIgnoreCase(useMultiplexedSessionPartitionedOpsFromEnvVariable)) {
+        return Boolean.parseBoolean(useMultiplexedSessionPartitionedOpsFromEnvVariable);
+      } else {
+        throw new IllegalArgumentException(
+            "GOOGLE_CLOUD_SPANNER_MULTIPLEXED_SESSIONS_PARTITIONED_OPS should be either true or"
+                + " false.");
+      }
+    }
+    return null;
+  }
+
   Duration getMultiplexedSessionMaintenanceDuration() {
     return multiplexedSessionMaintenanceDuration;
   }
@@ -559,6 +605,7 @@ public class SessionPoolOptions {
     private long loopFrequency = 10 * 1000L;
     private Duration multiplexedSessionMaintenanceLoopFrequency = Duration.ofMinutes(10);
     private int keepAliveIntervalMinutes = 30;
+    private int maxConcurrentKeepAlives = 16;
     private Duration removeInactiveSessionAfter = Duration.ofMinutes(55L);
     private boolean autoDetectDialect = false;
     private Duration waitForMinSessions = Duration.ZERO;
@@ -585,6 +632,11 @@ public class SessionPoolOptions {
     // default.
     private boolean useMultiplexedSessionForRW = false;
 
+    // This field controls the default behavior of session management for Partitioned DML in Java
+    // client. Set useMultiplexedSessionPartitionedOps to true to make multiplexed session for
+    // Partitioned DML the default.
+    private boolean useMultiplexedSessionPartitionedOps = false;
+
     private Duration multiplexedSessionMaintenanceDuration = Duration.ofDays(7);
     private Clock poolMaintainerClock = Clock.INSTANCE;
 
@@ -619,6 +671,7 @@ public class SessionPoolOptions {
       this.multiplexedSessionMaintenanceLoopFrequency =
           options.multiplexedSessionMaintenanceLoopFrequency;
       this.keepAliveIntervalMinutes = options.keepAliveIntervalMinutes;
+      this.maxConcurrentKeepAlives = options.maxConcurrentKeepAlives;
       this.removeInactiveSessionAfter = options.removeInactiveSessionAfter;
       this.autoDetectDialect = options.autoDetectDialect;
       this.waitForMinSessions = options.waitForMinSessions;
@@ -628,6 +681,7 @@ public class SessionPoolOptions {
       this.useMultiplexedSession = options.useMultiplexedSession;
       this.useMultiplexedSessionBlindWrite = options.useMultiplexedSessionBlindWrite;
       this.useMultiplexedSessionForRW = options.useMultiplexedSessionForRW;
+      this.useMultiplexedSessionPartitionedOps = options.useMultiplexedSessionPartitionedOps;
       this.multiplexedSessionMaintenanceDuration = options.multiplexedSessionMaintenanceDuration;
       this.poolMaintainerClock = options.poolMaintainerClock;
     }
@@ -721,6 +775,16 @@ public class SessionPoolOptions {
       return this;
     }
 
+    /**
+     * The maximum number of keep-alive queries that the session pool will execute in parallel. The
+     * keep-alive queries are executed asynchronously, which means that they do not block other
+     * session pool maintenance tasks. Default value is 16.
+     */
+    public Builder setMaxConcurrentKeepAlives(int maxConcurrentKeepAlives) {
+      this.maxConcurrentKeepAlives = maxConcurrentKeepAlives;
+      return this;
+    }
+
     /**
      * If all sessions are in use and and {@code maxSessions} has been reached, fail the request by
      * throwing a {@link SpannerException} with the error code {@code RESOURCE_EXHAUSTED}. Default
@@ -847,6 +911,22 @@ public class SessionPoolOptions {
       return this;
     }
 
+    /**
+     * Sets whether the client should use multiplexed sessions for Partitioned DML. Multiplexed
+     * sessions are only used for Partitioned DML if multiplexed sessions are also enabled for the
+     * client. If the client receives an UNIMPLEMENTED error for a Partitioned DML statement on a
+     * multiplexed session, it falls back to regular sessions for all further Partitioned DML
+     * statements.
+     *
+     * <p>The environment variable {@code GOOGLE_CLOUD_SPANNER_MULTIPLEXED_SESSIONS_PARTITIONED_OPS}
+     * takes precedence over this setting if it is set. The default is false.
+     */
+    public Builder setUseMultiplexedSessionPartitionedOps(
+        boolean useMultiplexedSessionPartitionedOps) {
+      this.useMultiplexedSessionPartitionedOps = useMultiplexedSessionPartitionedOps;
+      return this;
+    }
+
     @VisibleForTesting
     Builder setMultiplexedSessionMaintenanceDuration(
         Duration multiplexedSessionMaintenanceDuration) {
@@ -995,6 +1075,8 @@ public class SessionPoolOptions {
       }
       Preconditions.checkArgument(
           keepAliveIntervalMinutes < 60, "Keep alive interval should be less than" + "60 minutes");
+      Preconditions.checkArgument(
+          maxConcurrentKeepAlives > 0, "Max concurrent keep-alives should be greater than 0");
     }
   }
 }
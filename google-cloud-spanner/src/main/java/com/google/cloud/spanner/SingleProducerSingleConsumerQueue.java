@@ -0,0 +1,96 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner;
+
+import com.google.common.base.Preconditions;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import javax.annotation.Nullable;
+
+/**
+ * Bounded lock-free queue for exactly one producer thread and one consumer thread. {@link
+ * #offer(Object)} may only be called by the producer and {@link #poll()} only by the consumer.
+ * Elements are published with ordered writes of the head and tail indexes, so neither side ever
+ * needs to take a lock or signal a condition to hand over an element.
+ */
+final class SingleProducerSingleConsumerQueue<E> {
+  private final AtomicReferenceArray<E> elements;
+  private final int mask;
+
+  /** The index of the next element that will be returned by {@link #poll()}. */
+  private final AtomicLong head = new AtomicLong();
+
+  /** The index where the next element that is offered will be stored. */
+  private final AtomicLong tail = new AtomicLong();
+
+  SingleProducerSingleConsumerQueue(int capacity) {
+    Preconditions.checkArgument(capacity > 0, "capacity must be > 0");
+    Preconditions.checkArgument(capacity <= 1 << 30, "capacity must be <= 2^30");
+    int size = Integer.highestOneBit(capacity);
+    if (size < capacity) {
+      size <<= 1;
+    }
+    this.elements = new AtomicReferenceArray<>(size);
+    this.mask = size - 1;
+  }
+
+  int capacity() {
+    return elements.length();
+  }
+
+  /**
+   * Adds the given element to the queue. Returns false without adding the element if the queue is
+   * full. May only be called by the producer thread.
+   */
+  boolean offer(E element) {
+    Preconditions.checkNotNull(element);
+    long currentTail = tail.get();
+    if (currentTail - head.get() >= elements.length()) {
+      return false;
+    }
+    elements.lazySet((int) currentTail & mask, element);
+    tail.lazySet(currentTail + 1);
+    return true;
+  }
+
+  /**
+   * Removes and returns the first element of the queue, or null if the queue is empty. May only be
+   * called by the consumer thread.
+   */
+  @Nullable
+  E poll() {
+    long currentHead = head.get();
+    if (currentHead >= tail.get()) {
+      return null;
+    }
+    int index = (int) currentHead & mask;
+    E element = elements.get(index);
+    elements.lazySet(index, null);
+    head.lazySet(currentHead + 1);
+    return element;
+  }
+
+  boolean isEmpty() {
+    return head.get() >= tail.get();
+  }
+
+  int size() {
+    // Read the head first, as the tail can only increase after that.
+    long currentHead = head.get();
+    return (int) (tail.get() - currentHead);
+  }
+}
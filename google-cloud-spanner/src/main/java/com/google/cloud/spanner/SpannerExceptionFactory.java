@@ -212,6 +212,20 @@ public final class SpannerExceptionFactory {
     return new RetryOnDifferentGrpcChannelException(message, channel, cause);
   }
 
+  /**
+   * Creates a new {@link TransactionMutationLimitExceededException} for a transaction that exceeded
+   * a mutation limit that was set in the client.
+   */
+  static TransactionMutationLimitExceededException newTransactionMutationLimitExceededException(
+      String message) {
+    return new TransactionMutationLimitExceededException(
+        DoNotConstructDirectly.ALLOWED,
+        ErrorCode.INVALID_ARGUMENT,
+        formatMessage(ErrorCode.INVALID_ARGUMENT, message),
+        null,
+        null);
+  }
+
   static SpannerException newSpannerExceptionForCancellation(
       @Nullable Context context, @Nullable Throwable cause) {
     if (context != null && context.isCancelled()) {
@@ -40,6 +40,7 @@ import com.google.common.util.concurrent.ListenableFuture;
 import com.google.spanner.v1.ExecuteSqlRequest.QueryOptions;
 import io.opencensus.metrics.LabelValue;
 import io.opencensus.trace.Tracing;
+import io.opentelemetry.api.OpenTelemetry;
 import io.opentelemetry.api.common.Attributes;
 import io.opentelemetry.api.common.AttributesBuilder;
 import java.io.IOException;
@@ -109,6 +110,12 @@ class SpannerImpl extends BaseService<SpannerOptions> implements Spanner {
 
   private final CloseableExecutorProvider asyncExecutorProvider;
 
+  /**
+   * Shared by all streams of this instance, or null if adaptive prefetching is disabled and
+   * buffered results are not limited.
+   */
+  @Nullable private final AdaptivePrefetchController prefetchController;
+
   @GuardedBy("this")
   private final Map<DatabaseId, SessionClient> sessionClients = new HashMap<>();
 
@@ -132,6 +139,12 @@ class SpannerImpl extends BaseService<SpannerOptions> implements Spanner {
   @GuardedBy("this")
   private ClosedException closedException;
 
+  /** The prefetch gauges that have been registered for the database clients of this instance. */
+  @GuardedBy("this")
+  private final Map<DatabaseId, List<AutoCloseable>> prefetchMetrics = new HashMap<>();
+
+  @Nullable private final AutoCloseable builtInPrefetchMetrics;
+
   @VisibleForTesting
   SpannerImpl(SpannerRpc gapicRpc, SpannerOptions options) {
     super(options);
@@ -140,6 +153,21 @@ class SpannerImpl extends BaseService<SpannerOptions> implements Spanner {
         MoreObjects.firstNonNull(
             options.getAsyncExecutorProvider(),
             SpannerOptions.createDefaultAsyncExecutorProvider());
+    long maxBufferedBytes = getMaxBufferedBytes(options);
+    if (maxBufferedBytes > 0L) {
+      this.prefetchController =
+          new AdaptivePrefetchController(maxBufferedBytes, options.isAdaptivePrefetchEnabled());
+      OpenTelemetry builtInOpenTelemetry = options.getBuiltInMetricsOpenTelemetry();
+      this.builtInPrefetchMetrics =
+          builtInOpenTelemetry == null
+              ? null
+              : this.prefetchController.registerBuiltInMetrics(
+                  builtInOpenTelemetry, options.getBuiltInMetricsClientAttributes());
+    } else {
+      this.prefetchController = null;
+      this.builtInPrefetchMetrics = null;
+    }
+    RowTypeCache.registerMetrics(options.getOpenTelemetry());
     this.dbAdminClient = new DatabaseAdminClientImpl(options.getProjectId(), gapicRpc);
     this.instanceClient =
         new InstanceAdminClientImpl(options.getProjectId(), gapicRpc, dbAdminClient);
@@ -159,6 +187,28 @@ class SpannerImpl extends BaseService<SpannerOptions> implements Spanner {
     return getOptions().getPrefetchChunks();
   }
 
+  /**
+   * Returns the {@link AdaptivePrefetchController} of this {@link SpannerImpl} instance, or null if
+   * adaptive prefetching is disabled and the number of buffered result bytes is not limited.
+   */
+  @Nullable
+  AdaptivePrefetchController getPrefetchController() {
+    return prefetchController;
+  }
+
+  /**
+   * Returns the byte budget for buffered results of this instance, or 0 if adaptive prefetching is
+   * disabled and buffered results are not limited. The lowest limit applies if both are set.
+   */
+  private static long getMaxBufferedBytes(SpannerOptions options) {
+    long adaptivePrefetchMaxBufferedBytes = options.getAdaptivePrefetchMaxBufferedBytes();
+    long maxBufferedResultBytes = options.getMaxBufferedResultBytes();
+    if (adaptivePrefetchMaxBufferedBytes > 0L && maxBufferedResultBytes > 0L) {
+      return Math.min(adaptivePrefetchMaxBufferedBytes, maxBufferedResultBytes);
+    }
+    return Math.max(adaptivePrefetchMaxBufferedBytes, maxBufferedResultBytes);
+  }
+
   DecodeMode getDefaultDecodeMode() {
     return getOptions().getDecodeMode();
   }
@@ -256,6 +306,7 @@ class SpannerImpl extends BaseService<SpannerOptions> implements Spanner {
         dbClients.get(db).closeAsync(new ClosedException());
         clientId = dbClients.get(db).clientId;
         dbClients.remove(db);
+        closeMetrics(prefetchMetrics.remove(db));
       }
       if (dbClients.containsKey(db)) {
         return dbClients.get(db);
@@ -309,6 +360,23 @@ class SpannerImpl extends BaseService<SpannerOptions> implements Spanner {
                 getOptions().getSessionPoolOptions().getUseMultiplexedSessionBlindWrite(),
                 multiplexedSessionDatabaseClient,
                 useMultiplexedSessionForRW);
+        if (getOptions().isWriteCoalescingEnabled()) {
+          dbClient.enableWriteCoalescing(
+              getOptions().getWriteCoalescingLingerTime(),
+              getOptions().getWriteCoalescingMaxBatchSize());
+        }
+        if (getOptions().isStaleReadCacheEnabled()) {
+          dbClient.enableStaleReadCache(
+              getOptions().getStaleReadCacheMaxBytes(),
+              getOptions().getOpenTelemetry(),
+              attributesBuilder.build());
+        }
+        if (prefetchController != null) {
+          prefetchMetrics.put(
+              db,
+              prefetchController.registerMetrics(
+                  getOptions().getOpenTelemetry(), db, attributesBuilder.build()));
+        }
         dbClients.put(db, dbClient);
         return dbClient;
       }
@@ -361,6 +429,15 @@ class SpannerImpl extends BaseService<SpannerOptions> implements Spanner {
         sessionClient.close();
       }
       sessionClients.clear();
+      synchronized (this) {
+        for (List<AutoCloseable> metrics : prefetchMetrics.values()) {
+          closeMetrics(metrics);
+        }
+        prefetchMetrics.clear();
+      }
+      if (builtInPrefetchMetrics != null) {
+        closeMetrics(ImmutableList.of(builtInPrefetchMetrics));
+      }
       asyncExecutorProvider.close();
       try {
         if (timeout == Long.MAX_VALUE || !(gapicRpc instanceof GapicSpannerRpc)) {
@@ -374,6 +451,19 @@ class SpannerImpl extends BaseService<SpannerOptions> implements Spanner {
     }
   }
 
+  private static void closeMetrics(@Nullable List<AutoCloseable> metrics) {
+    if (metrics == null) {
+      return;
+    }
+    for (AutoCloseable metric : metrics) {
+      try {
+        metric.close();
+      } catch (Exception e) {
+        logger.log(Level.WARNING, "Failed to close metric", e);
+      }
+    }
+  }
+
   @Override
   public boolean isClosed() {
     synchronized (this) {
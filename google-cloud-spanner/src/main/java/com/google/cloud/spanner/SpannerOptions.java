@@ -74,6 +74,7 @@ import io.grpc.MethodDescriptor;
 import io.opentelemetry.api.GlobalOpenTelemetry;
 import io.opentelemetry.api.OpenTelemetry;
 import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.common.AttributesBuilder;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
@@ -125,6 +126,11 @@ public class SpannerOptions extends ServiceOptions<Spanner, SpannerOptions> {
   private final GrpcInterceptorProvider interceptorProvider;
   private final SessionPoolOptions sessionPoolOptions;
   private final int prefetchChunks;
+  private final long adaptivePrefetchMaxBufferedBytes;
+  private final long maxBufferedResultBytes;
+  private final Duration writeCoalescingLingerTime;
+  private final int writeCoalescingMaxBatchSize;
+  private final long staleReadCacheMaxBytes;
   private final DecodeMode decodeMode;
   private final int numChannels;
   private final String transportChannelExecutorThreadNameFormat;
@@ -743,6 +749,11 @@ public class SpannerOptions extends ServiceOptions<Spanner, SpannerOptions> {
             ? builder.sessionPoolOptions
             : SessionPoolOptions.newBuilder().build();
     prefetchChunks = builder.prefetchChunks;
+    adaptivePrefetchMaxBufferedBytes = builder.adaptivePrefetchMaxBufferedBytes;
+    maxBufferedResultBytes = builder.maxBufferedResultBytes;
+    writeCoalescingLingerTime = builder.writeCoalescingLingerTime;
+    writeCoalescingMaxBatchSize = builder.writeCoalescingMaxBatchSize;
+    staleReadCacheMaxBytes = builder.staleReadCacheMaxBytes;
     decodeMode = builder.decodeMode;
     databaseRole = builder.databaseRole;
     sessionLabels = builder.sessionLabels;
@@ -919,6 +930,11 @@ public class SpannerOptions extends ServiceOptions<Spanner, SpannerOptions> {
     private String transportChannelExecutorThreadNameFormat = "Cloud-Spanner-TransportChannel-%d";
 
     private int prefetchChunks = DEFAULT_PREFETCH_CHUNKS;
+    private long adaptivePrefetchMaxBufferedBytes;
+    private long maxBufferedResultBytes;
+    private Duration writeCoalescingLingerTime;
+    private int writeCoalescingMaxBatchSize;
+    private long staleReadCacheMaxBytes;
     private DecodeMode decodeMode = DEFAULT_DECODE_MODE;
     private SessionPoolOptions sessionPoolOptions;
     private String databaseRole;
@@ -992,6 +1008,11 @@ public class SpannerOptions extends ServiceOptions<Spanner, SpannerOptions> {
           options.transportChannelExecutorThreadNameFormat;
       this.sessionPoolOptions = options.sessionPoolOptions;
       this.prefetchChunks = options.prefetchChunks;
+      this.adaptivePrefetchMaxBufferedBytes = options.adaptivePrefetchMaxBufferedBytes;
+      this.maxBufferedResultBytes = options.maxBufferedResultBytes;
+      this.writeCoalescingLingerTime = options.writeCoalescingLingerTime;
+      this.writeCoalescingMaxBatchSize = options.writeCoalescingMaxBatchSize;
+      this.staleReadCacheMaxBytes = options.staleReadCacheMaxBytes;
       this.decodeMode = options.decodeMode;
       this.databaseRole = options.databaseRole;
       this.sessionLabels = options.sessionLabels;
@@ -1431,6 +1452,116 @@ public class SpannerOptions extends ServiceOptions<Spanner, SpannerOptions> {
       return this;
     }
 
+    /**
+     * Enables adaptive prefetching for reads and queries. Each read and query then starts with
+     * prefetching {@link #setPrefetchChunks(int)} chunks, and adjusts the number of chunks that it
+     * prefetches based on how fast the application consumes the results. The prefetch window of a
+     * stream grows when the application has to wait for results from Spanner, and shrinks when the
+     * results are not consumed as fast as they are received. The total number of bytes that is
+     * prefetched by all reads and queries of this {@link Spanner} instance is limited to {@code
+     * maxBufferedBytes}, except that each stream is always allowed to have at least one chunk in
+     * flight. Reads and queries that specify {@link Options#prefetchChunks(int)} do not use
+     * adaptive prefetching. This limit is the same byte budget as {@link
+     * #setMaxBufferedResultBytes(long)}, and the lowest of the two applies if both are set.
+     *
+     * <p>Adaptive prefetching is disabled by default.
+     */
+    public Builder enableAdaptivePrefetch(long maxBufferedBytes) {
+      Preconditions.checkArgument(maxBufferedBytes > 0L, "maxBufferedBytes must be > 0");
+      this.adaptivePrefetchMaxBufferedBytes = maxBufferedBytes;
+      return this;
+    }
+
+    /** Disables adaptive prefetching for reads and queries. This is the default. */
+    public Builder disableAdaptivePrefetch() {
+      this.adaptivePrefetchMaxBufferedBytes = 0L;
+      return this;
+    }
+
+    /**
+     * Sets the maximum number of bytes of query and read results that all queries and reads of
+     * this {@link Spanner} instance together may buffer in the client. This includes results that
+     * have been received from Spanner but not yet returned by a {@link ResultSet}, and results
+     * that are kept to be able to resume a stream. Queries and reads stop requesting more results
+     * from Spanner once the budget has been used up, and {@link AsyncResultSet}s stop filling their
+     * row buffer, until the application has consumed some of the buffered results. A query or read
+     * that has nothing buffered may always request one more result, which means that the budget
+     * can be exceeded by at most one result per query or read. This is the same byte budget as the
+     * one that is used by {@link #enableAdaptivePrefetch(long)}, and the lowest of the two limits
+     * applies if both are set.
+     *
+     * <p>Set to 0 to disable the limit. The limit is disabled by default.
+     */
+    public Builder setMaxBufferedResultBytes(long maxBufferedResultBytes) {
+      Preconditions.checkArgument(
+          maxBufferedResultBytes >= 0L, "maxBufferedResultBytes must be >= 0");
+      this.maxBufferedResultBytes = maxBufferedResultBytes;
+      return this;
+    }
+
+    /**
+     * Enables write coalescing for {@link DatabaseClient#writeAtLeastOnce(Iterable)} and {@link
+     * DatabaseClient#writeAtLeastOnceWithOptions(Iterable, Options.TransactionOption...)} calls
+     * without any options. Concurrent calls are then collected for at most {@code lingerTime}, or
+     * until {@code maxBatchSize} calls have been collected, and sent to Spanner as a single
+     * BatchWrite RPC with one {@link MutationGroup} per call. Each call is still applied atomically
+     * and returns its own commit timestamp or error, but calls may be applied in a different order
+     * than in which they were made. Enabling write coalescing reduces the number of RPCs for
+     * applications that execute many small blind writes in parallel, at the cost of an extra
+     * latency of at most {@code lingerTime} per write.
+     *
+     * <p>Write coalescing is disabled by default.
+     */
+    public Builder enableWriteCoalescing(Duration lingerTime, int maxBatchSize) {
+      Preconditions.checkNotNull(lingerTime);
+      Preconditions.checkArgument(!lingerTime.isNegative(), "lingerTime must be >= 0");
+      Preconditions.checkArgument(maxBatchSize > 0, "maxBatchSize must be > 0");
+      this.writeCoalescingLingerTime = lingerTime;
+      this.writeCoalescingMaxBatchSize = maxBatchSize;
+      return this;
+    }
+
+    /** Disables write coalescing. This is the default. */
+    public Builder disableWriteCoalescing() {
+      this.writeCoalescingLingerTime = null;
+      this.writeCoalescingMaxBatchSize = 0;
+      return this;
+    }
+
+    /**
+     * Enables a client-side cache for the results of single-use reads and queries that use a stale
+     * {@link TimestampBound}. A read or query that is executed with {@link
+     * DatabaseClient#singleUse(TimestampBound)} is served from the cache if the cache contains a
+     * result for the same read or query that satisfies the timestamp bound:
+     *
+     * <ul>
+     *   <li>{@link TimestampBound#ofReadTimestamp}: a result that was read at the same timestamp.
+     *   <li>{@link TimestampBound#ofMinReadTimestamp}: a result that was read at or after the
+     *       minimum read timestamp.
+     *   <li>{@link TimestampBound#ofMaxStaleness}: a result that was read at most the given
+     *       staleness ago.
+     * </ul>
+     *
+     * <p>Strong reads, reads with an exact staleness, reads in multi-use transactions and the async
+     * read and query methods never use the cache. The cache is bounded by the estimated size of the
+     * cached rows, and evicts the least recently used results when it is full. Results that are
+     * larger than the cache are never cached. A single read or query can bypass the cache with
+     * {@link Options#skipResultCache()}.
+     *
+     * <p>The cache is disabled by default.
+     */
+    public Builder enableStaleReadCache(long maxBytes) {
+      Preconditions.checkArgument(maxBytes > 0L, "maxBytes must be > 0");
+      this.staleReadCacheMaxBytes = maxBytes;
+      return this;
+    }
+
+    /** Disables the client-side result cache for stale reads. This is the default. */
+    public Builder disableStaleReadCache() {
+      this.staleReadCacheMaxBytes = 0L;
+      return this;
+    }
+
     /**
      * Specifies how values that are returned from a query should be decoded and converted from
      * protobuf values into plain Java objects.
@@ -1877,6 +2008,29 @@ public class SpannerOptions extends ServiceOptions<Spanner, SpannerOptions> {
         : null;
   }
 
+  /**
+   * Returns the {@link OpenTelemetry} instance that is used for built-in metrics, or null if
+   * built-in metrics are disabled or could not be initialized.
+   */
+  @Nullable
+  OpenTelemetry getBuiltInMetricsOpenTelemetry() {
+    if (!isEnableBuiltInMetrics() || System.getenv("SPANNER_EMULATOR_HOST") != null) {
+      return null;
+    }
+    return this.builtInOpenTelemetryMetricsProvider.getOrCreateOpenTelemetry(
+        this.getProjectId(), getCredentials(), this.monitoringHost);
+  }
+
+  /** Returns the client attributes that are added to all built-in metrics of this client. */
+  Attributes getBuiltInMetricsClientAttributes() {
+    AttributesBuilder attributesBuilder = Attributes.builder();
+    builtInOpenTelemetryMetricsProvider
+        .createClientAttributes(
+            this.getProjectId(), "spanner-java/" + GaxProperties.getLibraryVersion(getClass()))
+        .forEach(attributesBuilder::put);
+    return attributesBuilder.build();
+  }
+
   /**
    * Returns true if an {@link com.google.api.gax.tracing.ApiTracer} should be created and set on
    * the Spanner client. Enabling this only has effect if an OpenTelemetry or OpenCensus trace
@@ -1946,6 +2100,61 @@ public class SpannerOptions extends ServiceOptions<Spanner, SpannerOptions> {
     return prefetchChunks;
   }
 
+  /** Returns true if reads and queries adjust their prefetch window to the consumer speed. */
+  public boolean isAdaptivePrefetchEnabled() {
+    return adaptivePrefetchMaxBufferedBytes > 0L;
+  }
+
+  /**
+   * Returns the maximum number of bytes that may be prefetched by all reads and queries when
+   * adaptive prefetching is enabled, or 0 if adaptive prefetching is disabled.
+   */
+  public long getAdaptivePrefetchMaxBufferedBytes() {
+    return adaptivePrefetchMaxBufferedBytes;
+  }
+
+  /**
+   * Returns the maximum number of bytes of results that all queries and reads may buffer in the
+   * client, or 0 if there is no limit.
+   */
+  public long getMaxBufferedResultBytes() {
+    return maxBufferedResultBytes;
+  }
+
+  /** Returns true if concurrent blind writes are combined into BatchWrite RPCs. */
+  public boolean isWriteCoalescingEnabled() {
+    return writeCoalescingLingerTime != null;
+  }
+
+  /**
+   * Returns the maximum time that a blind write waits for other writes to be combined with, or null
+   * if write coalescing is disabled.
+   */
+  public Duration getWriteCoalescingLingerTime() {
+    return writeCoalescingLingerTime;
+  }
+
+  /**
+   * Returns the maximum number of blind writes that are combined into one BatchWrite RPC, or 0 if
+   * write coalescing is disabled.
+   */
+  public int getWriteCoalescingMaxBatchSize() {
+    return writeCoalescingMaxBatchSize;
+  }
+
+  /** Returns true if the results of single-use stale reads and queries are cached in the client. */
+  public boolean isStaleReadCacheEnabled() {
+    return staleReadCacheMaxBytes > 0L;
+  }
+
+  /**
+   * Returns the maximum estimated size in bytes of the results that are cached for stale reads and
+   * queries, or 0 if the cache is disabled.
+   */
+  public long getStaleReadCacheMaxBytes() {
+    return staleReadCacheMaxBytes;
+  }
+
   public DecodeMode getDecodeMode() {
     return decodeMode;
   }
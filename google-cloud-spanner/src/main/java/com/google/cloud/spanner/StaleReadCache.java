@@ -0,0 +1,495 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner;
+
+import static com.google.cloud.spanner.MetricRegistryConstants.COUNT;
+import static com.google.cloud.spanner.MetricRegistryConstants.STALE_READ_CACHE_BYTES;
+import static com.google.cloud.spanner.MetricRegistryConstants.STALE_READ_CACHE_BYTES_DESCRIPTION;
+import static com.google.cloud.spanner.MetricRegistryConstants.STALE_READ_CACHE_HITS;
+import static com.google.cloud.spanner.MetricRegistryConstants.STALE_READ_CACHE_HITS_DESCRIPTION;
+import static com.google.cloud.spanner.MetricRegistryConstants.STALE_READ_CACHE_MISSES;
+import static com.google.cloud.spanner.MetricRegistryConstants.STALE_READ_CACHE_MISSES_DESCRIPTION;
+
+import com.google.api.core.ApiFuture;
+import com.google.cloud.Timestamp;
+import com.google.cloud.spanner.Options.QueryOption;
+import com.google.cloud.spanner.Options.ReadOption;
+import com.google.cloud.spanner.TimestampBound.Mode;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.Meter;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+
+/**
+ * Client-side cache for the results of single-use reads and queries that use a stale {@link
+ * TimestampBound}. Each cached result contains the decoded rows and the read timestamp that Spanner
+ * returned for the read or query. A cached result is only returned for a read or query if its read
+ * timestamp satisfies the timestamp bound of that read or query. See {@link
+ * SpannerOptions.Builder#enableStaleReadCache(long)} for the exact rules.
+ *
+ * <p>The cache is bounded by the estimated size of the cached rows, and evicts the least recently
+ * used results when a new result does not fit.
+ */
+class StaleReadCache {
+  /** Identifies a read or query. Two reads or queries with equal keys return the same rows. */
+  static final class CacheKey {
+    private final Object request;
+    private final Options options;
+    @Nullable private final Timestamp readTimestamp;
+
+    private CacheKey(Object request, Options options, TimestampBound bound) {
+      this.request = request;
+      this.options = options;
+      // Results that are read at a specific timestamp can only be used for reads at exactly that
+      // timestamp. All other results are cached under the same key and replaced by newer results.
+      this.readTimestamp =
+          bound.getMode() == Mode.READ_TIMESTAMP ? bound.getReadTimestamp() : null;
+    }
+
+    static CacheKey forQuery(Statement statement, Options options, TimestampBound bound) {
+      return new CacheKey(statement, options, bound);
+    }
+
+    static CacheKey forRead(
+        String table,
+        @Nullable String index,
+        KeySet keys,
+        Iterable<String> columns,
+        Options options,
+        TimestampBound bound) {
+      return new CacheKey(
+          ImmutableList.of(table, index == null ? "" : index, keys, ImmutableList.copyOf(columns)),
+          options,
+          bound);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof CacheKey)) {
+        return false;
+      }
+      CacheKey that = (CacheKey) o;
+      return request.equals(that.request)
+          && options.equals(that.options)
+          && Objects.equals(readTimestamp, that.readTimestamp);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(request, options, readTimestamp);
+    }
+  }
+
+  private static final class CachedResult {
+    private final Type type;
+    private final List<Struct> rows;
+    private final Timestamp readTimestamp;
+    private final long sizeBytes;
+
+    private CachedResult(Type type, List<Struct> rows, Timestamp readTimestamp, long sizeBytes) {
+      this.type = type;
+      this.rows = rows;
+      this.readTimestamp = readTimestamp;
+      this.sizeBytes = sizeBytes;
+    }
+  }
+
+  private final long maxBytes;
+  private final Clock clock;
+  private final Object lock = new Object();
+
+  @GuardedBy("lock")
+  private final LinkedHashMap<CacheKey, CachedResult> results =
+      new LinkedHashMap<>(16, 0.75f, /* accessOrder = */ true);
+
+  @GuardedBy("lock")
+  private long sizeBytes;
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+
+  StaleReadCache(long maxBytes) {
+    this(maxBytes, Clock.INSTANCE);
+  }
+
+  @VisibleForTesting
+  StaleReadCache(long maxBytes, Clock clock) {
+    Preconditions.checkArgument(maxBytes > 0L, "maxBytes must be > 0");
+    this.maxBytes = maxBytes;
+    this.clock = Preconditions.checkNotNull(clock);
+  }
+
+  /** Registers counters for the hits and misses, and a gauge for the size of this cache. */
+  void registerMetrics(OpenTelemetry openTelemetry, Attributes attributes) {
+    if (openTelemetry == null || !SpannerOptions.isEnabledOpenTelemetryMetrics()) {
+      return;
+    }
+    Meter meter = openTelemetry.getMeter(MetricRegistryConstants.INSTRUMENTATION_SCOPE);
+    meter
+        .counterBuilder(STALE_READ_CACHE_HITS)
+        .setDescription(STALE_READ_CACHE_HITS_DESCRIPTION)
+        .setUnit(COUNT)
+        .buildWithCallback(measurement -> measurement.record(hits.get(), attributes));
+    meter
+        .counterBuilder(STALE_READ_CACHE_MISSES)
+        .setDescription(STALE_READ_CACHE_MISSES_DESCRIPTION)
+        .setUnit(COUNT)
+        .buildWithCallback(measurement -> measurement.record(misses.get(), attributes));
+    meter
+        .gaugeBuilder(STALE_READ_CACHE_BYTES)
+        .ofLongs()
+        .setDescription(STALE_READ_CACHE_BYTES_DESCRIPTION)
+        .setUnit("By")
+        .buildWithCallback(measurement -> measurement.record(getSizeBytes(), attributes));
+  }
+
+  /**
+   * Returns true if the results of reads with the given timestamp bound may be cached. Reads with
+   * an exact staleness are never cached, as Spanner reads these at exactly now minus the staleness,
+   * and a cached result would almost never have been read at that exact timestamp.
+   */
+  static boolean isCacheable(TimestampBound bound) {
+    return bound.getMode() != Mode.STRONG && bound.getMode() != Mode.EXACT_STALENESS;
+  }
+
+  /**
+   * Returns a single-use {@link ReadContext} that serves reads and queries from this cache when
+   * possible, and otherwise executes them on the transaction that is returned by the given
+   * supplier. The supplier is only called when a read or query is not served from the cache.
+   */
+  ReadContext createReadContext(
+      TimestampBound bound, Supplier<ReadOnlyTransaction> transactionSupplier) {
+    Preconditions.checkArgument(
+        isCacheable(bound), "strong and exact staleness reads cannot be cached");
+    return new CachingReadContext(this, bound, transactionSupplier);
+  }
+
+  /**
+   * Returns a {@link ResultSet} with the cached rows for the given key if the cache contains a
+   * result that satisfies the given timestamp bound, and otherwise null.
+   */
+  @Nullable
+  ResultSet get(CacheKey key, TimestampBound bound) {
+    CachedResult result;
+    synchronized (lock) {
+      result = results.get(key);
+    }
+    if (result != null && satisfies(result.readTimestamp, bound)) {
+      hits.incrementAndGet();
+      return ResultSets.forRows(result.type, result.rows);
+    }
+    misses.incrementAndGet();
+    return null;
+  }
+
+  /**
+   * Adds the given rows to the cache, evicting the least recently used results if necessary.
+   * Results that are larger than the cache are ignored.
+   */
+  void put(CacheKey key, Type type, List<Struct> rows, Timestamp readTimestamp, long resultBytes) {
+    if (resultBytes > maxBytes) {
+      return;
+    }
+    CachedResult result = new CachedResult(type, rows, readTimestamp, resultBytes);
+    synchronized (lock) {
+      CachedResult existing = results.get(key);
+      if (existing != null) {
+        if (existing.readTimestamp.compareTo(readTimestamp) > 0) {
+          // Keep the result with the most recent read timestamp.
+          return;
+        }
+        sizeBytes -= existing.sizeBytes;
+      }
+      results.put(key, result);
+      sizeBytes += resultBytes;
+      Iterator<CachedResult> iterator = results.values().iterator();
+      while (sizeBytes > maxBytes && iterator.hasNext()) {
+        CachedResult eldest = iterator.next();
+        if (eldest == result) {
+          continue;
+        }
+        iterator.remove();
+        sizeBytes -= eldest.sizeBytes;
+      }
+    }
+  }
+
+  private boolean satisfies(Timestamp readTimestamp, TimestampBound bound) {
+    switch (bound.getMode()) {
+      case READ_TIMESTAMP:
+        return readTimestamp.equals(bound.getReadTimestamp());
+      case MIN_READ_TIMESTAMP:
+        return readTimestamp.compareTo(bound.getMinReadTimestamp()) >= 0;
+      case MAX_STALENESS:
+        return toMicros(readTimestamp)
+            >= nowMicros() - bound.getMaxStaleness(TimeUnit.MICROSECONDS);
+      default:
+        return false;
+    }
+  }
+
+  private long nowMicros() {
+    Instant now = clock.instant();
+    return TimeUnit.SECONDS.toMicros(now.getEpochSecond())
+        + TimeUnit.NANOSECONDS.toMicros(now.getNano());
+  }
+
+  private static long toMicros(Timestamp timestamp) {
+    return TimeUnit.SECONDS.toMicros(timestamp.getSeconds())
+        + TimeUnit.NANOSECONDS.toMicros(timestamp.getNanos());
+  }
+
+  long getMaxBytes() {
+    return maxBytes;
+  }
+
+  long getSizeBytes() {
+    synchronized (lock) {
+      return sizeBytes;
+    }
+  }
+
+  @VisibleForTesting
+  int getNumCachedResults() {
+    synchronized (lock) {
+      return results.size();
+    }
+  }
+
+  @VisibleForTesting
+  long getHitCount() {
+    return hits.get();
+  }
+
+  @VisibleForTesting
+  long getMissCount() {
+    return misses.get();
+  }
+
+  /**
+   * {@link ResultSet} that collects the rows of a read or query that was not served from the cache,
+   * and adds these to the cache when the result set has been consumed completely.
+   */
+  private static final class CachingResultSet extends ForwardingResultSet {
+    private final StaleReadCache cache;
+    private final CacheKey key;
+    private final Supplier<Timestamp> readTimestampSupplier;
+    @Nullable private List<Struct> rows = new ArrayList<>();
+    private long resultBytes;
+
+    private CachingResultSet(
+        ResultSet delegate,
+        StaleReadCache cache,
+        CacheKey key,
+        Supplier<Timestamp> readTimestampSupplier) {
+      super(delegate);
+      this.cache = cache;
+      this.key = key;
+      this.readTimestampSupplier = readTimestampSupplier;
+    }
+
+    @Override
+    public boolean next() throws SpannerException {
+      boolean hasNext = super.next();
+      if (rows != null) {
+        if (hasNext) {
+          Struct row = getCurrentRowAsStruct();
+          resultBytes += AbstractResultSet.estimateRowSize(row);
+          if (resultBytes > cache.getMaxBytes()) {
+            rows = null;
+          } else {
+            rows.add(row);
+          }
+        } else {
+          List<Struct> result = rows;
+          rows = null;
+          Timestamp readTimestamp;
+          try {
+            readTimestamp = readTimestampSupplier.get();
+          } catch (SpannerException ignore) {
+            // The read timestamp is unknown, which means that we cannot cache the result.
+            return false;
+          }
+          cache.put(key, getType(), result, readTimestamp, resultBytes);
+        }
+      }
+      return hasNext;
+    }
+
+    @Override
+    public ColumnarBatch nextBatch() throws SpannerException {
+      // Rows that are consumed in batches are not collected.
+      rows = null;
+      return super.nextBatch();
+    }
+  }
+
+  /**
+   * Single-use {@link ReadContext} that serves synchronous reads and queries from the cache, and
+   * executes all other operations on a single-use read-only transaction that is only created when
+   * it is needed.
+   */
+  private static final class CachingReadContext implements ReadContext {
+    private final StaleReadCache cache;
+    private final TimestampBound bound;
+    private final Supplier<ReadOnlyTransaction> transactionSupplier;
+    private ReadOnlyTransaction transaction;
+
+    private CachingReadContext(
+        StaleReadCache cache,
+        TimestampBound bound,
+        Supplier<ReadOnlyTransaction> transactionSupplier) {
+      this.cache = cache;
+      this.bound = bound;
+      this.transactionSupplier = transactionSupplier;
+    }
+
+    private synchronized ReadOnlyTransaction getTransaction() {
+      if (transaction == null) {
+        transaction = transactionSupplier.get();
+      }
+      return transaction;
+    }
+
+    private ResultSet executeWithCache(
+        CacheKey key, Options options, Supplier<ResultSet> resultSetSupplier) {
+      if (options.skipResultCache()) {
+        return resultSetSupplier.get();
+      }
+      ResultSet cached = cache.get(key, bound);
+      if (cached != null) {
+        return cached;
+      }
+      ReadOnlyTransaction readOnlyTransaction = getTransaction();
+      return new CachingResultSet(
+          resultSetSupplier.get(), cache, key, readOnlyTransaction::getReadTimestamp);
+    }
+
+    @Override
+    public ResultSet read(
+        String table, KeySet keys, Iterable<String> columns, ReadOption... options) {
+      Options readOptions = Options.fromReadOptions(options);
+      return executeWithCache(
+          CacheKey.forRead(table, null, keys, columns, readOptions, bound),
+          readOptions,
+          () -> getTransaction().read(table, keys, columns, options));
+    }
+
+    @Override
+    public AsyncResultSet readAsync(
+        String table, KeySet keys, Iterable<String> columns, ReadOption... options) {
+      return getTransaction().readAsync(table, keys, columns, options);
+    }
+
+    @Override
+    public ResultSet readUsingIndex(
+        String table, String index, KeySet keys, Iterable<String> columns, ReadOption... options) {
+      Options readOptions = Options.fromReadOptions(options);
+      return executeWithCache(
+          CacheKey.forRead(table, index, keys, columns, readOptions, bound),
+          readOptions,
+          () -> getTransaction().readUsingIndex(table, index, keys, columns, options));
+    }
+
+    @Override
+    public AsyncResultSet readUsingIndexAsync(
+        String table, String index, KeySet keys, Iterable<String> columns, ReadOption... options) {
+      return getTransaction().readUsingIndexAsync(table, index, keys, columns, options);
+    }
+
+    @Nullable
+    @Override
+    public Struct readRow(String table, Key key, Iterable<String> columns) {
+      try (ResultSet resultSet = read(table, KeySet.singleKey(key), columns)) {
+        return consumeSingleRow(resultSet);
+      }
+    }
+
+    @Override
+    public ApiFuture<Struct> readRowAsync(
+        String table, Key key, Iterable<String> columns) {
+      return getTransaction().readRowAsync(table, key, columns);
+    }
+
+    @Nullable
+    @Override
+    public Struct readRowUsingIndex(
+        String table, String index, Key key, Iterable<String> columns) {
+      try (ResultSet resultSet = readUsingIndex(table, index, KeySet.singleKey(key), columns)) {
+        return consumeSingleRow(resultSet);
+      }
+    }
+
+    @Override
+    public ApiFuture<Struct> readRowUsingIndexAsync(
+        String table, String index, Key key, Iterable<String> columns) {
+      return getTransaction().readRowUsingIndexAsync(table, index, key, columns);
+    }
+
+    @Override
+    public ResultSet executeQuery(Statement statement, QueryOption... options) {
+      Options queryOptions = Options.fromQueryOptions(options);
+      return executeWithCache(
+          CacheKey.forQuery(statement, queryOptions, bound),
+          queryOptions,
+          () -> getTransaction().executeQuery(statement, options));
+    }
+
+    @Override
+    public AsyncResultSet executeQueryAsync(Statement statement, QueryOption... options) {
+      return getTransaction().executeQueryAsync(statement, options);
+    }
+
+    @Override
+    public ResultSet analyzeQuery(Statement statement, QueryAnalyzeMode queryMode) {
+      return getTransaction().analyzeQuery(statement, queryMode);
+    }
+
+    @Override
+    public synchronized void close() {
+      if (transaction != null) {
+        transaction.close();
+      }
+    }
+
+    @Nullable
+    private static Struct consumeSingleRow(ResultSet resultSet) {
+      if (!resultSet.next()) {
+        return null;
+      }
+      Struct row = resultSet.getCurrentRowAsStruct();
+      if (resultSet.next()) {
+        throw SpannerExceptionFactory.newSpannerException(
+            ErrorCode.INTERNAL, "Multiple rows returned for single key");
+      }
+      return row;
+    }
+  }
+}
@@ -21,7 +21,9 @@ import com.google.cloud.Date;
 import com.google.cloud.Timestamp;
 import com.google.protobuf.AbstractMessage;
 import com.google.protobuf.ProtocolMessageEnum;
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.function.Function;
 
@@ -273,6 +275,52 @@ public interface StructReader {
    */
   ByteArray getBytes(String columnName);
 
+  /**
+   * Returns the value of a non-{@code NULL} column with type {@link Type#bytes()} or {@link
+   * Type#proto(String)} as a read-only {@link ByteBuffer}. Implementations may return a view of a
+   * value that has already been decoded instead of creating a new copy of the value.
+   *
+   * @param columnIndex index of the column
+   * @return the value of a non-{@code NULL} column with type {@link Type#bytes()}.
+   */
+  default ByteBuffer getBytesAsByteBuffer(int columnIndex) {
+    return getBytes(columnIndex).asReadOnlyByteBuffer();
+  }
+
+  /**
+   * Returns the value of a non-{@code NULL} column with type {@link Type#bytes()} or {@link
+   * Type#proto(String)} as a read-only {@link ByteBuffer}.
+   *
+   * @param columnName name of the column
+   * @return the value of a non-{@code NULL} column with type {@link Type#bytes()}.
+   */
+  default ByteBuffer getBytesAsByteBuffer(String columnName) {
+    return getBytes(columnName).asReadOnlyByteBuffer();
+  }
+
+  /**
+   * Returns the value of a non-{@code NULL} column with type {@link Type#bytes()} or {@link
+   * Type#proto(String)} as an {@link InputStream}. Implementations may decode the value lazily
+   * while the stream is being read, or return a stream over a value that has already been decoded.
+   *
+   * @param columnIndex index of the column
+   * @return the value of a non-{@code NULL} column with type {@link Type#bytes()}.
+   */
+  default InputStream getBytesAsInputStream(int columnIndex) {
+    return getBytes(columnIndex).asInputStream();
+  }
+
+  /**
+   * Returns the value of a non-{@code NULL} column with type {@link Type#bytes()} or {@link
+   * Type#proto(String)} as an {@link InputStream}.
+   *
+   * @param columnName name of the column
+   * @return the value of a non-{@code NULL} column with type {@link Type#bytes()}.
+   */
+  default InputStream getBytesAsInputStream(String columnName) {
+    return getBytes(columnName).asInputStream();
+  }
+
   /**
    * @param columnIndex index of the column
    * @return the value of a non-{@code NULL} column with type {@link Type#timestamp()}.
@@ -26,6 +26,8 @@ import io.opencensus.trace.Tracer;
 import io.opentelemetry.api.common.AttributeKey;
 import io.opentelemetry.api.common.Attributes;
 import io.opentelemetry.api.common.AttributesBuilder;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.TracerProvider;
 import io.opentelemetry.context.Context;
 import java.util.Arrays;
 import java.util.List;
@@ -48,6 +50,15 @@ class TraceWrapper {
   private final io.opentelemetry.api.trace.Tracer openTelemetryTracer;
   private final boolean enableExtendedTracing;
 
+  /**
+   * OpenTelemetry tracing is disabled if the tracer is the no-op tracer of the OpenTelemetry API.
+   * This is the tracer that is returned by {@link io.opentelemetry.api.OpenTelemetry#noop()} and
+   * by {@link io.opentelemetry.api.GlobalOpenTelemetry} if no SDK has been registered. All spans
+   * that are created by {@link TraceWrapper} are then a {@link NoopSpan}, which means that no
+   * spans, attributes or scopes are created.
+   */
+  private final boolean openTelemetryEnabled;
+
   TraceWrapper(
       Tracer openCensusTracer,
       io.opentelemetry.api.trace.Tracer openTelemetryTracer,
@@ -55,6 +66,11 @@ class TraceWrapper {
     this.openTelemetryTracer = openTelemetryTracer;
     this.openCensusTracer = openCensusTracer;
     this.enableExtendedTracing = enableExtendedTracing;
+    this.openTelemetryEnabled = openTelemetryTracer != TracerProvider.noop().get("");
+  }
+
+  private boolean isOpenTelemetryActive() {
+    return SpannerOptions.getActiveTracingFramework().equals(TracingFramework.OPEN_TELEMETRY);
   }
 
   ISpan spanBuilder(String spanName) {
@@ -66,7 +82,10 @@ class TraceWrapper {
   }
 
   ISpan spanBuilder(String spanName, Attributes attributes) {
-    if (SpannerOptions.getActiveTracingFramework().equals(TracingFramework.OPEN_TELEMETRY)) {
+    if (isOpenTelemetryActive()) {
+      if (!openTelemetryEnabled) {
+        return NoopSpan.INSTANCE;
+      }
       return new OpenTelemetrySpan(
           openTelemetryTracer.spanBuilder(spanName).setAllAttributes(attributes).startSpan());
     } else {
@@ -79,21 +98,28 @@ class TraceWrapper {
   }
 
   ISpan spanBuilderWithExplicitParent(String spanName, ISpan parentSpan, Attributes attributes) {
-    if (SpannerOptions.getActiveTracingFramework().equals(TracingFramework.OPEN_TELEMETRY)) {
-      OpenTelemetrySpan otParentSpan = (OpenTelemetrySpan) parentSpan;
-
+    if (isOpenTelemetryActive()) {
+      if (!openTelemetryEnabled) {
+        return NoopSpan.INSTANCE;
+      }
       io.opentelemetry.api.trace.SpanBuilder otSpan =
           openTelemetryTracer.spanBuilder(spanName).setAllAttributes(attributes);
-      if (otParentSpan != null && otParentSpan.getOpenTelemetrySpan() != null) {
-        otSpan = otSpan.setParent(Context.current().with(otParentSpan.getOpenTelemetrySpan()));
+      // A NoopSpan parent has no context, so the span then uses the current context as parent.
+      if (parentSpan instanceof OpenTelemetrySpan
+          && ((OpenTelemetrySpan) parentSpan).getOpenTelemetrySpan() != null) {
+        otSpan =
+            otSpan.setParent(
+                Context.current().with(((OpenTelemetrySpan) parentSpan).getOpenTelemetrySpan()));
       }
       return new OpenTelemetrySpan(otSpan.startSpan());
     } else {
-      OpenCensusSpan parentOcSpan = (OpenCensusSpan) parentSpan;
       Span ocSpan =
           openCensusTracer
               .spanBuilderWithExplicitParent(
-                  spanName, parentOcSpan != null ? parentOcSpan.getOpenCensusSpan() : null)
+                  spanName,
+                  parentSpan instanceof OpenCensusSpan
+                      ? ((OpenCensusSpan) parentSpan).getOpenCensusSpan()
+                      : null)
               .startSpan();
 
       return new OpenCensusSpan(ocSpan);
@@ -101,7 +127,10 @@ class TraceWrapper {
   }
 
   ISpan getCurrentSpan() {
-    if (SpannerOptions.getActiveTracingFramework().equals(TracingFramework.OPEN_TELEMETRY)) {
+    if (isOpenTelemetryActive()) {
+      if (!openTelemetryEnabled) {
+        return NoopSpan.INSTANCE;
+      }
       return new OpenTelemetrySpan(
           io.opentelemetry.api.trace.Span.fromContext(io.opentelemetry.context.Context.current()));
     } else {
@@ -110,7 +139,10 @@ class TraceWrapper {
   }
 
   ISpan getBlankSpan() {
-    if (SpannerOptions.getActiveTracingFramework().equals(TracingFramework.OPEN_TELEMETRY)) {
+    if (isOpenTelemetryActive()) {
+      if (!openTelemetryEnabled) {
+        return NoopSpan.INSTANCE;
+      }
       return new OpenTelemetrySpan(io.opentelemetry.api.trace.Span.getInvalid());
     } else {
       return new OpenCensusSpan(BlankSpan.INSTANCE);
@@ -118,7 +150,11 @@ class TraceWrapper {
   }
 
   IScope withSpan(ISpan span) {
-    if (SpannerOptions.getActiveTracingFramework().equals(TracingFramework.OPEN_TELEMETRY)) {
+    if (span == NoopSpan.INSTANCE) {
+      // Skip the context propagation, as a NoopSpan is only returned when tracing is disabled.
+      return NoopSpan.NOOP_SCOPE;
+    }
+    if (isOpenTelemetryActive()) {
       OpenTelemetrySpan openTelemetrySpan;
       if (!(span instanceof OpenTelemetrySpan)) {
         openTelemetrySpan = new OpenTelemetrySpan(null);
@@ -137,8 +173,23 @@ class TraceWrapper {
     }
   }
 
+  /**
+   * Returns true if attributes should be created for a new span. Attributes are only used by
+   * OpenTelemetry, and are skipped if OpenTelemetry tracing is disabled or if the current span is
+   * not sampled. The latter means that a new span that uses the current span as its parent will
+   * also not be sampled by the default parent-based sampler of OpenTelemetry, and that building the
+   * attributes (including formatting the SQL string) would be wasted.
+   */
+  private boolean shouldCreateAttributes() {
+    if (!openTelemetryEnabled || !isOpenTelemetryActive()) {
+      return false;
+    }
+    SpanContext currentSpanContext = io.opentelemetry.api.trace.Span.current().getSpanContext();
+    return !currentSpanContext.isValid() || currentSpanContext.isSampled();
+  }
+
   Attributes createTransactionAttributes(TransactionOption... options) {
-    if (options != null && options.length > 0) {
+    if (options != null && options.length > 0 && shouldCreateAttributes()) {
       Optional<TagOption> tagOption =
           Arrays.stream(options)
               .filter(option -> option instanceof TagOption)
@@ -152,7 +203,8 @@ class TraceWrapper {
   }
 
   Attributes createStatementAttributes(Statement statement, Options options) {
-    if (this.enableExtendedTracing || (options != null && options.hasTag())) {
+    if ((this.enableExtendedTracing || (options != null && options.hasTag()))
+        && shouldCreateAttributes()) {
       AttributesBuilder builder = Attributes.builder();
       if (this.enableExtendedTracing) {
         builder.put(DB_STATEMENT_KEY, statement.getSql());
@@ -167,7 +219,8 @@ class TraceWrapper {
   }
 
   Attributes createStatementBatchAttributes(Iterable<Statement> statements, Options options) {
-    if (this.enableExtendedTracing || (options != null && options.hasTag())) {
+    if ((this.enableExtendedTracing || (options != null && options.hasTag()))
+        && shouldCreateAttributes()) {
       AttributesBuilder builder = Attributes.builder();
       if (this.enableExtendedTracing) {
         builder.put(
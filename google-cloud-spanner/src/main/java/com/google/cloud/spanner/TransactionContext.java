@@ -110,6 +110,37 @@ public interface TransactionContext extends ReadContext {
     throw new UnsupportedOperationException("method should be overwritten");
   }
 
+  /**
+   * Buffers a mutation that has been encoded by a {@link MutationWriter} to be applied if the
+   * transaction commits successfully. The mutation is applied in the same order relative to the
+   * other buffered mutations as it was buffered. The effects of this mutation will not be visible
+   * to subsequent operations in the transaction. All buffered mutations will be applied
+   * atomically.
+   */
+  default void buffer(EncodedMutation mutation) {
+    throw new UnsupportedOperationException("method should be overwritten");
+  }
+
+  /**
+   * Returns the number of mutations that have been buffered in this transaction. Mutations on
+   * secondary indexes are not included in this number.
+   *
+   * @see Options#mutationLimits(long, long)
+   */
+  default long getBufferedMutationCount() {
+    throw new UnsupportedOperationException("method should be overwritten");
+  }
+
+  /**
+   * Returns the (estimated) number of bytes that the mutations that have been buffered in this
+   * transaction will use in the commit request.
+   *
+   * @see Options#mutationLimits(long, long)
+   */
+  default long getBufferedMutationBytes() {
+    throw new UnsupportedOperationException("method should be overwritten");
+  }
+
   /**
    * Executes the DML statement (which can be a simple DML statement or DML statement with a
    * returning clause) and returns the number of rows modified. For non-DML statements, it will
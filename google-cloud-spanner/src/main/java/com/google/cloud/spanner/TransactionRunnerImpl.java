@@ -57,15 +57,14 @@ import com.google.spanner.v1.TransactionSelector;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.annotation.Nullable;
@@ -152,11 +151,22 @@ class TransactionRunnerImpl implements SessionTransaction, TransactionRunner {
 
       @Override
       public ApiFuture<Void> setCallback(Executor exec, ReadyCallback cb) {
+        return trackAsyncOperation(() -> super.setCallback(exec, cb));
+      }
+
+      @Override
+      public ApiFuture<Void> setBatchCallback(
+          Executor exec, int maxBatchRows, long maxBatchBytes, BatchReadyCallback cb) {
+        return trackAsyncOperation(
+            () -> super.setBatchCallback(exec, maxBatchRows, maxBatchBytes, cb));
+      }
+
+      private ApiFuture<Void> trackAsyncOperation(Supplier<ApiFuture<Void>> setCallback) {
         Runnable listener = TransactionContextImpl.this::decreaseAsyncOperations;
         try {
           increaseAsyncOperations();
           addListener(listener);
-          return super.setCallback(exec, cb);
+          return setCallback.get();
         } catch (Throwable t) {
           removeListener(listener);
           decreaseAsyncOperations();
@@ -191,7 +201,19 @@ class TransactionRunnerImpl implements SessionTransaction, TransactionRunner {
     @GuardedBy("lock")
     private volatile int runningAsyncOperations;
 
-    private final Queue<Mutation> mutations = new ConcurrentLinkedQueue<>();
+    /**
+     * Mutations are encoded when they are buffered, so the encoding cost is spread over the
+     * transaction, and the size of the mutations is known before the transaction is committed.
+     */
+    @GuardedBy("committingLock")
+    private final MutationEncoder mutations = new MutationEncoder();
+
+    /**
+     * Set if the buffered mutations exceeded one of the limits that were set with {@link
+     * Options#mutationLimits(long, long)}. The transaction can then not be committed.
+     */
+    @GuardedBy("committingLock")
+    private SpannerException mutationLimitExceededException;
 
     @GuardedBy("lock")
     private boolean aborted;
@@ -371,9 +393,14 @@ class TransactionRunnerImpl implements SessionTransaction, TransactionRunner {
         if (committing) {
           throw new IllegalStateException(TRANSACTION_ALREADY_COMMITTED_MESSAGE);
         }
+        if (mutationLimitExceededException != null) {
+          // Fail without sending the commit request, as Spanner would reject it anyway.
+          return ApiFutures.immediateFailedFuture(mutationLimitExceededException);
+        }
         committing = true;
         if (!mutations.isEmpty()) {
-          randomMutation = Mutation.toProtoAndReturnRandomMutation(mutations, mutationsProto);
+          mutationsProto = mutations.build();
+          randomMutation = mutations.getRandomMutation();
         }
       }
       final SettableApiFuture<CommitResponse> res = SettableApiFuture.create();
@@ -605,6 +632,11 @@ class TransactionRunnerImpl implements SessionTransaction, TransactionRunner {
       }
     }
 
+    @Override
+    boolean isInlineBeginPending() {
+      return transactionId == null;
+    }
+
     @Nullable
     @Override
     TransactionSelector getTransactionSelector() {
@@ -809,6 +841,7 @@ class TransactionRunnerImpl implements SessionTransaction, TransactionRunner {
           throw new IllegalStateException(TRANSACTION_ALREADY_COMMITTED_MESSAGE);
         }
         mutations.add(checkNotNull(mutation));
+        checkMutationLimits();
       }
     }
 
@@ -830,6 +863,7 @@ class TransactionRunnerImpl implements SessionTransaction, TransactionRunner {
         for (Mutation mutation : mutations) {
           this.mutations.add(checkNotNull(mutation));
         }
+        checkMutationLimits();
       }
     }
 
@@ -842,6 +876,63 @@ class TransactionRunnerImpl implements SessionTransaction, TransactionRunner {
       return ApiFutures.immediateFuture(null);
     }
 
+    @Override
+    public void buffer(EncodedMutation mutation) {
+      checkNotNull(mutation);
+      synchronized (committingLock) {
+        if (committing) {
+          throw new IllegalStateException(TRANSACTION_ALREADY_COMMITTED_MESSAGE);
+        }
+        mutations.add(mutation);
+        checkMutationLimits();
+      }
+    }
+
+    @GuardedBy("committingLock")
+    private void checkMutationLimits() {
+      if (mutationLimitExceededException != null) {
+        throw mutationLimitExceededException;
+      }
+      if (!options.hasMutationLimits()) {
+        return;
+      }
+      String message = null;
+      if (options.maxMutationCount() > 0L
+          && mutations.getMutationCount() > options.maxMutationCount()) {
+        message =
+            String.format(
+                "The transaction contains too many mutations. The number of buffered mutations"
+                    + " (%d) exceeds the limit of %d mutations.",
+                mutations.getMutationCount(), options.maxMutationCount());
+      } else if (options.maxMutationBytes() > 0L
+          && mutations.getSerializedSize() > options.maxMutationBytes()) {
+        message =
+            String.format(
+                "The transaction contains too many mutations. The size of the buffered mutations"
+                    + " (%d bytes) exceeds the limit of %d bytes.",
+                mutations.getSerializedSize(), options.maxMutationBytes());
+      }
+      if (message != null) {
+        mutationLimitExceededException =
+            SpannerExceptionFactory.newTransactionMutationLimitExceededException(message);
+        throw mutationLimitExceededException;
+      }
+    }
+
+    @Override
+    public long getBufferedMutationCount() {
+      synchronized (committingLock) {
+        return mutations.getMutationCount();
+      }
+    }
+
+    @Override
+    public long getBufferedMutationBytes() {
+      synchronized (committingLock) {
+        return mutations.getSerializedSize();
+      }
+    }
+
     @Override
     public ResultSetStats analyzeUpdate(
         Statement statement, QueryAnalyzeMode analyzeMode, UpdateOption... options) {
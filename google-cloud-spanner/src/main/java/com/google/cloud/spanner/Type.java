@@ -443,6 +443,27 @@ public final class Type implements Serializable {
   public int getFieldIndex(String fieldName) {
     Preconditions.checkState(code == Code.STRUCT, "Illegal call for non-STRUCT type");
 
+    Integer index = getFieldsByName().get(fieldName);
+    if (index == null) {
+      throw new IllegalArgumentException("Field not found: " + fieldName);
+    }
+    if (index == AMBIGUOUS_FIELD) {
+      throw new IllegalArgumentException("Ambiguous field name: " + fieldName);
+    }
+    return index;
+  }
+
+  /**
+   * Builds the map of field names to field indexes of this {@code STRUCT} type, so that later
+   * calls to {@link #getFieldIndex(String)} do not need to build it. This is used for types that
+   * are shared by multiple result sets.
+   */
+  void initFieldIndex() {
+    getFieldsByName();
+  }
+
+  private Map<String, Integer> getFieldsByName() {
+    Map<String, Integer> fieldsByName = this.fieldsByName;
     if (fieldsByName == null) {
       Map<String, Integer> tmp = new TreeMap<>();
       for (int i = 0; i < getStructFields().size(); ++i) {
@@ -458,16 +479,9 @@ public final class Type implements Serializable {
       // Since all computations of "fieldsByName" produce the same value, there is no risk of
       // inconsistency.
       fieldsByName = ImmutableMap.copyOf(tmp);
+      this.fieldsByName = fieldsByName;
     }
-
-    Integer index = fieldsByName.get(fieldName);
-    if (index == null) {
-      throw new IllegalArgumentException("Field not found: " + fieldName);
-    }
-    if (index == AMBIGUOUS_FIELD) {
-      throw new IllegalArgumentException("Ambiguous field name: " + fieldName);
-    }
-    return index;
+    return fieldsByName;
   }
 
   void toString(StringBuilder b) {
@@ -0,0 +1,343 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.SettableApiFuture;
+import com.google.api.gax.rpc.ServerStream;
+import com.google.cloud.Timestamp;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.spanner.v1.BatchWriteResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import javax.annotation.concurrent.GuardedBy;
+
+/**
+ * Combines concurrent blind writes into a single BatchWrite RPC. Each write is sent as a separate
+ * {@link MutationGroup}, which means that each write is still applied atomically, but writes of
+ * different callers are not applied atomically together. A batch is sent when the linger time of
+ * the first write in the batch has passed, or when the batch has reached its maximum size,
+ * whichever comes first. A batch is also sent before it would exceed the mutation count or size
+ * limits of a single request. Each caller is completed with the commit timestamp or the error of
+ * the {@link BatchWriteResponse} that contains the index of its mutation group.
+ */
+class WriteCoalescer implements AutoCloseable {
+  /** The maximum time that {@link #close()} waits for batches that are being written. */
+  private static final Duration CLOSE_TIMEOUT = Duration.ofSeconds(60L);
+
+  /** The maximum number of mutations that Spanner accepts in a single request. */
+  static final long DEFAULT_MAX_BATCH_MUTATION_COUNT = 80_000L;
+
+  /** The maximum size of the mutations that Spanner accepts in a single request. */
+  static final long DEFAULT_MAX_BATCH_BYTES = 100L * 1024L * 1024L;
+
+  /** The maximum number of batches that are written at the same time. */
+  private static final int MAX_CONCURRENT_BATCHES = 8;
+
+  /** A write that is waiting to be sent to Spanner. */
+  private static final class PendingWrite {
+    private final MutationGroup mutationGroup;
+    private final long mutationCount;
+    private final long serializedSize;
+    private final SettableApiFuture<CommitResponse> result = SettableApiFuture.create();
+
+    private PendingWrite(MutationGroup mutationGroup) {
+      this.mutationGroup = mutationGroup;
+      MutationEncoder encoder = new MutationEncoder();
+      for (Mutation mutation : mutationGroup.getMutations()) {
+        encoder.add(mutation);
+      }
+      this.mutationCount = encoder.getMutationCount();
+      this.serializedSize = encoder.getSerializedSize();
+    }
+  }
+
+  private final Function<Iterable<MutationGroup>, ServerStream<BatchWriteResponse>> batchWriter;
+  private final Duration lingerTime;
+  private final int maxBatchSize;
+  private final long maxBatchMutationCount;
+  private final long maxBatchBytes;
+  private final ScheduledExecutorService scheduler;
+  private final ThreadPoolExecutor executor;
+  private final Object lock = new Object();
+
+  @GuardedBy("lock")
+  private List<PendingWrite> pendingWrites;
+
+  @GuardedBy("lock")
+  private long pendingMutationCount;
+
+  @GuardedBy("lock")
+  private long pendingBytes;
+
+  @GuardedBy("lock")
+  private ScheduledFuture<?> scheduledFlush;
+
+  /** The number of batches that have been taken, but have not yet been written. */
+  @GuardedBy("lock")
+  private int inFlightBatches;
+
+  @GuardedBy("lock")
+  private boolean closed;
+
+  private final SettableFuture<Void> closeFuture = SettableFuture.create();
+
+  WriteCoalescer(
+      Function<Iterable<MutationGroup>, ServerStream<BatchWriteResponse>> batchWriter,
+      Duration lingerTime,
+      int maxBatchSize) {
+    this(
+        batchWriter,
+        lingerTime,
+        maxBatchSize,
+        DEFAULT_MAX_BATCH_MUTATION_COUNT,
+        DEFAULT_MAX_BATCH_BYTES);
+  }
+
+  @VisibleForTesting
+  WriteCoalescer(
+      Function<Iterable<MutationGroup>, ServerStream<BatchWriteResponse>> batchWriter,
+      Duration lingerTime,
+      int maxBatchSize,
+      long maxBatchMutationCount,
+      long maxBatchBytes) {
+    Preconditions.checkArgument(!lingerTime.isNegative(), "lingerTime must be >= 0");
+    Preconditions.checkArgument(maxBatchSize > 0, "maxBatchSize must be > 0");
+    Preconditions.checkArgument(maxBatchMutationCount > 0L, "maxBatchMutationCount must be > 0");
+    Preconditions.checkArgument(maxBatchBytes > 0L, "maxBatchBytes must be > 0");
+    this.batchWriter = Preconditions.checkNotNull(batchWriter);
+    this.lingerTime = lingerTime;
+    this.maxBatchSize = maxBatchSize;
+    this.maxBatchMutationCount = maxBatchMutationCount;
+    this.maxBatchBytes = maxBatchBytes;
+    this.pendingWrites = new ArrayList<>(maxBatchSize);
+    this.scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            ThreadFactoryUtil.createVirtualOrPlatformDaemonThreadFactory(
+                "spanner-write-coalescer-scheduler", false));
+    this.executor =
+        new ThreadPoolExecutor(
+            MAX_CONCURRENT_BATCHES,
+            MAX_CONCURRENT_BATCHES,
+            60L,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            ThreadFactoryUtil.createVirtualOrPlatformDaemonThreadFactory(
+                "spanner-write-coalescer", true));
+    this.executor.allowCoreThreadTimeOut(true);
+  }
+
+  @VisibleForTesting
+  Duration getLingerTime() {
+    return lingerTime;
+  }
+
+  @VisibleForTesting
+  int getMaxBatchSize() {
+    return maxBatchSize;
+  }
+
+  /**
+   * Adds the given mutations to the current batch and returns a future that is done when the batch
+   * that contains the mutations has been written.
+   */
+  ApiFuture<CommitResponse> write(Iterable<Mutation> mutations) {
+    PendingWrite write = new PendingWrite(MutationGroup.of(mutations));
+    List<PendingWrite> fullBatch = null;
+    List<PendingWrite> batch = null;
+    synchronized (lock) {
+      if (closed) {
+        throw SpannerExceptionFactory.newSpannerException(
+            ErrorCode.FAILED_PRECONDITION, "This write coalescer has been closed");
+      }
+      // Send the current batch first if adding this write would exceed the limits of a request.
+      if (!pendingWrites.isEmpty()
+          && (pendingMutationCount + write.mutationCount > maxBatchMutationCount
+              || pendingBytes + write.serializedSize > maxBatchBytes)) {
+        fullBatch = takePendingWrites();
+      }
+      pendingWrites.add(write);
+      pendingMutationCount += write.mutationCount;
+      pendingBytes += write.serializedSize;
+      if (pendingWrites.size() >= maxBatchSize
+          || pendingMutationCount >= maxBatchMutationCount
+          || pendingBytes >= maxBatchBytes) {
+        batch = takePendingWrites();
+      } else if (scheduledFlush == null) {
+        scheduledFlush =
+            scheduler.schedule(this::flush, lingerTime.toNanos(), TimeUnit.NANOSECONDS);
+      }
+    }
+    if (fullBatch != null) {
+      send(fullBatch);
+    }
+    if (batch != null) {
+      send(batch);
+    }
+    return write.result;
+  }
+
+  /** Sends all pending writes to Spanner. */
+  void flush() {
+    List<PendingWrite> batch;
+    synchronized (lock) {
+      batch = takePendingWrites();
+    }
+    send(batch);
+  }
+
+  /**
+   * Takes all pending writes. A non-empty batch is counted as in flight until it has been written,
+   * and must be passed to {@link #send(List)}.
+   */
+  @GuardedBy("lock")
+  private List<PendingWrite> takePendingWrites() {
+    if (scheduledFlush != null) {
+      scheduledFlush.cancel(false);
+      scheduledFlush = null;
+    }
+    List<PendingWrite> batch = pendingWrites;
+    if (!batch.isEmpty()) {
+      inFlightBatches++;
+      pendingWrites = new ArrayList<>(maxBatchSize);
+      pendingMutationCount = 0L;
+      pendingBytes = 0L;
+    }
+    return batch;
+  }
+
+  private void send(List<PendingWrite> batch) {
+    if (!batch.isEmpty()) {
+      try {
+        executor.execute(() -> writeBatchAndRelease(batch));
+      } catch (RejectedExecutionException ignore) {
+        writeBatchAndRelease(batch);
+      }
+    }
+  }
+
+  private void writeBatchAndRelease(List<PendingWrite> batch) {
+    try {
+      writeBatch(batch);
+    } finally {
+      boolean done;
+      synchronized (lock) {
+        inFlightBatches--;
+        done = closed && inFlightBatches == 0;
+      }
+      if (done) {
+        onClosed();
+      }
+    }
+  }
+
+  private void onClosed() {
+    scheduler.shutdown();
+    executor.shutdown();
+    closeFuture.set(null);
+  }
+
+  private void writeBatch(List<PendingWrite> batch) {
+    List<MutationGroup> mutationGroups = new ArrayList<>(batch.size());
+    for (PendingWrite write : batch) {
+      mutationGroups.add(write.mutationGroup);
+    }
+    try {
+      for (BatchWriteResponse response : batchWriter.apply(mutationGroups)) {
+        for (int index : response.getIndexesList()) {
+          if (index < 0 || index >= batch.size()) {
+            continue;
+          }
+          SettableApiFuture<CommitResponse> result = batch.get(index).result;
+          if (response.getStatus().getCode() == com.google.rpc.Code.OK_VALUE) {
+            result.set(new CommitResponse(Timestamp.fromProto(response.getCommitTimestamp())));
+          } else {
+            result.setException(
+                SpannerExceptionFactory.newSpannerException(
+                    ErrorCode.fromRpcStatus(response.getStatus()),
+                    response.getStatus().getMessage()));
+          }
+        }
+      }
+      // Spanner returns a response for each mutation group, but we do not want any caller to wait
+      // forever if it for some reason did not.
+      for (PendingWrite write : batch) {
+        write.result.setException(
+            SpannerExceptionFactory.newSpannerException(
+                ErrorCode.INTERNAL, "BatchWrite did not return a response for this write"));
+      }
+    } catch (Throwable throwable) {
+      SpannerException exception = SpannerExceptionFactory.asSpannerException(throwable);
+      for (PendingWrite write : batch) {
+        write.result.setException(exception);
+      }
+    }
+  }
+
+  /**
+   * Rejects any new writes and sends all pending writes to Spanner. This method does not block.
+   * The returned future is done when all batches that are being written have finished, so the
+   * sessions of the client can be closed after that.
+   */
+  ListenableFuture<Void> closeAsync() {
+    List<PendingWrite> batch;
+    boolean done;
+    synchronized (lock) {
+      if (closed) {
+        return closeFuture;
+      }
+      closed = true;
+      batch = takePendingWrites();
+      done = inFlightBatches == 0;
+    }
+    if (done) {
+      onClosed();
+    } else {
+      send(batch);
+    }
+    return closeFuture;
+  }
+
+  /**
+   * Rejects any new writes, writes all pending writes to Spanner, and waits until all batches that
+   * are being written have finished.
+   */
+  @Override
+  public void close() {
+    try {
+      closeAsync().get(CLOSE_TIMEOUT.toMillis(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      throw SpannerExceptionFactory.propagateInterrupt(e);
+    } catch (ExecutionException | TimeoutException e) {
+      throw SpannerExceptionFactory.asSpannerException(e);
+    }
+  }
+}
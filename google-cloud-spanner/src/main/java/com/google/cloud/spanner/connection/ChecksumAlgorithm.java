@@ -0,0 +1,33 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner.connection;
+
+/**
+ * Option value used for determining the algorithm that is used to calculate the checksum of the
+ * results that are consumed in a read/write transaction. The checksum is used to verify that an
+ * internal retry of an aborted transaction returns the same results as the original attempt.
+ */
+public enum ChecksumAlgorithm {
+  /**
+   * A fast 128-bit non-cryptographic hash (MurmurHash3). The collision probability of this hash is
+   * comparable to that of MD5 for the use case at hand, which does not need to protect against
+   * deliberately crafted collisions. This is the default.
+   */
+  MURMUR3_128,
+  /** MD5. This was the only algorithm that was supported by earlier versions. */
+  MD5,
+}
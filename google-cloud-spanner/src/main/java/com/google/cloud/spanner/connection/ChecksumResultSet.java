@@ -31,6 +31,9 @@ import com.google.cloud.spanner.connection.ReadWriteTransaction.RetriableStateme
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Preconditions;
 import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import com.google.protobuf.Value;
 import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
@@ -56,13 +59,15 @@ import java.util.concurrent.atomic.AtomicLong;
  * values of the rows that have been consumed. A retry will succeed if the query returns the same
  * results for the already consumed rows.
  *
- * <p>The checksum of a {@link ResultSet} is the SHA256 checksum of the current row together with
- * the previous checksum value of the result set. The calculation of the checksum is executed in a
- * separate {@link Thread} to allow the checksum calculation to lag behind the actual consumption of
- * rows, and catch up again if the client slows down the consumption of rows, for example while
- * waiting for more data from Cloud Spanner. If the checksum calculation queue contains more than
- * {@link ChecksumExecutor#MAX_IN_CHECKSUM_QUEUE} items that have not yet been calculated, calls to
- * {@link ResultSet#next()} will slow down in order to allow the calculation to catch up.
+ * <p>The checksum of a {@link ResultSet} is the checksum of the current row together with the
+ * previous checksum value of the result set. The hash function that is used is determined by the
+ * {@link ChecksumAlgorithm} of the transaction, and is a 128-bit MurmurHash3 by default. The
+ * calculation of the checksum is executed in a separate {@link Thread} to allow the checksum
+ * calculation to lag behind the actual consumption of rows, and catch up again if the client slows
+ * down the consumption of rows, for example while waiting for more data from Cloud Spanner. If the
+ * checksum calculation queue contains more than {@link ChecksumExecutor#MAX_IN_CHECKSUM_QUEUE}
+ * items that have not yet been calculated, calls to {@link ResultSet#next()} will slow down in
+ * order to allow the calculation to catch up.
  */
 @VisibleForTesting
 class ChecksumResultSet extends ReplaceableForwardingResultSet implements RetriableStatement {
@@ -71,7 +76,8 @@ class ChecksumResultSet extends ReplaceableForwardingResultSet implements Retria
   private final ParsedStatement statement;
   private final AnalyzeMode analyzeMode;
   private final QueryOption[] options;
-  private final ChecksumCalculator checksumCalculator = new ChecksumCalculator();
+  private final ChecksumAlgorithm checksumAlgorithm;
+  private final ChecksumCalculator checksumCalculator;
 
   ChecksumResultSet(
       ReadWriteTransaction transaction,
@@ -79,6 +85,16 @@ class ChecksumResultSet extends ReplaceableForwardingResultSet implements Retria
       ParsedStatement statement,
       AnalyzeMode analyzeMode,
       QueryOption... options) {
+    this(transaction, delegate, statement, analyzeMode, ChecksumAlgorithm.MURMUR3_128, options);
+  }
+
+  ChecksumResultSet(
+      ReadWriteTransaction transaction,
+      ProtobufResultSet delegate,
+      ParsedStatement statement,
+      AnalyzeMode analyzeMode,
+      ChecksumAlgorithm checksumAlgorithm,
+      QueryOption... options) {
     super(delegate);
     Preconditions.checkNotNull(transaction);
     Preconditions.checkNotNull(delegate);
@@ -89,6 +105,8 @@ class ChecksumResultSet extends ReplaceableForwardingResultSet implements Retria
     this.statement = statement;
     this.analyzeMode = analyzeMode;
     this.options = options;
+    this.checksumAlgorithm = Preconditions.checkNotNull(checksumAlgorithm);
+    this.checksumCalculator = ChecksumCalculator.create(checksumAlgorithm);
   }
 
   @Override
@@ -126,8 +144,8 @@ class ChecksumResultSet extends ReplaceableForwardingResultSet implements Retria
 
   @VisibleForTesting
   byte[] getChecksum() {
-    // Getting the checksum from the checksumCalculator will create a clone of the current digest
-    // and return the checksum from the clone, so it is safe to return this value.
+    // The checksumCalculator returns a copy of the current checksum, so it is safe to return this
+    // value.
     return checksumCalculator.getChecksum();
   }
 
@@ -140,7 +158,7 @@ class ChecksumResultSet extends ReplaceableForwardingResultSet implements Retria
   @Override
   public void retry(AbortedException aborted) throws AbortedException {
     // Execute the same query and consume the result set to the same point as the original.
-    ChecksumCalculator newChecksumCalculator = new ChecksumCalculator();
+    ChecksumCalculator newChecksumCalculator = ChecksumCalculator.create(checksumAlgorithm);
     ProtobufResultSet resultSet = null;
     long counter = 0L;
     try {
@@ -199,67 +217,66 @@ class ChecksumResultSet extends ReplaceableForwardingResultSet implements Retria
    * This is more efficient, both in terms of CPU usage and memory consumption, especially if the
    * consumer of the result set does not read all values, or is only reading the underlying protobuf
    * values.
+   *
+   * <p>Subclasses determine the hash function that is used, and how string values are fed into the
+   * hash function.
    */
-  private static final class ChecksumCalculator {
-    // Use a buffer of max 1Mb to hash string data. This means that strings of up to 1Mb in size
-    // will be hashed in one go, while strings larger than 1Mb will be chunked into pieces of at
-    // most 1Mb and then fed into the digest. The digest internally creates a copy of the string
-    // that is being hashed, so chunking large strings prevents them from being loaded into memory
-    // twice.
-    private static final int MAX_BUFFER_SIZE = 1 << 20;
-
+  @VisibleForTesting
+  abstract static class ChecksumCalculator {
     private boolean firstRow = true;
-    private final MessageDigest digest;
-    private ByteBuffer buffer;
-    private ByteBuffer float64Buffer;
 
-    ChecksumCalculator() {
-      try {
-        // This is safe, as all Java implementations are required to have MD5 implemented.
-        // See https://docs.oracle.com/javase/8/docs/api/java/security/MessageDigest.html
-        // MD5 requires less CPU power than SHA-256, and still offers a low enough collision
-        // probability for the use case at hand here.
-        digest = MessageDigest.getInstance("MD5");
-      } catch (Throwable t) {
-        throw SpannerExceptionFactory.asSpannerException(t);
+    static ChecksumCalculator create(ChecksumAlgorithm algorithm) {
+      switch (algorithm) {
+        case MD5:
+          return new Md5ChecksumCalculator();
+        case MURMUR3_128:
+        default:
+          return new Murmur3ChecksumCalculator();
       }
     }
 
-    private byte[] getChecksum() {
-      try {
-        // This is safe, as the MD5 MessageDigest is known to be cloneable.
-        MessageDigest clone = (MessageDigest) digest.clone();
-        return clone.digest();
-      } catch (CloneNotSupportedException e) {
-        throw SpannerExceptionFactory.asSpannerException(e);
-      }
-    }
+    /** Returns the checksum of all rows that have been added to this calculator. */
+    abstract byte[] getChecksum();
+
+    /** Called before the values of a row are added to the checksum. */
+    abstract void startRow();
 
-    private void calculateNextChecksum(ProtobufResultSet resultSet) {
+    /** Called after all the values of a row have been added to the checksum. */
+    abstract void endRow();
+
+    abstract void putByte(byte b);
+
+    abstract void putDouble(double d);
+
+    abstract void putString(String stringValue);
+
+    void calculateNextChecksum(ProtobufResultSet resultSet) {
+      startRow();
       if (firstRow) {
         for (StructField field : resultSet.getType().getStructFields()) {
-          digest.update(field.getType().toString().getBytes(StandardCharsets.UTF_8));
+          putString(field.getType().toString());
         }
       }
       for (int col = 0; col < resultSet.getColumnCount(); col++) {
         Type type = resultSet.getColumnType(col);
         if (resultSet.canGetProtobufValue(col)) {
           Value value = resultSet.getProtobufValue(col);
-          digest.update((byte) value.getKindCase().getNumber());
+          putByte((byte) value.getKindCase().getNumber());
           pushValue(type, value);
         } else {
           // This will normally not happen, unless the user explicitly sets the decoding mode to
-          // DIRECT for a query in a read/write transaction. The default decoding mode in the
-          // Connection API is set to LAZY_PER_COL.
+          // DIRECT or COLUMNAR_BATCH for a query in a read/write transaction. The default decoding
+          // mode in the Connection API is set to LAZY_PER_COL.
           throw SpannerExceptionFactory.newSpannerException(
               ErrorCode.FAILED_PRECONDITION,
               "Failed to get the underlying protobuf value for the column "
                   + resultSet.getMetadata().getRowType().getFields(col).getName()
                   + ". "
-                  + "Executing queries with DecodeMode#DIRECT is not supported in read/write transactions.");
+                  + "Executing queries with DecodeMode#DIRECT or DecodeMode#COLUMNAR_BATCH is not supported in read/write transactions.");
         }
       }
       firstRow = false;
+      endRow();
     }
 
     private void pushValue(Type type, Value value) {
@@ -271,27 +288,18 @@ class ChecksumResultSet extends ReplaceableForwardingResultSet implements Retria
           // nothing needed, writing the KindCase is enough.
           break;
         case BOOL_VALUE:
-          digest.update(value.getBoolValue() ? (byte) 1 : 0);
+          putByte(value.getBoolValue() ? (byte) 1 : 0);
           break;
         case STRING_VALUE:
           putString(value.getStringValue());
           break;
         case NUMBER_VALUE:
-          if (float64Buffer == null) {
-            // Create an 8-byte buffer that can be re-used for all float64 values in this result
-            // set.
-            float64Buffer = ByteBuffer.allocate(Double.BYTES);
-          } else {
-            float64Buffer.clear();
-          }
-          float64Buffer.putDouble(value.getNumberValue());
-          float64Buffer.flip();
-          digest.update(float64Buffer);
+          putDouble(value.getNumberValue());
           break;
         case LIST_VALUE:
           if (type.getCode() == Code.ARRAY) {
             for (Value item : value.getListValue().getValuesList()) {
-              digest.update((byte) item.getKindCase().getNumber());
+              putByte((byte) item.getKindCase().getNumber());
               pushValue(type.getArrayElementType(), item);
             }
           } else {
@@ -307,7 +315,7 @@ class ChecksumResultSet extends ReplaceableForwardingResultSet implements Retria
               String name = type.getStructFields().get(col).getName();
               putString(name);
               Value item = value.getStructValue().getFieldsMap().get(name);
-              digest.update((byte) item.getKindCase().getNumber());
+              putByte((byte) item.getKindCase().getNumber());
               pushValue(type.getStructFields().get(col).getType(), item);
             }
           } else {
@@ -322,9 +330,121 @@ class ChecksumResultSet extends ReplaceableForwardingResultSet implements Retria
               ErrorCode.UNIMPLEMENTED, "Unsupported protobuf value: " + value.getKindCase());
       }
     }
+  }
+
+  /**
+   * Calculates a running 128-bit MurmurHash3 checksum. The checksum of each row is calculated over
+   * the checksum of the previous row and the values of the row itself. String values are hashed
+   * directly from the characters of the {@link String}, without encoding them to UTF-8 first.
+   */
+  @VisibleForTesting
+  static final class Murmur3ChecksumCalculator extends ChecksumCalculator {
+    private static final HashFunction HASH_FUNCTION = Hashing.murmur3_128();
+
+    private HashCode checksum;
+    private Hasher hasher;
+
+    @Override
+    byte[] getChecksum() {
+      return checksum == null ? new byte[0] : checksum.asBytes();
+    }
+
+    @Override
+    void startRow() {
+      hasher = HASH_FUNCTION.newHasher();
+      if (checksum != null) {
+        hasher.putBytes(checksum.asBytes());
+      }
+    }
+
+    @Override
+    void endRow() {
+      checksum = hasher.hash();
+      hasher = null;
+    }
+
+    @Override
+    void putByte(byte b) {
+      hasher.putByte(b);
+    }
+
+    @Override
+    void putDouble(double d) {
+      hasher.putDouble(d);
+    }
+
+    @Override
+    void putString(String stringValue) {
+      hasher.putInt(stringValue.length());
+      hasher.putUnencodedChars(stringValue);
+    }
+  }
+
+  /** Calculates a running MD5 checksum over all values of all rows. */
+  @VisibleForTesting
+  static final class Md5ChecksumCalculator extends ChecksumCalculator {
+    // Use a buffer of max 1Mb to hash string data. This means that strings of up to 1Mb in size
+    // will be hashed in one go, while strings larger than 1Mb will be chunked into pieces of at
+    // most 1Mb and then fed into the digest. The digest internally creates a copy of the string
+    // that is being hashed, so chunking large strings prevents them from being loaded into memory
+    // twice.
+    private static final int MAX_BUFFER_SIZE = 1 << 20;
+
+    private final MessageDigest digest;
+    private ByteBuffer buffer;
+    private ByteBuffer float64Buffer;
+
+    Md5ChecksumCalculator() {
+      try {
+        // This is safe, as all Java implementations are required to have MD5 implemented.
+        // See https://docs.oracle.com/javase/8/docs/api/java/security/MessageDigest.html
+        // MD5 requires less CPU power than SHA-256, and still offers a low enough collision
+        // probability for the use case at hand here.
+        digest = MessageDigest.getInstance("MD5");
+      } catch (Throwable t) {
+        throw SpannerExceptionFactory.asSpannerException(t);
+      }
+    }
+
+    @Override
+    byte[] getChecksum() {
+      try {
+        // This is safe, as the MD5 MessageDigest is known to be cloneable.
+        MessageDigest clone = (MessageDigest) digest.clone();
+        return clone.digest();
+      } catch (CloneNotSupportedException e) {
+        throw SpannerExceptionFactory.asSpannerException(e);
+      }
+    }
+
+    @Override
+    void startRow() {}
+
+    @Override
+    void endRow() {}
+
+    @Override
+    void putByte(byte b) {
+      digest.update(b);
+    }
+
+    @Override
+    void putDouble(double d) {
+      if (float64Buffer == null) {
+        // Create an 8-byte buffer that can be re-used for all float64 values in this result
+        // set.
+        float64Buffer = ByteBuffer.allocate(Double.BYTES);
+      } else {
+        float64Buffer.clear();
+      }
+      float64Buffer.putDouble(d);
+      float64Buffer.flip();
+      digest.update(float64Buffer);
+    }
 
     /** Hashes a string value in blocks of max MAX_BUFFER_SIZE. */
-    private void putString(String stringValue) {
+    @Override
+    void putString(String stringValue) {
       int length = stringValue.length();
       if (buffer == null || (buffer.capacity() < MAX_BUFFER_SIZE && buffer.capacity() < length)) {
         // Create a ByteBuffer with a maximum buffer size.
@@ -616,6 +616,54 @@ class ClientSideStatementValueConverters {
     }
   }
 
+  /** Converter for converting strings to {@link ChecksumAlgorithm} values. */
+  static class ChecksumAlgorithmConverter
+      implements ClientSideStatementValueConverter<ChecksumAlgorithm> {
+    static final ChecksumAlgorithmConverter INSTANCE = new ChecksumAlgorithmConverter();
+
+    private final CaseInsensitiveEnumMap<ChecksumAlgorithm> values =
+        new CaseInsensitiveEnumMap<>(ChecksumAlgorithm.class);
+
+    private ChecksumAlgorithmConverter() {}
+
+    /** Constructor needed for reflection. */
+    public ChecksumAlgorithmConverter(String allowedValues) {}
+
+    @Override
+    public Class<ChecksumAlgorithm> getParameterClass() {
+      return ChecksumAlgorithm.class;
+    }
+
+    @Override
+    public ChecksumAlgorithm convert(String value) {
+      return values.get(value);
+    }
+  }
+
+  /** Converter for converting strings to {@link StatementExecutorType} values. */
+  static class StatementExecutorTypeConverter
+      implements ClientSideStatementValueConverter<StatementExecutorType> {
+    static final StatementExecutorTypeConverter INSTANCE = new StatementExecutorTypeConverter();
+
+    private final CaseInsensitiveEnumMap<StatementExecutorType> values =
+        new CaseInsensitiveEnumMap<>(StatementExecutorType.class);
+
+    private StatementExecutorTypeConverter() {}
+
+    /** Constructor needed for reflection. */
+    public StatementExecutorTypeConverter(String allowedValues) {}
+
+    @Override
+    public Class<StatementExecutorType> getParameterClass() {
+      return StatementExecutorType.class;
+    }
+
+    @Override
+    public StatementExecutorType convert(String value) {
+      return values.get(value);
+    }
+  }
+
   /** Converter for converting strings to {@link DdlInTransactionMode} values. */
   static class DdlInTransactionModeConverter
       implements ClientSideStatementValueConverter<DdlInTransactionMode> {
@@ -1274,6 +1274,34 @@ public interface Connection extends AutoCloseable {
    */
   int getMaxPartitionedParallelism();
 
+  /**
+   * Sets the sort order that should be preserved when the results of the partitions of a query
+   * that is executed with {@link #runPartitionedQuery(Statement, PartitionOptions, QueryOption...)}
+   * are merged, for example <code>LastName ASC, FirstName DESC</code>. The results of the
+   * partitions are then merged with a k-way merge instead of being returned in any order.
+   *
+   * <p>Cloud Spanner does not allow an ORDER BY clause in a partitioned query. The merge therefore
+   * requires each partition to return its rows in the given sort order, for example because the
+   * query reads the rows in primary key or index order. The result set returns an error with code
+   * {@link ErrorCode#FAILED_PRECONDITION} if a partition returns rows in a different order. All
+   * partitions are opened at the same time when a sort order is set, as the merge needs the next
+   * row of each partition. The rows are fetched in blocks by at most {@link
+   * #getMaxPartitionedParallelism()} threads, so the merge also works with fewer threads than
+   * partitions. Set the sort order to <code>null</code> or an empty string to merge the results in
+   * any order.
+   */
+  default void setPartitionedQueryOrderBy(String orderBy) {
+    throw new UnsupportedOperationException("Unimplemented");
+  }
+
+  /**
+   * Returns the sort order that is preserved when the results of the partitions of a partitioned
+   * query are merged, or an empty string if the results are merged in any order.
+   */
+  default String getPartitionedQueryOrderBy() {
+    throw new UnsupportedOperationException("Unimplemented");
+  }
+
   /**
    * Executes the given query as a partitioned query. The query will first be partitioned using the
    * {@link #partitionQuery(Statement, PartitionOptions, QueryOption...)} method. Each of the
@@ -35,9 +35,11 @@ import static com.google.cloud.spanner.connection.ConnectionProperties.MAX_PARTI
 import static com.google.cloud.spanner.connection.ConnectionProperties.MAX_PARTITIONS;
 import static com.google.cloud.spanner.connection.ConnectionProperties.OPTIMIZER_STATISTICS_PACKAGE;
 import static com.google.cloud.spanner.connection.ConnectionProperties.OPTIMIZER_VERSION;
+import static com.google.cloud.spanner.connection.ConnectionProperties.PARTITIONED_QUERY_ORDER_BY;
 import static com.google.cloud.spanner.connection.ConnectionProperties.READONLY;
 import static com.google.cloud.spanner.connection.ConnectionProperties.READ_ONLY_STALENESS;
 import static com.google.cloud.spanner.connection.ConnectionProperties.RETRY_ABORTS_INTERNALLY;
+import static com.google.cloud.spanner.connection.ConnectionProperties.RETRY_CHECKSUM_ALGORITHM;
 import static com.google.cloud.spanner.connection.ConnectionProperties.RETURN_COMMIT_STATS;
 import static com.google.cloud.spanner.connection.ConnectionProperties.RPC_PRIORITY;
 import static com.google.cloud.spanner.connection.ConnectionProperties.SAVEPOINT_SUPPORT;
@@ -304,7 +306,9 @@ class ConnectionImpl implements Connection {
         options.isTrackConnectionLeaks() ? new LeakedConnectionException() : null;
     this.statementExecutor =
         new StatementExecutor(
-            options.isUseVirtualThreads(), options.getStatementExecutionInterceptors());
+            options.getStatementExecutorType(),
+            options.isUseVirtualThreads(),
+            options.getStatementExecutionInterceptors());
     this.spannerPool = SpannerPool.INSTANCE;
     this.options = options;
     this.spanner = spannerPool.getSpanner(options, this);
@@ -487,6 +491,7 @@ class ConnectionImpl implements Connection {
     this.connectionState.resetValue(DATA_BOOST_ENABLED, context, inTransaction);
     this.connectionState.resetValue(MAX_PARTITIONS, context, inTransaction);
     this.connectionState.resetValue(MAX_PARTITIONED_PARALLELISM, context, inTransaction);
+    this.connectionState.resetValue(PARTITIONED_QUERY_ORDER_BY, context, inTransaction);
     this.connectionState.resetValue(MAX_COMMIT_DELAY, context, inTransaction);
 
     this.connectionState.resetValue(AUTOCOMMIT_DML_MODE, context, inTransaction);
@@ -494,6 +499,7 @@ class ConnectionImpl implements Connection {
     this.statementTimeout = new StatementExecutor.StatementTimeout();
     this.connectionState.resetValue(DIRECTED_READ, context, inTransaction);
     this.connectionState.resetValue(SAVEPOINT_SUPPORT, context, inTransaction);
+    this.connectionState.resetValue(RETRY_CHECKSUM_ALGORITHM, context, inTransaction);
     this.protoDescriptors = null;
     this.protoDescriptorsFilePath = null;
 
@@ -1562,6 +1568,18 @@ class ConnectionImpl implements Connection {
     return getConnectionPropertyValue(MAX_PARTITIONED_PARALLELISM);
   }
 
+  @Override
+  public void setPartitionedQueryOrderBy(String orderBy) {
+    // Parse the sort order to fail fast if it is invalid.
+    PartitionedQueryOrderBy.parse(orderBy, getDialect());
+    setConnectionPropertyValue(PARTITIONED_QUERY_ORDER_BY, orderBy == null ? "" : orderBy);
+  }
+
+  @Override
+  public String getPartitionedQueryOrderBy() {
+    return getConnectionPropertyValue(PARTITIONED_QUERY_ORDER_BY);
+  }
+
   @Override
   public PartitionedQueryResultSet runPartitionedQuery(
       Statement query, PartitionOptions partitionOptions, QueryOption... options) {
@@ -1573,7 +1591,11 @@ class ConnectionImpl implements Connection {
     }
     // parallelism=0 means 'dynamically choose based on the number of available processors and the
     // number of partitions'.
-    return new MergedResultSet(this, partitionIds, getMaxPartitionedParallelism());
+    return new MergedResultSet(
+        this,
+        partitionIds,
+        getMaxPartitionedParallelism(),
+        PartitionedQueryOrderBy.parse(getPartitionedQueryOrderBy(), getDialect()));
   }
 
   /**
@@ -2164,6 +2186,7 @@ class ConnectionImpl implements Connection {
               .setKeepTransactionAlive(getConnectionPropertyValue(KEEP_TRANSACTION_ALIVE))
               .setRetryAbortsInternally(getConnectionPropertyValue(RETRY_ABORTS_INTERNALLY))
               .setSavepointSupport(getConnectionPropertyValue(SAVEPOINT_SUPPORT))
+              .setChecksumAlgorithm(getConnectionPropertyValue(RETRY_CHECKSUM_ALGORITHM))
               .setReturnCommitStats(getConnectionPropertyValue(RETURN_COMMIT_STATS))
               .setMaxCommitDelay(getConnectionPropertyValue(MAX_COMMIT_DELAY))
               .setTransactionRetryListeners(transactionRetryListeners)
@@ -42,6 +42,7 @@ import static com.google.cloud.spanner.connection.ConnectionProperties.READONLY;
 import static com.google.cloud.spanner.connection.ConnectionProperties.RETRY_ABORTS_INTERNALLY;
 import static com.google.cloud.spanner.connection.ConnectionProperties.RETURN_COMMIT_STATS;
 import static com.google.cloud.spanner.connection.ConnectionProperties.ROUTE_TO_LEADER;
+import static com.google.cloud.spanner.connection.ConnectionProperties.STATEMENT_EXECUTOR_TYPE;
 import static com.google.cloud.spanner.connection.ConnectionProperties.TRACING_PREFIX;
 import static com.google.cloud.spanner.connection.ConnectionProperties.TRACK_CONNECTION_LEAKS;
 import static com.google.cloud.spanner.connection.ConnectionProperties.TRACK_SESSION_LEAKS;
@@ -1233,6 +1234,11 @@ public class ConnectionOptions {
     return getInitialConnectionPropertyValue(USE_VIRTUAL_THREADS);
   }
 
+  /** The type of executor that connections use to execute statements. */
+  public StatementExecutorType getStatementExecutorType() {
+    return getInitialConnectionPropertyValue(STATEMENT_EXECUTOR_TYPE);
+  }
+
   /** Whether virtual threads should be used for gRPC transport. */
   public boolean isUseVirtualGrpcTransportThreads() {
     return getInitialConnectionPropertyValue(USE_VIRTUAL_GRPC_TRANSPORT_THREADS);
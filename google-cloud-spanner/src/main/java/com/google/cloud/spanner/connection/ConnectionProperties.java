@@ -99,6 +99,7 @@ import com.google.cloud.spanner.Options.RpcPriority;
 import com.google.cloud.spanner.TimestampBound;
 import com.google.cloud.spanner.connection.ClientSideStatementValueConverters.AutocommitDmlModeConverter;
 import com.google.cloud.spanner.connection.ClientSideStatementValueConverters.BooleanConverter;
+import com.google.cloud.spanner.connection.ClientSideStatementValueConverters.ChecksumAlgorithmConverter;
 import com.google.cloud.spanner.connection.ClientSideStatementValueConverters.ConnectionStateTypeConverter;
 import com.google.cloud.spanner.connection.ClientSideStatementValueConverters.CredentialsProviderConverter;
 import com.google.cloud.spanner.connection.ClientSideStatementValueConverters.DdlInTransactionModeConverter;
@@ -109,6 +110,7 @@ import com.google.cloud.spanner.connection.ClientSideStatementValueConverters.No
 import com.google.cloud.spanner.connection.ClientSideStatementValueConverters.ReadOnlyStalenessConverter;
 import com.google.cloud.spanner.connection.ClientSideStatementValueConverters.RpcPriorityConverter;
 import com.google.cloud.spanner.connection.ClientSideStatementValueConverters.SavepointSupportConverter;
+import com.google.cloud.spanner.connection.ClientSideStatementValueConverters.StatementExecutorTypeConverter;
 import com.google.cloud.spanner.connection.ClientSideStatementValueConverters.StringValueConverter;
 import com.google.cloud.spanner.connection.ConnectionProperty.Context;
 import com.google.cloud.spanner.connection.DirectedReadOptionsUtil.DirectedReadOptionsConverter;
@@ -267,6 +269,15 @@ class ConnectionProperties {
           DEFAULT_USE_VIRTUAL_THREADS,
           BooleanConverter.INSTANCE,
           Context.STARTUP);
+  static final ConnectionProperty<StatementExecutorType> STATEMENT_EXECUTOR_TYPE =
+      create(
+          "statementExecutorType",
+          "Determines how the connection executes statements. DEDICATED_THREAD (default) uses one "
+              + "thread per connection, SHARED_POOL uses a bounded thread pool that is shared by all "
+              + "connections, and DIRECT executes statements on the thread of the caller.",
+          StatementExecutorType.DEDICATED_THREAD,
+          StatementExecutorTypeConverter.INSTANCE,
+          Context.STARTUP);
   static final ConnectionProperty<Boolean> USE_VIRTUAL_GRPC_TRANSPORT_THREADS =
       create(
           USE_VIRTUAL_GRPC_TRANSPORT_THREADS_PROPERTY_NAME,
@@ -441,6 +452,16 @@ class ConnectionProperties {
           DEFAULT_MAX_PARTITIONED_PARALLELISM,
           NonNegativeIntegerConverter.INSTANCE,
           Context.USER);
+  static final ConnectionProperty<String> PARTITIONED_QUERY_ORDER_BY =
+      create(
+          "partitioned_query_order_by",
+          "The sort order that is preserved when the results of the partitions of a partitioned "
+              + "query are merged, for example 'LastName ASC, FirstName DESC'. Each partition "
+              + "must return its rows in this order. All partitions are executed in parallel "
+              + "when a sort order is set. Use an empty string to merge the results in any order.",
+          "",
+          StringValueConverter.INSTANCE,
+          Context.USER);
 
   static final ConnectionProperty<DirectedReadOptions> DIRECTED_READ =
       create(
@@ -477,6 +498,15 @@ class ConnectionProperties {
           SavepointSupport.FAIL_AFTER_ROLLBACK,
           SavepointSupportConverter.INSTANCE,
           Context.USER);
+  static final ConnectionProperty<ChecksumAlgorithm> RETRY_CHECKSUM_ALGORITHM =
+      create(
+          "retry_checksum_algorithm",
+          "The algorithm that is used to calculate the checksum of the results that are consumed "
+              + "in a read/write transaction. The checksum is used to verify that an internal retry "
+              + "of an aborted transaction returns the same results as the original attempt.",
+          ChecksumAlgorithm.MURMUR3_128,
+          ChecksumAlgorithmConverter.INSTANCE,
+          Context.USER);
   static final ConnectionProperty<DdlInTransactionMode> DDL_IN_TRANSACTION_MODE =
       create(
           DDL_IN_TRANSACTION_MODE_PROPERTY_NAME,
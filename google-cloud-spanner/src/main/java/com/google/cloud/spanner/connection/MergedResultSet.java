@@ -30,11 +30,15 @@ import com.google.common.base.Supplier;
 import com.google.spanner.v1.ResultSetMetadata;
 import com.google.spanner.v1.ResultSetStats;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.PriorityQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import javax.annotation.Nonnull;
@@ -42,9 +46,17 @@ import javax.annotation.Nonnull;
 /**
  * {@link MergedResultSet} is a {@link ResultSet} implementation that combines the results from
  * multiple queries. Each query uses its own {@link RowProducer} that feeds rows into the {@link
- * MergedResultSet}. The order of the records in the {@link MergedResultSet} is not guaranteed.
+ * MergedResultSet}. The order of the records in the {@link MergedResultSet} is not guaranteed,
+ * unless a {@link PartitionedQueryOrderBy} is given. In that case, the rows of the partitions are
+ * merged in that order, which requires each partition to return its rows in that order.
+ *
+ * <p>Rows are transferred from the threads that execute the partitions to the consumer in blocks
+ * of rows instead of one row at a time, which reduces the number of hand-offs between threads.
  */
 class MergedResultSet extends ForwardingStructReader implements PartitionedQueryResultSet {
+  /** The maximum number of rows that a {@link PartitionExecutor} transfers in one block. */
+  static final int MAX_ROWS_PER_BLOCK = 32;
+
   static class PartitionExecutor implements Runnable {
     private final Connection connection;
     private final String partitionId;
@@ -65,23 +77,38 @@ class MergedResultSet extends ForwardingStructReader implements PartitionedQuery
 
     @Override
     public void run() {
+      List<Struct> block = null;
       try (ResultSet resultSet = connection.runPartition(partitionId)) {
         boolean first = true;
         while (resultSet.next()) {
           Struct row = resultSet.getCurrentRowAsStruct();
           if (first) {
+            // Push the first row directly, so the metadata is available as soon as possible.
             queue.put(
                 PartitionExecutorResult.dataAndMetadata(
-                    row, resultSet.getType(), resultSet.getMetadata()));
+                    Collections.singletonList(row), resultSet.getType(), resultSet.getMetadata()));
             metadataAvailableLatch.countDown();
             first = false;
           } else {
-            queue.put(PartitionExecutorResult.data(row));
+            if (block == null) {
+              block = new ArrayList<>(MAX_ROWS_PER_BLOCK);
+            }
+            block.add(row);
+            if (block.size() == MAX_ROWS_PER_BLOCK) {
+              List<Struct> fullBlock = block;
+              block = null;
+              queue.put(PartitionExecutorResult.data(fullBlock));
+            }
           }
           if (shouldStop.get()) {
             break;
           }
         }
+        if (block != null) {
+          List<Struct> lastBlock = block;
+          block = null;
+          queue.put(PartitionExecutorResult.data(lastBlock));
+        }
         if (first) {
           // Special case: The result set did not return any rows. Push the metadata to the merged
           // result set.
@@ -91,6 +118,11 @@ class MergedResultSet extends ForwardingStructReader implements PartitionedQuery
           metadataAvailableLatch.countDown();
         }
       } catch (Throwable exception) {
+        // Push the rows that were received before the error, so these are returned before the
+        // error is thrown.
+        if (block != null) {
+          putWithoutInterruptPropagation(PartitionExecutorResult.data(block));
+        }
         putWithoutInterruptPropagation(PartitionExecutorResult.exception(exception));
         metadataAvailableLatch.countDown();
       } finally {
@@ -112,12 +144,12 @@ class MergedResultSet extends ForwardingStructReader implements PartitionedQuery
   }
 
   static class PartitionExecutorResult {
-    private final Struct data;
+    private final List<Struct> data;
     private final Throwable exception;
     private final Type type;
     private final ResultSetMetadata metadata;
 
-    static PartitionExecutorResult data(@Nonnull Struct data) {
+    static PartitionExecutorResult data(@Nonnull List<Struct> data) {
       return new PartitionExecutorResult(Preconditions.checkNotNull(data), null, null, null);
     }
 
@@ -128,7 +160,7 @@ class MergedResultSet extends ForwardingStructReader implements PartitionedQuery
     }
 
     static PartitionExecutorResult dataAndMetadata(
-        @Nonnull Struct data, @Nonnull Type type, @Nonnull ResultSetMetadata metadata) {
+        @Nonnull List<Struct> data, @Nonnull Type type, @Nonnull ResultSetMetadata metadata) {
       return new PartitionExecutorResult(
           Preconditions.checkNotNull(data),
           Preconditions.checkNotNull(type),
@@ -145,7 +177,7 @@ class MergedResultSet extends ForwardingStructReader implements PartitionedQuery
     }
 
     private PartitionExecutorResult(
-        Struct data, Type type, ResultSetMetadata metadata, Throwable exception) {
+        List<Struct> data, Type type, ResultSetMetadata metadata, Throwable exception) {
       this.data = data;
       this.type = type;
       this.metadata = metadata;
@@ -153,7 +185,7 @@ class MergedResultSet extends ForwardingStructReader implements PartitionedQuery
     }
 
     boolean hasData() {
-      return this.data != null;
+      return this.data != null && !this.data.isEmpty();
     }
 
     boolean isFinished() {
@@ -213,9 +245,20 @@ class MergedResultSet extends ForwardingStructReader implements PartitionedQuery
     public void close() {}
   }
 
+  private static ExecutorService createExecutor(int numThreads) {
+    return Executors.newFixedThreadPool(
+        numThreads,
+        runnable -> {
+          Thread thread = new Thread(runnable);
+          thread.setName("partitioned-query-row-producer");
+          thread.setDaemon(true);
+          return thread;
+        });
+  }
+
   private static class RowProducerImpl implements RowProducer {
-    /** The maximum number of rows that we will cache per thread that is fetching rows. */
-    private static final int QUEUE_SIZE_PER_WORKER = 32;
+    /** The maximum number of blocks of rows that we will cache per thread that is fetching rows. */
+    private static final int QUEUE_SIZE_PER_WORKER = 4;
 
     private final ExecutorService executor;
     private final int parallelism;
@@ -225,6 +268,8 @@ class MergedResultSet extends ForwardingStructReader implements PartitionedQuery
     private ResultSetMetadata metadata;
     private final CountDownLatch metadataAvailableLatch = new CountDownLatch(1);
     private Type type;
+    private List<Struct> currentBlock;
+    private int currentIndex;
     private Struct currentRow;
     private Throwable exception;
 
@@ -238,15 +283,7 @@ class MergedResultSet extends ForwardingStructReader implements PartitionedQuery
       } else {
         this.parallelism = Math.min(partitions.size(), maxParallelism);
       }
-      this.executor =
-          Executors.newFixedThreadPool(
-              this.parallelism,
-              runnable -> {
-                Thread thread = new Thread(runnable);
-                thread.setName("partitioned-query-row-producer");
-                thread.setDaemon(true);
-                return thread;
-              });
+      this.executor = createExecutor(this.parallelism);
       this.queue = new LinkedBlockingDeque<>(QUEUE_SIZE_PER_WORKER * this.parallelism);
       this.partitionExecutors = new ArrayList<>(partitions.size());
       this.finishedCounter = new AtomicInteger(partitions.size());
@@ -275,6 +312,11 @@ class MergedResultSet extends ForwardingStructReader implements PartitionedQuery
       if (this.exception != null) {
         throw this.exception;
       }
+      if (currentBlock != null && ++currentIndex < currentBlock.size()) {
+        // Return the next row from the current block without touching the queue.
+        currentRow = currentBlock.get(currentIndex);
+        return true;
+      }
       while (true) {
         PartitionExecutorResult next;
         if ((next = queue.peek()) != null && !next.isFinished()) {
@@ -303,7 +345,11 @@ class MergedResultSet extends ForwardingStructReader implements PartitionedQuery
         this.exception = next.exception;
         throw next.exception;
       }
-      currentRow = next.data;
+      if (next.hasData()) {
+        currentBlock = next.data;
+        currentIndex = 0;
+        currentRow = currentBlock.get(0);
+      }
       if (this.metadata == null && next.metadata != null) {
         this.metadata = next.metadata;
       }
@@ -361,15 +407,380 @@ class MergedResultSet extends ForwardingStructReader implements PartitionedQuery
     }
   }
 
+  /**
+   * Fetches the rows of one partition for {@link OrderedRowProducer}. Each block of rows is fetched
+   * by a separate task on the executor of the row producer, so all partitions can make progress
+   * with fewer threads than partitions. At most one task per partition is scheduled at any time,
+   * and a partition fetches at most {@link OrderedRowProducer#QUEUE_SIZE_PER_PARTITION} blocks
+   * ahead of the merge.
+   */
+  private static final class PartitionFetcher implements Runnable {
+    private final Connection connection;
+    private final String partitionId;
+    private final ExecutorService executor;
+    private final Runnable onDone;
+    private final LinkedBlockingDeque<PartitionExecutorResult> queue = new LinkedBlockingDeque<>();
+
+    /**
+     * The result set of the partition. This is only accessed by the task that is running, or while
+     * holding the monitor of this fetcher when no task is running.
+     */
+    private ResultSet resultSet;
+
+    private boolean running;
+    private boolean done;
+
+    private PartitionFetcher(
+        Connection connection, String partitionId, ExecutorService executor, Runnable onDone) {
+      this.connection = Preconditions.checkNotNull(connection);
+      this.partitionId = Preconditions.checkNotNull(partitionId);
+      this.executor = executor;
+      this.onDone = onDone;
+    }
+
+    /** Schedules a task that fetches the next block of rows, unless one is already scheduled. */
+    private synchronized void schedule() {
+      if (!running && !done) {
+        running = true;
+        execute();
+      }
+    }
+
+    private void execute() {
+      try {
+        executor.execute(this);
+      } catch (RejectedExecutionException ignore) {
+        // The row producer has been closed.
+        running = false;
+      }
+    }
+
+    @Override
+    public void run() {
+      boolean finished = fetchBlock();
+      synchronized (this) {
+        if (finished) {
+          done = true;
+        }
+        if (!done && queue.size() < OrderedRowProducer.QUEUE_SIZE_PER_PARTITION) {
+          execute();
+        } else {
+          running = false;
+          if (done) {
+            closeResultSet();
+          }
+        }
+      }
+      if (finished) {
+        onDone.run();
+      }
+    }
+
+    /** Fetches the next block of rows. Returns true if the partition has no more results. */
+    private boolean fetchBlock() {
+      List<Struct> block = new ArrayList<>(MAX_ROWS_PER_BLOCK);
+      try {
+        boolean first = resultSet == null;
+        if (first) {
+          resultSet = connection.runPartition(partitionId);
+        }
+        boolean hasMore = true;
+        while (block.size() < MAX_ROWS_PER_BLOCK && (hasMore = resultSet.next())) {
+          block.add(resultSet.getCurrentRowAsStruct());
+        }
+        if (first) {
+          queue.add(
+              block.isEmpty()
+                  ? PartitionExecutorResult.typeAndMetadata(
+                      resultSet.getType(), resultSet.getMetadata())
+                  : PartitionExecutorResult.dataAndMetadata(
+                      block, resultSet.getType(), resultSet.getMetadata()));
+        } else if (!block.isEmpty()) {
+          queue.add(PartitionExecutorResult.data(block));
+        }
+        if (!hasMore) {
+          queue.add(PartitionExecutorResult.finished());
+          return true;
+        }
+        return false;
+      } catch (Throwable exception) {
+        // Push the rows that were received before the error, so these are returned before the
+        // error is thrown.
+        if (!block.isEmpty()) {
+          queue.add(PartitionExecutorResult.data(block));
+        }
+        queue.add(PartitionExecutorResult.exception(exception));
+        queue.add(PartitionExecutorResult.finished());
+        return true;
+      }
+    }
+
+    private synchronized void close() {
+      done = true;
+      if (!running) {
+        closeResultSet();
+      }
+    }
+
+    private void closeResultSet() {
+      if (resultSet != null) {
+        try {
+          resultSet.close();
+        } catch (Throwable ignore) {
+          // Closing the result set of a partition should not fail the merged result set.
+        }
+        resultSet = null;
+      }
+    }
+  }
+
+  /**
+   * A partition whose rows are merged by {@link OrderedRowProducer}. Keeps track of the block of
+   * rows that is currently being read from the partition.
+   */
+  private static final class PartitionCursor {
+    private final int partitionIndex;
+    private final PartitionFetcher fetcher;
+    private List<Struct> block;
+    private int index;
+    private Struct current;
+    private Type type;
+    private ResultSetMetadata metadata;
+
+    private PartitionCursor(int partitionIndex, PartitionFetcher fetcher) {
+      this.partitionIndex = partitionIndex;
+      this.fetcher = fetcher;
+    }
+
+    /** Moves to the next row of the partition. Returns false if there are no more rows. */
+    private boolean advance() throws Throwable {
+      if (block != null && ++index < block.size()) {
+        current = block.get(index);
+        return true;
+      }
+      while (true) {
+        PartitionExecutorResult result = fetcher.queue.take();
+        // Make room for the next block of this partition.
+        fetcher.schedule();
+        if (result.exception != null) {
+          throw result.exception;
+        }
+        if (result.isFinished()) {
+          block = null;
+          current = null;
+          return false;
+        }
+        if (type == null && result.type != null) {
+          type = result.type;
+          metadata = result.metadata;
+        }
+        if (result.hasData()) {
+          block = result.data;
+          index = 0;
+          current = block.get(0);
+          return true;
+        }
+      }
+    }
+  }
+
+  /**
+   * {@link RowProducer} that merges the rows of all partitions in the order of a {@link
+   * PartitionedQueryOrderBy} using a k-way merge over one buffer per partition. The merge needs the
+   * next row of each partition to determine the next row of the result, so all partitions are
+   * opened at the same time. The rows are fetched in blocks by tasks on a thread pool whose size is
+   * determined by maxParallelism in the same way as for unordered results. A partition that returns
+   * rows that are not in the specified order causes a {@link ErrorCode#FAILED_PRECONDITION} error.
+   */
+  private static class OrderedRowProducer implements RowProducer {
+    /** The maximum number of blocks of rows that we will cache per partition. */
+    private static final int QUEUE_SIZE_PER_PARTITION = 2;
+
+    private final ExecutorService executor;
+    private final int parallelism;
+    private final PartitionedQueryOrderBy orderBy;
+    private final List<PartitionFetcher> fetchers;
+    private final List<PartitionCursor> cursors;
+    private final AtomicInteger unfinishedCounter;
+    private Comparator<Struct> rowComparator;
+    private PriorityQueue<PartitionCursor> mergeQueue;
+    private PartitionCursor currentCursor;
+    private ResultSetMetadata metadata;
+    private Type type;
+    private Struct currentRow;
+    private Throwable exception;
+
+    OrderedRowProducer(
+        Connection connection,
+        List<String> partitions,
+        int maxParallelism,
+        PartitionedQueryOrderBy orderBy) {
+      Preconditions.checkArgument(maxParallelism >= 0, "maxParallelism must be >= 0");
+      Preconditions.checkArgument(
+          !Preconditions.checkNotNull(partitions).isEmpty(), "partitions must not be empty");
+      this.orderBy = Preconditions.checkNotNull(orderBy);
+      if (maxParallelism == 0) {
+        // Dynamically determine parallelism.
+        this.parallelism = Math.min(partitions.size(), Runtime.getRuntime().availableProcessors());
+      } else {
+        this.parallelism = Math.min(partitions.size(), maxParallelism);
+      }
+      this.executor = createExecutor(this.parallelism);
+      this.fetchers = new ArrayList<>(partitions.size());
+      this.cursors = new ArrayList<>(partitions.size());
+      this.unfinishedCounter = new AtomicInteger(partitions.size());
+      // Shutdown the executor when all partitions have been fetched, so the threads are also
+      // stopped if the user does not call ResultSet#close().
+      Runnable onDone =
+          () -> {
+            if (unfinishedCounter.decrementAndGet() == 0) {
+              executor.shutdown();
+            }
+          };
+      for (String partition : partitions) {
+        PartitionFetcher fetcher = new PartitionFetcher(connection, partition, executor, onDone);
+        this.fetchers.add(fetcher);
+        this.cursors.add(new PartitionCursor(this.cursors.size(), fetcher));
+      }
+      this.fetchers.forEach(PartitionFetcher::schedule);
+    }
+
+    @Override
+    public void close() {
+      this.fetchers.forEach(PartitionFetcher::close);
+      // shutdownNow will interrupt any running tasks and then shut down directly.
+      // This will also cancel any queries that might be running.
+      this.executor.shutdownNow();
+    }
+
+    /** Reads the first row of each partition and builds the merge queue. */
+    private void initialize() throws Throwable {
+      if (mergeQueue != null) {
+        return;
+      }
+      List<PartitionCursor> nonEmptyCursors = new ArrayList<>(cursors.size());
+      for (PartitionCursor cursor : cursors) {
+        if (cursor.advance()) {
+          nonEmptyCursors.add(cursor);
+        }
+        if (type == null && cursor.type != null) {
+          type = cursor.type;
+          metadata = cursor.metadata;
+        }
+      }
+      Comparator<Struct> comparator = orderBy.createComparator(type);
+      this.rowComparator = comparator;
+      PriorityQueue<PartitionCursor> queue =
+          new PriorityQueue<>(
+              Math.max(1, nonEmptyCursors.size()),
+              Comparator.<PartitionCursor, Struct>comparing(cursor -> cursor.current, comparator)
+                  .thenComparingInt(cursor -> cursor.partitionIndex));
+      queue.addAll(nonEmptyCursors);
+      this.mergeQueue = queue;
+    }
+
+    @Override
+    public boolean nextRow() throws Throwable {
+      if (this.exception != null) {
+        throw this.exception;
+      }
+      try {
+        initialize();
+        if (currentCursor != null) {
+          // The cursor that returned the previous row is moved to its next row and put back into
+          // the merge queue.
+          if (currentCursor.advance()) {
+            if (rowComparator.compare(currentRow, currentCursor.current) > 0) {
+              throw SpannerExceptionFactory.newSpannerException(
+                  ErrorCode.FAILED_PRECONDITION,
+                  "Partition "
+                      + currentCursor.partitionIndex
+                      + " returned rows that are not in the specified sort order. "
+                      + "Each partition must return its rows in the sort order of the merge.");
+            }
+            mergeQueue.add(currentCursor);
+          }
+          currentCursor = null;
+        }
+        currentCursor = mergeQueue.poll();
+        if (currentCursor == null) {
+          return false;
+        }
+        currentRow = currentCursor.current;
+        return true;
+      } catch (Throwable throwable) {
+        this.exception = throwable;
+        throw throwable;
+      }
+    }
+
+    @Override
+    public Struct get() {
+      checkState(currentRow != null, "next() call required");
+      return currentRow;
+    }
+
+    private void ensureInitialized() {
+      if (this.exception != null) {
+        throw SpannerExceptionFactory.asSpannerException(this.exception);
+      }
+      try {
+        initialize();
+      } catch (InterruptedException interruptedException) {
+        throw SpannerExceptionFactory.propagateInterrupt(interruptedException);
+      } catch (Throwable throwable) {
+        this.exception = throwable;
+        throw SpannerExceptionFactory.asSpannerException(throwable);
+      }
+    }
+
+    @Override
+    public ResultSetMetadata getMetadata() {
+      ensureInitialized();
+      return metadata;
+    }
+
+    @Override
+    public Type getType() {
+      ensureInitialized();
+      return type;
+    }
+
+    @Override
+    public int getNumPartitions() {
+      return fetchers.size();
+    }
+
+    @Override
+    public int getParallelism() {
+      return parallelism;
+    }
+  }
+
   private final RowProducer rowProducer;
 
   private boolean closed;
 
   MergedResultSet(Connection connection, List<String> partitions, int maxParallelism) {
+    this(connection, partitions, maxParallelism, null);
+  }
+
+  /**
+   * Creates a {@link MergedResultSet} for the given partitions. The rows are returned in the given
+   * sort order if orderBy is not null. The maxParallelism determines the number of threads that
+   * fetch rows in both cases.
+   */
+  MergedResultSet(
+      Connection connection,
+      List<String> partitions,
+      int maxParallelism,
+      PartitionedQueryOrderBy orderBy) {
     this(
         Preconditions.checkNotNull(partitions).isEmpty()
             ? new EmptyRowProducer()
-            : new RowProducerImpl(connection, partitions, maxParallelism));
+            : orderBy == null
+                ? new RowProducerImpl(connection, partitions, maxParallelism)
+                : new OrderedRowProducer(connection, partitions, maxParallelism, orderBy));
   }
 
   private MergedResultSet(RowProducer rowProducer) {
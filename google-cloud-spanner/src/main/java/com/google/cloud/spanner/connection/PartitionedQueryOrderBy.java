@@ -0,0 +1,271 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner.connection;
+
+import com.google.cloud.spanner.Dialect;
+import com.google.cloud.spanner.ErrorCode;
+import com.google.cloud.spanner.SpannerExceptionFactory;
+import com.google.cloud.spanner.Struct;
+import com.google.cloud.spanner.Type;
+import com.google.cloud.spanner.Type.StructField;
+import com.google.common.base.Preconditions;
+import com.google.common.base.Splitter;
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.UnsignedBytes;
+import java.math.BigDecimal;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The sort order that {@link MergedResultSet} preserves when it merges the results of the
+ * partitions of a partitioned query. The sort order is specified as a comma-separated list of
+ * column names, each optionally followed by <code>ASC</code> or <code>DESC</code> and by <code>
+ * NULLS FIRST</code> or <code>NULLS LAST</code>, for example <code>
+ * LastName ASC, FirstName DESC NULLS LAST</code>.
+ *
+ * <p>The comparator that is created for a sort order uses the same ordering as Cloud Spanner for
+ * the given dialect. NULL values are the smallest values in GoogleSQL and the largest values in
+ * PostgreSQL, unless an explicit <code>NULLS FIRST</code> or <code>NULLS LAST</code> is given.
+ */
+final class PartitionedQueryOrderBy {
+  private static final Splitter ITEM_SPLITTER = Splitter.on(',').trimResults();
+  private static final Splitter TOKEN_SPLITTER =
+      Splitter.onPattern("\\s+").trimResults().omitEmptyStrings();
+
+  private static final class OrderByColumn {
+    private final String name;
+    private final boolean quoted;
+    private final boolean descending;
+    private final boolean nullsFirst;
+
+    private OrderByColumn(String name, boolean quoted, boolean descending, boolean nullsFirst) {
+      this.name = name;
+      this.quoted = quoted;
+      this.descending = descending;
+      this.nullsFirst = nullsFirst;
+    }
+  }
+
+  private final Dialect dialect;
+  private final ImmutableList<OrderByColumn> columns;
+
+  /**
+   * Parses the given sort order for the given dialect. Returns null if the sort order is null or
+   * empty.
+   */
+  static PartitionedQueryOrderBy parse(String orderBy, Dialect dialect) {
+    if (Strings.isNullOrEmpty(orderBy) || orderBy.trim().isEmpty()) {
+      return null;
+    }
+    Dialect actualDialect = dialect == null ? Dialect.GOOGLE_STANDARD_SQL : dialect;
+    ImmutableList.Builder<OrderByColumn> builder = ImmutableList.builder();
+    for (String item : ITEM_SPLITTER.split(orderBy)) {
+      builder.add(parseColumn(item, actualDialect, orderBy));
+    }
+    return new PartitionedQueryOrderBy(actualDialect, builder.build());
+  }
+
+  private static OrderByColumn parseColumn(String item, Dialect dialect, String orderBy) {
+    List<String> tokens = TOKEN_SPLITTER.splitToList(item);
+    if (tokens.isEmpty() || tokens.size() > 4) {
+      throw invalidOrderBy(orderBy);
+    }
+    String name = tokens.get(0);
+    char quote = dialect == Dialect.POSTGRESQL ? '"' : '`';
+    boolean quoted =
+        name.length() > 1 && name.charAt(0) == quote && name.charAt(name.length() - 1) == quote;
+    if (quoted) {
+      name = name.substring(1, name.length() - 1);
+    }
+    int index = 1;
+    boolean descending = false;
+    if (tokens.size() > index) {
+      String direction = tokens.get(index).toUpperCase(Locale.ENGLISH);
+      if (direction.equals("DESC")) {
+        descending = true;
+        index++;
+      } else if (direction.equals("ASC")) {
+        index++;
+      }
+    }
+    // NULL is the smallest value in GoogleSQL and the largest value in PostgreSQL.
+    boolean nullsFirst = (dialect == Dialect.POSTGRESQL) == descending;
+    if (tokens.size() - index == 2) {
+      if (!tokens.get(index).equalsIgnoreCase("NULLS")) {
+        throw invalidOrderBy(orderBy);
+      }
+      String nulls = tokens.get(index + 1).toUpperCase(Locale.ENGLISH);
+      if (nulls.equals("FIRST")) {
+        nullsFirst = true;
+      } else if (nulls.equals("LAST")) {
+        nullsFirst = false;
+      } else {
+        throw invalidOrderBy(orderBy);
+      }
+    } else if (tokens.size() != index) {
+      throw invalidOrderBy(orderBy);
+    }
+    return new OrderByColumn(name, quoted, descending, nullsFirst);
+  }
+
+  private static RuntimeException invalidOrderBy(String orderBy) {
+    return SpannerExceptionFactory.newSpannerException(
+        ErrorCode.INVALID_ARGUMENT, "Invalid sort order for partitioned query: " + orderBy);
+  }
+
+  private PartitionedQueryOrderBy(Dialect dialect, ImmutableList<OrderByColumn> columns) {
+    this.dialect = Preconditions.checkNotNull(dialect);
+    this.columns = Preconditions.checkNotNull(columns);
+  }
+
+  /**
+   * Creates a comparator for rows of the given type. The columns in the sort order must all be
+   * present in the given row type, and must all have a type that can be compared.
+   */
+  Comparator<Struct> createComparator(Type rowType) {
+    Comparator<Struct> result = null;
+    for (OrderByColumn column : columns) {
+      int index = findColumn(rowType, column);
+      Comparator<Struct> columnComparator =
+          createColumnComparator(
+              index, rowType.getStructFields().get(index).getType(), column, dialect);
+      result = result == null ? columnComparator : result.thenComparing(columnComparator);
+    }
+    return result;
+  }
+
+  private static int findColumn(Type rowType, OrderByColumn column) {
+    List<StructField> fields = rowType.getStructFields();
+    int caseInsensitiveMatch = -1;
+    for (int index = 0; index < fields.size(); index++) {
+      String fieldName = fields.get(index).getName();
+      if (fieldName.equals(column.name)) {
+        return index;
+      }
+      if (!column.quoted && caseInsensitiveMatch == -1 && fieldName.equalsIgnoreCase(column.name)) {
+        caseInsensitiveMatch = index;
+      }
+    }
+    if (caseInsensitiveMatch > -1) {
+      return caseInsensitiveMatch;
+    }
+    throw SpannerExceptionFactory.newSpannerException(
+        ErrorCode.INVALID_ARGUMENT,
+        "The sort order column " + column.name + " is not in the result of the query");
+  }
+
+  private static Comparator<Struct> createColumnComparator(
+      int index, Type type, OrderByColumn column, Dialect dialect) {
+    Comparator<Struct> valueComparator = createValueComparator(index, type, column, dialect);
+    return (left, right) -> {
+      boolean leftNull = left.isNull(index);
+      boolean rightNull = right.isNull(index);
+      if (leftNull || rightNull) {
+        if (leftNull && rightNull) {
+          return 0;
+        }
+        return leftNull == column.nullsFirst ? -1 : 1;
+      }
+      int result = valueComparator.compare(left, right);
+      return column.descending ? -result : result;
+    };
+  }
+
+  private static Comparator<Struct> createValueComparator(
+      int index, Type type, OrderByColumn column, Dialect dialect) {
+    // NaN is the smallest floating point value in GoogleSQL and the largest in PostgreSQL.
+    boolean nanFirst = dialect == Dialect.GOOGLE_STANDARD_SQL;
+    switch (type.getCode()) {
+      case BOOL:
+        return (left, right) -> Boolean.compare(left.getBoolean(index), right.getBoolean(index));
+      case INT64:
+      case PG_OID:
+        return (left, right) -> Long.compare(left.getLong(index), right.getLong(index));
+      case FLOAT32:
+        return (left, right) ->
+            compareFloatingPoint(left.getFloat(index), right.getFloat(index), nanFirst);
+      case FLOAT64:
+        return (left, right) ->
+            compareFloatingPoint(left.getDouble(index), right.getDouble(index), nanFirst);
+      case STRING:
+        return (left, right) -> compareCodePoints(left.getString(index), right.getString(index));
+      case BYTES:
+        return (left, right) ->
+            UnsignedBytes.lexicographicalComparator()
+                .compare(
+                    left.getBytes(index).toByteArray(), right.getBytes(index).toByteArray());
+      case TIMESTAMP:
+        return (left, right) -> left.getTimestamp(index).compareTo(right.getTimestamp(index));
+      case DATE:
+        return (left, right) -> left.getDate(index).compareTo(right.getDate(index));
+      case NUMERIC:
+        return (left, right) -> left.getBigDecimal(index).compareTo(right.getBigDecimal(index));
+      case PG_NUMERIC:
+        return (left, right) ->
+            comparePgNumeric(left.getString(index), right.getString(index));
+      default:
+        throw SpannerExceptionFactory.newSpannerException(
+            ErrorCode.INVALID_ARGUMENT,
+            "Columns of type " + type + " cannot be used to sort a partitioned query: "
+                + column.name);
+    }
+  }
+
+  private static int compareFloatingPoint(double left, double right, boolean nanFirst) {
+    boolean leftNaN = Double.isNaN(left);
+    boolean rightNaN = Double.isNaN(right);
+    if (leftNaN || rightNaN) {
+      if (leftNaN && rightNaN) {
+        return 0;
+      }
+      return leftNaN == nanFirst ? -1 : 1;
+    }
+    // Do not use Double.compare, as that considers -0.0 to be smaller than 0.0.
+    return left < right ? -1 : (left > right ? 1 : 0);
+  }
+
+  /** Compares strings by Unicode code point, which is the same as comparing their UTF-8 bytes. */
+  private static int compareCodePoints(String left, String right) {
+    int leftIndex = 0;
+    int rightIndex = 0;
+    while (leftIndex < left.length() && rightIndex < right.length()) {
+      int leftCodePoint = left.codePointAt(leftIndex);
+      int rightCodePoint = right.codePointAt(rightIndex);
+      if (leftCodePoint != rightCodePoint) {
+        return Integer.compare(leftCodePoint, rightCodePoint);
+      }
+      leftIndex += Character.charCount(leftCodePoint);
+      rightIndex += Character.charCount(rightCodePoint);
+    }
+    return Integer.compare(left.length() - leftIndex, right.length() - rightIndex);
+  }
+
+  private static int comparePgNumeric(String left, String right) {
+    boolean leftNaN = "NaN".equals(left);
+    boolean rightNaN = "NaN".equals(right);
+    if (leftNaN || rightNaN) {
+      if (leftNaN && rightNaN) {
+        return 0;
+      }
+      // NaN is larger than any other value in PostgreSQL.
+      return leftNaN ? 1 : -1;
+    }
+    return new BigDecimal(left).compareTo(new BigDecimal(right));
+  }
+}
@@ -151,6 +151,7 @@ class ReadWriteTransaction extends AbstractMultiUseTransaction {
   private final long keepAliveIntervalMillis;
   private final ReentrantLock keepAliveLock;
   private final SavepointSupport savepointSupport;
+  private final ChecksumAlgorithm checksumAlgorithm;
   private int transactionRetryAttempts;
   private int successfulRetries;
   private volatile ApiFuture<TransactionContext> txContextFuture;
@@ -202,6 +203,7 @@ class ReadWriteTransaction extends AbstractMultiUseTransaction {
     private boolean returnCommitStats;
     private Duration maxCommitDelay;
     private SavepointSupport savepointSupport;
+    private ChecksumAlgorithm checksumAlgorithm = ChecksumAlgorithm.MURMUR3_128;
 
     private Builder() {}
 
@@ -251,6 +253,11 @@ class ReadWriteTransaction extends AbstractMultiUseTransaction {
       return this;
     }
 
+    Builder setChecksumAlgorithm(ChecksumAlgorithm checksumAlgorithm) {
+      this.checksumAlgorithm = Preconditions.checkNotNull(checksumAlgorithm);
+      return this;
+    }
+
     @Override
     ReadWriteTransaction build() {
       Preconditions.checkState(dbClient != null, "No DatabaseClient client specified");
@@ -293,6 +300,7 @@ class ReadWriteTransaction extends AbstractMultiUseTransaction {
     this.keepAliveLock = this.keepTransactionAlive ? new ReentrantLock() : null;
     this.retryAbortsInternally = builder.retryAbortsInternally;
     this.savepointSupport = builder.savepointSupport;
+    this.checksumAlgorithm = builder.checksumAlgorithm;
     this.transactionOptions = extractOptions(builder);
   }
 
@@ -1340,6 +1348,7 @@ class ReadWriteTransaction extends AbstractMultiUseTransaction {
       ParsedStatement statement,
       AnalyzeMode analyzeMode,
       QueryOption... options) {
-    return new ChecksumResultSet(this, delegate, statement, analyzeMode, options);
+    return new ChecksumResultSet(
+        this, delegate, statement, analyzeMode, checksumAlgorithm, options);
   }
 }
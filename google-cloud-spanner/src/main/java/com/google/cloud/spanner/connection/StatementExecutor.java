@@ -30,19 +30,27 @@ import com.google.common.util.concurrent.MoreExecutors;
 import com.google.protobuf.Duration;
 import io.opentelemetry.context.Context;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
 import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import javax.annotation.concurrent.GuardedBy;
 
 /**
  * {@link StatementExecutor} is responsible for executing statements on a {@link Connection}.
- * Statements are executed using a separate executor to allow timeouts and cancellation of
- * statements.
+ * Statements are by default executed using a separate executor to allow timeouts and cancellation
+ * of statements. See {@link StatementExecutorType} for the other types of executors that can be
+ * used.
  */
 class StatementExecutor {
 
@@ -145,19 +153,198 @@ class StatementExecutor {
   private static final ThreadFactory DEFAULT_DAEMON_THREAD_FACTORY =
       ThreadFactoryUtil.createVirtualOrPlatformDaemonThreadFactory("connection-executor", false);
 
+  /**
+   * The default maximum number of threads in the pool that is shared by all connections that use
+   * {@link StatementExecutorType#SHARED_POOL}.
+   */
+  private static final int DEFAULT_SHARED_EXECUTOR_MAX_THREADS =
+      Math.max(16, 4 * Runtime.getRuntime().availableProcessors());
+
+  /** Lazily creates the thread pool that is shared by all connections. */
+  private static final class SharedExecutorHolder {
+    private static final ThreadPoolExecutor SHARED_EXECUTOR = createSharedExecutor();
+
+    private static ThreadPoolExecutor createSharedExecutor() {
+      int maxThreads =
+          Math.max(
+              1,
+              Integer.getInteger(
+                  "spanner.connection.shared_executor_max_threads",
+                  DEFAULT_SHARED_EXECUTOR_MAX_THREADS));
+      ThreadPoolExecutor executor =
+          new ThreadPoolExecutor(
+              maxThreads,
+              maxThreads,
+              60L,
+              TimeUnit.SECONDS,
+              new LinkedBlockingQueue<>(),
+              ThreadFactoryUtil.createVirtualOrPlatformDaemonThreadFactory(
+                  "connection-shared-executor", false));
+      // Let idle threads die, so an application that no longer executes any statements does not
+      // keep the threads alive.
+      executor.allowCoreThreadTimeOut(true);
+      return executor;
+    }
+  }
+
+  @VisibleForTesting
+  static ThreadPoolExecutor getSharedExecutor() {
+    return SharedExecutorHolder.SHARED_EXECUTOR;
+  }
+
   /** Creates an {@link ExecutorService} for a {@link StatementExecutor}. */
-  private static ListeningExecutorService createExecutorService(boolean useVirtualThreads) {
-    return MoreExecutors.listeningDecorator(
-        Context.taskWrapping(
+  private static ListeningExecutorService createExecutorService(
+      StatementExecutorType type, boolean useVirtualThreads) {
+    ExecutorService executor;
+    switch (type) {
+      case SHARED_POOL:
+        executor = new SequentialExecutorService(SharedExecutorHolder.SHARED_EXECUTOR);
+        break;
+      case DIRECT:
+        executor = MoreExecutors.newDirectExecutorService();
+        break;
+      case DEDICATED_THREAD:
+      default:
+        executor =
             new ThreadPoolExecutor(
                 1,
                 1,
                 0L,
                 TimeUnit.MILLISECONDS,
                 new LinkedBlockingQueue<>(),
-                useVirtualThreads
-                    ? DEFAULT_VIRTUAL_THREAD_FACTORY
-                    : DEFAULT_DAEMON_THREAD_FACTORY)));
+                useVirtualThreads ? DEFAULT_VIRTUAL_THREAD_FACTORY : DEFAULT_DAEMON_THREAD_FACTORY);
+        break;
+    }
+    return MoreExecutors.listeningDecorator(Context.taskWrapping(executor));
+  }
+
+  /**
+   * {@link ExecutorService} that executes the tasks of one connection in order on a thread pool
+   * that is shared with other connections. At most one task of the connection is executed at any
+   * time, and the connection only occupies a thread of the pool while it has tasks to execute.
+   * {@link #shutdownNow()} interrupts the task that is currently being executed, in the same way
+   * as for a dedicated thread.
+   */
+  @VisibleForTesting
+  static final class SequentialExecutorService extends AbstractExecutorService {
+    private final Executor delegate;
+    private final Object lock = new Object();
+
+    @GuardedBy("lock")
+    private final Deque<Runnable> queue = new ArrayDeque<>();
+
+    @GuardedBy("lock")
+    private boolean draining;
+
+    @GuardedBy("lock")
+    private boolean shutdown;
+
+    @GuardedBy("lock")
+    private Thread runningThread;
+
+    SequentialExecutorService(Executor delegate) {
+      this.delegate = Preconditions.checkNotNull(delegate);
+    }
+
+    @Override
+    public void execute(Runnable command) {
+      Preconditions.checkNotNull(command);
+      synchronized (lock) {
+        if (shutdown) {
+          throw new RejectedExecutionException("This executor has been shut down");
+        }
+        queue.add(command);
+        if (draining) {
+          return;
+        }
+        draining = true;
+      }
+      try {
+        delegate.execute(this::drain);
+      } catch (RejectedExecutionException e) {
+        synchronized (lock) {
+          draining = false;
+          queue.remove(command);
+          lock.notifyAll();
+        }
+        throw e;
+      }
+    }
+
+    private void drain() {
+      while (true) {
+        Runnable task;
+        synchronized (lock) {
+          task = queue.poll();
+          if (task == null) {
+            draining = false;
+            lock.notifyAll();
+            return;
+          }
+          runningThread = Thread.currentThread();
+        }
+        try {
+          task.run();
+        } finally {
+          synchronized (lock) {
+            runningThread = null;
+          }
+          // Clear any interrupt from shutdownNow(), as the thread is returned to the shared pool.
+          Thread.interrupted();
+        }
+      }
+    }
+
+    @Override
+    public void shutdown() {
+      synchronized (lock) {
+        shutdown = true;
+        lock.notifyAll();
+      }
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+      synchronized (lock) {
+        shutdown = true;
+        List<Runnable> pending = new ArrayList<>(queue);
+        queue.clear();
+        if (runningThread != null) {
+          runningThread.interrupt();
+        }
+        lock.notifyAll();
+        return pending;
+      }
+    }
+
+    @Override
+    public boolean isShutdown() {
+      synchronized (lock) {
+        return shutdown;
+      }
+    }
+
+    @Override
+    public boolean isTerminated() {
+      synchronized (lock) {
+        return shutdown && !draining;
+      }
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+      long deadline = System.nanoTime() + unit.toNanos(timeout);
+      synchronized (lock) {
+        while (!(shutdown && !draining)) {
+          long remaining = deadline - System.nanoTime();
+          if (remaining <= 0L) {
+            return false;
+          }
+          TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+        }
+        return true;
+      }
+    }
   }
 
   private final ListeningExecutorService executor;
@@ -174,7 +361,14 @@ class StatementExecutor {
   }
 
   StatementExecutor(boolean useVirtualThreads, List<StatementExecutionInterceptor> interceptors) {
-    this.executor = createExecutorService(useVirtualThreads);
+    this(StatementExecutorType.DEDICATED_THREAD, useVirtualThreads, interceptors);
+  }
+
+  StatementExecutor(
+      StatementExecutorType type,
+      boolean useVirtualThreads,
+      List<StatementExecutionInterceptor> interceptors) {
+    this.executor = createExecutorService(Preconditions.checkNotNull(type), useVirtualThreads);
     this.interceptors = Collections.unmodifiableList(interceptors);
   }
 
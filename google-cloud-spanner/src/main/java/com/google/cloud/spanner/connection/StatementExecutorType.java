@@ -0,0 +1,46 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner.connection;
+
+/**
+ * Option value used for determining how a {@link Connection} executes statements. Statements on a
+ * single connection are always executed in the order in which they were submitted, regardless of
+ * the type of executor.
+ */
+public enum StatementExecutorType {
+  /**
+   * Each connection has its own thread that executes all statements on that connection. The thread
+   * is a virtual thread if useVirtualThreads has been enabled and the application is running on
+   * Java 21 or higher. This is the default.
+   */
+  DEDICATED_THREAD,
+  /**
+   * All connections share one bounded pool of daemon threads. A connection only uses a thread from
+   * the pool while it is executing a statement, which reduces the number of threads for
+   * applications that use many connections that are mostly idle. The maximum number of threads in
+   * the pool can be set with the System property
+   * spanner.connection.shared_executor_max_threads. Statements are queued if all threads are busy.
+   */
+  SHARED_POOL,
+  /**
+   * Statements are executed directly on the thread that submits them. This removes the thread
+   * handoff for each statement and does not create any threads for connections. Asynchronous
+   * methods block until the statement has been executed, and {@link Connection#cancel()} cannot
+   * cancel a statement that is being executed. Statement timeouts are still applied.
+   */
+  DIRECT,
+}
@@ -46,6 +46,7 @@ import com.google.api.gax.rpc.InstantiatingWatchdogProvider;
 import com.google.api.gax.rpc.OperationCallable;
 import com.google.api.gax.rpc.ResponseObserver;
 import com.google.api.gax.rpc.ServerStream;
+import com.google.api.gax.rpc.ServerStreamingCallable;
 import com.google.api.gax.rpc.StatusCode;
 import com.google.api.gax.rpc.StatusCode.Code;
 import com.google.api.gax.rpc.StreamController;
@@ -1774,6 +1775,26 @@ public class GapicSpannerRpc implements SpannerRpc {
     return partitionedDmlStub.executeStreamingSqlCallable().call(request, context);
   }
 
+  @Override
+  public StreamingCall executeStreamingPartitionedDml(
+      ExecuteSqlRequest request,
+      ResultStreamConsumer consumer,
+      @Nullable Map<Option, ?> options,
+      Duration timeout) {
+    GrpcCallContext context =
+        newCallContext(
+            options,
+            request.getSession(),
+            request,
+            SpannerGrpc.getExecuteStreamingSqlMethod(),
+            true);
+    // Override any timeout settings that might have been set on the call context.
+    context = context.withTimeoutDuration(timeout).withStreamWaitTimeoutDuration(timeout);
+    SpannerResponseObserver responseObserver = new SpannerResponseObserver(consumer);
+    partitionedDmlStub.executeStreamingSqlCallable().call(request, responseObserver, context);
+    return new GrpcStreamingCall(context, responseObserver.getController());
+  }
+
   @Override
   public ServerStream<BatchWriteResponse> batchWriteAtLeastOnce(
       BatchWriteRequest request, @Nullable Map<Option, ?> options) {
@@ -1782,6 +1803,27 @@ public class GapicSpannerRpc implements SpannerRpc {
     return spannerStub.batchWriteCallable().call(request, context);
   }
 
+  @Override
+  public ServerStream<BatchWriteResponse> batchWriteAtLeastOnce(
+      BatchWriteRequest request, @Nullable Map<Option, ?> options, Runnable onStreamDone) {
+    GrpcCallContext context =
+        newCallContext(options, request.getSession(), request, SpannerGrpc.getBatchWriteMethod());
+    ServerStreamingCallable<BatchWriteRequest, BatchWriteResponse> callable =
+        spannerStub.batchWriteCallable();
+    return new ServerStreamingCallable<BatchWriteRequest, BatchWriteResponse>() {
+      @Override
+      public void call(
+          BatchWriteRequest batchWriteRequest,
+          ResponseObserver<BatchWriteResponse> responseObserver,
+          ApiCallContext callContext) {
+        callable.call(
+            batchWriteRequest,
+            new StreamDoneObserver<>(responseObserver, onStreamDone),
+            callContext);
+      }
+    }.call(request, context);
+  }
+
   @Override
   public StreamingCall executeQuery(
       ExecuteSqlRequest request,
@@ -2205,6 +2247,50 @@ public class GapicSpannerRpc implements SpannerRpc {
     }
   }
 
+  /**
+   * {@link ResponseObserver} that forwards all events to a delegate and runs a callback when the
+   * stream has completed or failed. The callback runs before the delegate is notified, so a
+   * consumer that sees the end of the stream also sees the effects of the callback. A cancelled
+   * stream fails with a cancellation error.
+   */
+  private static class StreamDoneObserver<T> implements ResponseObserver<T> {
+    private final ResponseObserver<T> delegate;
+    private final Runnable onStreamDone;
+
+    StreamDoneObserver(ResponseObserver<T> delegate, Runnable onStreamDone) {
+      this.delegate = delegate;
+      this.onStreamDone = onStreamDone;
+    }
+
+    @Override
+    public void onStart(StreamController controller) {
+      delegate.onStart(controller);
+    }
+
+    @Override
+    public void onResponse(T response) {
+      delegate.onResponse(response);
+    }
+
+    @Override
+    public void onError(Throwable t) {
+      try {
+        onStreamDone.run();
+      } finally {
+        delegate.onError(t);
+      }
+    }
+
+    @Override
+    public void onComplete() {
+      try {
+        onStreamDone.run();
+      } finally {
+        delegate.onComplete();
+      }
+    }
+  }
+
   private static Duration systemProperty(String name, int defaultValue) {
     String stringValue = System.getProperty(name, "");
     return Duration.ofSeconds(stringValue.isEmpty() ? defaultValue : Integer.parseInt(stringValue));
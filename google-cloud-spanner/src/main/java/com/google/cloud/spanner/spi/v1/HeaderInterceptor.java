@@ -26,11 +26,10 @@ import static com.google.cloud.spanner.spi.v1.SpannerRpcViews.SPANNER_GFE_LATENC
 import com.google.api.gax.tracing.ApiTracer;
 import com.google.cloud.spanner.BuiltInMetricsConstant;
 import com.google.cloud.spanner.CompositeTracer;
-import com.google.cloud.spanner.SpannerExceptionFactory;
 import com.google.cloud.spanner.SpannerRpcMetrics;
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Supplier;
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableMap;
 import com.google.spanner.admin.database.v1.DatabaseName;
 import io.grpc.CallOptions;
 import io.grpc.Channel;
@@ -54,9 +53,9 @@ import io.opentelemetry.api.trace.Span;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
-import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
@@ -77,14 +76,15 @@ class HeaderInterceptor implements ClientInterceptor {
   private static final Pattern GOOGLE_CLOUD_RESOURCE_PREFIX_PATTERN =
       Pattern.compile(
           ".*projects/(?<project>\\p{ASCII}[^/]*)(/instances/(?<instance>\\p{ASCII}[^/]*))?(/databases/(?<database>\\p{ASCII}[^/]*))?");
-  private final Cache<String, DatabaseName> databaseNameCache =
-      CacheBuilder.newBuilder().maximumSize(100).build();
-  private final Cache<String, TagContext> tagsCache =
-      CacheBuilder.newBuilder().maximumSize(1000).build();
-  private final Cache<String, Attributes> attributesCache =
-      CacheBuilder.newBuilder().maximumSize(1000).build();
-  private final Cache<String, Map<String, String>> builtInAttributesCache =
-      CacheBuilder.newBuilder().maximumSize(1000).build();
+
+  /** The maximum number of databases for which the metrics of a method are cached. */
+  private static final int MAX_CACHED_DATABASES_PER_METHOD = 100;
+
+  /**
+   * The metrics of all methods that have been called through this interceptor, indexed by the full
+   * name of the method. The number of methods is bounded by the Spanner API.
+   */
+  private final ConcurrentMap<String, MethodMetricsTable> methodMetrics = new ConcurrentHashMap<>();
 
   // Get the global singleton Tagger object.
   private static final Tagger TAGGER = Tags.getTagger();
@@ -96,6 +96,95 @@ class HeaderInterceptor implements ClientInterceptor {
 
   private final Supplier<Boolean> directPathEnabledSupplier;
 
+  /**
+   * The tags and attributes that are used to record the metrics of one method on one database.
+   * These are resolved once per combination of method and database, so recording the metrics of an
+   * RPC does not need to build any tags, attributes or cache keys.
+   */
+  private static final class MethodMetrics {
+    private final TagContext tagContext;
+    private final Attributes attributes;
+    private final Map<String, String> builtInAttributesWithDirectPath;
+    private final Map<String, String> builtInAttributesWithoutDirectPath;
+
+    private MethodMetrics(String method, DatabaseName databaseName, boolean directPathEnabled) {
+      this.tagContext =
+          TAGGER
+              .currentBuilder()
+              .putLocal(PROJECT_ID, TagValue.create(databaseName.getProject()))
+              .putLocal(INSTANCE_ID, TagValue.create(databaseName.getInstance()))
+              .putLocal(DATABASE_ID, TagValue.create(databaseName.getDatabase()))
+              .putLocal(METHOD, TagValue.create(method))
+              .build();
+      AttributesBuilder attributesBuilder = Attributes.builder();
+      attributesBuilder.put("database", databaseName.getDatabase());
+      attributesBuilder.put("instance_id", databaseName.getInstance());
+      attributesBuilder.put("project_id", databaseName.getProject());
+      attributesBuilder.put("method", method);
+      this.attributes = attributesBuilder.build();
+      this.builtInAttributesWithDirectPath =
+          createBuiltInMetricAttributes(databaseName, directPathEnabled, true);
+      this.builtInAttributesWithoutDirectPath =
+          createBuiltInMetricAttributes(databaseName, directPathEnabled, false);
+    }
+
+    private static Map<String, String> createBuiltInMetricAttributes(
+        DatabaseName databaseName, boolean directPathEnabled, boolean directPathUsed) {
+      return ImmutableMap.of(
+          BuiltInMetricsConstant.DATABASE_KEY.getKey(),
+          databaseName.getDatabase(),
+          BuiltInMetricsConstant.INSTANCE_ID_KEY.getKey(),
+          databaseName.getInstance(),
+          BuiltInMetricsConstant.DIRECT_PATH_ENABLED_KEY.getKey(),
+          String.valueOf(directPathEnabled),
+          BuiltInMetricsConstant.DIRECT_PATH_USED_KEY.getKey(),
+          String.valueOf(directPathUsed));
+    }
+
+    private Map<String, String> getBuiltInMetricAttributes(boolean directPathUsed) {
+      return directPathUsed ? builtInAttributesWithDirectPath : builtInAttributesWithoutDirectPath;
+    }
+  }
+
+  /** The {@link MethodMetrics} of one method for all databases. */
+  private final class MethodMetricsTable {
+    private final String method;
+    private final ConcurrentMap<String, MethodMetrics> databaseMetrics = new ConcurrentHashMap<>();
+    private volatile MethodMetrics undefinedDatabaseMetrics;
+
+    private MethodMetricsTable(String method) {
+      this.method = method;
+    }
+
+    private MethodMetrics get(String googleResourcePrefix) {
+      if (googleResourcePrefix == null) {
+        MethodMetrics metrics = undefinedDatabaseMetrics;
+        if (metrics == null) {
+          metrics = createMethodMetrics(UNDEFINED_DATABASE_NAME);
+          undefinedDatabaseMetrics = metrics;
+        }
+        return metrics;
+      }
+      MethodMetrics metrics = databaseMetrics.get(googleResourcePrefix);
+      if (metrics == null) {
+        metrics = createMethodMetrics(parseDatabaseName(googleResourcePrefix));
+        // Only cache a bounded number of databases. The metrics for any additional databases are
+        // computed for each RPC.
+        if (databaseMetrics.size() < MAX_CACHED_DATABASES_PER_METHOD) {
+          MethodMetrics existing = databaseMetrics.putIfAbsent(googleResourcePrefix, metrics);
+          if (existing != null) {
+            metrics = existing;
+          }
+        }
+      }
+      return metrics;
+    }
+
+    private MethodMetrics createMethodMetrics(DatabaseName databaseName) {
+      return new MethodMetrics(method, databaseName, directPathEnabledSupplier.get());
+    }
+  }
+
   HeaderInterceptor(
       SpannerRpcMetrics spannerRpcMetrics, Supplier<Boolean> directPathEnabledSupplier) {
     this.spannerRpcMetrics = spannerRpcMetrics;
@@ -111,147 +200,102 @@ class HeaderInterceptor implements ClientInterceptor {
     return new SimpleForwardingClientCall<ReqT, RespT>(next.newCall(method, callOptions)) {
       @Override
       public void start(Listener<RespT> responseListener, Metadata headers) {
-        try {
-          Span span = Span.current();
-          DatabaseName databaseName = extractDatabaseName(headers);
-          String key = databaseName + method.getFullMethodName();
-          TagContext tagContext = getTagContext(key, method.getFullMethodName(), databaseName);
-          Attributes attributes =
-              getMetricAttributes(key, method.getFullMethodName(), databaseName);
-          Map<String, String> builtInMetricsAttributes =
-              getBuiltInMetricAttributes(key, databaseName);
-          super.start(
-              new SimpleForwardingClientCallListener<RespT>(responseListener) {
-                @Override
-                public void onHeaders(Metadata metadata) {
-                  Boolean isDirectPathUsed =
+        Span span = Span.current();
+        MethodMetrics metrics =
+            getMethodMetrics(
+                method.getFullMethodName(), headers.get(GOOGLE_CLOUD_RESOURCE_PREFIX_KEY));
+        super.start(
+            new SimpleForwardingClientCallListener<RespT>(responseListener) {
+              @Override
+              public void onHeaders(Metadata metadata) {
+                if (compositeTracer != null) {
+                  boolean isDirectPathUsed =
                       isDirectPathUsed(getAttributes().get(Grpc.TRANSPORT_ATTR_REMOTE_ADDR));
-                  addBuiltInMetricAttributes(
-                      compositeTracer, builtInMetricsAttributes, isDirectPathUsed);
-                  processHeader(metadata, tagContext, attributes, span);
-                  super.onHeaders(metadata);
+                  compositeTracer.addAttributes(
+                      metrics.getBuiltInMetricAttributes(isDirectPathUsed));
                 }
-              },
-              headers);
-        } catch (ExecutionException executionException) {
-          // This should never happen,
-          throw SpannerExceptionFactory.asSpannerException(executionException.getCause());
-        }
+                processHeader(metadata, metrics, span);
+                super.onHeaders(metadata);
+              }
+            },
+            headers);
       }
     };
   }
 
-  private void processHeader(
-      Metadata metadata, TagContext tagContext, Attributes attributes, Span span) {
+  private MethodMetrics getMethodMetrics(String method, String googleResourcePrefix) {
+    MethodMetricsTable table = methodMetrics.get(method);
+    if (table == null) {
+      table = methodMetrics.computeIfAbsent(method, MethodMetricsTable::new);
+    }
+    return table.get(googleResourcePrefix);
+  }
+
+  private void processHeader(Metadata metadata, MethodMetrics metrics, Span span) {
     MeasureMap measureMap = STATS_RECORDER.newMeasureMap();
     String serverTiming = metadata.get(SERVER_TIMING_HEADER_KEY);
     if (serverTiming != null && serverTiming.startsWith(SERVER_TIMING_HEADER_PREFIX)) {
-      try {
-        long latency = Long.parseLong(serverTiming.substring(SERVER_TIMING_HEADER_PREFIX.length()));
+      long latency = parseGfeLatency(serverTiming);
+      if (latency >= 0L) {
         measureMap.put(SPANNER_GFE_LATENCY, latency);
         measureMap.put(SPANNER_GFE_HEADER_MISSING_COUNT, 0L);
-        measureMap.record(tagContext);
+        measureMap.record(metrics.tagContext);
 
-        spannerRpcMetrics.recordGfeLatency(latency, attributes);
-        spannerRpcMetrics.recordGfeHeaderMissingCount(0L, attributes);
+        spannerRpcMetrics.recordGfeLatency(latency, metrics.attributes);
+        spannerRpcMetrics.recordGfeHeaderMissingCount(0L, metrics.attributes);
 
-        if (span != null) {
+        if (span != null && span.isRecording()) {
           span.setAttribute("gfe_latency", String.valueOf(latency));
         }
-      } catch (NumberFormatException e) {
+      } else {
         LOGGER.log(LEVEL, "Invalid server-timing object in header: {}", serverTiming);
       }
     } else {
-      spannerRpcMetrics.recordGfeHeaderMissingCount(1L, attributes);
-      measureMap.put(SPANNER_GFE_HEADER_MISSING_COUNT, 1L).record(tagContext);
+      spannerRpcMetrics.recordGfeHeaderMissingCount(1L, metrics.attributes);
+      measureMap.put(SPANNER_GFE_HEADER_MISSING_COUNT, 1L).record(metrics.tagContext);
     }
   }
 
-  private DatabaseName extractDatabaseName(Metadata headers) throws ExecutionException {
-    String googleResourcePrefix = headers.get(GOOGLE_CLOUD_RESOURCE_PREFIX_KEY);
-    if (googleResourcePrefix != null) {
-      return databaseNameCache.get(
-          googleResourcePrefix,
-          () -> {
-            String projectId = "undefined-project";
-            String instanceId = "undefined-database";
-            String databaseId = "undefined-database";
-            Matcher matcher = GOOGLE_CLOUD_RESOURCE_PREFIX_PATTERN.matcher(googleResourcePrefix);
-            if (matcher.find()) {
-              projectId = matcher.group("project");
-              if (matcher.group("instance") != null) {
-                instanceId = matcher.group("instance");
-              }
-              if (matcher.group("database") != null) {
-                databaseId = matcher.group("database");
-              }
-            } else {
-              LOGGER.log(
-                  LEVEL, "Error parsing google cloud resource header: " + googleResourcePrefix);
-            }
-            return DatabaseName.of(projectId, instanceId, databaseId);
-          });
+  /**
+   * Parses the latency in a server-timing header in the format 'gfet4t7; dur=[milliseconds]'. The
+   * latency is parsed directly from the header value, without creating a substring. Returns -1 if
+   * the header value does not contain a valid latency.
+   */
+  @VisibleForTesting
+  static long parseGfeLatency(String serverTiming) {
+    int length = serverTiming.length();
+    if (!serverTiming.startsWith(SERVER_TIMING_HEADER_PREFIX)
+        || length == SERVER_TIMING_HEADER_PREFIX.length()) {
+      return -1L;
     }
-    return UNDEFINED_DATABASE_NAME;
-  }
-
-  private TagContext getTagContext(String key, String method, DatabaseName databaseName)
-      throws ExecutionException {
-    return tagsCache.get(
-        key,
-        () ->
-            TAGGER
-                .currentBuilder()
-                .putLocal(PROJECT_ID, TagValue.create(databaseName.getProject()))
-                .putLocal(INSTANCE_ID, TagValue.create(databaseName.getInstance()))
-                .putLocal(DATABASE_ID, TagValue.create(databaseName.getDatabase()))
-                .putLocal(METHOD, TagValue.create(method))
-                .build());
-  }
-
-  private Attributes getMetricAttributes(String key, String method, DatabaseName databaseName)
-      throws ExecutionException {
-    return attributesCache.get(
-        key,
-        () -> {
-          AttributesBuilder attributesBuilder = Attributes.builder();
-          attributesBuilder.put("database", databaseName.getDatabase());
-          attributesBuilder.put("instance_id", databaseName.getInstance());
-          attributesBuilder.put("project_id", databaseName.getProject());
-          attributesBuilder.put("method", method);
-
-          return attributesBuilder.build();
-        });
-  }
-
-  private Map<String, String> getBuiltInMetricAttributes(String key, DatabaseName databaseName)
-      throws ExecutionException {
-    return builtInAttributesCache.get(
-        key,
-        () -> {
-          Map<String, String> attributes = new HashMap<>();
-          attributes.put(BuiltInMetricsConstant.DATABASE_KEY.getKey(), databaseName.getDatabase());
-          attributes.put(
-              BuiltInMetricsConstant.INSTANCE_ID_KEY.getKey(), databaseName.getInstance());
-          attributes.put(
-              BuiltInMetricsConstant.DIRECT_PATH_ENABLED_KEY.getKey(),
-              String.valueOf(this.directPathEnabledSupplier.get()));
-          return attributes;
-        });
+    long latency = 0L;
+    for (int i = SERVER_TIMING_HEADER_PREFIX.length(); i < length; i++) {
+      int digit = serverTiming.charAt(i) - '0';
+      if (digit < 0 || digit > 9 || latency > (Long.MAX_VALUE - digit) / 10) {
+        return -1L;
+      }
+      latency = latency * 10 + digit;
+    }
+    return latency;
   }
 
-  private void addBuiltInMetricAttributes(
-      CompositeTracer compositeTracer,
-      Map<String, String> builtInMetricsAttributes,
-      Boolean isDirectPathUsed) {
-    if (compositeTracer != null) {
-      // Direct Path used attribute
-      Map<String, String> attributes = new HashMap<>(builtInMetricsAttributes);
-      attributes.put(
-          BuiltInMetricsConstant.DIRECT_PATH_USED_KEY.getKey(), Boolean.toString(isDirectPathUsed));
-
-      compositeTracer.addAttributes(attributes);
+  private static DatabaseName parseDatabaseName(String googleResourcePrefix) {
+    String projectId = "undefined-project";
+    String instanceId = "undefined-database";
+    String databaseId = "undefined-database";
+    Matcher matcher = GOOGLE_CLOUD_RESOURCE_PREFIX_PATTERN.matcher(googleResourcePrefix);
+    if (matcher.find()) {
+      projectId = matcher.group("project");
+      if (matcher.group("instance") != null) {
+        instanceId = matcher.group("instance");
+      }
+      if (matcher.group("database") != null) {
+        databaseId = matcher.group("database");
+      }
+    } else {
+      LOGGER.log(LEVEL, "Error parsing google cloud resource header: " + googleResourcePrefix);
     }
+    return DatabaseName.of(projectId, instanceId, databaseId);
   }
 
   private Boolean isDirectPathUsed(SocketAddress remoteAddr) {
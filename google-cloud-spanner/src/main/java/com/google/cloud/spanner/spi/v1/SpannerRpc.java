@@ -428,9 +428,31 @@ public interface SpannerRpc extends ServiceRpc {
   ServerStream<PartialResultSet> executeStreamingPartitionedDml(
       ExecuteSqlRequest request, @Nullable Map<Option, ?> options, Duration timeout);
 
+  /**
+   * Executes a Partitioned DML statement with streaming result without blocking the calling
+   * thread. The results are delivered to the given consumer. The given timeout overrides any
+   * timeout that has been set for the call.
+   */
+  default StreamingCall executeStreamingPartitionedDml(
+      ExecuteSqlRequest request,
+      ResultStreamConsumer consumer,
+      @Nullable Map<Option, ?> options,
+      Duration timeout) {
+    throw new UnsupportedOperationException("Not implemented");
+  }
+
   ServerStream<BatchWriteResponse> batchWriteAtLeastOnce(
       BatchWriteRequest request, @Nullable Map<Option, ?> options);
 
+  /**
+   * Executes a BatchWrite request and invokes the given callback once the returned stream is done.
+   * A stream is done when it has returned all responses, has failed, or has been cancelled.
+   */
+  default ServerStream<BatchWriteResponse> batchWriteAtLeastOnce(
+      BatchWriteRequest request, @Nullable Map<Option, ?> options, Runnable onStreamDone) {
+    throw new UnsupportedOperationException("Not implemented");
+  }
+
   /**
    * Executes a query with streaming result.
    *
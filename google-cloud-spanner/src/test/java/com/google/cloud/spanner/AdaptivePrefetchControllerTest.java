@@ -0,0 +1,253 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import com.google.cloud.spanner.AdaptivePrefetchController.Account;
+import com.google.cloud.spanner.AdaptivePrefetchController.StreamWindow;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.metrics.SdkMeterProvider;
+import io.opentelemetry.sdk.metrics.data.LongPointData;
+import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.sdk.testing.exporter.InMemoryMetricReader;
+import java.util.Collection;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class AdaptivePrefetchControllerTest {
+  private static final DatabaseId DATABASE_ID = DatabaseId.of("p", "i", "d");
+
+  @Test
+  public void testWindowGrowsWhenConsumerWaits() {
+    AdaptivePrefetchController controller = new AdaptivePrefetchController(1000L);
+    StreamWindow window = controller.newStreamWindow(4);
+    assertEquals(4, window.initialRequest());
+    for (int i = 0; i < 4; i++) {
+      window.onMessageReceived(100);
+    }
+    assertEquals(400L, controller.getBufferedBytes());
+
+    // The consumer did not wait and more than half of the window is buffered.
+    assertEquals(0, window.onMessageConsumed(100, false));
+    assertEquals(3, window.getWindow());
+
+    // The consumer waited, so the window is doubled.
+    assertEquals(4, window.onMessageConsumed(100, true));
+    assertEquals(6, window.getWindow());
+    assertEquals(6L, controller.getTotalWindow());
+
+    window.close();
+    assertEquals(0L, controller.getBufferedBytes());
+    assertEquals(0L, controller.getTotalWindow());
+  }
+
+  @Test
+  public void testRequestsAreLimitedByByteBudget() {
+    AdaptivePrefetchController controller = new AdaptivePrefetchController(250L);
+    StreamWindow window = controller.newStreamWindow(4);
+    window.initialRequest();
+    window.onMessageReceived(100);
+    window.onMessageReceived(100);
+
+    // The window grows to 8, but only 150 bytes of the budget remain.
+    assertEquals(1, window.onMessageConsumed(100, true));
+    assertEquals(8, window.getWindow());
+    window.close();
+  }
+
+  @Test
+  public void testInitialRequestIsLimitedByByteBudget() {
+    AdaptivePrefetchController controller = new AdaptivePrefetchController(1000L);
+    StreamWindow first = controller.newStreamWindow(4);
+    assertEquals(4, first.initialRequest());
+    for (int i = 0; i < 4; i++) {
+      first.onMessageReceived(200);
+    }
+
+    // 200 bytes of the budget remain, which is enough for one message of the average size.
+    StreamWindow second = controller.newStreamWindow(8);
+    assertEquals(1, second.initialRequest());
+    assertEquals(8, second.getWindow());
+    second.onMessageReceived(200);
+    assertTrue(controller.isExhausted());
+
+    // A stream always requests at least one message, even if the budget has been used up.
+    StreamWindow third = controller.newStreamWindow(8);
+    assertEquals(1, third.initialRequest());
+
+    first.close();
+    second.close();
+    third.close();
+    assertEquals(0L, controller.getBufferedBytes());
+    assertEquals(0L, controller.getTotalWindow());
+  }
+
+  @Test
+  public void testStreamWithoutOutstandingMessagesCanAlwaysProgress() {
+    AdaptivePrefetchController controller = new AdaptivePrefetchController(100L);
+    StreamWindow other = controller.newStreamWindow(1);
+    other.initialRequest();
+    other.onMessageReceived(500);
+
+    StreamWindow window = controller.newStreamWindow(1);
+    window.initialRequest();
+    window.onMessageReceived(500);
+    assertEquals(1, window.onMessageConsumed(500, true));
+
+    other.close();
+    window.close();
+    assertEquals(0L, controller.getBufferedBytes());
+  }
+
+  @Test
+  public void testFixedWindowIsLimitedByByteBudget() {
+    AdaptivePrefetchController controller = new AdaptivePrefetchController(250L, false);
+    StreamWindow window = controller.newStreamWindow(DATABASE_ID, 4, false);
+    assertEquals(4, window.getMaxWindow());
+    assertEquals(4, window.initialRequest());
+    for (int i = 0; i < 4; i++) {
+      window.onMessageReceived(100);
+    }
+    assertTrue(controller.isExhausted());
+
+    // The window is not adjusted, and no new messages are requested while the budget is used up.
+    assertEquals(0, window.onMessageConsumed(100, true));
+    assertEquals(0, window.onMessageConsumed(100, true));
+    assertEquals(4, window.getWindow());
+    // The deferred messages are requested once the budget is available again.
+    assertEquals(1, window.onMessageConsumed(100, false));
+    assertEquals(2, window.onMessageConsumed(100, false));
+    assertEquals(4, window.getWindow());
+
+    window.close();
+    assertEquals(0L, controller.getBufferedBytes());
+    assertEquals(0L, controller.getTotalWindow());
+  }
+
+  @Test
+  public void testWindowIsOnlyAddedWhenStarted() {
+    AdaptivePrefetchController controller = new AdaptivePrefetchController(1000L);
+    StreamWindow window = controller.newStreamWindow(4);
+    assertEquals(0L, controller.getTotalWindow());
+    window.close();
+    assertEquals(0L, controller.getTotalWindow());
+  }
+
+  @Test
+  public void testAccountsShareBudgetWithStreams() {
+    AdaptivePrefetchController controller = new AdaptivePrefetchController(100L);
+    Account account = controller.newAccount(DATABASE_ID);
+    StreamWindow window = controller.newStreamWindow(DATABASE_ID, 1, true);
+    window.initialRequest();
+
+    account.add(60L);
+    assertFalse(controller.isExhausted());
+    window.onMessageReceived(40);
+    assertTrue(controller.isExhausted());
+
+    account.release(10L);
+    assertEquals(90L, controller.getBufferedBytes());
+    assertFalse(controller.isExhausted());
+
+    // Closing an account returns all its bytes, and ignores any later changes.
+    account.close();
+    assertEquals(40L, controller.getBufferedBytes());
+    account.add(100L);
+    account.release(100L);
+    assertEquals(40L, controller.getBufferedBytes());
+
+    // An account can never release more than it has added.
+    Account other = controller.newAccount(DATABASE_ID);
+    other.release(1000L);
+    assertEquals(40L, controller.getBufferedBytes());
+
+    window.close();
+    assertEquals(0L, controller.getBufferedBytes());
+  }
+
+  private static long getGaugeValue(Collection<MetricData> metrics, String name, String database) {
+    return metrics.stream()
+        .filter(data -> data.getName().equals(name))
+        .flatMap(data -> data.getLongGaugeData().getPoints().stream())
+        .filter(
+            point -> database.equals(point.getAttributes().get(AttributeKey.stringKey("database"))))
+        .mapToLong(LongPointData::getValue)
+        .sum();
+  }
+
+  @Test
+  public void testMetricsPerDatabase() throws Exception {
+    SpannerOptions.enableOpenTelemetryMetrics();
+    InMemoryMetricReader metricReader = InMemoryMetricReader.create();
+    OpenTelemetry openTelemetry =
+        OpenTelemetrySdk.builder()
+            .setMeterProvider(SdkMeterProvider.builder().registerMetricReader(metricReader).build())
+            .build();
+    AdaptivePrefetchController controller = new AdaptivePrefetchController(1000L);
+    DatabaseId otherDatabaseId = DatabaseId.of("p", "i", "other");
+    List<AutoCloseable> metrics =
+        controller.registerMetrics(
+            openTelemetry, DATABASE_ID, Attributes.of(AttributeKey.stringKey("database"), "d"));
+    List<AutoCloseable> otherMetrics =
+        controller.registerMetrics(
+            openTelemetry,
+            otherDatabaseId,
+            Attributes.of(AttributeKey.stringKey("database"), "other"));
+
+    StreamWindow window = controller.newStreamWindow(DATABASE_ID, 4, true);
+    StreamWindow otherWindow = controller.newStreamWindow(otherDatabaseId, 2, true);
+    window.initialRequest();
+    otherWindow.initialRequest();
+    window.onMessageReceived(100);
+
+    Collection<MetricData> data = metricReader.collectAllMetrics();
+    assertEquals(4L, getGaugeValue(data, MetricRegistryConstants.PREFETCH_WINDOW, "d"));
+    assertEquals(2L, getGaugeValue(data, MetricRegistryConstants.PREFETCH_WINDOW, "other"));
+    assertEquals(100L, getGaugeValue(data, MetricRegistryConstants.PREFETCH_BUFFERED_BYTES, "d"));
+    assertEquals(
+        0L, getGaugeValue(data, MetricRegistryConstants.PREFETCH_BUFFERED_BYTES, "other"));
+
+    // Closed gauges no longer report any values.
+    for (AutoCloseable metric : metrics) {
+      metric.close();
+    }
+    data = metricReader.collectAllMetrics();
+    assertEquals(0L, getGaugeValue(data, MetricRegistryConstants.PREFETCH_WINDOW, "d"));
+    assertEquals(2L, getGaugeValue(data, MetricRegistryConstants.PREFETCH_WINDOW, "other"));
+
+    for (AutoCloseable metric : otherMetrics) {
+      metric.close();
+    }
+    window.close();
+    otherWindow.close();
+  }
+
+  @Test
+  public void testInvalidLimit() {
+    assertThrows(IllegalArgumentException.class, () -> new AdaptivePrefetchController(0L));
+  }
+}
@@ -37,6 +37,9 @@ import com.google.common.collect.Range;
 import com.google.protobuf.ByteString;
 import com.google.protobuf.Value;
 import com.google.spanner.v1.PartialResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.BlockingDeque;
 import java.util.concurrent.CountDownLatch;
@@ -567,4 +570,179 @@ public class AsyncResultSetImplTest {
       Mockito.verify(mockedProvider.getExecutor(), times(2)).execute(Mockito.any());
     }
   }
+
+  private static ResultSet createResultSet(int numRows) {
+    Type type = Type.struct(Type.StructField.of("ID", Type.int64()));
+    List<Struct> rows = new ArrayList<>(numRows);
+    for (int i = 0; i < numRows; i++) {
+      rows.add(Struct.newBuilder().set("ID").to(i).build());
+    }
+    return ResultSets.forRows(type, rows);
+  }
+
+  @Test
+  public void batchCallback() throws Exception {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+    List<Long> ids = Collections.synchronizedList(new ArrayList<>());
+    try (AsyncResultSetImpl rs =
+        new AsyncResultSetImpl(
+            simpleProvider, createResultSet(25), AsyncResultSetImpl.DEFAULT_BUFFER_SIZE)) {
+      ApiFuture<Void> result =
+          rs.setBatchCallback(
+              executor,
+              10,
+              0L,
+              (resultSet, batch) -> {
+                batchSizes.add(batch.size());
+                for (Struct row : batch) {
+                  ids.add(row.getLong(0));
+                }
+                return CallbackResponse.CONTINUE;
+              });
+      assertNull(get(result));
+    }
+    assertEquals(Arrays.asList(10, 10, 5), batchSizes);
+    assertEquals(25, ids.size());
+    for (int i = 0; i < ids.size(); i++) {
+      assertEquals(i, ids.get(i).longValue());
+    }
+    executor.shutdown();
+  }
+
+  @Test
+  public void batchCallbackWithByteTarget() throws Exception {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+    long rowSize = AbstractResultSet.estimateRowSize(Struct.newBuilder().set("ID").to(0L).build());
+    try (AsyncResultSetImpl rs =
+        new AsyncResultSetImpl(
+            simpleProvider, createResultSet(10), AsyncResultSetImpl.DEFAULT_BUFFER_SIZE)) {
+      ApiFuture<Void> result =
+          rs.setBatchCallback(
+              executor,
+              100,
+              3 * rowSize,
+              (resultSet, batch) -> {
+                batchSizes.add(batch.size());
+                return CallbackResponse.CONTINUE;
+              });
+      get(result);
+    }
+    // The estimated size of a row does not depend on the value of the row.
+    assertEquals(Arrays.asList(3, 3, 3, 1), batchSizes);
+    executor.shutdown();
+  }
+
+  @Test
+  public void batchCallbackPauseResume() throws Exception {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    AtomicInteger callbackCounter = new AtomicInteger();
+    AtomicInteger rowCounter = new AtomicInteger();
+    try (AsyncResultSetImpl rs =
+        new AsyncResultSetImpl(
+            simpleProvider, createResultSet(100), AsyncResultSetImpl.DEFAULT_BUFFER_SIZE)) {
+      ApiFuture<Void> result =
+          rs.setBatchCallback(
+              executor,
+              10,
+              0L,
+              (resultSet, batch) -> {
+                callbackCounter.incrementAndGet();
+                rowCounter.addAndGet(batch.size());
+                return CallbackResponse.PAUSE;
+              });
+      for (int batch = 1; batch <= 10; batch++) {
+        while (callbackCounter.get() < batch) {
+          Thread.sleep(1L);
+        }
+        // No callbacks are made while the result set is paused.
+        Thread.sleep(10L);
+        assertEquals(batch, callbackCounter.get());
+        assertEquals(batch * 10, rowCounter.get());
+        assertFalse(result.isDone());
+        rs.resume();
+      }
+      assertNull(get(result));
+      assertEquals(10, callbackCounter.get());
+    }
+    executor.shutdown();
+  }
+
+  @Test
+  public void batchCallbackCancel() throws Exception {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    CountDownLatch firstBatch = new CountDownLatch(1);
+    try (AsyncResultSetImpl rs =
+        new AsyncResultSetImpl(
+            simpleProvider, createResultSet(1000), AsyncResultSetImpl.DEFAULT_BUFFER_SIZE)) {
+      ApiFuture<Void> result =
+          rs.setBatchCallback(
+              executor,
+              10,
+              0L,
+              (resultSet, batch) -> {
+                firstBatch.countDown();
+                return CallbackResponse.PAUSE;
+              });
+      firstBatch.await();
+      rs.cancel();
+      ExecutionException e = assertThrows(ExecutionException.class, result::get);
+      assertThat(e.getCause()).isInstanceOf(SpannerException.class);
+      assertEquals(ErrorCode.CANCELLED, ((SpannerException) e.getCause()).getErrorCode());
+    }
+    executor.shutdown();
+  }
+
+  @Test
+  public void batchCallbackReturnsDone() throws Exception {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    AtomicInteger callbackCounter = new AtomicInteger();
+    try (AsyncResultSetImpl rs =
+        new AsyncResultSetImpl(
+            simpleProvider, createResultSet(1000), AsyncResultSetImpl.DEFAULT_BUFFER_SIZE)) {
+      ApiFuture<Void> result =
+          rs.setBatchCallback(
+              executor,
+              10,
+              0L,
+              (resultSet, batch) -> {
+                callbackCounter.incrementAndGet();
+                return CallbackResponse.DONE;
+              });
+      assertNull(get(result));
+      assertEquals(1, callbackCounter.get());
+    }
+    executor.shutdown();
+  }
+
+  @Test
+  public void batchCallbackPropagatesError() throws Exception {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    ResultSet delegate = mock(ResultSet.class);
+    when(delegate.next())
+        .thenReturn(true)
+        .thenThrow(
+            SpannerExceptionFactory.newSpannerException(
+                ErrorCode.INVALID_ARGUMENT, "invalid query"));
+    when(delegate.getCurrentRowAsStruct()).thenReturn(Struct.newBuilder().set("ID").to(1L).build());
+    AtomicInteger rowCounter = new AtomicInteger();
+    try (AsyncResultSetImpl rs =
+        new AsyncResultSetImpl(simpleProvider, delegate, AsyncResultSetImpl.DEFAULT_BUFFER_SIZE)) {
+      ApiFuture<Void> result =
+          rs.setBatchCallback(
+              executor,
+              10,
+              0L,
+              (resultSet, batch) -> {
+                rowCounter.addAndGet(batch.size());
+                return CallbackResponse.CONTINUE;
+              });
+      SpannerException e = assertThrows(SpannerException.class, () -> get(result));
+      assertEquals(ErrorCode.INVALID_ARGUMENT, e.getErrorCode());
+      // The rows that were read before the error are delivered before the error is returned.
+      assertEquals(1, rowCounter.get());
+    }
+    executor.shutdown();
+  }
 }
@@ -28,6 +28,7 @@ import com.google.api.core.ApiFutures;
 import com.google.cloud.grpc.GrpcTransportOptions.ExecutorFactory;
 import com.google.cloud.spanner.Options.TransactionOption;
 import com.google.cloud.spanner.spi.v1.SpannerRpc.Option;
+import com.google.common.util.concurrent.Uninterruptibles;
 import com.google.protobuf.Empty;
 import com.google.protobuf.Timestamp;
 import java.util.HashMap;
@@ -181,6 +182,11 @@ abstract class BaseSessionPoolTest {
   void runMaintenanceLoop(FakeClock clock, SessionPool pool, long numCycles) {
     for (int i = 0; i < numCycles; i++) {
       pool.poolMaintainer.maintainPool();
+      // Keep-alive queries are executed asynchronously. Wait for these to finish to make the
+      // result of a maintenance cycle deterministic.
+      while (pool.poolMaintainer.hasPendingKeepAlives()) {
+        Uninterruptibles.sleepUninterruptibly(1L, TimeUnit.MILLISECONDS);
+      }
       clock.currentTimeMillis.addAndGet(pool.poolMaintainer.loopFrequency);
     }
   }
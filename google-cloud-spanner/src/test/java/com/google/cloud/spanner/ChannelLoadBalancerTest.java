@@ -0,0 +1,85 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertThrows;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class ChannelLoadBalancerTest {
+
+  @Test
+  public void testSpreadsTransactionsOverAllChannels() {
+    ChannelLoadBalancer balancer = new ChannelLoadBalancer(4);
+    Set<Integer> channels = new HashSet<>();
+    for (int i = 0; i < 4; i++) {
+      channels.add(balancer.acquire());
+    }
+    assertEquals(4, channels.size());
+    for (int channel = 0; channel < 4; channel++) {
+      assertEquals(1, balancer.getOutstanding(channel));
+    }
+  }
+
+  @Test
+  public void testPicksChannelWithFewestOutstandingTransactions() {
+    ChannelLoadBalancer balancer = new ChannelLoadBalancer(2);
+    int busy = balancer.acquire();
+    int other = balancer.acquire();
+    assertNotEquals(busy, other);
+    // Release the transaction on one channel and keep the other channel busy.
+    balancer.release(other);
+
+    for (int i = 0; i < 10; i++) {
+      int channel = balancer.acquire();
+      balancer.release(channel);
+      assertEquals(other, channel);
+    }
+    assertEquals(1, balancer.getOutstanding(busy));
+  }
+
+  @Test
+  public void testUsesRoundRobinOnTie() {
+    ChannelLoadBalancer balancer = new ChannelLoadBalancer(3);
+    List<Integer> channels = new ArrayList<>();
+    for (int i = 0; i < 6; i++) {
+      int channel = balancer.acquire();
+      balancer.release(channel);
+      channels.add(channel);
+    }
+    // Idle traffic should be spread over all channels instead of going to the same channel.
+    assertEquals(Arrays.asList(0, 1, 2, 0, 1, 2), channels);
+    for (int channel = 0; channel < 3; channel++) {
+      assertEquals(0, balancer.getOutstanding(channel));
+    }
+  }
+
+  @Test
+  public void testInvalidNumChannels() {
+    assertThrows(IllegalArgumentException.class, () -> new ChannelLoadBalancer(0));
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner;
+
+import com.google.api.gax.grpc.testing.LocalChannelProvider;
+import com.google.cloud.NoCredentials;
+import com.google.cloud.spanner.MockSpannerServiceImpl.StatementResult;
+import com.google.common.base.Strings;
+import com.google.protobuf.ListValue;
+import com.google.spanner.v1.ResultSetMetadata;
+import com.google.spanner.v1.StructType;
+import com.google.spanner.v1.StructType.Field;
+import com.google.spanner.v1.TypeCode;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessServerBuilder;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks for reading large values that are split into multiple chunks by the server. The
+ * benchmarks are bound to the Maven profile `benchmark` and can be executed like this: <code>
+ * mvn clean test -DskipTests -Pbenchmark -Dbenchmark.name=ChunkedValueBenchmark
+ * </code>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(value = 1, warmups = 0)
+@Measurement(iterations = 5, time = 2)
+@Warmup(iterations = 2, time = 2)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ChunkedValueBenchmark {
+  private static final String TEST_PROJECT = "my-project";
+  private static final String TEST_INSTANCE = "my-instance";
+  private static final String TEST_DATABASE = "my-database";
+  private static final Statement SELECT_LARGE_VALUE = Statement.of("SELECT LARGE_VALUE FROM FOO");
+
+  @State(Scope.Benchmark)
+  public static class BenchmarkState {
+    private MockSpannerServiceImpl mockSpanner;
+    private Server server;
+    private Spanner spanner;
+    private DatabaseClient client;
+
+    @Param({"1", "10", "100", "1000"})
+    int numChunks;
+
+    @Param({"1048576"})
+    int valueLength;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+      mockSpanner = new MockSpannerServiceImpl();
+      mockSpanner.setAbortProbability(0.0D);
+      mockSpanner.setNumChunksPerStringValue(numChunks);
+      mockSpanner.putStatementResult(
+          StatementResult.query(SELECT_LARGE_VALUE, createResultSet(valueLength)));
+      String uniqueName = InProcessServerBuilder.generateName();
+      server = InProcessServerBuilder.forName(uniqueName).addService(mockSpanner).build().start();
+
+      spanner =
+          SpannerOptions.newBuilder()
+              .setProjectId(TEST_PROJECT)
+              .setChannelProvider(LocalChannelProvider.create(uniqueName))
+              .setCredentials(NoCredentials.getInstance())
+              .build()
+              .getService();
+      client = spanner.getDatabaseClient(DatabaseId.of(TEST_PROJECT, TEST_INSTANCE, TEST_DATABASE));
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() throws Exception {
+      spanner.close();
+      server.shutdown();
+      server.awaitTermination();
+    }
+  }
+
+  private static com.google.spanner.v1.ResultSet createResultSet(int valueLength) {
+    return com.google.spanner.v1.ResultSet.newBuilder()
+        .setMetadata(
+            ResultSetMetadata.newBuilder()
+                .setRowType(
+                    StructType.newBuilder()
+                        .addFields(
+                            Field.newBuilder()
+                                .setName("LARGE_VALUE")
+                                .setType(
+                                    com.google.spanner.v1.Type.newBuilder()
+                                        .setCode(TypeCode.STRING)
+                                        .build())
+                                .build())
+                        .build())
+                .build())
+        .addRows(
+            ListValue.newBuilder()
+                .addValues(
+                    com.google.protobuf.Value.newBuilder()
+                        .setStringValue(Strings.repeat("a", valueLength))
+                        .build())
+                .build())
+        .build();
+  }
+
+  /** Measures the time needed to read one large value that is split into numChunks chunks. */
+  @Benchmark
+  public void readChunkedValue(final BenchmarkState state, final Blackhole blackhole) {
+    try (ResultSet resultSet = state.client.singleUse().executeQuery(SELECT_LARGE_VALUE)) {
+      while (resultSet.next()) {
+        blackhole.consume(resultSet.getString(0));
+      }
+    }
+  }
+}
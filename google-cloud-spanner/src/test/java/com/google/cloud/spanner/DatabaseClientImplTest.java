@@ -1355,6 +1355,65 @@ public class DatabaseClientImplTest {
     assertEquals(Priority.PRIORITY_UNSPECIFIED, commit.getRequestOptions().getPriority());
   }
 
+  @Test
+  public void testBufferEncodedMutation() {
+    DatabaseClient client =
+        spanner.getDatabaseClient(DatabaseId.of(TEST_PROJECT, TEST_INSTANCE, TEST_DATABASE));
+    Mutation delete = Mutation.delete("FOO", Key.of(1L));
+    EncodedMutation insert =
+        MutationWriter.newInsertWriter("FOO", "ID", "NAME")
+            .addRow()
+            .addInt64(1L)
+            .addString("One")
+            .addRow()
+            .addInt64(2L)
+            .addString("Two")
+            .build();
+    Mutation update = Mutation.newUpdateBuilder("FOO").set("ID").to(2L).set("NAME").to("2").build();
+    client
+        .readWriteTransaction()
+        .run(
+            transaction -> {
+              transaction.buffer(delete);
+              transaction.buffer(insert);
+              transaction.buffer(update);
+              return null;
+            });
+
+    List<CommitRequest> commitRequests = mockSpanner.getRequestsOfType(CommitRequest.class);
+    assertThat(commitRequests).hasSize(1);
+    CommitRequest commit = commitRequests.get(0);
+    // The mutations are sent in the order that they were buffered.
+    assertEquals(3, commit.getMutationsCount());
+    assertTrue(commit.getMutations(0).hasDelete());
+    assertEquals(insert.toProto(), commit.getMutations(1));
+    assertTrue(commit.getMutations(2).hasUpdate());
+  }
+
+  @Test
+  public void testMutationLimitsFailFast() {
+    DatabaseClient client =
+        spanner.getDatabaseClient(DatabaseId.of(TEST_PROJECT, TEST_INSTANCE, TEST_DATABASE));
+    Mutation mutation =
+        Mutation.newInsertBuilder("FOO").set("ID").to(1L).set("NAME").to("One").build();
+    TransactionMutationLimitExceededException exception =
+        assertThrows(
+            TransactionMutationLimitExceededException.class,
+            () ->
+                client
+                    .readWriteTransaction(Options.mutationLimits(3L, 0L))
+                    .run(
+                        transaction -> {
+                          transaction.buffer(mutation);
+                          assertEquals(2L, transaction.getBufferedMutationCount());
+                          assertTrue(transaction.getBufferedMutationBytes() > 0L);
+                          transaction.buffer(mutation);
+                          return null;
+                        }));
+    assertEquals(ErrorCode.INVALID_ARGUMENT, exception.getErrorCode());
+    assertEquals(0, mockSpanner.countRequestsOfType(CommitRequest.class));
+  }
+
   @Test
   public void testWriteAborted() {
     DatabaseClient client =
@@ -2353,6 +2412,29 @@ public class DatabaseClientImplTest {
     assertThat(checkedOut).isEmpty();
   }
 
+  @Test
+  public void singleUseNextBatch_ReleasesSessionWhenExhausted() {
+    DatabaseClientImpl client =
+        (DatabaseClientImpl)
+            spanner.getDatabaseClient(DatabaseId.of(TEST_PROJECT, TEST_INSTANCE, TEST_DATABASE));
+    Set<PooledSessionFuture> checkedOut = client.pool.checkedOutSessions;
+    assertThat(checkedOut).isEmpty();
+    // Drain the result set with nextBatch() without closing it. The session should be returned to
+    // the pool as soon as the result set is exhausted.
+    ResultSet rs =
+        client.singleUse().executeQuery(SELECT1, Options.decodeMode(DecodeMode.COLUMNAR_BATCH));
+    ColumnarBatch batch = rs.nextBatch();
+    assertThat(batch).isNotNull();
+    if (!isMultiplexedSessionsEnabled()) {
+      assertThat(checkedOut).hasSize(1);
+    }
+    assertThat(batch.getRowCount()).isEqualTo(1);
+    assertThat(batch.getLong(0, 0)).isEqualTo(1L);
+    assertThat(rs.nextBatch()).isNull();
+    assertThat(checkedOut).isEmpty();
+    assertThat(client.pool.getNumberOfSessionsInUse()).isEqualTo(0);
+  }
+
   @Test
   public void singleUseIsNonBlocking() {
     mockSpanner.freeze();
@@ -42,7 +42,9 @@ import com.google.spanner.v1.QueryPlan;
 import com.google.spanner.v1.ResultSetMetadata;
 import com.google.spanner.v1.ResultSetStats;
 import com.google.spanner.v1.Transaction;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.util.ArrayList;
@@ -51,6 +53,7 @@ import java.util.Base64;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.annotation.Nullable;
 import org.junit.Before;
 import org.junit.Test;
@@ -133,6 +136,52 @@ public class GrpcResultSetTest {
     assertThat(resultSet.getType()).isEqualTo(rowType);
   }
 
+  private static GrpcStreamIterator newStreamWithBeginTransaction() {
+    GrpcStreamIterator beginStream =
+        new GrpcStreamIterator(10, /*cancelQueryWhenClientIsClosed=*/ false);
+    beginStream.setCall(
+        new SpannerRpc.StreamingCall() {
+          @Override
+          public ApiCallContext getCallContext() {
+            return GrpcCallContext.createDefault();
+          }
+
+          @Override
+          public void cancel(@Nullable String message) {}
+
+          @Override
+          public void request(int numMessages) {}
+        },
+        /* withBeginTransaction = */ true);
+    return beginStream;
+  }
+
+  @Test
+  public void transactionIsReleasedWhenStreamMessageIsReceived() {
+    AtomicInteger transactionMetadataCount = new AtomicInteger();
+    GrpcStreamIterator beginStream = newStreamWithBeginTransaction();
+    beginStream.setTransactionListener(
+        new NoOpListener() {
+          @Override
+          public void onTransactionMetadata(Transaction transaction, boolean shouldIncludeId) {
+            assertEquals(ByteString.copyFromUtf8("t1"), transaction.getId());
+            transactionMetadataCount.incrementAndGet();
+          }
+        });
+    ResultSetMetadata.Builder metadataBuilder = makeMetadata(Type.struct()).toBuilder();
+    metadataBuilder.getTransactionBuilder().setId(ByteString.copyFromUtf8("t1"));
+    SpannerRpc.ResultStreamConsumer beginConsumer = beginStream.consumer();
+
+    // The transaction is released before the message is read from the stream.
+    beginConsumer.onPartialResultSet(
+        PartialResultSet.newBuilder().setMetadata(metadataBuilder).build());
+    assertEquals(1, transactionMetadataCount.get());
+
+    // Messages without metadata do not release the transaction again.
+    beginConsumer.onPartialResultSet(PartialResultSet.getDefaultInstance());
+    assertEquals(1, transactionMetadataCount.get());
+  }
+
   @Test
   public void metadataFailure() {
     SpannerException t =
@@ -256,6 +305,127 @@ public class GrpcResultSetTest {
         .inOrder();
   }
 
+  @Test
+  public void multiResponseChunkingManyStringChunks() {
+    int numChunks = 1000;
+    StringBuilder expected = new StringBuilder();
+    consumer.onPartialResultSet(
+        PartialResultSet.newBuilder()
+            .setMetadata(makeMetadata(Type.struct(Type.StructField.of("f", Type.string()))))
+            .build());
+    for (int i = 0; i < numChunks; i++) {
+      String chunk = "chunk-\u00e6\u00f8\u00e5-" + i;
+      expected.append(chunk);
+      consumer.onPartialResultSet(
+          PartialResultSet.newBuilder()
+              .addValues(Value.string(chunk).toProto())
+              .setChunkedValue(i < numChunks - 1)
+              .build());
+    }
+    consumer.onCompleted();
+    assertThat(consumeAllString()).containsExactly(expected.toString());
+  }
+
+  @Test
+  public void columnarBatch() {
+    resultSet = new GrpcResultSet(stream, new NoOpListener(), DecodeMode.COLUMNAR_BATCH);
+    consumer.onPartialResultSet(
+        PartialResultSet.newBuilder()
+            .setMetadata(
+                makeMetadata(
+                    Type.struct(
+                        Type.StructField.of("id", Type.int64()),
+                        Type.StructField.of("value", Type.float64()),
+                        Type.StructField.of("name", Type.string()))))
+            .addValues(Value.int64(1L).toProto())
+            .addValues(Value.float64(1.5d).toProto())
+            .addValues(Value.string("one").toProto())
+            .addValues(Value.int64(null).toProto())
+            .addValues(Value.float64(2.5d).toProto())
+            .addValues(Value.string(null).toProto())
+            .build());
+    consumer.onPartialResultSet(
+        PartialResultSet.newBuilder()
+            .addValues(Value.int64(3L).toProto())
+            .addValues(Value.float64(null).toProto())
+            .addValues(Value.string("three").toProto())
+            .build());
+    consumer.onCompleted();
+
+    ColumnarBatch batch = resultSet.nextBatch();
+    assertEquals(2, batch.getRowCount());
+    assertThat(batch.getLongColumn(0)).asList().containsExactly(1L, 0L).inOrder();
+    assertTrue(batch.isNull(0, 1));
+    assertThat(batch.getDoubleColumn(1)).usingExactEquality().containsExactly(1.5d, 2.5d);
+    assertEquals("one", batch.getRow(0).getString(2));
+    assertTrue(batch.getRow(1).isNull(2));
+    // The result set is positioned on the last row of the batch.
+    assertEquals(2.5d, resultSet.getDouble(1), 0.0d);
+
+    assertTrue(resultSet.next());
+    assertEquals(3L, resultSet.getLong(0));
+    assertTrue(resultSet.isNull(1));
+    assertEquals("three", resultSet.getString(2));
+    assertEquals(3L, resultSet.getCurrentRowAsStruct().getLong(0));
+    assertThat(resultSet.nextBatch()).isNull();
+  }
+
+  @Test
+  public void columnarBatchErrorAfterTransactionIsNotReportedAsFailedBegin() {
+    List<Boolean> withBeginTransactionOnError = new ArrayList<>();
+    GrpcStreamIterator beginStream = newStreamWithBeginTransaction();
+    resultSet =
+        new GrpcResultSet(
+            beginStream,
+            new NoOpListener() {
+              @Override
+              public SpannerException onError(SpannerException e, boolean withBeginTransaction) {
+                withBeginTransactionOnError.add(withBeginTransaction);
+                return e;
+              }
+            },
+            DecodeMode.COLUMNAR_BATCH);
+    ResultSetMetadata.Builder metadataBuilder =
+        makeMetadata(Type.struct(Type.StructField.of("f", Type.int64()))).toBuilder();
+    metadataBuilder.getTransactionBuilder().setId(ByteString.copyFromUtf8("t1"));
+    SpannerRpc.ResultStreamConsumer beginConsumer = beginStream.consumer();
+    beginConsumer.onPartialResultSet(
+        PartialResultSet.newBuilder()
+            .setMetadata(metadataBuilder)
+            .addValues(Value.int64(1L).toProto())
+            .build());
+    beginConsumer.onError(
+        SpannerExceptionFactory.newSpannerException(ErrorCode.UNAVAILABLE, "test error"));
+
+    assertThrows(
+        SpannerException.class,
+        () -> {
+          while (resultSet.nextBatch() != null) {
+            // Consume all batches until the error is thrown.
+          }
+        });
+    assertThat(withBeginTransactionOnError).containsExactly(false);
+  }
+
+  @Test
+  public void columnarBatchMixedWithNext() {
+    resultSet = new GrpcResultSet(stream, new NoOpListener(), DecodeMode.COLUMNAR_BATCH);
+    consumer.onPartialResultSet(
+        PartialResultSet.newBuilder()
+            .setMetadata(makeMetadata(Type.struct(Type.StructField.of("f", Type.bool()))))
+            .addValues(Value.bool(true).toProto())
+            .addValues(Value.bool(false).toProto())
+            .addValues(Value.bool(true).toProto())
+            .build());
+    consumer.onCompleted();
+
+    assertTrue(resultSet.next());
+    assertTrue(resultSet.getBoolean(0));
+    ColumnarBatch batch = resultSet.nextBatch();
+    assertThat(batch.getBooleanColumn(0)).asList().containsExactly(false, true).inOrder();
+    assertThat(resultSet.next()).isFalse();
+  }
+
   @Test
   public void multiResponseChunkingBytes() {
     ByteArray expectedBytes = ByteArray.copyFrom("abcdefghijklmnopqrstuvwxyz");
@@ -291,6 +461,24 @@ public class GrpcResultSetTest {
         .inOrder();
   }
 
+  @Test
+  public void bytesAsByteBufferAndInputStream() throws IOException {
+    ByteArray expectedBytes = ByteArray.copyFrom(Strings.repeat("abcdefghij", 1000));
+    consumer.onPartialResultSet(
+        PartialResultSet.newBuilder()
+            .setMetadata(makeMetadata(Type.struct(Type.StructField.of("f", Type.bytes()))))
+            .addValues(Value.bytes(expectedBytes).toProto())
+            .build());
+    consumer.onCompleted();
+
+    assertTrue(resultSet.next());
+    ByteBuffer buffer = resultSet.getBytesAsByteBuffer(0);
+    assertTrue(buffer.isReadOnly());
+    assertEquals(expectedBytes.asReadOnlyByteBuffer(), buffer);
+    assertEquals(expectedBytes, ByteArray.copyFrom(resultSet.getBytesAsInputStream("f")));
+    assertEquals(expectedBytes, resultSet.getBytes(0));
+  }
+
   @Test
   public void multiResponseChunkingBoolArray() {
     List<Boolean> beforeValue = Collections.singletonList(true);
@@ -16,10 +16,15 @@
 
 package com.google.cloud.spanner;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 
 import com.google.cloud.spanner.AbstractResultSet.LazyByteArray;
+import com.google.common.io.ByteStreams;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.Base64;
 import java.util.Random;
 import org.junit.Test;
@@ -49,4 +54,24 @@ public class LazyByteArrayTest {
 
     assertEquals(lazyByteArray1.hashCode(), lazyByteArray3.hashCode());
   }
+
+  @Test
+  public void testStreamingAccessors() throws IOException {
+    byte[] bytes = new byte[1000];
+    new Random().nextBytes(bytes);
+    LazyByteArray lazyByteArray = new LazyByteArray(Base64.getEncoder().encodeToString(bytes));
+
+    // Both accessors decode the value without caching it.
+    try (InputStream inputStream = lazyByteArray.asInputStream()) {
+      assertArrayEquals(bytes, ByteStreams.toByteArray(inputStream));
+    }
+    assertEquals(ByteBuffer.wrap(bytes), lazyByteArray.asReadOnlyByteBuffer());
+
+    // The accessors return the same value after the value has been decoded and cached.
+    assertArrayEquals(bytes, lazyByteArray.getByteArray().toByteArray());
+    try (InputStream inputStream = lazyByteArray.asInputStream()) {
+      assertArrayEquals(bytes, ByteStreams.toByteArray(inputStream));
+    }
+    assertEquals(ByteBuffer.wrap(bytes), lazyByteArray.asReadOnlyByteBuffer());
+  }
 }
@@ -588,6 +588,7 @@ public class MockSpannerServiceImpl extends SpannerImplBase implements MockGrpcS
   private Deque<AbstractMessage> requests = new ConcurrentLinkedDeque<>();
   private volatile CountDownLatch freezeLock = new CountDownLatch(0);
   private final AtomicInteger freezeAfterReturningNumRows = new AtomicInteger();
+  private volatile int numChunksPerStringValue = 1;
   private Queue<Exception> exceptions = new ConcurrentLinkedQueue<>();
   private boolean stickyGlobalExceptions = false;
   private ConcurrentMap<Statement, StatementResult> statementResults = new ConcurrentHashMap<>();
@@ -805,6 +806,16 @@ public class MockSpannerServiceImpl extends SpannerImplBase implements MockGrpcS
     freezeAfterReturningNumRows.set(numRows);
   }
 
+  /**
+   * Instructs the mock server to split the last value of each {@link PartialResultSet} into the
+   * given number of chunks if that value is a string. The default is 1, which means that values
+   * are never chunked.
+   */
+  public void setNumChunksPerStringValue(int numChunks) {
+    Preconditions.checkArgument(numChunks > 0, "numChunks must be > 0");
+    this.numChunksPerStringValue = numChunks;
+  }
+
   public void setMaxSessionsInOneBatch(int max) {
     this.maxNumSessionsInOneBatch = max;
   }
@@ -1741,10 +1752,17 @@ public class MockSpannerServiceImpl extends SpannerImplBase implements MockGrpcS
             isMultiplexedSession && isReadWriteTransaction(transactionId),
             transactionId);
     long index = 0L;
+    int numChunks = numChunksPerStringValue;
     while (iterator.hasNext()) {
       SimulatedExecutionTime.checkStreamException(
           index, executionTime.exceptions, executionTime.streamIndices);
-      responseObserver.onNext(iterator.next());
+      if (numChunks > 1) {
+        for (PartialResultSet chunk : splitLastStringValue(iterator.next(), numChunks)) {
+          responseObserver.onNext(chunk);
+        }
+      } else {
+        responseObserver.onNext(iterator.next());
+      }
       if (freezeAfterReturningNumRows.get() > 0) {
         if (freezeAfterReturningNumRows.decrementAndGet() == 0) {
           freeze();
@@ -1756,6 +1774,50 @@ public class MockSpannerServiceImpl extends SpannerImplBase implements MockGrpcS
     responseObserver.onCompleted();
   }
 
+  private static List<PartialResultSet> splitLastStringValue(
+      PartialResultSet partialResultSet, int numChunks) {
+    int count = partialResultSet.getValuesCount();
+    if (count == 0
+        || partialResultSet.getValues(count - 1).getKindCase()
+            != com.google.protobuf.Value.KindCase.STRING_VALUE) {
+      return Collections.singletonList(partialResultSet);
+    }
+    String value = partialResultSet.getValues(count - 1).getStringValue();
+    int chunkSize = Math.max(1, (value.length() + numChunks - 1) / numChunks);
+    List<PartialResultSet> result = new ArrayList<>(numChunks);
+    // Only the last chunk may contain the resume token, as resuming the stream after one of the
+    // other chunks would skip the remainder of the value.
+    PartialResultSet.Builder builder =
+        partialResultSet
+            .toBuilder()
+            .removeValues(count - 1)
+            .clearStats()
+            .clearResumeToken()
+            .setChunkedValue(true);
+    for (int start = 0, end; start < value.length(); start = end) {
+      end = Math.min(value.length(), start + chunkSize);
+      if (end < value.length() && Character.isLowSurrogate(value.charAt(end))) {
+        // Do not split a surrogate pair.
+        end++;
+      }
+      builder.addValues(
+          com.google.protobuf.Value.newBuilder().setStringValue(value.substring(start, end)));
+      result.add(builder.build());
+      builder = PartialResultSet.newBuilder().setChunkedValue(true);
+    }
+    if (result.isEmpty()) {
+      return Collections.singletonList(partialResultSet);
+    }
+    PartialResultSet.Builder last = result.get(result.size() - 1).toBuilder();
+    last.setChunkedValue(partialResultSet.getChunkedValue())
+        .setResumeToken(partialResultSet.getResumeToken());
+    if (partialResultSet.hasStats()) {
+      last.setStats(partialResultSet.getStats());
+    }
+    result.set(result.size() - 1, last.build());
+    return result;
+  }
+
   private void returnPartialResultSet(
       Session session,
       Long updateCount,
@@ -2356,6 +2418,7 @@ public class MockSpannerServiceImpl extends SpannerImplBase implements MockGrpcS
     transactionSequenceNo = new ConcurrentHashMap<>();
 
     numSessionsCreated.set(0);
+    numChunksPerStringValue = 1;
     stickyGlobalExceptions = false;
     freezeLock.countDown();
   }
@@ -0,0 +1,308 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner;
+
+import static com.google.cloud.spanner.MockSpannerTestUtil.READ_COLUMN_NAMES;
+import static com.google.cloud.spanner.MockSpannerTestUtil.READ_MULTIPLE_KEY_VALUE_RESULTSET;
+import static com.google.cloud.spanner.MockSpannerTestUtil.READ_MULTIPLE_KEY_VALUE_STATEMENT;
+import static com.google.cloud.spanner.MockSpannerTestUtil.READ_ONE_KEY_VALUE_RESULTSET;
+import static com.google.cloud.spanner.MockSpannerTestUtil.READ_ONE_KEY_VALUE_STATEMENT;
+import static com.google.cloud.spanner.MockSpannerTestUtil.READ_TABLE_NAME;
+import static com.google.cloud.spanner.MockSpannerTestUtil.TEST_DATABASE;
+import static com.google.cloud.spanner.MockSpannerTestUtil.TEST_INSTANCE;
+import static com.google.cloud.spanner.MockSpannerTestUtil.TEST_PROJECT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.gax.grpc.testing.LocalChannelProvider;
+import com.google.cloud.NoCredentials;
+import com.google.cloud.spanner.AsyncResultSet.CallbackResponse;
+import com.google.cloud.spanner.MockSpannerServiceImpl.StatementResult;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.protobuf.ByteString;
+import com.google.spanner.v1.BeginTransactionRequest;
+import com.google.spanner.v1.CommitRequest;
+import com.google.spanner.v1.ReadRequest;
+import io.grpc.Server;
+import io.grpc.inprocess.InProcessServerBuilder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class MultiGetTest {
+  private static MockSpannerServiceImpl mockSpanner;
+  private static Server server;
+  private static LocalChannelProvider channelProvider;
+
+  private Spanner spanner;
+  private DatabaseClient client;
+
+  @BeforeClass
+  public static void setup() throws Exception {
+    mockSpanner = new MockSpannerServiceImpl();
+    mockSpanner.putStatementResult(
+        StatementResult.query(READ_ONE_KEY_VALUE_STATEMENT, READ_ONE_KEY_VALUE_RESULTSET));
+    mockSpanner.putStatementResult(
+        StatementResult.query(
+            READ_MULTIPLE_KEY_VALUE_STATEMENT, READ_MULTIPLE_KEY_VALUE_RESULTSET));
+
+    String uniqueName = InProcessServerBuilder.generateName();
+    server = InProcessServerBuilder.forName(uniqueName).addService(mockSpanner).build().start();
+    channelProvider = LocalChannelProvider.create(uniqueName);
+  }
+
+  @AfterClass
+  public static void teardown() throws Exception {
+    server.shutdown();
+    server.awaitTermination();
+  }
+
+  @Before
+  public void before() {
+    spanner =
+        SpannerOptions.newBuilder()
+            .setProjectId(TEST_PROJECT)
+            .setChannelProvider(channelProvider)
+            .setCredentials(NoCredentials.getInstance())
+            .setSessionPoolOption(
+                SessionPoolOptions.newBuilder().setFailOnSessionLeak().setMinSessions(0).build())
+            .build()
+            .getService();
+    client = spanner.getDatabaseClient(DatabaseId.of(TEST_PROJECT, TEST_INSTANCE, TEST_DATABASE));
+  }
+
+  @After
+  public void after() {
+    spanner.close();
+    mockSpanner.reset();
+  }
+
+  private static KeySet keys(int numKeys) {
+    KeySet.Builder builder = KeySet.newBuilder();
+    for (int i = 0; i < numKeys; i++) {
+      builder.addKey(Key.of("k" + i));
+    }
+    return builder.build();
+  }
+
+  private static int countRows(ResultSet resultSet) {
+    int count = 0;
+    while (resultSet.next()) {
+      count++;
+    }
+    return count;
+  }
+
+  /** Verifies that all read requests used the same transaction id, and returns that id. */
+  private static ByteString assertSameTransaction(List<ReadRequest> requests) {
+    ByteString transactionId = requests.get(0).getTransaction().getId();
+    assertFalse(transactionId.isEmpty());
+    for (ReadRequest request : requests) {
+      assertEquals(transactionId, request.getTransaction().getId());
+    }
+    return transactionId;
+  }
+
+  @Test
+  public void testSplitKeys() {
+    List<KeySet> batches = MultiGetResultSet.splitKeys(keys(10), 4);
+    assertEquals(3, batches.size());
+    assertEquals(keys(4), batches.get(0));
+    assertEquals(
+        KeySet.newBuilder().addKey(Key.of("k8")).addKey(Key.of("k9")).build(), batches.get(2));
+    assertEquals(1, MultiGetResultSet.splitKeys(keys(4), 4).size());
+  }
+
+  @Test
+  public void testSingleUseMultiGet() {
+    for (boolean preserveKeyOrder : new boolean[] {true, false}) {
+      mockSpanner.clearRequests();
+      try (ResultSet resultSet =
+          client
+              .singleUse()
+              .read(
+                  READ_TABLE_NAME,
+                  keys(10),
+                  READ_COLUMN_NAMES,
+                  Options.multiGet(3, preserveKeyOrder))) {
+        // The mock server returns one row for each batch.
+        assertEquals(4, countRows(resultSet));
+      }
+      List<ReadRequest> requests = mockSpanner.getRequestsOfType(ReadRequest.class);
+      assertEquals(4, requests.size());
+      assertSameTransaction(requests);
+      List<BeginTransactionRequest> beginRequests =
+          mockSpanner.getRequestsOfType(BeginTransactionRequest.class);
+      assertEquals(1, beginRequests.size());
+      assertTrue(beginRequests.get(0).getOptions().getReadOnly().getStrong());
+    }
+  }
+
+  @Test
+  public void testSingleUseMultiGetResolvesMaxStaleness() {
+    try (ReadOnlyTransaction transaction =
+            client.singleUseReadOnlyTransaction(
+                TimestampBound.ofMaxStaleness(15L, TimeUnit.SECONDS));
+        ResultSet resultSet =
+            transaction.read(
+                READ_TABLE_NAME, keys(5), READ_COLUMN_NAMES, Options.multiGet(2, true))) {
+      assertEquals(3, countRows(resultSet));
+    }
+    List<BeginTransactionRequest> beginRequests =
+        mockSpanner.getRequestsOfType(BeginTransactionRequest.class);
+    assertEquals(1, beginRequests.size());
+    assertEquals(
+        15L, beginRequests.get(0).getOptions().getReadOnly().getExactStaleness().getSeconds());
+    assertSameTransaction(mockSpanner.getRequestsOfType(ReadRequest.class));
+  }
+
+  @Test
+  public void testReadOnlyTransactionMultiGet() {
+    try (ReadOnlyTransaction transaction = client.readOnlyTransaction()) {
+      try (ResultSet resultSet =
+          transaction.read(
+              READ_TABLE_NAME, keys(10), READ_COLUMN_NAMES, Options.multiGet(5, false))) {
+        assertEquals(2, countRows(resultSet));
+      }
+      try (ResultSet resultSet =
+          transaction.read(
+              READ_TABLE_NAME, keys(10), READ_COLUMN_NAMES, Options.multiGet(10, false))) {
+        assertEquals(1, countRows(resultSet));
+      }
+    }
+    List<ReadRequest> requests = mockSpanner.getRequestsOfType(ReadRequest.class);
+    assertEquals(3, requests.size());
+    assertSameTransaction(requests);
+    assertEquals(1, mockSpanner.countRequestsOfType(BeginTransactionRequest.class));
+  }
+
+  @Test
+  public void testReadWriteTransactionMultiGet() {
+    for (boolean preserveKeyOrder : new boolean[] {true, false}) {
+      mockSpanner.clearRequests();
+      Integer rowCount =
+          client
+              .readWriteTransaction()
+              .run(
+                  transaction -> {
+                    try (ResultSet resultSet =
+                        transaction.read(
+                            READ_TABLE_NAME,
+                            keys(10),
+                            READ_COLUMN_NAMES,
+                            Options.multiGet(3, preserveKeyOrder))) {
+                      return countRows(resultSet);
+                    }
+                  });
+      assertEquals(Integer.valueOf(4), rowCount);
+      // The transaction is not retried, and only the first batch includes a BeginTransaction
+      // option. The other batches use the transaction id that is returned by the first batch.
+      List<ReadRequest> requests = mockSpanner.getRequestsOfType(ReadRequest.class);
+      assertEquals(4, requests.size());
+      assertTrue(requests.get(0).getTransaction().hasBegin());
+      assertSameTransaction(requests.subList(1, requests.size()));
+      assertEquals(1, mockSpanner.countRequestsOfType(CommitRequest.class));
+    }
+  }
+
+  @Test
+  public void testMultiGetAsync() throws Exception {
+    AtomicInteger rowCount = new AtomicInteger();
+    ApiFuture<Void> finished;
+    try (AsyncResultSet resultSet =
+        client
+            .singleUse()
+            .readAsync(READ_TABLE_NAME, keys(100), READ_COLUMN_NAMES, Options.multiGet(10, true))) {
+      finished =
+          resultSet.setCallback(
+              MoreExecutors.directExecutor(),
+              rs -> {
+                while (true) {
+                  switch (rs.tryNext()) {
+                    case OK:
+                      rowCount.incrementAndGet();
+                      break;
+                    case DONE:
+                      return CallbackResponse.DONE;
+                    case NOT_READY:
+                      return CallbackResponse.CONTINUE;
+                  }
+                }
+              });
+    }
+    finished.get();
+    assertEquals(10, rowCount.get());
+    assertEquals(10, mockSpanner.countRequestsOfType(ReadRequest.class));
+  }
+
+  @Test
+  public void testKeyRangesAreNotSplit() {
+    KeySet keySet =
+        keys(10).toBuilder().addRange(KeyRange.closedOpen(Key.of("a"), Key.of("b"))).build();
+    try (ResultSet resultSet =
+        client
+            .singleUse()
+            .read(READ_TABLE_NAME, keySet, READ_COLUMN_NAMES, Options.multiGet(2, true))) {
+      assertEquals(1, countRows(resultSet));
+    }
+    assertEquals(1, mockSpanner.countRequestsOfType(ReadRequest.class));
+    assertEquals(0, mockSpanner.countRequestsOfType(BeginTransactionRequest.class));
+  }
+
+  @Test
+  public void testLimitsConcurrentBatches() {
+    List<StreamingResultSet> batches = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      StreamingResultSet batch = mock(StreamingResultSet.class);
+      when(batch.initiateStreaming(any())).thenReturn(true);
+      when(batch.next()).thenReturn(true, false);
+      batches.add(batch);
+    }
+    try (ResultSet resultSet = new MultiGetResultSet(new ArrayList<>(batches), true, false, 2)) {
+      verify(batches.get(1)).initiateStreaming(any());
+      verify(batches.get(2), never()).initiateStreaming(any());
+
+      assertTrue(resultSet.next());
+      verify(batches.get(2), never()).initiateStreaming(any());
+      // Consuming the first batch starts the third batch.
+      assertTrue(resultSet.next());
+      verify(batches.get(2)).initiateStreaming(any());
+      verify(batches.get(3), never()).initiateStreaming(any());
+
+      assertEquals(3, countRows(resultSet));
+      for (StreamingResultSet batch : batches) {
+        verify(batch).initiateStreaming(any());
+      }
+    }
+  }
+}
@@ -30,6 +30,7 @@ import static org.junit.Assert.assertTrue;
 
 import com.google.api.core.ApiFuture;
 import com.google.api.core.ApiFutures;
+import com.google.api.gax.rpc.ServerStream;
 import com.google.cloud.NoCredentials;
 import com.google.cloud.Timestamp;
 import com.google.cloud.spanner.AsyncTransactionManager.AsyncTransactionStep;
@@ -45,6 +46,8 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Lists;
 import com.google.common.util.concurrent.MoreExecutors;
 import com.google.protobuf.ByteString;
+import com.google.spanner.v1.BatchWriteRequest;
+import com.google.spanner.v1.BatchWriteResponse;
 import com.google.spanner.v1.BeginTransactionRequest;
 import com.google.spanner.v1.CommitRequest;
 import com.google.spanner.v1.ExecuteSqlRequest;
@@ -95,6 +98,7 @@ public class MultiplexedSessionDatabaseClientMockServerTest extends AbstractMock
                     .setUseMultiplexedSession(true)
                     .setUseMultiplexedSessionBlindWrite(true)
                     .setUseMultiplexedSessionForRW(true)
+                    .setUseMultiplexedSessionPartitionedOps(true)
                     // Set the maintainer to loop once every 1ms
                     .setMultiplexedSessionMaintenanceLoopFrequency(Duration.ofMillis(1L))
                     // Set multiplexed sessions to be replaced once every 1ms
@@ -367,6 +371,33 @@ public class MultiplexedSessionDatabaseClientMockServerTest extends AbstractMock
     assertEquals(1L, client.multiplexedSessionDatabaseClient.getNumSessionsReleased().get());
   }
 
+  @Test
+  public void testWriteAtLeastOnceFailedReleasesTransaction() {
+    DatabaseClientImpl client =
+        (DatabaseClientImpl) spanner.getDatabaseClient(DatabaseId.of("p", "i", "d"));
+    mockSpanner.setCommitExecutionTime(
+        SimulatedExecutionTime.ofException(
+            Status.FAILED_PRECONDITION.withDescription("test").asRuntimeException()));
+    SpannerException exception =
+        assertThrows(
+            SpannerException.class,
+            () ->
+                client.writeAtLeastOnce(
+                    Collections.singletonList(
+                        Mutation.newInsertBuilder("FOO")
+                            .set("ID")
+                            .to(1L)
+                            .set("NAME")
+                            .to("Bar")
+                            .build())));
+    assertEquals(ErrorCode.FAILED_PRECONDITION, exception.getErrorCode());
+
+    // The transaction and its channel must also be released if the Commit RPC fails.
+    assertNotNull(client.multiplexedSessionDatabaseClient);
+    assertEquals(1L, client.multiplexedSessionDatabaseClient.getNumSessionsAcquired().get());
+    assertEquals(1L, client.multiplexedSessionDatabaseClient.getNumSessionsReleased().get());
+  }
+
   @Test
   public void testWriteAtLeastOnce() {
     DatabaseClientImpl client =
@@ -392,6 +423,60 @@ public class MultiplexedSessionDatabaseClientMockServerTest extends AbstractMock
     assertEquals(1L, client.multiplexedSessionDatabaseClient.getNumSessionsReleased().get());
   }
 
+  @Test
+  public void testBatchWriteAtLeastOnce() {
+    DatabaseClientImpl client =
+        (DatabaseClientImpl) spanner.getDatabaseClient(DatabaseId.of("p", "i", "d"));
+    ServerStream<BatchWriteResponse> stream =
+        client.batchWriteAtLeastOnce(
+            ImmutableList.of(
+                MutationGroup.of(
+                    Mutation.newInsertBuilder("FOO").set("ID").to(1L).build(),
+                    Mutation.newInsertBuilder("BAR").set("ID").to(1L).build()),
+                MutationGroup.of(Mutation.newInsertBuilder("FOO").set("ID").to(2L).build())));
+    // The transaction is only released once the stream has been consumed.
+    assertNotNull(client.multiplexedSessionDatabaseClient);
+    assertEquals(0L, client.multiplexedSessionDatabaseClient.getNumSessionsReleased().get());
+    int numResponses = 0;
+    for (BatchWriteResponse response : stream) {
+      assertEquals(com.google.rpc.Code.OK_VALUE, response.getStatus().getCode());
+      numResponses++;
+    }
+    assertTrue(numResponses > 0);
+
+    List<BatchWriteRequest> requests = mockSpanner.getRequestsOfType(BatchWriteRequest.class);
+    assertEquals(1, requests.size());
+    assertEquals(2, requests.get(0).getMutationGroupsCount());
+    assertTrue(mockSpanner.getSession(requests.get(0).getSession()).getMultiplexed());
+
+    assertNotNull(client.multiplexedSessionDatabaseClient);
+    assertEquals(1L, client.multiplexedSessionDatabaseClient.getNumSessionsAcquired().get());
+    assertEquals(1L, client.multiplexedSessionDatabaseClient.getNumSessionsReleased().get());
+  }
+
+  @Test
+  public void testExecutePartitionedUpdate() {
+    DatabaseClientImpl client =
+        (DatabaseClientImpl) spanner.getDatabaseClient(DatabaseId.of("p", "i", "d"));
+    assertEquals(UPDATE_COUNT, client.executePartitionedUpdate(UPDATE_STATEMENT));
+
+    List<BeginTransactionRequest> beginTransactionRequests =
+        mockSpanner.getRequestsOfType(BeginTransactionRequest.class).stream()
+            .filter(request -> request.getOptions().hasPartitionedDml())
+            .collect(Collectors.toList());
+    assertEquals(1, beginTransactionRequests.size());
+    assertTrue(
+        mockSpanner.getSession(beginTransactionRequests.get(0).getSession()).getMultiplexed());
+    List<ExecuteSqlRequest> executeSqlRequests =
+        mockSpanner.getRequestsOfType(ExecuteSqlRequest.class);
+    assertEquals(1, executeSqlRequests.size());
+    assertTrue(mockSpanner.getSession(executeSqlRequests.get(0).getSession()).getMultiplexed());
+
+    assertNotNull(client.multiplexedSessionDatabaseClient);
+    assertEquals(1L, client.multiplexedSessionDatabaseClient.getNumSessionsAcquired().get());
+    assertEquals(1L, client.multiplexedSessionDatabaseClient.getNumSessionsReleased().get());
+  }
+
   @Test
   public void testWriteAtLeastOnceWithCommitStats() {
     DatabaseClientImpl client =
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class MutationEncoderTest {
+
+  private static Mutation insert(long id) {
+    return Mutation.newInsertBuilder("FOO").set("ID").to(id).set("NAME").to("Name " + id).build();
+  }
+
+  @Test
+  public void testCountsAndCoalescesMutations() {
+    MutationEncoder encoder = new MutationEncoder();
+    assertTrue(encoder.isEmpty());
+    for (long id = 0L; id < 3L; id++) {
+      encoder.add(insert(id));
+    }
+    assertFalse(encoder.isEmpty());
+    assertEquals(6L, encoder.getMutationCount());
+    encoder.add(Mutation.delete("FOO", KeySet.newBuilder().addKey(Key.of(1L)).build()));
+    encoder.add(Mutation.delete("FOO", KeySet.range(KeyRange.closedOpen(Key.of(2L), Key.of(5L)))));
+    assertEquals(8L, encoder.getMutationCount());
+    encoder.add(
+        MutationWriter.newUpdateWriter("BAR", "ID", "VALUE", "OTHER")
+            .addRow()
+            .addInt64(1L)
+            .addString("One")
+            .addNull()
+            .build());
+    assertEquals(11L, encoder.getMutationCount());
+
+    List<com.google.spanner.v1.Mutation> mutations = encoder.build();
+    assertEquals(3, mutations.size());
+    assertEquals(3, mutations.get(0).getInsert().getValuesCount());
+    assertEquals(1, mutations.get(1).getDelete().getKeySet().getKeysCount());
+    assertEquals(1, mutations.get(1).getDelete().getKeySet().getRangesCount());
+    assertEquals("BAR", mutations.get(2).getUpdate().getTable());
+    // The random mutation should never be the insert mutation, as there are other mutations.
+    assertFalse(encoder.getRandomMutation().hasInsert());
+  }
+
+  @Test
+  public void testSerializedSize() {
+    MutationEncoder encoder = new MutationEncoder();
+    long previousSize = 0L;
+    for (long id = 0L; id < 100L; id++) {
+      encoder.add(insert(id));
+      assertTrue(encoder.getSerializedSize() > previousSize);
+      previousSize = encoder.getSerializedSize();
+    }
+    encoder.add(Mutation.delete("FOO", Key.of(1L)));
+    List<com.google.spanner.v1.Mutation> mutations = encoder.build();
+    long expectedSize = 0L;
+    for (com.google.spanner.v1.Mutation mutation : mutations) {
+      expectedSize += mutation.getSerializedSize();
+    }
+    assertEquals(expectedSize, encoder.getSerializedSize());
+  }
+
+  @Test
+  public void testRandomMutationIsLargestInsert() {
+    MutationEncoder encoder = new MutationEncoder();
+    encoder.add(insert(1L));
+    encoder.add(Mutation.newInsertBuilder("BAR").set("ID").to(1L).build());
+    encoder.add(Mutation.newInsertBuilder("BAR").set("ID").to(2L).build());
+    encoder.add(Mutation.newInsertBuilder("BAR").set("ID").to(3L).build());
+    encoder.build();
+    assertEquals("BAR", encoder.getRandomMutation().getInsert().getTable());
+  }
+}
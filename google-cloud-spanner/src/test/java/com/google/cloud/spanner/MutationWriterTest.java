@@ -0,0 +1,155 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+
+import com.google.cloud.ByteArray;
+import com.google.cloud.Date;
+import com.google.cloud.Timestamp;
+import com.google.cloud.spanner.Mutation.Op;
+import com.google.common.collect.ImmutableList;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class MutationWriterTest {
+
+  private static com.google.spanner.v1.Mutation toProto(Mutation... mutations) {
+    List<com.google.spanner.v1.Mutation> protos = new ArrayList<>();
+    Mutation.toProtoAndReturnRandomMutation(ImmutableList.copyOf(mutations), protos);
+    assertEquals(1, protos.size());
+    return protos.get(0);
+  }
+
+  @Test
+  public void testEncodesSameAsMutation() {
+    Timestamp timestamp = Timestamp.parseTimestamp("2024-01-30T10:00:00.123456Z");
+    Date date = Date.fromYearMonthDay(2024, 1, 30);
+    EncodedMutation encoded =
+        MutationWriter.newInsertOrUpdateWriter(
+                "T", "BOOL", "INT64", "FLOAT64", "STRING", "BYTES", "TS", "DATE", "NUMERIC")
+            .addRow()
+            .addBool(true)
+            .addInt64(1L)
+            .addFloat64(3.14d)
+            .addString("one")
+            .addBytes(ByteArray.copyFrom("bytes"))
+            .addTimestamp(timestamp)
+            .addDate(date)
+            .addValue(Value.numeric(new BigDecimal("3.14")))
+            .addRow()
+            .addBool(false)
+            .addInt64(2L)
+            .addFloat64(Double.NaN)
+            .addString(null)
+            .addBytes(null)
+            .addTimestamp(Value.COMMIT_TIMESTAMP)
+            .addDate(null)
+            .addNull()
+            .build();
+
+    Mutation row1 =
+        Mutation.newInsertOrUpdateBuilder("T")
+            .set("BOOL")
+            .to(true)
+            .set("INT64")
+            .to(1L)
+            .set("FLOAT64")
+            .to(3.14d)
+            .set("STRING")
+            .to("one")
+            .set("BYTES")
+            .to(ByteArray.copyFrom("bytes"))
+            .set("TS")
+            .to(timestamp)
+            .set("DATE")
+            .to(date)
+            .set("NUMERIC")
+            .to(new BigDecimal("3.14"))
+            .build();
+    Mutation row2 =
+        Mutation.newInsertOrUpdateBuilder("T")
+            .set("BOOL")
+            .to(false)
+            .set("INT64")
+            .to(2L)
+            .set("FLOAT64")
+            .to(Double.NaN)
+            .set("STRING")
+            .to((String) null)
+            .set("BYTES")
+            .to((ByteArray) null)
+            .set("TS")
+            .to(Value.COMMIT_TIMESTAMP)
+            .set("DATE")
+            .to((Date) null)
+            .set("NUMERIC")
+            .to((BigDecimal) null)
+            .build();
+    assertEquals(toProto(row1, row2), encoded.toProto());
+    assertEquals("T", encoded.getTable());
+    assertEquals(Op.INSERT_OR_UPDATE, encoded.getOperation());
+    assertEquals(2, encoded.getRowCount());
+  }
+
+  @Test
+  public void testOperations() {
+    assertEquals(Op.INSERT, MutationWriter.newInsertWriter("T", "C").build().getOperation());
+    assertEquals(Op.UPDATE, MutationWriter.newUpdateWriter("T", "C").build().getOperation());
+    assertEquals(Op.REPLACE, MutationWriter.newReplaceWriter("T", "C").build().getOperation());
+    assertEquals(0, MutationWriter.newReplaceWriter("T", "C").build().getRowCount());
+  }
+
+  @Test
+  public void testIncompleteRow() {
+    MutationWriter writer = MutationWriter.newInsertWriter("T", "C1", "C2").addRow().addInt64(1L);
+    assertThrows(IllegalStateException.class, writer::addRow);
+    assertThrows(IllegalStateException.class, writer::build);
+  }
+
+  @Test
+  public void testTooManyValues() {
+    MutationWriter writer = MutationWriter.newInsertWriter("T", "C1").addRow().addInt64(1L);
+    assertThrows(IllegalStateException.class, () -> writer.addInt64(2L));
+  }
+
+  @Test
+  public void testValueWithoutRow() {
+    MutationWriter writer = MutationWriter.newInsertWriter("T", "C1");
+    assertThrows(IllegalStateException.class, () -> writer.addString("foo"));
+  }
+
+  @Test
+  public void testDuplicateColumns() {
+    assertThrows(
+        IllegalArgumentException.class, () -> MutationWriter.newInsertWriter("T", "C1", "c1"));
+  }
+
+  @Test
+  public void testBuildTwice() {
+    MutationWriter writer = MutationWriter.newInsertWriter("T", "C1").addRow().addInt64(1L);
+    writer.build();
+    assertThrows(IllegalStateException.class, writer::build);
+    assertThrows(IllegalStateException.class, writer::addRow);
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+
+import com.google.common.collect.ImmutableList;
+import com.google.protobuf.ByteString;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class PartitionedResultSetTest {
+  private static final Type TYPE = Type.struct(Type.StructField.of("ID", Type.int64()));
+
+  private static List<Partition> createPartitions(int numPartitions) {
+    List<Partition> partitions = new ArrayList<>(numPartitions);
+    for (int i = 0; i < numPartitions; i++) {
+      partitions.add(
+          Partition.createQueryPartition(
+              ByteString.copyFromUtf8(String.valueOf(i)),
+              PartitionOptions.getDefaultInstance(),
+              Statement.of("SELECT ID FROM FOO"),
+              Options.fromQueryOptions()));
+    }
+    return partitions;
+  }
+
+  private static ResultSet createResultSet(Partition partition, int numRows) {
+    long base = Long.parseLong(partition.getPartitionToken().toStringUtf8()) * 1000L;
+    List<Struct> rows = new ArrayList<>(numRows);
+    for (int row = 0; row < numRows; row++) {
+      rows.add(Struct.newBuilder().set("ID").to(base + row).build());
+    }
+    return ResultSets.forRows(TYPE, rows);
+  }
+
+  @Test
+  public void testMergesAllPartitions() {
+    int numPartitions = 10;
+    int numRows = 100;
+    try (PartitionedResultSet resultSet =
+        new PartitionedResultSet(
+            partition -> createResultSet(partition, numRows),
+            createPartitions(numPartitions),
+            4,
+            /* bufferRowsPerPartition = */ 2)) {
+      assertEquals(4, resultSet.getParallelism());
+      assertEquals(TYPE, resultSet.getType());
+      Set<Long> ids = new HashSet<>();
+      while (resultSet.next()) {
+        ids.add(resultSet.getLong("ID"));
+      }
+      assertEquals(numPartitions * numRows, ids.size());
+    }
+  }
+
+  @Test
+  public void testNoPartitions() {
+    try (PartitionedResultSet resultSet =
+        new PartitionedResultSet(
+            partition -> createResultSet(partition, 1), ImmutableList.of(), 0, 1)) {
+      assertFalse(resultSet.next());
+      assertEquals(0, resultSet.getColumnCount());
+    }
+  }
+
+  @Test
+  public void testRetriesPartitionThatFailedBeforeReturningRows() {
+    Map<Partition, AtomicInteger> attempts = new ConcurrentHashMap<>();
+    Function<Partition, ResultSet> partitionFunction =
+        partition -> {
+          if (attempts.computeIfAbsent(partition, p -> new AtomicInteger()).incrementAndGet()
+              == 1) {
+            throw SpannerExceptionFactory.newSpannerException(
+                ErrorCode.UNAVAILABLE, "Transient error");
+          }
+          return createResultSet(partition, 10);
+        };
+    int count = 0;
+    try (PartitionedResultSet resultSet =
+        new PartitionedResultSet(partitionFunction, createPartitions(3), 0, 5)) {
+      while (resultSet.next()) {
+        count++;
+      }
+    }
+    assertEquals(30, count);
+    attempts.values().forEach(numAttempts -> assertEquals(2, numAttempts.get()));
+  }
+
+  @Test
+  public void testPropagatesNonRetryableError() {
+    Function<Partition, ResultSet> partitionFunction =
+        partition -> {
+          throw SpannerExceptionFactory.newSpannerException(
+              ErrorCode.INVALID_ARGUMENT, "Invalid query");
+        };
+    try (PartitionedResultSet resultSet =
+        new PartitionedResultSet(partitionFunction, createPartitions(3), 0, 5)) {
+      SpannerException exception = assertThrows(SpannerException.class, resultSet::next);
+      assertEquals(ErrorCode.INVALID_ARGUMENT, exception.getErrorCode());
+      // The error is returned again for any subsequent calls.
+      assertThrows(SpannerException.class, resultSet::next);
+    }
+  }
+}
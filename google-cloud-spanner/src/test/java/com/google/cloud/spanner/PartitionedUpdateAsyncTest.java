@@ -0,0 +1,255 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner;
+
+import static com.google.cloud.spanner.MockSpannerTestUtil.TEST_DATABASE;
+import static com.google.cloud.spanner.MockSpannerTestUtil.TEST_INSTANCE;
+import static com.google.cloud.spanner.MockSpannerTestUtil.TEST_PROJECT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import com.google.api.gax.grpc.testing.LocalChannelProvider;
+import com.google.cloud.NoCredentials;
+import com.google.cloud.spanner.MockSpannerServiceImpl.SimulatedExecutionTime;
+import com.google.cloud.spanner.MockSpannerServiceImpl.StatementResult;
+import com.google.common.collect.ImmutableList;
+import com.google.spanner.v1.BeginTransactionRequest;
+import com.google.spanner.v1.ExecuteSqlRequest;
+import io.grpc.Server;
+import io.grpc.Status;
+import io.grpc.inprocess.InProcessServerBuilder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.AfterClass;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class PartitionedUpdateAsyncTest {
+  private static final Statement UPDATE_STATEMENT =
+      Statement.of("UPDATE FOO SET BAR=1 WHERE BAZ=2");
+  private static final Statement INVALID_UPDATE_STATEMENT =
+      Statement.of("UPDATE NON_EXISTENT_TABLE SET BAR=1 WHERE BAZ=2");
+  private static final long UPDATE_COUNT = 100L;
+  private static final int NUM_STATEMENTS = 10;
+
+  private static MockSpannerServiceImpl mockSpanner;
+  private static Server server;
+  private static LocalChannelProvider channelProvider;
+
+  private Spanner spanner;
+  private DatabaseClient client;
+
+  @BeforeClass
+  public static void setup() throws Exception {
+    mockSpanner = new MockSpannerServiceImpl();
+    mockSpanner.putStatementResult(StatementResult.update(UPDATE_STATEMENT, UPDATE_COUNT));
+    mockSpanner.putStatementResult(
+        StatementResult.exception(
+            INVALID_UPDATE_STATEMENT,
+            Status.INVALID_ARGUMENT.withDescription("invalid statement").asRuntimeException()));
+    for (int i = 0; i < NUM_STATEMENTS; i++) {
+      mockSpanner.putStatementResult(StatementResult.update(backfillStatement(i), i + 1L));
+    }
+
+    String uniqueName = InProcessServerBuilder.generateName();
+    server = InProcessServerBuilder.forName(uniqueName).addService(mockSpanner).build().start();
+    channelProvider = LocalChannelProvider.create(uniqueName);
+  }
+
+  @AfterClass
+  public static void teardown() throws Exception {
+    server.shutdown();
+    server.awaitTermination();
+  }
+
+  @Before
+  public void before() {
+    spanner =
+        SpannerOptions.newBuilder()
+            .setProjectId(TEST_PROJECT)
+            .setChannelProvider(channelProvider)
+            .setCredentials(NoCredentials.getInstance())
+            .setSessionPoolOption(
+                SessionPoolOptions.newBuilder().setFailOnSessionLeak().setMinSessions(0).build())
+            .build()
+            .getService();
+    client = spanner.getDatabaseClient(DatabaseId.of(TEST_PROJECT, TEST_INSTANCE, TEST_DATABASE));
+  }
+
+  @After
+  public void after() {
+    spanner.close();
+    mockSpanner.reset();
+    mockSpanner.removeAllExecutionTimes();
+  }
+
+  private static Statement backfillStatement(int index) {
+    return Statement.of("UPDATE FOO SET BAR=" + index + " WHERE BAR IS NULL");
+  }
+
+  private static List<Statement> backfillStatements() {
+    List<Statement> statements = new ArrayList<>(NUM_STATEMENTS);
+    for (int i = 0; i < NUM_STATEMENTS; i++) {
+      statements.add(backfillStatement(i));
+    }
+    return statements;
+  }
+
+  @Test
+  public void testExecutePartitionedUpdateAsync() throws Exception {
+    assertEquals(
+        UPDATE_COUNT, client.executePartitionedUpdateAsync(UPDATE_STATEMENT).get().longValue());
+
+    List<BeginTransactionRequest> beginRequests =
+        mockSpanner.getRequestsOfType(BeginTransactionRequest.class);
+    assertEquals(1, beginRequests.size());
+    assertTrue(beginRequests.get(0).getOptions().hasPartitionedDml());
+    assertEquals(1, mockSpanner.countRequestsOfType(ExecuteSqlRequest.class));
+  }
+
+  @Test
+  public void testExecutePartitionedUpdateAsyncWithTag() throws Exception {
+    client
+        .executePartitionedUpdateAsync(UPDATE_STATEMENT, Options.tag("app=spanner,action=pdml"))
+        .get();
+
+    List<ExecuteSqlRequest> requests = mockSpanner.getRequestsOfType(ExecuteSqlRequest.class);
+    assertEquals(1, requests.size());
+    assertEquals("app=spanner,action=pdml", requests.get(0).getRequestOptions().getRequestTag());
+  }
+
+  @Test
+  public void testExecutePartitionedUpdateAsyncRetriesUnavailable() throws Exception {
+    mockSpanner.setExecuteStreamingSqlExecutionTime(
+        SimulatedExecutionTime.ofException(Status.UNAVAILABLE.asRuntimeException()));
+
+    assertEquals(
+        UPDATE_COUNT, client.executePartitionedUpdateAsync(UPDATE_STATEMENT).get().longValue());
+    assertEquals(2, mockSpanner.countRequestsOfType(ExecuteSqlRequest.class));
+  }
+
+  @Test
+  public void testExecutePartitionedUpdateAsyncRetriesAborted() throws Exception {
+    mockSpanner.abortNextTransaction();
+
+    assertEquals(
+        UPDATE_COUNT, client.executePartitionedUpdateAsync(UPDATE_STATEMENT).get().longValue());
+  }
+
+  @Test
+  public void testExecutePartitionedUpdateAsyncWithError() {
+    ExecutionException exception =
+        assertThrows(
+            ExecutionException.class,
+            () -> client.executePartitionedUpdateAsync(INVALID_UPDATE_STATEMENT).get());
+    assertTrue(exception.getCause() instanceof SpannerException);
+    assertEquals(
+        ErrorCode.INVALID_ARGUMENT, ((SpannerException) exception.getCause()).getErrorCode());
+  }
+
+  @Test
+  public void testRunnerExecutesAllStatements() throws Exception {
+    ConcurrentMap<Integer, Long> progress = new ConcurrentHashMap<>();
+    PartitionedUpdateRunner runner =
+        PartitionedUpdateRunner.create(
+            client,
+            3,
+            (index, statement, stats, rowCountLowerBound) -> {
+              assertEquals(backfillStatement(index), statement);
+              progress.merge(index, rowCountLowerBound, Math::max);
+            });
+
+    List<Long> rowCounts = runner.executeAsync(backfillStatements()).get();
+
+    assertEquals(NUM_STATEMENTS, rowCounts.size());
+    for (int i = 0; i < NUM_STATEMENTS; i++) {
+      assertEquals(i + 1L, rowCounts.get(i).longValue());
+      assertEquals(i + 1L, progress.get(i).longValue());
+    }
+    assertEquals(NUM_STATEMENTS, mockSpanner.countRequestsOfType(ExecuteSqlRequest.class));
+  }
+
+  @Test
+  public void testRunnerWithFewerSessionsThanConcurrentStatements() throws Exception {
+    mockSpanner.setExecuteStreamingSqlExecutionTime(
+        SimulatedExecutionTime.ofMinimumAndRandomTime(10, 0));
+    try (Spanner smallPoolSpanner =
+        SpannerOptions.newBuilder()
+            .setProjectId(TEST_PROJECT)
+            .setChannelProvider(channelProvider)
+            .setCredentials(NoCredentials.getInstance())
+            .setSessionPoolOption(
+                SessionPoolOptions.newBuilder()
+                    .setFailOnSessionLeak()
+                    .setMinSessions(0)
+                    .setMaxSessions(2)
+                    .build())
+            .build()
+            .getService()) {
+      DatabaseClient smallPoolClient =
+          smallPoolSpanner.getDatabaseClient(
+              DatabaseId.of(TEST_PROJECT, TEST_INSTANCE, TEST_DATABASE));
+      // Statements that are waiting for a session must not block the threads that finish the
+      // running statements, as that would prevent the sessions from being returned to the pool.
+      PartitionedUpdateRunner runner = PartitionedUpdateRunner.create(smallPoolClient, 5);
+
+      List<Long> rowCounts = runner.executeAsync(backfillStatements()).get(30L, TimeUnit.SECONDS);
+
+      assertEquals(NUM_STATEMENTS, rowCounts.size());
+      for (int i = 0; i < NUM_STATEMENTS; i++) {
+        assertEquals(i + 1L, rowCounts.get(i).longValue());
+      }
+      assertEquals(NUM_STATEMENTS, mockSpanner.countRequestsOfType(ExecuteSqlRequest.class));
+    }
+  }
+
+  @Test
+  public void testRunnerWithoutStatements() throws Exception {
+    assertEquals(
+        ImmutableList.of(),
+        PartitionedUpdateRunner.create(client, 2).executeAsync(ImmutableList.of()).get());
+  }
+
+  @Test
+  public void testRunnerStopsAfterError() {
+    List<Statement> statements = new ArrayList<>(backfillStatements());
+    statements.add(0, INVALID_UPDATE_STATEMENT);
+    PartitionedUpdateRunner runner = PartitionedUpdateRunner.create(client, 1);
+
+    ExecutionException exception =
+        assertThrows(ExecutionException.class, () -> runner.executeAsync(statements).get());
+    assertEquals(
+        ErrorCode.INVALID_ARGUMENT, ((SpannerException) exception.getCause()).getErrorCode());
+    // The runner only executes one statement at a time, and stops after the first error.
+    assertEquals(1, mockSpanner.countRequestsOfType(ExecuteSqlRequest.class));
+  }
+
+  @Test
+  public void testRunnerRejectsInvalidConcurrency() {
+    assertThrows(IllegalArgumentException.class, () -> PartitionedUpdateRunner.create(client, 0));
+  }
+}
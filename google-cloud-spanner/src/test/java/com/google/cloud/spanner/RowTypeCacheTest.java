@@ -0,0 +1,124 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import com.google.cloud.spanner.Type.StructField;
+import com.google.common.cache.CacheStats;
+import com.google.spanner.v1.StructType;
+import com.google.spanner.v1.TypeCode;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.sdk.OpenTelemetrySdk;
+import io.opentelemetry.sdk.metrics.SdkMeterProvider;
+import io.opentelemetry.sdk.metrics.data.LongPointData;
+import io.opentelemetry.sdk.metrics.data.MetricData;
+import io.opentelemetry.sdk.testing.exporter.InMemoryMetricReader;
+import java.util.Collection;
+import java.util.UUID;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class RowTypeCacheTest {
+
+  private static StructType createRowType(String... names) {
+    StructType.Builder builder = StructType.newBuilder();
+    for (String name : names) {
+      builder
+          .addFieldsBuilder()
+          .setName(name)
+          .setType(com.google.spanner.v1.Type.newBuilder().setCode(TypeCode.INT64));
+    }
+    return builder.build();
+  }
+
+  @Test
+  public void testEqualRowTypesShareType() {
+    String column = "C" + UUID.randomUUID().toString().replace("-", "");
+    CacheStats statsBefore = RowTypeCache.getStats();
+
+    Type type1 = RowTypeCache.getRowType(createRowType("ID", column));
+    Type type2 = RowTypeCache.getRowType(createRowType("ID", column));
+
+    assertSame(type1, type2);
+    assertEquals(
+        Type.struct(StructField.of("ID", Type.int64()), StructField.of(column, Type.int64())),
+        type1);
+    assertEquals(1, type1.getFieldIndex(column));
+
+    CacheStats stats = RowTypeCache.getStats().minus(statsBefore);
+    // The first lookup is a cache miss. The second a cache hit.
+    assertEquals(1, stats.missCount());
+    assertEquals(1, stats.hitCount());
+  }
+
+  @Test
+  public void testDifferentRowTypesDoNotShareType() {
+    String column = "C" + UUID.randomUUID().toString().replace("-", "");
+
+    Type type1 = RowTypeCache.getRowType(createRowType("ID", column));
+    Type type2 = RowTypeCache.getRowType(createRowType(column, "ID"));
+
+    assertNotSame(type1, type2);
+    assertEquals(0, type2.getFieldIndex(column));
+  }
+
+  private static long getCounterValue(Collection<MetricData> metrics, String name) {
+    MetricData metric =
+        metrics.stream().filter(data -> data.getName().equals(name)).findFirst().get();
+    return metric.getLongSumData().getPoints().stream().mapToLong(LongPointData::getValue).sum();
+  }
+
+  @Test
+  public void testMetrics() {
+    SpannerOptions.enableOpenTelemetryMetrics();
+    InMemoryMetricReader metricReader = InMemoryMetricReader.create();
+    OpenTelemetry openTelemetry =
+        OpenTelemetrySdk.builder()
+            .setMeterProvider(SdkMeterProvider.builder().registerMetricReader(metricReader).build())
+            .build();
+    RowTypeCache.registerMetrics(openTelemetry);
+    // Registering the metrics again with the same OpenTelemetry instance is a no-op.
+    RowTypeCache.registerMetrics(openTelemetry);
+
+    String column = "C" + UUID.randomUUID().toString().replace("-", "");
+    RowTypeCache.getRowType(createRowType("ID", column));
+    RowTypeCache.getRowType(createRowType("ID", column));
+
+    // The cache is shared with other tests, so the counters can be higher than the lookups above.
+    Collection<MetricData> metrics = metricReader.collectAllMetrics();
+    assertTrue(getCounterValue(metrics, MetricRegistryConstants.ROW_TYPE_CACHE_HITS) >= 1L);
+    assertTrue(getCounterValue(metrics, MetricRegistryConstants.ROW_TYPE_CACHE_MISSES) >= 1L);
+    assertEquals(
+        RowTypeCache.getStats().hitCount(),
+        getCounterValue(metrics, MetricRegistryConstants.ROW_TYPE_CACHE_HITS));
+  }
+
+  @Test
+  public void testInvalidRowType() {
+    StructType rowType = StructType.newBuilder().addFields(StructType.Field.newBuilder()).build();
+
+    assertThrows(IllegalArgumentException.class, () -> RowTypeCache.getRowType(rowType));
+    assertThrows(IllegalArgumentException.class, () -> RowTypeCache.getRowType(rowType));
+  }
+}
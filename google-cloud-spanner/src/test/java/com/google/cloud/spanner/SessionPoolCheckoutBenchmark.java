@@ -0,0 +1,138 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner;
+
+import com.google.api.gax.rpc.TransportChannelProvider;
+import com.google.cloud.NoCredentials;
+import com.google.cloud.spanner.SessionPool.PooledSessionFuture;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the throughput of checking out and releasing sessions from a session pool that has
+ * been fully initialized, using an increasing number of threads. The benchmark only checks out and
+ * releases sessions without executing any statements, which means that the results show how well
+ * the pool itself scales with the number of threads. The benchmarks are bound to the Maven profile
+ * `benchmark` and can be executed like this: <code>
+ * mvn clean test -DskipTests -Pbenchmark -Dbenchmark.name=SessionPoolCheckoutBenchmark
+ * </code>
+ */
+@BenchmarkMode(Mode.Throughput)
+@Fork(value = 1, warmups = 0)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SessionPoolCheckoutBenchmark {
+  private static final String TEST_PROJECT = "my-project";
+  private static final String TEST_INSTANCE = "my-instance";
+  private static final String TEST_DATABASE = "my-database";
+  private static final int CHECKOUTS_PER_INVOCATION = 100_000;
+
+  @State(Scope.Benchmark)
+  public static class BenchmarkState {
+    private StandardBenchmarkMockServer mockServer;
+    private Spanner spanner;
+    private SessionPool pool;
+    private ExecutorService executor;
+
+    @Param({"1", "8", "64", "400"})
+    int numThreads;
+
+    @Param({"400"})
+    int numSessions;
+
+    @Param({"4"})
+    int numChannels;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+      mockServer = new StandardBenchmarkMockServer();
+      TransportChannelProvider channelProvider = mockServer.start();
+
+      SpannerOptions options =
+          SpannerOptions.newBuilder()
+              .setProjectId(TEST_PROJECT)
+              .setChannelProvider(channelProvider)
+              .setNumChannels(numChannels)
+              .setCredentials(NoCredentials.getInstance())
+              .setSessionPoolOption(
+                  SessionPoolOptions.newBuilder()
+                      .setMinSessions(numSessions)
+                      .setMaxSessions(numSessions)
+                      .build())
+              .build();
+
+      spanner = options.getService();
+      DatabaseClientImpl client =
+          (DatabaseClientImpl)
+              spanner.getDatabaseClient(DatabaseId.of(TEST_PROJECT, TEST_INSTANCE, TEST_DATABASE));
+      pool = client.pool;
+      // Wait until the session pool has initialized.
+      while (pool.getNumberOfSessionsInPool() < numSessions) {
+        Thread.sleep(1L);
+      }
+      executor = Executors.newFixedThreadPool(numThreads);
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() throws Exception {
+      executor.shutdown();
+      spanner.close();
+      mockServer.shutdown();
+    }
+  }
+
+  /** Measures the number of session checkouts and releases per millisecond. */
+  @Benchmark
+  @OperationsPerInvocation(CHECKOUTS_PER_INVOCATION)
+  public void checkoutAndRelease(final BenchmarkState state) throws Exception {
+    int checkoutsPerThread = CHECKOUTS_PER_INVOCATION / state.numThreads;
+    List<Future<?>> futures = new ArrayList<>(state.numThreads);
+    for (int thread = 0; thread < state.numThreads; thread++) {
+      futures.add(
+          state.executor.submit(
+              () -> {
+                for (int i = 0; i < checkoutsPerThread; i++) {
+                  PooledSessionFuture session = state.pool.getSession();
+                  session.get();
+                  session.close();
+                }
+              }));
+    }
+    for (Future<?> future : futures) {
+      future.get();
+    }
+  }
+}
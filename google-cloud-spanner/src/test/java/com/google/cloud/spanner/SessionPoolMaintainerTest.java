@@ -35,9 +35,10 @@ import com.google.common.base.Preconditions;
 import io.opencensus.trace.Tracing;
 import io.opentelemetry.api.OpenTelemetry;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
@@ -58,7 +59,8 @@ public class SessionPoolMaintainerTest extends BaseSessionPoolTest {
   private SessionPoolOptions options;
   private FakeClock clock = new FakeClock();
   private List<PooledSession> idledSessions = new ArrayList<>();
-  private Map<String, Integer> pingedSessions = new HashMap<>();
+  private Map<String, Integer> pingedSessions = new ConcurrentHashMap<>();
+  private volatile CountDownLatch keepAliveLatch;
 
   @Before
   public void setUp() {
@@ -81,6 +83,7 @@ public class SessionPoolMaintainerTest extends BaseSessionPoolTest {
     when(spannerOptions.getSessionPoolOptions()).thenReturn(options);
     idledSessions.clear();
     pingedSessions.clear();
+    keepAliveLatch = null;
   }
 
   private void setupMockSessionCreation() {
@@ -109,6 +112,10 @@ public class SessionPoolMaintainerTest extends BaseSessionPoolTest {
     when(mockContext.executeQuery(any(Statement.class)))
         .thenAnswer(
             invocation -> {
+              CountDownLatch latch = keepAliveLatch;
+              if (latch != null) {
+                latch.await();
+              }
               Integer currentValue = pingedSessions.get(session.getName());
               if (currentValue == null) {
                 currentValue = 0;
@@ -248,6 +255,31 @@ public class SessionPoolMaintainerTest extends BaseSessionPoolTest {
         .containsExactly(session1.getName(), 2, session2.getName(), 4, session5.getName(), 1);
   }
 
+  @Test
+  public void testKeepAliveDoesNotBlockMaintainer() throws Exception {
+    SessionPool pool = createPool();
+    Session session = pool.getSession();
+    session.close();
+    clock.currentTimeMillis.addAndGet(
+        TimeUnit.MINUTES.toMillis(options.getKeepAliveIntervalMinutes()) + 1);
+
+    keepAliveLatch = new CountDownLatch(1);
+    // The maintenance cycle should finish while the keep-alive query is still running.
+    pool.poolMaintainer.maintainPool();
+    assertTrue(pool.poolMaintainer.hasPendingKeepAlives());
+    assertThat(pingedSessions).isEmpty();
+    // Starting a new cycle while the keep-alive query is still running is an overrun.
+    assertEquals(0L, pool.getNumMaintenanceCycleOverruns());
+    pool.poolMaintainer.maintainPool();
+    assertEquals(1L, pool.getNumMaintenanceCycleOverruns());
+
+    keepAliveLatch.countDown();
+    while (pool.poolMaintainer.hasPendingKeepAlives()) {
+      Thread.sleep(1L);
+    }
+    assertThat(pingedSessions).containsExactly(session.getName(), 1);
+  }
+
   @Test
   public void testIdleSessions() throws Exception {
     SessionPool pool = createPool();
@@ -347,6 +347,36 @@ public class SessionPoolOptionsTest {
             .getUseMultiplexedSessionForRW());
   }
 
+  @Test
+  public void testUseMultiplexedSessionPartitionedOps() {
+    // skip these tests since this configuration can have dual behaviour in different test-runners
+    assumeFalse(SessionPoolOptions.newBuilder().build().getUseMultiplexedSession());
+    assumeFalse(SessionPoolOptions.newBuilder().build().getUseMultiplexedSessionPartitionedOps());
+
+    assertEquals(
+        true,
+        SessionPoolOptions.newBuilder()
+            .setUseMultiplexedSession(true)
+            .setUseMultiplexedSessionPartitionedOps(true)
+            .build()
+            .getUseMultiplexedSessionPartitionedOps());
+    // Client will not use multiplexed sessions for Partitioned DML unless multiplexed sessions are
+    // also enabled.
+    assertEquals(
+        false,
+        SessionPoolOptions.newBuilder()
+            .setUseMultiplexedSessionPartitionedOps(true)
+            .build()
+            .getUseMultiplexedSessionPartitionedOps());
+    assertEquals(
+        false,
+        SessionPoolOptions.newBuilder()
+            .setUseMultiplexedSession(true)
+            .setUseMultiplexedSessionPartitionedOps(false)
+            .build()
+            .getUseMultiplexedSessionPartitionedOps());
+  }
+
   @Test
   public void testMultiplexedSessionMaintenanceDuration() {
     assertEquals(
@@ -238,4 +238,17 @@ public class SessionPoolUnbalancedTest {
             mockedCheckedOutSessions(1, 1, 1, 2, 3, 4, 5, 6, 7, 8, 1, 1),
             8));
   }
+
+  @Test
+  public void testIsUnbalancedWithCheckedOutCounts() {
+    // The pool keeps track of the number of checked out sessions per channel instead of passing in
+    // the set of checked out sessions.
+    assertFalse(isUnbalanced(1, mockedSessions(1, 2, 3, 4), 2, 2, 4));
+    assertFalse(isUnbalanced(1, mockedSessions(1, 2, 3, 4), 4, 2, 4));
+    assertTrue(isUnbalanced(1, mockedSessions(1, 2, 3, 4), 4, 3, 4));
+    assertFalse(isUnbalanced(1, mockedSessions(1, 2, 3, 4), 8, 4, 4));
+    assertTrue(isUnbalanced(1, mockedSessions(1, 2, 3, 4), 8, 5, 4));
+    assertTrue(isUnbalanced(1, mockedSessions(1, 1, 1, 4), 4, 0, 4));
+    assertFalse(isUnbalanced(1, mockedSessions(1, 1, 1, 4), 4, 4, 1));
+  }
 }
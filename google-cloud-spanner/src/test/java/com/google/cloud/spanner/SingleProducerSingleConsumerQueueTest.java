@@ -0,0 +1,86 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class SingleProducerSingleConsumerQueueTest {
+
+  @Test
+  public void testCapacityIsRoundedUpToPowerOfTwo() {
+    assertEquals(1, new SingleProducerSingleConsumerQueue<>(1).capacity());
+    assertEquals(4, new SingleProducerSingleConsumerQueue<>(3).capacity());
+    assertEquals(16, new SingleProducerSingleConsumerQueue<>(16).capacity());
+    assertThrows(IllegalArgumentException.class, () -> new SingleProducerSingleConsumerQueue<>(0));
+  }
+
+  @Test
+  public void testOfferAndPoll() {
+    SingleProducerSingleConsumerQueue<Integer> queue = new SingleProducerSingleConsumerQueue<>(2);
+    assertTrue(queue.isEmpty());
+    assertNull(queue.poll());
+    assertTrue(queue.offer(1));
+    assertTrue(queue.offer(2));
+    assertFalse(queue.offer(3));
+    assertEquals(2, queue.size());
+    assertEquals(Integer.valueOf(1), queue.poll());
+    assertTrue(queue.offer(3));
+    assertEquals(Integer.valueOf(2), queue.poll());
+    assertEquals(Integer.valueOf(3), queue.poll());
+    assertNull(queue.poll());
+    assertTrue(queue.isEmpty());
+  }
+
+  @Test
+  public void testConcurrentProducerAndConsumer() throws Exception {
+    int numElements = 1_000_000;
+    SingleProducerSingleConsumerQueue<Integer> queue = new SingleProducerSingleConsumerQueue<>(16);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    Future<?> producer =
+        executor.submit(
+            () -> {
+              for (int i = 0; i < numElements; i++) {
+                while (!queue.offer(i)) {
+                  Thread.yield();
+                }
+              }
+            });
+    for (int i = 0; i < numElements; i++) {
+      Integer element;
+      while ((element = queue.poll()) == null) {
+        Thread.yield();
+      }
+      assertEquals(i, element.intValue());
+    }
+    producer.get(30L, TimeUnit.SECONDS);
+    assertTrue(queue.isEmpty());
+    executor.shutdown();
+  }
+}
@@ -1164,4 +1164,59 @@ public class SpannerOptionsTest {
             .build();
     assertEquals(GlobalOpenTelemetry.get(), options.getOpenTelemetry());
   }
+
+  @Test
+  public void testMaxBufferedResultBytes() {
+    SpannerOptions options =
+        SpannerOptions.newBuilder()
+            .setProjectId("test-project")
+            .setCredentials(NoCredentials.getInstance())
+            .build();
+    assertEquals(0L, options.getMaxBufferedResultBytes());
+
+    options = options.toBuilder().setMaxBufferedResultBytes(1024L).build();
+    assertEquals(1024L, options.getMaxBufferedResultBytes());
+    assertEquals(1024L, options.toBuilder().build().getMaxBufferedResultBytes());
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> SpannerOptions.newBuilder().setMaxBufferedResultBytes(-1L));
+  }
+
+  @Test
+  public void testWriteCoalescing() {
+    SpannerOptions options =
+        SpannerOptions.newBuilder()
+            .setProjectId("test-project")
+            .setCredentials(NoCredentials.getInstance())
+            .build();
+    assertFalse(options.isWriteCoalescingEnabled());
+
+    options = options.toBuilder().enableWriteCoalescing(Duration.ofMillis(5L), 100).build();
+    assertTrue(options.isWriteCoalescingEnabled());
+    assertEquals(Duration.ofMillis(5L), options.getWriteCoalescingLingerTime());
+    assertEquals(100, options.toBuilder().build().getWriteCoalescingMaxBatchSize());
+    assertFalse(options.toBuilder().disableWriteCoalescing().build().isWriteCoalescingEnabled());
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> SpannerOptions.newBuilder().enableWriteCoalescing(Duration.ZERO, 0));
+  }
+
+  @Test
+  public void testStaleReadCache() {
+    SpannerOptions options =
+        SpannerOptions.newBuilder()
+            .setProjectId("test-project")
+            .setCredentials(NoCredentials.getInstance())
+            .build();
+    assertFalse(options.isStaleReadCacheEnabled());
+    assertEquals(0L, options.getStaleReadCacheMaxBytes());
+
+    options = options.toBuilder().enableStaleReadCache(1L << 20).build();
+    assertTrue(options.isStaleReadCacheEnabled());
+    assertEquals(1L << 20, options.toBuilder().build().getStaleReadCacheMaxBytes());
+    assertFalse(options.toBuilder().disableStaleReadCache().build().isStaleReadCacheEnabled());
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> SpannerOptions.newBuilder().enableStaleReadCache(0L));
+  }
 }
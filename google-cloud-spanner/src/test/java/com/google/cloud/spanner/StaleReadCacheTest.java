@@ -0,0 +1,197 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.cloud.Timestamp;
+import com.google.cloud.spanner.StaleReadCache.CacheKey;
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class StaleReadCacheTest {
+  private static final Type TYPE = Type.struct(Type.StructField.of("ID", Type.int64()));
+  private static final Statement STATEMENT = Statement.of("SELECT ID FROM FOO");
+
+  private static List<Struct> rows(long... ids) {
+    ImmutableList.Builder<Struct> builder = ImmutableList.builder();
+    for (long id : ids) {
+      builder.add(Struct.newBuilder().set("ID").to(id).build());
+    }
+    return builder.build();
+  }
+
+  private static Timestamp millis(long millis) {
+    return Timestamp.ofTimeMicroseconds(TimeUnit.MILLISECONDS.toMicros(millis));
+  }
+
+  private static CacheKey queryKey(Statement statement, TimestampBound bound) {
+    return CacheKey.forQuery(statement, Options.fromQueryOptions(), bound);
+  }
+
+  @Test
+  public void testMaxStaleness() {
+    FakeClock clock = new FakeClock();
+    clock.currentTimeMillis.set(10_000L);
+    StaleReadCache cache = new StaleReadCache(1L << 20, clock);
+    TimestampBound bound = TimestampBound.ofMaxStaleness(5L, TimeUnit.SECONDS);
+    assertNull(cache.get(queryKey(STATEMENT, bound), bound));
+
+    cache.put(queryKey(STATEMENT, bound), TYPE, rows(1L, 2L), millis(9_000L), 100L);
+    try (ResultSet resultSet = cache.get(queryKey(STATEMENT, bound), bound)) {
+      assertNotNull(resultSet);
+      assertTrue(resultSet.next());
+      assertEquals(1L, resultSet.getLong(0));
+      assertTrue(resultSet.next());
+      assertEquals(2L, resultSet.getLong(0));
+      assertFalse(resultSet.next());
+    }
+
+    // The cached result is too old once the clock has moved past the staleness bound.
+    clock.currentTimeMillis.set(14_001L);
+    assertNull(cache.get(queryKey(STATEMENT, bound), bound));
+    assertEquals(1L, cache.getHitCount());
+    assertEquals(2L, cache.getMissCount());
+  }
+
+  @Test
+  public void testExactStalenessIsNotServedFromCache() {
+    FakeClock clock = new FakeClock();
+    clock.currentTimeMillis.set(10_000L);
+    StaleReadCache cache = new StaleReadCache(1L << 20, clock);
+    TimestampBound exactStaleness = TimestampBound.ofExactStaleness(1L, TimeUnit.SECONDS);
+    assertFalse(StaleReadCache.isCacheable(exactStaleness));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> cache.createReadContext(exactStaleness, () -> mock(ReadOnlyTransaction.class)));
+
+    // A later read with the same exact staleness should see the data at a later timestamp, so a
+    // cached result is never returned for it.
+    cache.put(queryKey(STATEMENT, exactStaleness), TYPE, rows(1L), millis(9_000L), 100L);
+    clock.currentTimeMillis.set(10_500L);
+    assertNull(cache.get(queryKey(STATEMENT, exactStaleness), exactStaleness));
+  }
+
+  @Test
+  public void testMaxStalenessResultIsNotServedForExactStaleness() {
+    FakeClock clock = new FakeClock();
+    clock.currentTimeMillis.set(10_000L);
+    StaleReadCache cache = new StaleReadCache(1L << 20, clock);
+    TimestampBound maxStaleness = TimestampBound.ofMaxStaleness(5L, TimeUnit.SECONDS);
+    // This result is newer than the timestamp that an exact staleness read of 1 second would use.
+    cache.put(queryKey(STATEMENT, maxStaleness), TYPE, rows(1L), millis(9_900L), 100L);
+    assertNotNull(cache.get(queryKey(STATEMENT, maxStaleness), maxStaleness));
+
+    TimestampBound exactStaleness = TimestampBound.ofExactStaleness(1L, TimeUnit.SECONDS);
+    assertNull(cache.get(queryKey(STATEMENT, exactStaleness), exactStaleness));
+  }
+
+  @Test
+  public void testReadTimestampAndMinReadTimestamp() {
+    StaleReadCache cache = new StaleReadCache(1L << 20, new FakeClock());
+    TimestampBound readTimestamp = TimestampBound.ofReadTimestamp(millis(5_000L));
+    cache.put(queryKey(STATEMENT, readTimestamp), TYPE, rows(1L), millis(5_000L), 100L);
+    assertNotNull(cache.get(queryKey(STATEMENT, readTimestamp), readTimestamp));
+
+    // Results for a specific read timestamp are not used for any other read timestamp.
+    TimestampBound otherReadTimestamp = TimestampBound.ofReadTimestamp(millis(6_000L));
+    assertNull(cache.get(queryKey(STATEMENT, otherReadTimestamp), otherReadTimestamp));
+
+    TimestampBound minReadTimestamp = TimestampBound.ofMinReadTimestamp(millis(5_000L));
+    cache.put(queryKey(STATEMENT, minReadTimestamp), TYPE, rows(1L), millis(5_500L), 100L);
+    assertNotNull(cache.get(queryKey(STATEMENT, minReadTimestamp), minReadTimestamp));
+    TimestampBound laterMinReadTimestamp = TimestampBound.ofMinReadTimestamp(millis(6_000L));
+    assertNull(cache.get(queryKey(STATEMENT, laterMinReadTimestamp), laterMinReadTimestamp));
+  }
+
+  @Test
+  public void testEvictsLeastRecentlyUsed() {
+    StaleReadCache cache = new StaleReadCache(250L, new FakeClock());
+    TimestampBound bound = TimestampBound.ofMinReadTimestamp(millis(0L));
+    CacheKey key1 = queryKey(Statement.of("SELECT 1"), bound);
+    CacheKey key2 = queryKey(Statement.of("SELECT 2"), bound);
+    CacheKey key3 = queryKey(Statement.of("SELECT 3"), bound);
+    cache.put(key1, TYPE, rows(1L), millis(1L), 100L);
+    cache.put(key2, TYPE, rows(2L), millis(1L), 100L);
+    // Use key1, so key2 becomes the least recently used result.
+    assertNotNull(cache.get(key1, bound));
+    cache.put(key3, TYPE, rows(3L), millis(1L), 100L);
+
+    assertEquals(2, cache.getNumCachedResults());
+    assertEquals(200L, cache.getSizeBytes());
+    assertNotNull(cache.get(key1, bound));
+    assertNull(cache.get(key2, bound));
+    assertNotNull(cache.get(key3, bound));
+
+    // Results that are larger than the cache are ignored.
+    cache.put(queryKey(Statement.of("SELECT 4"), bound), TYPE, rows(4L), millis(1L), 251L);
+    assertEquals(2, cache.getNumCachedResults());
+  }
+
+  @Test
+  public void testReadContext() {
+    FakeClock clock = new FakeClock();
+    clock.currentTimeMillis.set(10_000L);
+    StaleReadCache cache = new StaleReadCache(1L << 20, clock);
+    TimestampBound bound = TimestampBound.ofMaxStaleness(15L, TimeUnit.SECONDS);
+    AtomicInteger transactions = new AtomicInteger();
+    Supplier<ReadOnlyTransaction> transactionSupplier =
+        () -> {
+          transactions.incrementAndGet();
+          ReadOnlyTransaction transaction = mock(ReadOnlyTransaction.class);
+          when(transaction.executeQuery(STATEMENT))
+              .thenAnswer(invocation -> ResultSets.forRows(TYPE, rows(1L, 2L, 3L)));
+          when(transaction.getReadTimestamp()).thenReturn(millis(9_000L));
+          return transaction;
+        };
+
+    for (int attempt = 0; attempt < 3; attempt++) {
+      try (ReadContext context = cache.createReadContext(bound, transactionSupplier);
+          ResultSet resultSet = context.executeQuery(STATEMENT)) {
+        int count = 0;
+        while (resultSet.next()) {
+          count++;
+        }
+        assertEquals(3, count);
+      }
+    }
+    // Only the first query was executed on Spanner.
+    assertEquals(1, transactions.get());
+    assertEquals(2L, cache.getHitCount());
+    assertEquals(1L, cache.getMissCount());
+
+    // Skipping the cache always executes the query on Spanner.
+    try (ReadContext context = cache.createReadContext(bound, transactionSupplier)) {
+      context.executeQuery(STATEMENT, Options.skipResultCache());
+    }
+    assertEquals(2, transactions.get());
+  }
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import io.opencensus.trace.Tracing;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@Category(TracerTest.class)
+@RunWith(JUnit4.class)
+public class TraceWrapperTest {
+  private static final Statement STATEMENT = Statement.of("SELECT 1");
+
+  private final InMemorySpanExporter spanExporter = InMemorySpanExporter.create();
+
+  @Before
+  public void enableOpenTelemetry() {
+    SpannerOptions.resetActiveTracingFramework();
+    SpannerOptions.enableOpenTelemetryTraces();
+  }
+
+  @After
+  public void resetTracingFramework() {
+    SpannerOptions.resetActiveTracingFramework();
+  }
+
+  private TraceWrapper createTracer(Sampler sampler) {
+    SdkTracerProvider tracerProvider =
+        SdkTracerProvider.builder()
+            .setSampler(sampler)
+            .addSpanProcessor(SimpleSpanProcessor.create(spanExporter))
+            .build();
+    return new TraceWrapper(Tracing.getTracer(), tracerProvider.get("test"), true);
+  }
+
+  @Test
+  public void testNoopTracerReturnsNoopSpan() {
+    TraceWrapper tracer =
+        new TraceWrapper(Tracing.getTracer(), OpenTelemetry.noop().getTracer(""), true);
+
+    ISpan span = tracer.spanBuilder("test");
+    assertSame(NoopSpan.INSTANCE, span);
+    assertSame(NoopSpan.INSTANCE, tracer.spanBuilderWithExplicitParent("child", span));
+    assertSame(NoopSpan.INSTANCE, tracer.getCurrentSpan());
+    assertSame(NoopSpan.INSTANCE, tracer.getBlankSpan());
+    assertSame(NoopSpan.NOOP_SCOPE, tracer.withSpan(span));
+    assertEquals(
+        Attributes.empty(),
+        tracer.createStatementAttributes(
+            STATEMENT, Options.fromQueryOptions(Options.tag("app=test"))));
+  }
+
+  @Test
+  public void testUnsampledSpanSkipsAttributes() {
+    TraceWrapper tracer = createTracer(Sampler.alwaysOff());
+
+    ISpan span = tracer.spanBuilder("test");
+    assertTrue(span instanceof OpenTelemetrySpan);
+    assertFalse(((OpenTelemetrySpan) span).getOpenTelemetrySpan().isRecording());
+    try (IScope ignore = tracer.withSpan(span)) {
+      assertEquals(Attributes.empty(), tracer.createStatementAttributes(STATEMENT, null));
+    }
+    span.addAnnotation("test", "key", "value");
+    span.end();
+    assertTrue(spanExporter.getFinishedSpanItems().isEmpty());
+  }
+
+  @Test
+  public void testSampledSpanCreatesAttributes() {
+    TraceWrapper tracer = createTracer(Sampler.alwaysOn());
+
+    ISpan span = tracer.spanBuilder("test");
+    try (IScope ignore = tracer.withSpan(span)) {
+      Attributes attributes = tracer.createStatementAttributes(STATEMENT, null);
+      assertEquals("SELECT 1", attributes.get(AttributeKey.stringKey("db.statement")));
+    }
+    span.end();
+    assertEquals(1, spanExporter.getFinishedSpanItems().size());
+  }
+}
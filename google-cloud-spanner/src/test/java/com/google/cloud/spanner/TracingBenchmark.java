@@ -0,0 +1,127 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner;
+
+import io.opencensus.trace.Tracing;
+import io.opentelemetry.api.OpenTelemetry;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the tracing overhead of executing a statement in a read/write transaction with
+ * OpenTelemetry tracing disabled (no-op tracer), with an SDK tracer that does not sample any spans,
+ * and with an SDK tracer that samples all spans. The sampled spans are not exported. The benchmarks
+ * are bound to the Maven profile `benchmark` and can be executed like this: <code>
+ * mvn clean test -DskipTests -Pbenchmark -Dbenchmark.name=TracingBenchmark
+ * </code>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(value = 1, warmups = 0)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TracingBenchmark {
+  private static final Statement STATEMENT =
+      Statement.of("SELECT * FROM FOO WHERE ID=@id AND NAME=@name");
+
+  public enum TracingMode {
+    OFF,
+    UNSAMPLED,
+    SAMPLED,
+  }
+
+  @State(Scope.Benchmark)
+  public static class BenchmarkState {
+    @Param({"OFF", "UNSAMPLED", "SAMPLED"})
+    TracingMode mode;
+
+    private SdkTracerProvider tracerProvider;
+    private TraceWrapper tracer;
+    private Options options;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      SpannerOptions.resetActiveTracingFramework();
+      SpannerOptions.enableOpenTelemetryTraces();
+      Tracer openTelemetryTracer;
+      switch (mode) {
+        case UNSAMPLED:
+          tracerProvider = SdkTracerProvider.builder().setSampler(Sampler.alwaysOff()).build();
+          openTelemetryTracer = tracerProvider.get("benchmark");
+          break;
+        case SAMPLED:
+          tracerProvider = SdkTracerProvider.builder().setSampler(Sampler.alwaysOn()).build();
+          openTelemetryTracer = tracerProvider.get("benchmark");
+          break;
+        default:
+          openTelemetryTracer = OpenTelemetry.noop().getTracer("");
+          break;
+      }
+      tracer = new TraceWrapper(Tracing.getTracer(), openTelemetryTracer, true);
+      options = Options.fromQueryOptions(Options.tag("app=benchmark"));
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() {
+      if (tracerProvider != null) {
+        tracerProvider.close();
+      }
+      SpannerOptions.resetActiveTracingFramework();
+    }
+  }
+
+  /**
+   * Creates the spans, attributes, scopes and annotations that are created by the client for a
+   * query in a read/write transaction.
+   */
+  @Benchmark
+  public void executeStatement(BenchmarkState state) {
+    TraceWrapper tracer = state.tracer;
+    ISpan transactionSpan = tracer.spanBuilder(SpannerImpl.BEGIN_TRANSACTION);
+    try (IScope ignore = tracer.withSpan(transactionSpan)) {
+      Attributes attributes = tracer.createStatementAttributes(STATEMENT, state.options);
+      ISpan statementSpan =
+          tracer.spanBuilderWithExplicitParent(SpannerImpl.QUERY, transactionSpan, attributes);
+      try (IScope ignoreStatement = tracer.withSpan(statementSpan)) {
+        statementSpan.addAnnotation("Starting/Resuming stream");
+        statementSpan.addAnnotation("Stream done", "RowCount", 1L);
+      } finally {
+        statementSpan.end();
+      }
+      transactionSpan.addAnnotation("Starting Commit");
+      transactionSpan.addAnnotation("Commit Done", "CommitTimestamp", "2024-01-01T00:00:00Z");
+    } finally {
+      transactionSpan.end();
+    }
+  }
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.gax.rpc.ServerStream;
+import com.google.cloud.Timestamp;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.rpc.Code;
+import com.google.rpc.Status;
+import com.google.spanner.v1.BatchWriteResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class WriteCoalescerTest {
+  private static final Timestamp COMMIT_TIMESTAMP = Timestamp.ofTimeSecondsAndNanos(1000L, 0);
+
+  private static ServerStream<BatchWriteResponse> streamOf(BatchWriteResponse... responses) {
+    @SuppressWarnings("unchecked")
+    ServerStream<BatchWriteResponse> stream = mock(ServerStream.class);
+    when(stream.iterator()).thenReturn(ImmutableList.copyOf(responses).iterator());
+    return stream;
+  }
+
+  private static Iterable<Mutation> insert(long id) {
+    return ImmutableList.of(Mutation.newInsertBuilder("FOO").set("ID").to(id).build());
+  }
+
+  @Test
+  public void testBatchIsSentWhenFull() {
+    List<List<MutationGroup>> batches = new CopyOnWriteArrayList<>();
+    Function<Iterable<MutationGroup>, ServerStream<BatchWriteResponse>> batchWriter =
+        mutationGroups -> {
+          batches.add(ImmutableList.copyOf(mutationGroups));
+          return streamOf(
+              BatchWriteResponse.newBuilder()
+                  .addAllIndexes(ImmutableList.of(0, 2))
+                  .setCommitTimestamp(COMMIT_TIMESTAMP.toProto())
+                  .build(),
+              BatchWriteResponse.newBuilder()
+                  .addIndexes(1)
+                  .setStatus(
+                      Status.newBuilder()
+                          .setCode(Code.ALREADY_EXISTS_VALUE)
+                          .setMessage("Row already exists"))
+                  .build());
+        };
+    // Use a linger time that is much longer than the test, so only the batch size triggers a send.
+    try (WriteCoalescer coalescer = new WriteCoalescer(batchWriter, Duration.ofHours(1L), 3)) {
+      List<ApiFuture<CommitResponse>> results = new ArrayList<>();
+      for (long id = 0L; id < 3L; id++) {
+        results.add(coalescer.write(insert(id)));
+      }
+
+      assertEquals(COMMIT_TIMESTAMP, SpannerApiFutures.get(results.get(0)).getCommitTimestamp());
+      assertEquals(COMMIT_TIMESTAMP, SpannerApiFutures.get(results.get(2)).getCommitTimestamp());
+      SpannerException exception =
+          assertThrows(SpannerException.class, () -> SpannerApiFutures.get(results.get(1)));
+      assertEquals(ErrorCode.ALREADY_EXISTS, exception.getErrorCode());
+      assertEquals(1, batches.size());
+      assertEquals(3, batches.get(0).size());
+    }
+  }
+
+  @Test
+  public void testBatchIsSentAfterLingerTime() {
+    Function<Iterable<MutationGroup>, ServerStream<BatchWriteResponse>> batchWriter =
+        mutationGroups ->
+            streamOf(
+                BatchWriteResponse.newBuilder()
+                    .addIndexes(0)
+                    .setCommitTimestamp(COMMIT_TIMESTAMP.toProto())
+                    .build());
+    try (WriteCoalescer coalescer = new WriteCoalescer(batchWriter, Duration.ofMillis(1L), 100)) {
+      ApiFuture<CommitResponse> result = coalescer.write(insert(1L));
+      assertEquals(COMMIT_TIMESTAMP, SpannerApiFutures.get(result).getCommitTimestamp());
+    }
+  }
+
+  @Test
+  public void testRpcErrorFailsAllWrites() {
+    Function<Iterable<MutationGroup>, ServerStream<BatchWriteResponse>> batchWriter =
+        mutationGroups -> {
+          throw SpannerExceptionFactory.newSpannerException(
+              ErrorCode.PERMISSION_DENIED, "Not allowed");
+        };
+    try (WriteCoalescer coalescer = new WriteCoalescer(batchWriter, Duration.ofHours(1L), 2)) {
+      ApiFuture<CommitResponse> result1 = coalescer.write(insert(1L));
+      ApiFuture<CommitResponse> result2 = coalescer.write(insert(2L));
+      for (ApiFuture<CommitResponse> result : ImmutableList.of(result1, result2)) {
+        SpannerException exception =
+            assertThrows(SpannerException.class, () -> SpannerApiFutures.get(result));
+        assertEquals(ErrorCode.PERMISSION_DENIED, exception.getErrorCode());
+      }
+    }
+  }
+
+  @Test
+  public void testCloseSendsPendingWrites() {
+    List<MutationGroup> written = new CopyOnWriteArrayList<>();
+    Function<Iterable<MutationGroup>, ServerStream<BatchWriteResponse>> batchWriter =
+        mutationGroups -> {
+          Iterables.addAll(written, mutationGroups);
+          return streamOf(
+              BatchWriteResponse.newBuilder()
+                  .addIndexes(0)
+                  .setCommitTimestamp(COMMIT_TIMESTAMP.toProto())
+                  .build());
+        };
+    WriteCoalescer coalescer = new WriteCoalescer(batchWriter, Duration.ofHours(1L), 100);
+    ApiFuture<CommitResponse> result = coalescer.write(insert(1L));
+    coalescer.close();
+
+    assertEquals(COMMIT_TIMESTAMP, SpannerApiFutures.get(result).getCommitTimestamp());
+    assertEquals(1, written.size());
+    assertThrows(SpannerException.class, () -> coalescer.write(insert(2L)));
+  }
+
+  @Test
+  public void testCloseWaitsForPendingAndInFlightWrites() {
+    List<MutationGroup> written = new CopyOnWriteArrayList<>();
+    Function<Iterable<MutationGroup>, ServerStream<BatchWriteResponse>> batchWriter =
+        mutationGroups -> {
+          // Simulate a slow BatchWrite RPC.
+          try {
+            Thread.sleep(100L);
+          } catch (InterruptedException e) {
+            throw SpannerExceptionFactory.propagateInterrupt(e);
+          }
+          Iterables.addAll(written, mutationGroups);
+          BatchWriteResponse.Builder response =
+              BatchWriteResponse.newBuilder().setCommitTimestamp(COMMIT_TIMESTAMP.toProto());
+          for (int index = 0; index < Iterables.size(mutationGroups); index++) {
+            response.addIndexes(index);
+          }
+          return streamOf(response.build());
+        };
+    WriteCoalescer coalescer = new WriteCoalescer(batchWriter, Duration.ofHours(1L), 2);
+    List<ApiFuture<CommitResponse>> results = new ArrayList<>();
+    // The first two writes fill a batch that is written in the background. The last write is still
+    // pending when the coalescer is closed.
+    for (long id = 0L; id < 3L; id++) {
+      results.add(coalescer.write(insert(id)));
+    }
+    coalescer.close();
+
+    for (ApiFuture<CommitResponse> result : results) {
+      assertTrue(result.isDone());
+      assertEquals(COMMIT_TIMESTAMP, SpannerApiFutures.get(result).getCommitTimestamp());
+    }
+    assertEquals(3, written.size());
+  }
+
+  @Test
+  public void testBatchIsSplitWhenMutationLimitIsExceeded() {
+    List<List<MutationGroup>> batches = new CopyOnWriteArrayList<>();
+    Function<Iterable<MutationGroup>, ServerStream<BatchWriteResponse>> batchWriter =
+        mutationGroups -> {
+          batches.add(ImmutableList.copyOf(mutationGroups));
+          BatchWriteResponse.Builder response =
+              BatchWriteResponse.newBuilder().setCommitTimestamp(COMMIT_TIMESTAMP.toProto());
+          for (int index = 0; index < Iterables.size(mutationGroups); index++) {
+            response.addIndexes(index);
+          }
+          return streamOf(response.build());
+        };
+    // Each write contains one mutation, and a batch may contain at most two mutations.
+    WriteCoalescer coalescer =
+        new WriteCoalescer(batchWriter, Duration.ofHours(1L), 100, 2L, Long.MAX_VALUE);
+    List<ApiFuture<CommitResponse>> results = new ArrayList<>();
+    for (long id = 0L; id < 5L; id++) {
+      results.add(coalescer.write(insert(id)));
+    }
+    coalescer.close();
+
+    for (ApiFuture<CommitResponse> result : results) {
+      assertEquals(COMMIT_TIMESTAMP, SpannerApiFutures.get(result).getCommitTimestamp());
+    }
+    assertEquals(3, batches.size());
+    for (List<MutationGroup> batch : batches) {
+      assertTrue(batch.size() <= 2);
+    }
+  }
+
+  @Test
+  public void testCloseAsyncDoesNotBlock() throws Exception {
+    CountDownLatch writeStarted = new CountDownLatch(1);
+    CountDownLatch finishWrite = new CountDownLatch(1);
+    Function<Iterable<MutationGroup>, ServerStream<BatchWriteResponse>> batchWriter =
+        mutationGroups -> {
+          writeStarted.countDown();
+          try {
+            finishWrite.await();
+          } catch (InterruptedException e) {
+            throw SpannerExceptionFactory.propagateInterrupt(e);
+          }
+          return streamOf(
+              BatchWriteResponse.newBuilder()
+                  .addIndexes(0)
+                  .setCommitTimestamp(COMMIT_TIMESTAMP.toProto())
+                  .build());
+        };
+    WriteCoalescer coalescer = new WriteCoalescer(batchWriter, Duration.ofHours(1L), 1);
+    ApiFuture<CommitResponse> result = coalescer.write(insert(1L));
+    writeStarted.await();
+
+    // The batch is still being written, so the close future is not yet done.
+    ListenableFuture<Void> closed = coalescer.closeAsync();
+    assertFalse(closed.isDone());
+
+    finishWrite.countDown();
+    closed.get(10L, TimeUnit.SECONDS);
+    assertTrue(result.isDone());
+    assertEquals(COMMIT_TIMESTAMP, SpannerApiFutures.get(result).getCommitTimestamp());
+  }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner.connection;
+
+import com.google.cloud.spanner.ForwardingResultSet;
+import com.google.cloud.spanner.ProtobufResultSet;
+import com.google.cloud.spanner.ResultSets;
+import com.google.cloud.spanner.Struct;
+import com.google.cloud.spanner.Type;
+import com.google.cloud.spanner.Type.StructField;
+import com.google.cloud.spanner.connection.ChecksumResultSet.ChecksumCalculator;
+import com.google.common.base.Strings;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.Value;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the checksum calculation that is used to verify internal retries of read/write
+ * transactions in the Connection API, for each {@link ChecksumAlgorithm} and for rows of different
+ * widths. The rows contain a mix of STRING, INT64 and FLOAT64 columns. The protobuf values of the
+ * rows are parsed from their serialized form, so string values are backed by a {@link
+ * com.google.protobuf.ByteString} in the same way as values that are received from Cloud Spanner.
+ * The benchmarks are bound to the Maven profile `benchmark` and can be executed like this: <code>
+ * mvn clean test -DskipTests -Pbenchmark -Dbenchmark.name=ChecksumBenchmark
+ * </code>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(value = 1, warmups = 0)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ChecksumBenchmark {
+  private static final int NUM_ROWS = 1000;
+  private static final int STRING_LENGTH = 64;
+
+  @State(Scope.Benchmark)
+  public static class BenchmarkState {
+    @Param({"MURMUR3_128", "MD5"})
+    ChecksumAlgorithm algorithm;
+
+    @Param({"1", "10", "50"})
+    int numColumns;
+
+    private Type type;
+    private Value[][] rows;
+
+    @Setup(Level.Trial)
+    public void setup() throws InvalidProtocolBufferException {
+      List<StructField> fields = new ArrayList<>(numColumns);
+      for (int col = 0; col < numColumns; col++) {
+        fields.add(StructField.of("C" + col, columnType(col)));
+      }
+      type = Type.struct(fields);
+      rows = new Value[NUM_ROWS][numColumns];
+      for (int row = 0; row < NUM_ROWS; row++) {
+        for (int col = 0; col < numColumns; col++) {
+          Value value;
+          switch (col % 3) {
+            case 0:
+              value =
+                  Value.newBuilder()
+                      .setStringValue(Strings.padStart(String.valueOf(row), STRING_LENGTH, 'x'))
+                      .build();
+              break;
+            case 1:
+              value = Value.newBuilder().setStringValue(String.valueOf(row * col)).build();
+              break;
+            default:
+              value = Value.newBuilder().setNumberValue(row * 1.5d).build();
+              break;
+          }
+          // Parse the value from its serialized form to get the same representation as for values
+          // that are returned by Cloud Spanner.
+          rows[row][col] = Value.parseFrom(value.toByteArray());
+        }
+      }
+    }
+
+    private static Type columnType(int col) {
+      switch (col % 3) {
+        case 0:
+          return Type.string();
+        case 1:
+          return Type.int64();
+        default:
+          return Type.float64();
+      }
+    }
+  }
+
+  /**
+   * {@link ProtobufResultSet} that returns pre-built protobuf values. Only the methods that are
+   * used by the checksum calculation are supported.
+   */
+  private static final class ProtobufValuesResultSet extends ForwardingResultSet {
+    private final Type type;
+    private final Value[][] rows;
+    private int currentRow = -1;
+
+    private ProtobufValuesResultSet(Type type, Value[][] rows) {
+      super(ResultSets.forRows(type, Collections.<Struct>emptyList()));
+      this.type = type;
+      this.rows = rows;
+    }
+
+    @Override
+    public Type getType() {
+      return type;
+    }
+
+    @Override
+    public int getColumnCount() {
+      return type.getStructFields().size();
+    }
+
+    @Override
+    public Type getColumnType(int columnIndex) {
+      return type.getStructFields().get(columnIndex).getType();
+    }
+
+    @Override
+    public boolean next() {
+      return ++currentRow < rows.length;
+    }
+
+    @Override
+    public boolean canGetProtobufValue(int columnIndex) {
+      return true;
+    }
+
+    @Override
+    public Value getProtobufValue(int columnIndex) {
+      return rows[currentRow][columnIndex];
+    }
+  }
+
+  /** Measures the average time that is needed to add one row to the running checksum. */
+  @Benchmark
+  @OperationsPerInvocation(NUM_ROWS)
+  public void calculateChecksum(final BenchmarkState state, final Blackhole blackhole) {
+    ChecksumCalculator calculator = ChecksumCalculator.create(state.algorithm);
+    try (ProtobufValuesResultSet resultSet = new ProtobufValuesResultSet(state.type, state.rows)) {
+      while (resultSet.next()) {
+        calculator.calculateNextChecksum(resultSet);
+      }
+    }
+    blackhole.consume(calculator.getChecksum());
+  }
+}
@@ -16,6 +16,8 @@
 
 package com.google.cloud.spanner.connection;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertThrows;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
@@ -27,6 +29,7 @@ import com.google.cloud.Date;
 import com.google.cloud.Timestamp;
 import com.google.cloud.spanner.AbortedDueToConcurrentModificationException;
 import com.google.cloud.spanner.AbortedException;
+import com.google.cloud.spanner.ProtobufResultSet;
 import com.google.cloud.spanner.ResultSet;
 import com.google.cloud.spanner.ResultSets;
 import com.google.cloud.spanner.SingerProto.Genre;
@@ -408,4 +411,54 @@ public class ChecksumResultSetTest {
           () -> resultSet.retry(abortedException));
     }
   }
+
+  private static byte[] calculateChecksum(ChecksumAlgorithm algorithm, Struct... rows) {
+    ChecksumResultSet.ChecksumCalculator calculator =
+        ChecksumResultSet.ChecksumCalculator.create(algorithm);
+    ResultSet rowsResultSet = ResultSets.forRows(rows[0].getType(), Arrays.asList(rows));
+    try (ProtobufResultSet resultSet = DirectExecuteResultSet.ofResultSet(rowsResultSet)) {
+      while (resultSet.next()) {
+        calculator.calculateNextChecksum(resultSet);
+      }
+    }
+    return calculator.getChecksum();
+  }
+
+  @Test
+  public void testChecksumAlgorithms() {
+    Struct row1 =
+        Struct.newBuilder()
+            .set("id")
+            .to(1L)
+            .set("name")
+            .to("\u00dcn\u00efc\u00f6d\u00e9")
+            .set("values")
+            .toFloat64Array(new double[] {1d, 2d})
+            .build();
+    Struct row2 =
+        Struct.newBuilder()
+            .set("id")
+            .to(2L)
+            .set("name")
+            .to("two")
+            .set("values")
+            .toFloat64Array((double[]) null)
+            .build();
+    Struct changedRow2 =
+        Struct.newBuilder()
+            .set("id")
+            .to(2L)
+            .set("name")
+            .to("twO")
+            .set("values")
+            .toFloat64Array((double[]) null)
+            .build();
+    for (ChecksumAlgorithm algorithm : ChecksumAlgorithm.values()) {
+      byte[] checksum = calculateChecksum(algorithm, row1, row2);
+      assertArrayEquals(checksum, calculateChecksum(algorithm, row1, row2));
+      assertFalse(Arrays.equals(checksum, calculateChecksum(algorithm, row1, changedRow2)));
+      assertFalse(Arrays.equals(checksum, calculateChecksum(algorithm, row2, row1)));
+      assertFalse(Arrays.equals(checksum, calculateChecksum(algorithm, row1)));
+    }
+  }
 }
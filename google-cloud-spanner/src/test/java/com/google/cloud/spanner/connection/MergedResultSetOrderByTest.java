@@ -0,0 +1,221 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner.connection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.cloud.spanner.Dialect;
+import com.google.cloud.spanner.ErrorCode;
+import com.google.cloud.spanner.ResultSets;
+import com.google.cloud.spanner.SpannerException;
+import com.google.cloud.spanner.Struct;
+import com.google.cloud.spanner.Type;
+import com.google.cloud.spanner.Type.StructField;
+import com.google.common.collect.ImmutableList;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class MergedResultSetOrderByTest {
+  private static final Type TYPE =
+      Type.struct(StructField.of("Id", Type.int64()), StructField.of("Name", Type.string()));
+
+  private static Struct row(Long id, String name) {
+    return Struct.newBuilder().set("Id").to(id).set("Name").to(name).build();
+  }
+
+  private static Connection mockConnection(List<List<Struct>> partitionRows) {
+    Connection connection = mock(Connection.class);
+    for (int index = 0; index < partitionRows.size(); index++) {
+      List<Struct> rows = partitionRows.get(index);
+      when(connection.runPartition(String.valueOf(index)))
+          .thenAnswer(invocation -> ResultSets.forRows(TYPE, rows));
+    }
+    return connection;
+  }
+
+  private static List<String> partitions(int numPartitions) {
+    List<String> partitions = new ArrayList<>(numPartitions);
+    for (int index = 0; index < numPartitions; index++) {
+      partitions.add(String.valueOf(index));
+    }
+    return partitions;
+  }
+
+  private static List<Struct> readAll(MergedResultSet resultSet) {
+    List<Struct> rows = new ArrayList<>();
+    while (resultSet.next()) {
+      rows.add(resultSet.getCurrentRowAsStruct());
+    }
+    return rows;
+  }
+
+  @Test
+  public void testMergesPartitionsInOrder() {
+    Random random = new Random();
+    int numPartitions = 7;
+    List<List<Struct>> partitionRows = new ArrayList<>(numPartitions);
+    List<Struct> allRows = new ArrayList<>();
+    for (int partition = 0; partition < numPartitions; partition++) {
+      // Use enough rows to span multiple blocks for some partitions.
+      int numRows = random.nextInt(3 * MergedResultSet.MAX_ROWS_PER_BLOCK);
+      List<Struct> rows = new ArrayList<>(numRows);
+      for (int i = 0; i < numRows; i++) {
+        rows.add(row((long) random.nextInt(1000), "name" + partition));
+      }
+      rows.sort(Comparator.comparingLong(r -> r.getLong(0)));
+      partitionRows.add(rows);
+      allRows.addAll(rows);
+    }
+    allRows.sort(Comparator.comparingLong(r -> r.getLong(0)));
+
+    try (MergedResultSet resultSet =
+        new MergedResultSet(
+            mockConnection(partitionRows),
+            partitions(numPartitions),
+            1,
+            PartitionedQueryOrderBy.parse("Id", Dialect.GOOGLE_STANDARD_SQL))) {
+      assertEquals(TYPE, resultSet.getType());
+      List<Struct> rows = readAll(resultSet);
+      assertEquals(allRows.size(), rows.size());
+      for (int i = 0; i < rows.size(); i++) {
+        assertEquals(allRows.get(i).getLong(0), rows.get(i).getLong(0));
+      }
+      assertEquals(numPartitions, resultSet.getNumPartitions());
+      // All partitions are merged using only one thread.
+      assertEquals(1, resultSet.getParallelism());
+    }
+  }
+
+  @Test
+  public void testMultipleColumnsAndNulls() {
+    List<List<Struct>> partitionRows =
+        ImmutableList.of(
+            ImmutableList.of(row(null, "b"), row(1L, "b"), row(2L, "a")),
+            ImmutableList.of(row(null, "a"), row(1L, "c"), row(1L, "a")),
+            ImmutableList.<Struct>of());
+
+    try (MergedResultSet resultSet =
+        new MergedResultSet(
+            mockConnection(partitionRows),
+            partitions(3),
+            0,
+            PartitionedQueryOrderBy.parse("id asc, `Name` DESC", Dialect.GOOGLE_STANDARD_SQL))) {
+      List<Struct> rows = readAll(resultSet);
+      assertEquals(
+          ImmutableList.of(
+              row(null, "b"),
+              row(null, "a"),
+              row(1L, "c"),
+              row(1L, "b"),
+              row(1L, "a"),
+              row(2L, "a")),
+          rows);
+    }
+  }
+
+  @Test
+  public void testPostgreSQLSortsNullsLast() {
+    List<List<Struct>> partitionRows =
+        ImmutableList.of(
+            ImmutableList.of(row(1L, "a"), row(null, "a")),
+            ImmutableList.of(row(2L, "a"), row(null, "b")));
+
+    try (MergedResultSet resultSet =
+        new MergedResultSet(
+            mockConnection(partitionRows),
+            partitions(2),
+            0,
+            PartitionedQueryOrderBy.parse("id, name", Dialect.POSTGRESQL))) {
+      assertEquals(
+          ImmutableList.of(row(1L, "a"), row(2L, "a"), row(null, "a"), row(null, "b")),
+          readAll(resultSet));
+    }
+  }
+
+  @Test
+  public void testPartitionOutOfOrder() {
+    List<List<Struct>> partitionRows =
+        ImmutableList.of(
+            ImmutableList.of(row(1L, "a"), row(3L, "a")),
+            ImmutableList.of(row(2L, "a"), row(0L, "a")));
+
+    try (MergedResultSet resultSet =
+        new MergedResultSet(
+            mockConnection(partitionRows),
+            partitions(2),
+            0,
+            PartitionedQueryOrderBy.parse("Id", Dialect.GOOGLE_STANDARD_SQL))) {
+      SpannerException exception =
+          assertThrows(SpannerException.class, () -> readAll(resultSet));
+      assertEquals(ErrorCode.FAILED_PRECONDITION, exception.getErrorCode());
+      // The result set continues to throw the same error.
+      assertEquals(exception, assertThrows(SpannerException.class, resultSet::next));
+    }
+  }
+
+  @Test
+  public void testUnknownColumn() {
+    try (MergedResultSet resultSet =
+        new MergedResultSet(
+            mockConnection(ImmutableList.of(ImmutableList.of(row(1L, "a")))),
+            partitions(1),
+            0,
+            PartitionedQueryOrderBy.parse("Foo", Dialect.GOOGLE_STANDARD_SQL))) {
+      SpannerException exception = assertThrows(SpannerException.class, resultSet::next);
+      assertEquals(ErrorCode.INVALID_ARGUMENT, exception.getErrorCode());
+    }
+  }
+
+  @Test
+  public void testParse() {
+    assertNull(PartitionedQueryOrderBy.parse(null, Dialect.GOOGLE_STANDARD_SQL));
+    assertNull(PartitionedQueryOrderBy.parse("  ", Dialect.GOOGLE_STANDARD_SQL));
+
+    Comparator<Struct> comparator =
+        PartitionedQueryOrderBy.parse("Id DESC NULLS LAST", Dialect.GOOGLE_STANDARD_SQL)
+            .createComparator(TYPE);
+    assertTrue(comparator.compare(row(2L, "a"), row(1L, "a")) < 0);
+    assertTrue(comparator.compare(row(null, "a"), row(1L, "a")) > 0);
+    comparator =
+        PartitionedQueryOrderBy.parse("name nulls first", Dialect.POSTGRESQL)
+            .createComparator(TYPE);
+    assertTrue(comparator.compare(row(1L, null), row(1L, "a")) < 0);
+    // Strings are compared by code point, so a supplementary character is larger than U+FFFD.
+    assertTrue(comparator.compare(row(1L, "\uFFFD"), row(1L, "\uD83D\uDE00")) < 0);
+
+    for (String invalid : new String[] {"Id FOO", "Id ASC NULLS", "Id NULLS NONE", "Id,"}) {
+      SpannerException exception =
+          assertThrows(
+              SpannerException.class,
+              () -> PartitionedQueryOrderBy.parse(invalid, Dialect.GOOGLE_STANDARD_SQL));
+      assertEquals(ErrorCode.INVALID_ARGUMENT, exception.getErrorCode());
+    }
+    assertNotNull(PartitionedQueryOrderBy.parse("Id, Name", Dialect.GOOGLE_STANDARD_SQL));
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner.connection;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the overhead per statement of each {@link StatementExecutorType} for an application
+ * that has {@value #NUM_CONNECTIONS} open connections, and reports the number of live threads in
+ * the JVM after each connection has executed at least one statement. The statements that are
+ * executed do not do anything, so the results only show the cost of handing a statement to the
+ * executor and waiting for the result. The benchmarks are bound to the Maven profile `benchmark`
+ * and can be executed like this: <code>
+ * mvn clean test -DskipTests -Pbenchmark -Dbenchmark.name=StatementExecutorBenchmark
+ * </code>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(value = 1, warmups = 0)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class StatementExecutorBenchmark {
+  private static final int NUM_CONNECTIONS = 1000;
+
+  @State(Scope.Benchmark)
+  public static class BenchmarkState {
+    @Param({"DEDICATED_THREAD", "SHARED_POOL", "DIRECT"})
+    StatementExecutorType executorType;
+
+    private List<StatementExecutor> executors;
+    private int nextExecutor;
+
+    @Setup(Level.Trial)
+    public void setup() throws Exception {
+      executors = new ArrayList<>(NUM_CONNECTIONS);
+      for (int i = 0; i < NUM_CONNECTIONS; i++) {
+        StatementExecutor executor =
+            new StatementExecutor(executorType, false, Collections.emptyList());
+        // Execute one statement on each connection, so all threads have been started.
+        executor.submit(() -> null).get();
+        executors.add(executor);
+      }
+    }
+
+    @TearDown(Level.Trial)
+    public void teardown() {
+      for (StatementExecutor executor : executors) {
+        executor.shutdownNow();
+      }
+    }
+
+    StatementExecutor nextExecutor() {
+      StatementExecutor executor = executors.get(nextExecutor);
+      nextExecutor = (nextExecutor + 1) % NUM_CONNECTIONS;
+      return executor;
+    }
+  }
+
+  /** Reports the number of live threads in the JVM. */
+  @State(Scope.Thread)
+  @AuxCounters(AuxCounters.Type.EVENTS)
+  public static class ThreadCount {
+    public int liveThreads;
+
+    @Setup(Level.Iteration)
+    public void count() {
+      liveThreads = ManagementFactory.getThreadMXBean().getThreadCount();
+    }
+  }
+
+  /**
+   * Measures the average time that is needed to execute one statement that does not do anything,
+   * using a different connection for each statement.
+   */
+  @Benchmark
+  public Object executeStatement(final BenchmarkState state, final ThreadCount threadCount)
+      throws Exception {
+    return state.nextExecutor().submit(() -> Boolean.TRUE).get();
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner.connection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.google.api.core.ApiFuture;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class StatementExecutorTest {
+
+  private static StatementExecutor createExecutor(StatementExecutorType type) {
+    return new StatementExecutor(type, false, Collections.emptyList());
+  }
+
+  @Test
+  public void testSharedPoolExecutesStatementsInOrder() throws Exception {
+    int numExecutors = 20;
+    int numStatements = 200;
+    List<StatementExecutor> executors = new ArrayList<>(numExecutors);
+    List<List<Integer>> results = new ArrayList<>(numExecutors);
+    List<ApiFuture<Void>> futures = new ArrayList<>();
+    for (int i = 0; i < numExecutors; i++) {
+      StatementExecutor executor = createExecutor(StatementExecutorType.SHARED_POOL);
+      List<Integer> result = Collections.synchronizedList(new ArrayList<>());
+      executors.add(executor);
+      results.add(result);
+      for (int statement = 0; statement < numStatements; statement++) {
+        final int value = statement;
+        futures.add(
+            executor.submit(
+                () -> {
+                  result.add(value);
+                  return null;
+                }));
+      }
+    }
+    for (ApiFuture<Void> future : futures) {
+      future.get(30L, TimeUnit.SECONDS);
+    }
+    for (List<Integer> result : results) {
+      assertEquals(numStatements, result.size());
+      for (int statement = 0; statement < numStatements; statement++) {
+        assertEquals(statement, result.get(statement).intValue());
+      }
+    }
+    for (StatementExecutor executor : executors) {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void testSharedPoolShutdownNowInterruptsRunningStatement() throws Exception {
+    StatementExecutor executor = createExecutor(StatementExecutorType.SHARED_POOL);
+    CountDownLatch started = new CountDownLatch(1);
+    AtomicBoolean interrupted = new AtomicBoolean();
+    ApiFuture<Void> future =
+        executor.submit(
+            () -> {
+              started.countDown();
+              try {
+                Thread.sleep(60_000L);
+              } catch (InterruptedException e) {
+                interrupted.set(true);
+              }
+              return null;
+            });
+    assertTrue(started.await(30L, TimeUnit.SECONDS));
+    executor.shutdownNow();
+    future.get(30L, TimeUnit.SECONDS);
+    assertTrue(interrupted.get());
+
+    // The shared pool is still usable by other executors.
+    StatementExecutor other = createExecutor(StatementExecutorType.SHARED_POOL);
+    assertEquals(Integer.valueOf(1), other.submit(() -> 1).get(30L, TimeUnit.SECONDS));
+    other.shutdown();
+  }
+
+  @Test
+  public void testDirectExecutesOnCallerThread() throws Exception {
+    StatementExecutor executor = createExecutor(StatementExecutorType.DIRECT);
+    Thread caller = Thread.currentThread();
+    ApiFuture<Thread> future = executor.submit(Thread::currentThread);
+    assertTrue(future.isDone());
+    assertSame(caller, future.get());
+    executor.shutdown();
+  }
+
+  @Test
+  public void testDedicatedThread() throws ExecutionException, InterruptedException {
+    StatementExecutor executor = createExecutor(StatementExecutorType.DEDICATED_THREAD);
+    assertNotSame(Thread.currentThread(), executor.submit(Thread::currentThread).get());
+    executor.shutdown();
+  }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner.spi.v1;
+
+import com.google.cloud.spanner.SpannerRpcMetrics;
+import com.google.common.base.Suppliers;
+import com.google.spanner.v1.ExecuteSqlRequest;
+import com.google.spanner.v1.ResultSet;
+import com.google.spanner.v1.SpannerGrpc;
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.Metadata;
+import io.grpc.MethodDescriptor;
+import io.opentelemetry.api.OpenTelemetry;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks the per-call overhead of the {@link HeaderInterceptor} for a unary RPC, without any
+ * network calls. Each call starts an RPC through the interceptor and immediately receives the
+ * response headers, which are processed by the interceptor. The benchmarks are bound to the Maven
+ * profile `benchmark` and can be executed like this: <code>
+ * mvn clean test -DskipTests -Pbenchmark -Dbenchmark.name=HeaderInterceptorBenchmark
+ * </code> The allocations per call can be measured by running {@code org.openjdk.jmh.Main} on the
+ * test classpath with the arguments {@code HeaderInterceptorBenchmark -prof gc}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@Fork(value = 1, warmups = 0)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class HeaderInterceptorBenchmark {
+  private static final Metadata.Key<String> SERVER_TIMING_HEADER_KEY =
+      Metadata.Key.of("server-timing", Metadata.ASCII_STRING_MARSHALLER);
+  private static final Metadata.Key<String> GOOGLE_CLOUD_RESOURCE_PREFIX_KEY =
+      Metadata.Key.of("google-cloud-resource-prefix", Metadata.ASCII_STRING_MARSHALLER);
+
+  @State(Scope.Benchmark)
+  public static class BenchmarkState {
+    @Param({"true", "false"})
+    boolean serverTimingHeader;
+
+    private HeaderInterceptor interceptor;
+    private Channel channel;
+    private Metadata requestHeaders;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      interceptor =
+          new HeaderInterceptor(
+              new SpannerRpcMetrics(OpenTelemetry.noop()), Suppliers.ofInstance(false));
+      Metadata responseHeaders = new Metadata();
+      if (serverTimingHeader) {
+        responseHeaders.put(SERVER_TIMING_HEADER_KEY, "gfet4t7; dur=42");
+      }
+      channel = new ResponseHeadersChannel(responseHeaders);
+      requestHeaders = new Metadata();
+      requestHeaders.put(GOOGLE_CLOUD_RESOURCE_PREFIX_KEY, "projects/p/instances/i/databases/d");
+    }
+  }
+
+  /** {@link Channel} that returns the given response headers for each call that is started. */
+  private static final class ResponseHeadersChannel extends Channel {
+    private final Metadata responseHeaders;
+
+    private ResponseHeadersChannel(Metadata responseHeaders) {
+      this.responseHeaders = responseHeaders;
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> newCall(
+        MethodDescriptor<ReqT, RespT> methodDescriptor, CallOptions callOptions) {
+      return new ClientCall<ReqT, RespT>() {
+        @Override
+        public void start(Listener<RespT> listener, Metadata headers) {
+          listener.onHeaders(responseHeaders);
+        }
+
+        @Override
+        public void request(int numMessages) {}
+
+        @Override
+        public void cancel(@Nullable String message, @Nullable Throwable cause) {}
+
+        @Override
+        public void halfClose() {}
+
+        @Override
+        public void sendMessage(ReqT message) {}
+      };
+    }
+
+    @Override
+    public String authority() {
+      return "localhost";
+    }
+  }
+
+  @Benchmark
+  public ClientCall<ExecuteSqlRequest, ResultSet> unaryCall(BenchmarkState state) {
+    ClientCall<ExecuteSqlRequest, ResultSet> call =
+        state.interceptor.interceptCall(
+            SpannerGrpc.getExecuteSqlMethod(), CallOptions.DEFAULT, state.channel);
+    call.start(new ClientCall.Listener<ResultSet>() {}, state.requestHeaders);
+    return call;
+  }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.cloud.spanner.spi.v1;
+
+import static com.google.cloud.spanner.spi.v1.HeaderInterceptor.parseGfeLatency;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+@RunWith(JUnit4.class)
+public class HeaderInterceptorTest {
+
+  @Test
+  public void testParseGfeLatency() {
+    assertEquals(0L, parseGfeLatency("gfet4t7; dur=0"));
+    assertEquals(42L, parseGfeLatency("gfet4t7; dur=42"));
+    assertEquals(Long.MAX_VALUE, parseGfeLatency("gfet4t7; dur=" + Long.MAX_VALUE));
+  }
+
+  @Test
+  public void testParseInvalidGfeLatency() {
+    assertEquals(-1L, parseGfeLatency("gfet4t7; dur="));
+    assertEquals(-1L, parseGfeLatency("gfet4t7; dur=-1"));
+    assertEquals(-1L, parseGfeLatency("gfet4t7; dur=1.5"));
+    assertEquals(-1L, parseGfeLatency("gfet4t7; dur=42, other; dur=1"));
+    assertEquals(-1L, parseGfeLatency("gfet4t7; dur=9223372036854775808"));
+    assertEquals(-1L, parseGfeLatency("other; dur=42"));
+  }
+}